@@ -34,7 +34,12 @@ if not exist "build\libs\app.jar" (
 	echo [ERROR] No se encontró build\libs\app.jar. Verifica que el build haya generado el artefacto esperado.
 	exit /b 2
 )
-call java -jar "build\libs\app.jar"
+REM Con el archivo CDS (gradlew build -Pcds), el arranque es más rápido
+if exist "build\libs\cds\app.jsa" (
+	call java -XX:SharedArchiveFile="build\libs\cds\app.jsa" -jar "build\libs\cds\app.jar"
+) else (
+	call java -jar "build\libs\app.jar"
+)
 
 goto :eof
 
@@ -8,6 +8,10 @@ rm -rf uml_output/*
 # Abre el navegador en la dirección http://localhost:8080
 xdg-open http://localhost:8080
 
-# Iniciar demo.jar
-java -jar build/libs/app.jar
+# Iniciar demo.jar; con el archivo CDS (./gradlew build -Pcds), el arranque es más rápido
+if [ -f build/libs/cds/app.jsa ]; then
+    java -XX:SharedArchiveFile=build/libs/cds/app.jsa -jar build/libs/cds/app.jar
+else
+    java -jar build/libs/app.jar
+fi
 
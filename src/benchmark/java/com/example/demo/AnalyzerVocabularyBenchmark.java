@@ -0,0 +1,202 @@
+package com.example.demo;
+
+import com.example.demo.config.AnalyzerVocabulary;
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.ParserConfiguration.LanguageLevel;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.FieldDeclaration;
+import com.github.javaparser.ast.body.VariableDeclarator;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Banco de las comprobaciones de Stream API e interfaces funcionales del
+ * análisis de relaciones.
+ *
+ * Parsea una sola vez las fuentes de un directorio, reúne los nombres de
+ * todas las llamadas a métodos y los tipos de campos y variables, y mide el
+ * coste por nodo de las comprobaciones de {@link AnalyzerVocabulary} frente a
+ * las anteriores: una cadena de {@code equals} seguida de
+ * {@code String.matches} para las operaciones de stream, y un
+ * {@code Set.of} construido en cada unidad de compilación para las
+ * interfaces funcionales. El parseo queda fuera de la medida. No arranca el
+ * contexto de Spring.
+ *
+ * Uso: {@code AnalyzerVocabularyBenchmark [--source DIR] [--iterations N]}.
+ *
+ * @author @PelayoPS
+ */
+public class AnalyzerVocabularyBenchmark {
+
+    /**
+     * Nombres que consulta el análisis de una unidad de compilación.
+     */
+    record Unit(String[] methodCalls, String[] declaredTypes) {
+    }
+
+    /**
+     * Comprobación sobre todas las unidades; devuelve los aciertos para que
+     * el JIT no descarte el trabajo.
+     */
+    private interface Check {
+        int run(List<Unit> units);
+    }
+
+    private static final AnalyzerVocabulary VOCABULARY = AnalyzerVocabulary.DEFAULT;
+
+    public static void main(String[] args) throws IOException {
+        Path source = Path.of("src/main/java");
+        int iterations = 50;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--source" -> source = Path.of(args[++i]);
+                case "--iterations" -> iterations = Integer.parseInt(args[++i]);
+                default -> throw new IllegalArgumentException("Argumento no reconocido: " + args[i]);
+            }
+        }
+
+        List<Unit> units = parse(source);
+        long calls = units.stream().mapToLong(unit -> unit.methodCalls().length).sum();
+        long types = units.stream().mapToLong(unit -> unit.declaredTypes().length).sum();
+        if (calls == 0 || types == 0) {
+            throw new IllegalArgumentException("No hay llamadas ni tipos que medir en " + source);
+        }
+
+        // Calentamiento del JIT antes de medir
+        Check[] checks = { AnalyzerVocabularyBenchmark::streamRegex, AnalyzerVocabularyBenchmark::streamSet,
+                AnalyzerVocabularyBenchmark::functionalPerUnit, AnalyzerVocabularyBenchmark::functionalSet };
+        for (Check check : checks) {
+            measure(units, check, iterations);
+        }
+
+        System.out.printf("%d archivos, %d llamadas a métodos, %d tipos declarados, %d pasadas%n",
+                units.size(), calls, types, iterations);
+        System.out.printf("%-24s  %10s  %9s%n", "", "ns por nodo", "aciertos");
+        report("stream: equals + regex", units, checks[0], iterations, calls);
+        report("stream: vocabulario", units, checks[1], iterations, calls);
+        report("funcional: Set.of por CU", units, checks[2], iterations, types);
+        report("funcional: vocabulario", units, checks[3], iterations, types);
+    }
+
+    private static void report(String label, List<Unit> units, Check check, int iterations, long nodes) {
+        long[] result = measure(units, check, iterations);
+        System.out.printf("%-24s  %10.1f  %9d%n", label, (double) result[0] / iterations / nodes, result[1]);
+    }
+
+    /**
+     * @return Nanosegundos totales y aciertos de una pasada
+     */
+    private static long[] measure(List<Unit> units, Check check, int iterations) {
+        int hits = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            hits = check.run(units);
+        }
+        return new long[] { System.nanoTime() - start, hits };
+    }
+
+    /**
+     * Comprobación anterior de Stream API, como referencia.
+     */
+    private static int streamRegex(List<Unit> units) {
+        int hits = 0;
+        for (Unit unit : units) {
+            for (String name : unit.methodCalls()) {
+                if ("stream".equals(name) || "parallelStream".equals(name)
+                        || name.matches("collect|filter|map|flatMap|reduce|forEach")) {
+                    hits++;
+                }
+            }
+        }
+        return hits;
+    }
+
+    private static int streamSet(List<Unit> units) {
+        int hits = 0;
+        for (Unit unit : units) {
+            for (String name : unit.methodCalls()) {
+                if (VOCABULARY.isStreamOperation(name)) {
+                    hits++;
+                }
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * Comprobación anterior de interfaces funcionales, como referencia: el
+     * conjunto se construía en cada unidad de compilación.
+     */
+    private static int functionalPerUnit(List<Unit> units) {
+        int hits = 0;
+        for (Unit unit : units) {
+            Set<String> functionalInterfaces = Set.of("Supplier", "Consumer", "Function", "Predicate",
+                    "BiFunction", "BiConsumer", "BiPredicate", "UnaryOperator", "BinaryOperator");
+            for (String type : unit.declaredTypes()) {
+                if (functionalInterfaces.contains(type)) {
+                    hits++;
+                }
+            }
+        }
+        return hits;
+    }
+
+    private static int functionalSet(List<Unit> units) {
+        int hits = 0;
+        for (Unit unit : units) {
+            for (String type : unit.declaredTypes()) {
+                if (VOCABULARY.isFunctionalInterface(type)) {
+                    hits++;
+                }
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * Parsea las fuentes del directorio y extrae, por archivo, los nombres de
+     * las llamadas y los nombres simples de los tipos de campos y variables.
+     */
+    private static List<Unit> parse(Path source) throws IOException {
+        JavaParser parser = new JavaParser(new ParserConfiguration()
+                .setLanguageLevel(LanguageLevel.JAVA_21).setStoreTokens(false));
+        List<Unit> units = new ArrayList<>();
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(source)) {
+            files = paths.filter(path -> path.toString().endsWith(".java")).sorted().toList();
+        }
+        for (Path file : files) {
+            ParseResult<CompilationUnit> result = parser.parse(file);
+            if (result.getResult().isEmpty()) {
+                continue;
+            }
+            CompilationUnit cu = result.getResult().get();
+            String[] calls = cu.findAll(MethodCallExpr.class).stream()
+                    .map(MethodCallExpr::getNameAsString).toArray(String[]::new);
+            List<String> types = new ArrayList<>();
+            for (FieldDeclaration field : cu.findAll(FieldDeclaration.class)) {
+                types.add(simpleName(field.getElementType().asString()));
+            }
+            for (VariableDeclarator variable : cu.findAll(VariableDeclarator.class)) {
+                types.add(simpleName(variable.getType().asString()));
+            }
+            units.add(new Unit(calls, types.toArray(String[]::new)));
+        }
+        return units;
+    }
+
+    private static String simpleName(String type) {
+        int generic = type.indexOf('<');
+        String raw = generic >= 0 ? type.substring(0, generic) : type;
+        return raw.substring(raw.lastIndexOf('.') + 1);
+    }
+}
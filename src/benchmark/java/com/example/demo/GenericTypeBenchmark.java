@@ -0,0 +1,207 @@
+package com.example.demo;
+
+import com.example.demo.config.AnalysisOptions;
+import com.example.demo.config.UMLGeneratorProperties;
+import com.example.demo.model.EdgeKind;
+import com.example.demo.model.FileModel;
+import com.example.demo.model.Relationship;
+import com.example.demo.model.SymbolTable;
+import com.example.demo.service.AnnotationAnalysisService;
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.FieldDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.Parameter;
+import com.github.javaparser.ast.type.Type;
+import com.sun.management.ThreadMXBean;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggingSystem;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Banco de asignaciones de la extracción de relaciones genéricas.
+ *
+ * Parsea una sola vez una API sintética con tipos genéricos muy anidados
+ * (mapas, comodines y arrays) y mide la memoria asignada y el tiempo de
+ * extraer sus relaciones {@code <<generic>>} y {@code <<nested-generic>>}
+ * recorriendo el AST, como hace {@link SourceFileAnalyzer}, frente a la
+ * extracción anterior, que convertía cada tipo a texto y lo partía por comas.
+ * El parseo queda fuera de la medida. No arranca el contexto de Spring.
+ *
+ * Uso: {@code GenericTypeBenchmark [--depth N] [--types N] [--iterations N]}.
+ *
+ * @author @PelayoPS
+ */
+public class GenericTypeBenchmark {
+
+    private static final String CLASS_NAME = "Api";
+    private static final String DESCRIPTION = "Genérico";
+
+    /**
+     * Resultado de una variante: bytes asignados y nanosegundos por pasada
+     * sobre todos los tipos, y relaciones emitidas en una pasada.
+     */
+    record Result(long bytesPerPass, long nanosPerPass, int edges) {
+    }
+
+    /**
+     * Extracción de las relaciones genéricas de una lista de tipos.
+     */
+    private interface Extraction {
+        void extract(Type type, FileModel fileModel);
+    }
+
+    private final ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final SourceFileAnalyzer analyzer = new SourceFileAnalyzer(new AnnotationAnalysisService());
+    private final UMLGenerator.AnalysisContext context = new UMLGenerator.AnalysisContext("", null,
+            AnalysisOptions.fromProperties(new UMLGeneratorProperties()));
+
+    public static void main(String[] args) {
+        int depth = 8;
+        int types = 200;
+        int iterations = 200;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--depth" -> depth = Integer.parseInt(args[++i]);
+                case "--types" -> types = Integer.parseInt(args[++i]);
+                case "--iterations" -> iterations = Integer.parseInt(args[++i]);
+                default -> throw new IllegalArgumentException("Argumento no reconocido: " + args[i]);
+            }
+        }
+        // Sin Spring no hay configuración de logging: el nivel se fija aquí
+        LoggingSystem.get(GenericTypeBenchmark.class.getClassLoader())
+                .setLogLevel(LoggingSystem.ROOT_LOGGER_NAME, LogLevel.WARN);
+
+        GenericTypeBenchmark benchmark = new GenericTypeBenchmark();
+        List<Type> parsed = parseTypes(syntheticSource(depth, types));
+
+        Map<String, Extraction> variants = new LinkedHashMap<>();
+        variants.put("AST", (type, fileModel) -> benchmark.analyzer.analyzeGenericTypesInType(type, CLASS_NAME,
+                benchmark.context, fileModel, DESCRIPTION));
+        variants.put("texto", benchmark::extractFromText);
+
+        // Calentamiento del JIT antes de medir
+        for (Extraction extraction : variants.values()) {
+            benchmark.measure(parsed, extraction, iterations);
+        }
+
+        System.out.printf("%d tipos, profundidad %d, %d pasadas%n", parsed.size(), depth, iterations);
+        System.out.printf("%-6s  %14s  %12s  %10s%n", "", "KB por pasada", "µs por pasada", "relaciones");
+        for (Map.Entry<String, Extraction> variant : variants.entrySet()) {
+            Result result = benchmark.measure(parsed, variant.getValue(), iterations);
+            System.out.printf("%-6s  %14d  %12d  %10d%n", variant.getKey(), result.bytesPerPass() / 1024,
+                    result.nanosPerPass() / 1000, result.edges());
+        }
+    }
+
+    /**
+     * Pasa la extracción por todos los tipos el número de veces indicado,
+     * con un modelo de archivo nuevo en cada pasada.
+     */
+    private Result measure(List<Type> parsed, Extraction extraction, int iterations) {
+        int edges = 0;
+        long bytesBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            FileModel fileModel = new FileModel(CLASS_NAME + ".java", SourceFileAnalyzer.DEFAULT_PACKAGE);
+            for (Type type : parsed) {
+                extraction.extract(type, fileModel);
+            }
+            edges = fileModel.getEdges().size();
+        }
+        long nanos = System.nanoTime() - start;
+        long bytes = threads.getCurrentThreadAllocatedBytes() - bytesBefore;
+        return new Result(bytes / iterations, nanos / iterations, edges);
+    }
+
+    /**
+     * Extracción anterior, como referencia: el texto entre el primer
+     * {@code <} y el último {@code >} se parte por comas y se repite en cada
+     * fragmento que contiene genéricos. Las comas anidadas parten mal los
+     * tipos, así que no emite las mismas relaciones que el recorrido del AST.
+     */
+    private void extractFromText(Type type, FileModel fileModel) {
+        extractFromText(type.asString(), 1, fileModel);
+    }
+
+    private void extractFromText(String typeString, int depth, FileModel fileModel) {
+        if (!typeString.contains("<") || !typeString.contains(">")) {
+            return;
+        }
+        String content = typeString.substring(typeString.indexOf("<") + 1, typeString.lastIndexOf(">"));
+        for (String argument : content.split(",")) {
+            String name = context.getSymbols().simpleName(argument.trim());
+            if (SourceFileAnalyzer.isReferenceCandidate(name, context)) {
+                addEdge(fileModel, name, depth == 1 ? EdgeKind.GENERIC : EdgeKind.NESTED_GENERIC);
+            }
+            if (argument.contains("<")) {
+                extractFromText(argument.trim(), depth + 1, fileModel);
+            }
+        }
+    }
+
+    private void addEdge(FileModel fileModel, String target, EdgeKind kind) {
+        SymbolTable symbols = context.getSymbols();
+        long key = Relationship.key(symbols.intern(CLASS_NAME), symbols.intern(target), symbols.kind(kind));
+        fileModel.addEdge(key, CLASS_NAME, target, kind, null);
+    }
+
+    /**
+     * Fuente de la API sintética: por cada índice, un campo y un método cuyo
+     * retorno y parámetro tienen tipos anidados hasta la profundidad dada.
+     */
+    static String syntheticSource(int depth, int types) {
+        StringBuilder source = new StringBuilder("public class ").append(CLASS_NAME).append(" {\n");
+        for (int i = 0; i < types; i++) {
+            String type = nestedType(depth, i);
+            source.append("    private ").append(type).append(" field").append(i).append(";\n");
+            source.append("    public ").append(type).append(" method").append(i).append("(").append(type)
+                    .append(" argument) {\n        return null;\n    }\n");
+        }
+        return source.append("}\n").toString();
+    }
+
+    /**
+     * Tipo genérico anidado que alterna mapas, comodines y arrays, p. ej.
+     * {@code Map<Key3, List<Set<Optional<? extends Leaf0>[]>>>}.
+     */
+    static String nestedType(int depth, int index) {
+        String type = "Leaf" + index;
+        for (int level = 1; level <= depth; level++) {
+            type = switch (level % 3) {
+                case 0 -> "Map<Key" + level + ", List<" + type + ">>";
+                case 1 -> "Optional<? extends " + type + ">";
+                default -> "Set<" + type + "[]>";
+            };
+        }
+        return type;
+    }
+
+    /**
+     * Tipos de campos, retornos y parámetros de la API, en orden.
+     */
+    static List<Type> parseTypes(String source) {
+        CompilationUnit cu = new JavaParser(new ParserConfiguration().setStoreTokens(false)).parse(source)
+                .getResult().orElseThrow(() -> new IllegalStateException("La API sintética no se pudo parsear"));
+        List<Type> types = new ArrayList<>();
+        for (ClassOrInterfaceDeclaration classDecl : cu.findAll(ClassOrInterfaceDeclaration.class)) {
+            for (FieldDeclaration field : classDecl.getFields()) {
+                types.add(field.getElementType());
+            }
+            for (MethodDeclaration method : classDecl.getMethods()) {
+                types.add(method.getType());
+                for (Parameter parameter : method.getParameters()) {
+                    types.add(parameter.getType());
+                }
+            }
+        }
+        return types;
+    }
+}
@@ -0,0 +1,309 @@
+package com.example.demo;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Prueba de carga de los modelos de hilos.
+ *
+ * Lanza la aplicación una vez por cada valor de
+ * {@code uml.generator.execution-mode} y envía a la vez todas las subidas
+ * por {@code /upload/stream}. Cada subida reparte el cuerpo en trozos con
+ * pausas hasta sumar el retraso indicado, como un cliente con una conexión
+ * lenta. Informa del rendimiento (subidas correctas por segundo) y de la
+ * latencia p50 y p99 desde el envío hasta la respuesta.
+ *
+ * La admisión se abre para que ningún trabajo se rechace ni se sirva del
+ * almacén: lo que se mide es cómo aguanta cada modelo de hilos la espera de
+ * las subidas junto al análisis. Una subida cuenta como correcta si la página
+ * a la que redirige muestra el diagrama. No arranca el contexto de Spring.
+ *
+ * Uso: {@code LoadTest --jar app.jar --sample ZIP [--plantuml JAR]
+ * [--requests N] [--upload-delay MS] [--modes virtual,platform]}.
+ *
+ * @author @PelayoPS
+ */
+public class LoadTest {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofMinutes(10);
+    private static final long POLL_MILLIS = 20;
+    // Trozos en que se reparte el cuerpo de cada subida
+    private static final int UPLOAD_CHUNKS = 10;
+
+    /**
+     * Resultado de una ronda: subidas correctas y fallidas, duración total y
+     * latencias de las correctas en milisegundos.
+     */
+    record Result(int completed, int failed, long wallMillis, long p50Millis, long p99Millis) {
+
+        double throughput() {
+            return completed * 1000.0 / Math.max(1, wallMillis);
+        }
+    }
+
+    private final String java = ProcessHandle.current().info().command().orElse("java");
+    // Las subidas lentas esperan en hilos virtuales: el cliente no limita la concurrencia
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+    private final Path jar;
+    private final byte[] sample;
+    private final String sampleName;
+    private final Path plantUmlJar;
+
+    LoadTest(Path jar, Path sample, Path plantUmlJar) throws IOException {
+        this.jar = jar;
+        this.sample = Files.readAllBytes(sample);
+        this.sampleName = sample.getFileName().toString();
+        this.plantUmlJar = plantUmlJar;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path jar = null;
+        Path sample = null;
+        Path plantUmlJar = null;
+        int requests = 200;
+        long uploadDelayMillis = 2000;
+        List<String> modes = List.of("virtual", "platform");
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--jar" -> jar = Path.of(args[++i]).toAbsolutePath();
+                case "--sample" -> sample = Path.of(args[++i]).toAbsolutePath();
+                case "--plantuml" -> plantUmlJar = Path.of(args[++i]).toAbsolutePath();
+                case "--requests" -> requests = Integer.parseInt(args[++i]);
+                case "--upload-delay" -> uploadDelayMillis = Long.parseLong(args[++i]);
+                case "--modes" -> modes = Arrays.stream(args[++i].split(",")).map(String::trim).toList();
+                default -> throw new IllegalArgumentException("Argumento no reconocido: " + args[i]);
+            }
+        }
+        if (jar == null || sample == null) {
+            throw new IllegalArgumentException("Faltan --jar o --sample");
+        }
+
+        LoadTest test = new LoadTest(jar, sample, plantUmlJar);
+        List<Result> results = new ArrayList<>();
+        for (String mode : modes) {
+            Result result = test.run(mode, requests, uploadDelayMillis);
+            results.add(result);
+            System.out.printf("%-8s %d subidas: %d correctas, %d fallidas en %d ms%n", mode, requests,
+                    result.completed(), result.failed(), result.wallMillis());
+        }
+
+        System.out.printf("%n%d subidas simultáneas, %d ms de subida%n", requests, uploadDelayMillis);
+        System.out.printf("%-8s  %9s  %9s  %9s  %9s%n", "modo", "subidas/s", "p50 (ms)", "p99 (ms)", "fallidas");
+        for (int i = 0; i < modes.size(); i++) {
+            Result result = results.get(i);
+            System.out.printf(Locale.ROOT, "%-8s  %9.1f  %9d  %9d  %9d%n", modes.get(i), result.throughput(),
+                    result.p50Millis(), result.p99Millis(), result.failed());
+        }
+    }
+
+    /**
+     * Lanza la aplicación en el modo de hilos dado y envía todas las subidas.
+     */
+    Result run(String mode, int requests, long uploadDelayMillis) throws Exception {
+        Path workDir = Files.createTempDirectory("uml-load-");
+        int port = freePort();
+        List<String> command = new ArrayList<>(List.of(java, "-jar", jar.toString(),
+                "--server.port=" + port,
+                "--uml.generator.execution-mode=" + mode,
+                "--uml.generator.max-concurrent-jobs=0",
+                "--uml.generator.max-jobs-per-client=" + requests,
+                "--uml.generator.admission-queue-size=" + requests,
+                "--uml.generator.admission-queue-timeout=" + REQUEST_TIMEOUT.toSeconds() + "s",
+                "--uml.generator.reuse-completed-jobs=false"));
+        if (plantUmlJar != null) {
+            command.add("--uml.generator.plant-uml-jar-path=" + plantUmlJar);
+        }
+
+        Process process = new ProcessBuilder(command)
+                .directory(workDir.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(workDir.resolve("app.log").toFile())
+                .start();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            String base = "http://localhost:" + port;
+            awaitReady(process, base + "/");
+
+            long start = System.nanoTime();
+            List<Future<Long>> pending = new ArrayList<>(requests);
+            for (int i = 0; i < requests; i++) {
+                pending.add(clients.submit(() -> upload(base, uploadDelayMillis)));
+            }
+            List<Long> latencies = new ArrayList<>(requests);
+            int failed = 0;
+            for (Future<Long> future : pending) {
+                long latency = future.get();
+                if (latency >= 0) {
+                    latencies.add(latency);
+                } else {
+                    failed++;
+                }
+            }
+            long wall = elapsedMillis(start);
+            long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+            return new Result(sorted.length, failed, wall, percentile(sorted, 0.50), percentile(sorted, 0.99));
+        } finally {
+            process.destroy();
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+            deleteRecursively(workDir);
+        }
+    }
+
+    /**
+     * Envía una subida lenta y comprueba, con la sesión que devuelve, que la
+     * página muestra el diagrama.
+     *
+     * @return Milisegundos hasta la respuesta de la subida, o -1 si falló
+     */
+    private long upload(String base, long uploadDelayMillis) {
+        long start = System.nanoTime();
+        try {
+            HttpRequest upload = HttpRequest.newBuilder(URI.create(base + "/upload/stream"))
+                    .timeout(REQUEST_TIMEOUT)
+                    .header("Content-Type", "application/zip")
+                    .header("X-File-Name", sampleName)
+                    .POST(HttpRequest.BodyPublishers.fromPublisher(HttpRequest.BodyPublishers.ofInputStream(
+                            () -> new SlowInputStream(sample, uploadDelayMillis)), sample.length))
+                    .build();
+            HttpResponse<Void> response = client.send(upload, HttpResponse.BodyHandlers.discarding());
+            long latency = elapsedMillis(start);
+            if (response.statusCode() != 302) {
+                return -1;
+            }
+
+            // Éxitos y errores redirigen a la página principal; solo los éxitos la abren con diagrama
+            HttpRequest.Builder page = HttpRequest.newBuilder(URI.create(base + "/")).timeout(REQUEST_TIMEOUT);
+            response.headers().allValues("Set-Cookie").stream()
+                    .map(cookie -> cookie.split(";", 2)[0])
+                    .reduce((first, second) -> first + "; " + second)
+                    .ifPresent(cookies -> page.header("Cookie", cookies));
+            String body = client.send(page.build(), HttpResponse.BodyHandlers.ofString()).body();
+            return body.contains("class=\"diagram-container\"") ? latency : -1;
+        } catch (IOException e) {
+            return -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+    }
+
+    /**
+     * Cuerpo de la subida entregado en trozos, con una pausa antes de cada
+     * uno hasta sumar el retraso total.
+     */
+    private static final class SlowInputStream extends InputStream {
+        private final ByteArrayInputStream data;
+        private final int chunkSize;
+        private final long pauseMillis;
+        private int leftInChunk;
+
+        SlowInputStream(byte[] bytes, long delayMillis) {
+            this.data = new ByteArrayInputStream(bytes);
+            this.chunkSize = Math.max(1, (bytes.length + UPLOAD_CHUNKS - 1) / UPLOAD_CHUNKS);
+            this.pauseMillis = delayMillis / UPLOAD_CHUNKS;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (data.available() == 0) {
+                return -1;
+            }
+            if (leftInChunk == 0) {
+                try {
+                    Thread.sleep(pauseMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Subida interrumpida");
+                }
+                leftInChunk = chunkSize;
+            }
+            int read = data.read(buffer, offset, Math.min(length, leftInChunk));
+            leftInChunk -= read;
+            return read;
+        }
+    }
+
+    /**
+     * Espera a que la página principal responda 200.
+     */
+    private void awaitReady(Process process, String url) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url)).build();
+        long start = System.nanoTime();
+        while (true) {
+            if (!process.isAlive()) {
+                throw new IOException("La aplicación terminó durante el arranque (código " + process.exitValue() + ")");
+            }
+            if (elapsedMillis(start) > STARTUP_TIMEOUT.toMillis()) {
+                throw new IOException("La aplicación no respondió en " + STARTUP_TIMEOUT);
+            }
+            try {
+                if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (ConnectException | HttpConnectTimeoutException e) {
+                // Aún no escucha
+            }
+            Thread.sleep(POLL_MILLIS);
+        }
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static long elapsedMillis(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.demo;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+
+/**
+ * Banco de pruebas del arranque.
+ *
+ * Lanza la aplicación varias veces en procesos nuevos, con y sin el archivo
+ * CDS, y mide desde el lanzamiento hasta la primera respuesta de la página
+ * principal y hasta el primer diagrama de un proyecto de ejemplo. Cada
+ * ejecución usa un directorio de trabajo vacío, así que el almacén de
+ * trabajos no sirve el diagrama. No arranca el contexto de Spring.
+ *
+ * Uso: {@code StartupBenchmark --jar app.jar --cds-dir DIR --sample ZIP
+ * [--plantuml JAR] [--runs N]}, donde DIR contiene el app.jar extraído y su
+ * app.jsa.
+ *
+ * @author @PelayoPS
+ */
+public class StartupBenchmark {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+    private static final long POLL_MILLIS = 20;
+
+    /**
+     * Tiempos de una ejecución, en milisegundos desde el lanzamiento.
+     */
+    record Sample(long readyMillis, long firstDiagramMillis) {
+    }
+
+    private final String java = ProcessHandle.current().info().command().orElse("java");
+    private final HttpClient client = HttpClient.newBuilder()
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .connectTimeout(Duration.ofSeconds(1))
+            .build();
+    private final Path sample;
+    private final Path plantUmlJar;
+
+    StartupBenchmark(Path sample, Path plantUmlJar) {
+        this.sample = sample;
+        this.plantUmlJar = plantUmlJar;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Path jar = null;
+        Path cdsDir = null;
+        Path sample = null;
+        Path plantUmlJar = null;
+        int runs = 5;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--jar" -> jar = Path.of(args[++i]).toAbsolutePath();
+                case "--cds-dir" -> cdsDir = Path.of(args[++i]).toAbsolutePath();
+                case "--sample" -> sample = Path.of(args[++i]).toAbsolutePath();
+                case "--plantuml" -> plantUmlJar = Path.of(args[++i]).toAbsolutePath();
+                case "--runs" -> runs = Integer.parseInt(args[++i]);
+                default -> throw new IllegalArgumentException("Argumento no reconocido: " + args[i]);
+            }
+        }
+        if (jar == null || cdsDir == null || sample == null) {
+            throw new IllegalArgumentException("Faltan --jar, --cds-dir o --sample");
+        }
+
+        Map<String, List<String>> variants = new LinkedHashMap<>();
+        variants.put("sin CDS", List.of("-jar", jar.toString()));
+        variants.put("con CDS", List.of("-XX:SharedArchiveFile=" + cdsDir.resolve("app.jsa"),
+                "-jar", cdsDir.resolve("app.jar").toString()));
+
+        StartupBenchmark benchmark = new StartupBenchmark(sample, plantUmlJar);
+        Map<String, List<Sample>> results = new LinkedHashMap<>();
+        // Las variantes se alternan para que el ruido de la máquina les afecte por igual
+        for (int run = 1; run <= runs; run++) {
+            for (Map.Entry<String, List<String>> variant : variants.entrySet()) {
+                Sample result = benchmark.launch(variant.getValue());
+                results.computeIfAbsent(variant.getKey(), key -> new ArrayList<>()).add(result);
+                System.out.printf("%-8s ejecución %d: primera respuesta %5d ms, primer diagrama %5d ms%n",
+                        variant.getKey(), run, result.readyMillis(), result.firstDiagramMillis());
+            }
+        }
+
+        System.out.printf("%n%-8s  %22s  %22s%n", "", "primera respuesta (ms)", "primer diagrama (ms)");
+        System.out.printf("%-8s  %10s %11s  %10s %11s%n", "", "mediana", "mínimo", "mediana", "mínimo");
+        results.forEach((name, samples) -> System.out.printf("%-8s  %10d %11d  %10d %11d%n", name,
+                median(samples, Sample::readyMillis), min(samples, Sample::readyMillis),
+                median(samples, Sample::firstDiagramMillis), min(samples, Sample::firstDiagramMillis)));
+    }
+
+    /**
+     * Lanza la aplicación con las opciones de JVM dadas y mide sus tiempos.
+     */
+    Sample launch(List<String> jvmArgs) throws IOException, InterruptedException {
+        Path workDir = Files.createTempDirectory("uml-startup-");
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(java);
+        command.addAll(jvmArgs);
+        command.add("--server.port=" + port);
+        if (plantUmlJar != null) {
+            command.add("--uml.generator.plant-uml-jar-path=" + plantUmlJar);
+        }
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .directory(workDir.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(workDir.resolve("app.log").toFile())
+                .start();
+        try {
+            String base = "http://localhost:" + port;
+            awaitReady(process, base + "/", start);
+            long ready = elapsedMillis(start);
+            HttpRequest upload = HttpRequest.newBuilder(URI.create(base + "/upload/stream"))
+                    .header("Content-Type", "application/zip")
+                    .header("X-File-Name", sample.getFileName().toString())
+                    .POST(HttpRequest.BodyPublishers.ofFile(sample))
+                    .build();
+            HttpResponse<Void> response = client.send(upload, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() >= 400) {
+                throw new IOException("La subida respondió " + response.statusCode());
+            }
+            return new Sample(ready, elapsedMillis(start));
+        } finally {
+            process.destroy();
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+            deleteRecursively(workDir);
+        }
+    }
+
+    /**
+     * Espera a que la página principal responda 200.
+     */
+    private void awaitReady(Process process, String url, long start) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url)).build();
+        while (true) {
+            if (!process.isAlive()) {
+                throw new IOException("La aplicación terminó durante el arranque (código " + process.exitValue() + ")");
+            }
+            if (elapsedMillis(start) > STARTUP_TIMEOUT.toMillis()) {
+                throw new IOException("La aplicación no respondió en " + STARTUP_TIMEOUT);
+            }
+            try {
+                if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (ConnectException | HttpConnectTimeoutException e) {
+                // Aún no escucha
+            }
+            Thread.sleep(POLL_MILLIS);
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static long elapsedMillis(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private static long median(List<Sample> samples, ToLongFunction<Sample> metric) {
+        long[] values = samples.stream().mapToLong(metric).sorted().toArray();
+        return values[values.length / 2];
+    }
+
+    private static long min(List<Sample> samples, ToLongFunction<Sample> metric) {
+        return samples.stream().mapToLong(metric).min().orElse(0);
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.demo;
+
+import com.example.demo.config.UMLGeneratorProperties;
+import com.example.demo.config.UMLGeneratorProperties.ZipExtractionMode;
+import com.example.demo.service.FileValidationService;
+import com.example.demo.service.ZipExtractionService;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggingSystem;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Banco de la descompresión de proyectos subidos.
+ *
+ * Genera un ZIP sintético con fuentes Java y ficheros que no son código
+ * (imágenes, jars) y lo descomprime con los dos valores de
+ * {@code uml.generator.zip-extraction-mode}: {@code RANDOM_ACCESS} con
+ * {@link ZipExtractionService#extract}, y {@code STREAM} con una lectura
+ * secuencial del archivo mediante {@link ZipExtractionService#extractStream}.
+ * Informa de los MB/s escritos en disco (mediana de las ejecuciones). No
+ * arranca el contexto de Spring.
+ *
+ * Uso: {@code ZipExtractionBenchmark [--files N] [--file-size KB] [--other-files N] [--runs N] [--threads N]}.
+ *
+ * @author @PelayoPS
+ */
+public class ZipExtractionBenchmark {
+
+    // Sin límites efectivos: el banco mide la descompresión, no el rechazo
+    private static final long NO_LIMIT = Long.MAX_VALUE / 2;
+
+    public static void main(String[] args) throws IOException {
+        int files = 2000;
+        int fileSizeKb = 8;
+        int otherFiles = 200;
+        int runs = 5;
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--files" -> files = Integer.parseInt(args[++i]);
+                case "--file-size" -> fileSizeKb = Integer.parseInt(args[++i]);
+                case "--other-files" -> otherFiles = Integer.parseInt(args[++i]);
+                case "--runs" -> runs = Integer.parseInt(args[++i]);
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                default -> throw new IllegalArgumentException("Argumento no reconocido: " + args[i]);
+            }
+        }
+        // Sin Spring no hay configuración de logging: el nivel se fija aquí
+        LoggingSystem.get(ZipExtractionBenchmark.class.getClassLoader())
+                .setLogLevel(LoggingSystem.ROOT_LOGGER_NAME, LogLevel.WARN);
+
+        UMLGeneratorProperties properties = new UMLGeneratorProperties();
+        properties.setZipExtractionThreads(threads);
+        ZipExtractionService service = new ZipExtractionService(properties, new FileValidationService());
+        Path workDir = Files.createTempDirectory("zip-benchmark");
+        try {
+            File zip = workDir.resolve("proyecto.zip").toFile();
+            writeArchive(zip, files, fileSizeKb * 1024, otherFiles);
+
+            // Calentamiento del JIT antes de medir
+            for (ZipExtractionMode mode : ZipExtractionMode.values()) {
+                extract(service, mode, zip, workDir.resolve("calentamiento"));
+            }
+
+            System.out.printf("%d fuentes de %d KB, %d ficheros omitidos, ZIP de %.1f MB, %d hilos, %d ejecuciones%n",
+                    files, fileSizeKb, otherFiles, zip.length() / (1024.0 * 1024.0), threads, runs);
+            System.out.printf("%-14s  %10s  %8s  %8s%n", "modo", "MB escritos", "ms", "MB/s");
+            for (ZipExtractionMode mode : ZipExtractionMode.values()) {
+                long[] nanos = new long[runs];
+                long bytes = 0;
+                for (int run = 0; run < runs; run++) {
+                    long start = System.nanoTime();
+                    bytes = extract(service, mode, zip, workDir.resolve("salida"));
+                    nanos[run] = System.nanoTime() - start;
+                }
+                Arrays.sort(nanos);
+                double seconds = nanos[runs / 2] / 1_000_000_000.0;
+                double megabytes = bytes / (1024.0 * 1024.0);
+                System.out.printf(Locale.ROOT, "%-14s  %10.1f  %8d  %8.1f%n", mode, megabytes,
+                        Math.round(seconds * 1000), megabytes / seconds);
+            }
+        } finally {
+            service.shutdown();
+            deleteRecursively(workDir);
+        }
+    }
+
+    /**
+     * Descomprime el archivo en un directorio vacío con el modo indicado.
+     *
+     * @return Bytes escritos en disco
+     */
+    private static long extract(ZipExtractionService service, ZipExtractionMode mode, File zip, Path destDir)
+            throws IOException {
+        deleteRecursively(destDir);
+        if (mode == ZipExtractionMode.RANDOM_ACCESS) {
+            service.extract(zip, destDir.toFile(), NO_LIMIT, NO_LIMIT);
+        } else {
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(zip.toPath()))) {
+                service.extractStream(in, destDir.toFile(), NO_LIMIT, NO_LIMIT);
+            }
+        }
+        try (var paths = Files.walk(destDir)) {
+            return paths.filter(Files::isRegularFile).mapToLong(path -> path.toFile().length()).sum();
+        }
+    }
+
+    /**
+     * Escribe un ZIP con fuentes repartidas en paquetes y ficheros binarios
+     * que la descompresión descarta. Los identificadores son aleatorios para
+     * que la ratio de compresión sea la de un proyecto real y no dispare la
+     * detección de ZIP bombs.
+     */
+    private static void writeArchive(File zip, int files, int fileSize, int otherFiles) throws IOException {
+        Random random = new Random(20261019L);
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(zip.toPath()))) {
+            for (int i = 0; i < files; i++) {
+                out.putNextEntry(new ZipEntry("src/main/java/demo/p" + (i % 50) + "/Clase" + i + ".java"));
+                out.write(syntheticSource(random, "demo.p" + (i % 50), "Clase" + i, fileSize));
+                out.closeEntry();
+            }
+            byte[] binary = new byte[64 * 1024];
+            for (int i = 0; i < otherFiles; i++) {
+                random.nextBytes(binary);
+                out.putNextEntry(new ZipEntry((i % 2 == 0 ? "assets/img" + i + ".png" : "lib/dep" + i + ".jar")));
+                out.write(binary);
+                out.closeEntry();
+            }
+        }
+    }
+
+    private static byte[] syntheticSource(Random random, String packageName, String className, int size) {
+        StringBuilder source = new StringBuilder(size + 256);
+        source.append("package ").append(packageName).append(";\n\npublic class ").append(className).append(" {\n");
+        while (source.length() < size) {
+            String field = identifier(random);
+            String type = "T" + identifier(random);
+            source.append("    private ").append(type).append(' ').append(field).append(";\n\n")
+                    .append("    public ").append(type).append(" get").append(field).append("() {\n")
+                    .append("        return ").append(field).append(" != null ? ").append(field).append(" : new ")
+                    .append(type).append("(").append(random.nextInt(100_000)).append(");\n    }\n\n");
+        }
+        return source.append("}\n").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (var paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    private static String identifier(Random random) {
+        char[] chars = new char[6 + random.nextInt(8)];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.demo;
+
+import com.example.demo.exception.JavaParsingException;
+import com.example.demo.exception.ParseTimeoutException;
+import com.example.demo.model.DegradationLevel;
+import com.example.demo.model.FileModel;
+import com.example.demo.service.AnnotationAnalysisService;
+import com.example.demo.service.WorkerProtocol;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggingSystem;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Proceso trabajador del modo distribuido.
+ *
+ * Escucha en un puerto local y, por cada conexión del coordinador, parsea y
+ * analiza los lotes de archivos que recibe con el mismo
+ * {@link SourceFileAnalyzer} que el modo local, devolviendo un
+ * {@link FileModel} por archivo. No arranca el contexto de Spring ni crea los
+ * servicios de renderizado y salida del generador.
+ *
+ * Uso: {@code AnalysisWorker [--port N] [--exit-on-stdin-eof] [--log-level NIVEL]}.
+ * Con {@code --port 0} se elige un puerto libre; en todos los casos el puerto
+ * se anuncia por la salida estándar con {@link WorkerProtocol#READY_PREFIX}.
+ *
+ * @author @PelayoPS
+ */
+public class AnalysisWorker {
+    private static final Logger logger = LoggerFactory.getLogger(AnalysisWorker.class);
+
+    private final SourceFileAnalyzer sourceFileAnalyzer;
+
+    public AnalysisWorker(SourceFileAnalyzer sourceFileAnalyzer) {
+        this.sourceFileAnalyzer = sourceFileAnalyzer;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = 0;
+        boolean exitOnStdinEof = false;
+        LogLevel logLevel = LogLevel.WARN;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--port" -> port = Integer.parseInt(args[++i]);
+                case "--exit-on-stdin-eof" -> exitOnStdinEof = true;
+                case "--log-level" -> logLevel = LogLevel.valueOf(args[++i].toUpperCase());
+                default -> throw new IllegalArgumentException("Argumento no reconocido: " + args[i]);
+            }
+        }
+        // Sin Spring no hay configuración de logging: el nivel se fija aquí
+        LoggingSystem.get(AnalysisWorker.class.getClassLoader()).setLogLevel(LoggingSystem.ROOT_LOGGER_NAME, logLevel);
+
+        AnalysisWorker worker = new AnalysisWorker(new SourceFileAnalyzer(new AnnotationAnalysisService()));
+
+        ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        if (exitOnStdinEof) {
+            watchStdin();
+        }
+        System.out.println(WorkerProtocol.READY_PREFIX + server.getLocalPort());
+        System.out.flush();
+
+        AtomicInteger connectionCounter = new AtomicInteger();
+        while (true) {
+            Socket socket = server.accept();
+            Thread thread = new Thread(() -> worker.serve(socket),
+                    "uml-worker-connection-" + connectionCounter.incrementAndGet());
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Termina el proceso cuando se cierra la entrada estándar, que es lo que
+     * ocurre cuando muere el coordinador que lanzó este trabajador.
+     */
+    private static void watchStdin() {
+        Thread watcher = new Thread(() -> {
+            try {
+                InputStream stdin = System.in;
+                while (stdin.read() >= 0) {
+                    // Se descarta cualquier entrada
+                }
+            } catch (IOException e) {
+                // Entrada cerrada
+            }
+            System.exit(0);
+        }, "uml-worker-stdin-watch");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    /**
+     * Atiende una conexión del coordinador hasta que la cierra.
+     */
+    void serve(Socket socket) {
+        try (socket;
+                DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+            if (in.readInt() != WorkerProtocol.MAGIC || in.readInt() != WorkerProtocol.VERSION) {
+                logger.warn("Conexión rechazada: protocolo no reconocido ({})", socket.getRemoteSocketAddress());
+                return;
+            }
+            UMLGenerator.AnalysisContext context = null;
+            while (true) {
+                byte frame = in.readByte();
+                if (frame == WorkerProtocol.JOB) {
+                    // Sin presupuestos propios: el coordinador envía el nivel de degradación con cada lote
+                    context = new UMLGenerator.AnalysisContext("", null, WorkerProtocol.readJob(in));
+                } else if (frame == WorkerProtocol.BATCH) {
+                    if (context == null) {
+                        throw new IOException("Lote recibido antes que el trabajo");
+                    }
+                    analyzeBatch(in, out, context);
+                } else if (frame == WorkerProtocol.CLOSE) {
+                    return;
+                } else {
+                    throw new IOException("Mensaje desconocido del coordinador: " + frame);
+                }
+            }
+        } catch (EOFException e) {
+            logger.debug("El coordinador cerró la conexión");
+        } catch (IOException e) {
+            logger.warn("Error en la conexión con el coordinador: {}", e.getMessage());
+        }
+    }
+
+    private void analyzeBatch(DataInputStream in, DataOutputStream out, UMLGenerator.AnalysisContext context)
+            throws IOException {
+        DegradationLevel level = DegradationLevel.values()[in.readUnsignedByte()];
+        if (level != DegradationLevel.NONE) {
+            context.getReport().degradeTo(level, "coordinador");
+        }
+        int count = in.readInt();
+        String[] paths = new String[count];
+        for (int i = 0; i < count; i++) {
+            paths[i] = in.readUTF();
+        }
+
+        for (String path : paths) {
+            try {
+                FileModel model = sourceFileAnalyzer.analyzeFile(new File(path), context);
+                out.writeByte(WorkerProtocol.MODEL);
+                model.writeTo(out);
+            } catch (ParseTimeoutException e) {
+                out.writeByte(WorkerProtocol.TIMED_OUT);
+            } catch (JavaParsingException e) {
+                out.writeByte(WorkerProtocol.FAILED);
+                out.writeUTF(WorkerProtocol.truncate(e.getMessage()));
+            }
+        }
+        out.writeByte(WorkerProtocol.BATCH_DONE);
+        out.flush();
+    }
+}
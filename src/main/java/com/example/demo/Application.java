@@ -1,23 +1,58 @@
 package com.example.demo;
 
+import com.example.demo.config.AnalysisOptions;
+import com.example.demo.config.AnalyzerProfile;
+import com.example.demo.config.RelationshipAnalyzer;
 import com.example.demo.config.UMLGeneratorProperties;
 import com.example.demo.exception.UMLGenerationException;
 import com.example.demo.exception.PlantUMLExecutionException;
 import com.example.demo.exception.JavaParsingException;
+import com.example.demo.exception.JobRejectedException;
+import com.example.demo.model.AnalysisReport;
+import com.example.demo.model.ClassGraph;
+import com.example.demo.model.StartupMetrics;
+import com.example.demo.model.SvgTileIndex;
+import com.example.demo.service.JobStore;
+import com.example.demo.service.SvgTileService;
+import com.example.demo.service.WorkDirectoryJanitor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.web.servlet.MultipartProperties;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.SessionAttribute;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.context.MessageSource;
 import org.springframework.context.i18n.LocaleContextHolder;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.*;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,19 +63,36 @@ import org.slf4j.LoggerFactory;
  * @author @PelayoPS
  */
 @SpringBootApplication
+@EnableScheduling
 @Controller
 public class Application {
     private static final Logger logger = LoggerFactory.getLogger(Application.class);
 
+    private static final MediaType SVG = MediaType.valueOf("image/svg+xml");
+    // Atributo de sesión con el último trabajo del cliente, que consulta la API del modelo por defecto
+    static final String LAST_JOB_ATTRIBUTE = "lastJobId";
+
     private final UMLGeneratorProperties properties;
     private final UMLGeneratorUtil umlGeneratorUtil;
     private final MessageSource messageSource;
+    private final MultipartProperties multipartProperties;
+    private final WorkDirectoryJanitor workDirectoryJanitor;
+    private final ObjectProvider<SvgTileService> svgTileService;
+    private final JobStore jobStore;
+    private final WarmupRunner warmupRunner;
 
     public Application(UMLGeneratorProperties properties, UMLGeneratorUtil umlGeneratorUtil,
-            MessageSource messageSource) {
+            MessageSource messageSource, MultipartProperties multipartProperties,
+            WorkDirectoryJanitor workDirectoryJanitor, ObjectProvider<SvgTileService> svgTileService,
+            JobStore jobStore, WarmupRunner warmupRunner) {
         this.properties = properties;
         this.umlGeneratorUtil = umlGeneratorUtil;
         this.messageSource = messageSource;
+        this.multipartProperties = multipartProperties;
+        this.workDirectoryJanitor = workDirectoryJanitor;
+        this.svgTileService = svgTileService;
+        this.jobStore = jobStore;
+        this.warmupRunner = warmupRunner;
     }
 
     public static void main(String[] args) {
@@ -48,66 +100,40 @@ public class Application {
     }
 
     // Limpiar directorios de trabajo al iniciar para evitar residuos de ejecuciones
-    // anteriores
+    // anteriores. Los directorios ya se apartaron antes de arrancar el servidor;
+    // aquí solo se programa su borrado en segundo plano. Después se calienta el
+    // pipeline si está configurado: Spring declara la aplicación lista para
+    // recibir tráfico cuando termina este evento.
     @org.springframework.context.event.EventListener(org.springframework.boot.context.event.ApplicationReadyEvent.class)
     public void onAppReady() {
-        cleanupDirectories();
-    }
-
-    private void cleanupDirectories() {
-        String uploads = properties.getFullUploadPath();
-        String output = properties.getFullOutputPath();
-        deleteDirectoryContents(Paths.get(uploads));
-        deleteDirectoryContents(Paths.get(output));
-        // Asegurar que existen tras la limpieza
-        ensureDir(Paths.get(uploads));
-        ensureDir(Paths.get(output));
-        logger.info("Directorios de trabajo listos. uploads='{}', output='{}'", uploads, output);
-    }
-
-    private void deleteDirectoryContents(Path dir) {
-        try {
-            if (dir == null)
-                return;
-            if (!Files.exists(dir))
-                return;
-            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
-                for (Path path : stream) {
-                    deleteRecursively(path);
-                }
-            }
-        } catch (IOException e) {
-            logger.warn("No se pudo limpiar el directorio {} al iniciar: {}", dir, e.getMessage());
-        }
+        workDirectoryJanitor.purgeInBackground();
+        logger.info("Directorios de trabajo listos. uploads='{}', output='{}'",
+                properties.getFullUploadPath(), properties.getFullOutputPath());
+        warmupRunner.warmUp();
     }
 
-    private void deleteRecursively(Path path) throws IOException {
-        if (Files.isDirectory(path)) {
-            try (DirectoryStream<Path> stream = Files.newDirectoryStream(path)) {
-                for (Path entry : stream) {
-                    deleteRecursively(entry);
-                }
-            }
-        }
-        Files.deleteIfExists(path);
-    }
-
-    private void ensureDir(Path dir) {
-        try {
-            if (dir != null && !Files.exists(dir)) {
-                Files.createDirectories(dir);
-            }
-        } catch (IOException e) {
-            logger.warn("No se pudo crear el directorio {} al iniciar: {}", dir, e.getMessage());
-        }
+    /**
+     * Métricas del arranque: tiempo hasta estar lista, calentamiento y
+     * latencia de la primera subida.
+     */
+    @GetMapping("/metrics/startup")
+    public ResponseEntity<StartupMetrics> startupMetrics() {
+        return ResponseEntity.ok(warmupRunner.getMetrics());
     }
 
     @GetMapping("/")
     public String index(Model model, @RequestParam(value = "lang", required = false) String lang) {
-        java.util.Locale current = LocaleContextHolder.getLocale();
+        populateIndex(model, LocaleContextHolder.getLocale());
+        return "index";
+    }
+
+    private void populateIndex(Model model, java.util.Locale current) {
         model.addAttribute("title", messageSource.getMessage("app.title", null, current));
         model.addAttribute("description", messageSource.getMessage("app.description", null, current));
-        return "index";
+        model.addAttribute("streamUpload",
+                properties.getUploadMode() == UMLGeneratorProperties.UploadMode.STREAM);
+        model.addAttribute("profiles", AnalyzerProfile.values());
+        model.addAttribute("defaultProfile", properties.getAnalyzerProfile());
     }
 
     // Evitar 405 en GET /upload; redirigir a la página principal
@@ -118,7 +144,14 @@ public class Application {
 
     @PostMapping("/upload")
     public String handleFileUpload(@RequestParam("file") MultipartFile file, Model model,
-            RedirectAttributes redirectAttributes) {
+            @RequestParam(value = "include", required = false) String include,
+            @RequestParam(value = "exclude", required = false) String exclude,
+            @RequestParam(value = "skipTests", required = false) Boolean skipTests,
+            @RequestParam(value = "skipGenerated", required = false) Boolean skipGenerated,
+            @RequestParam(value = "profile", required = false) String profile,
+            @RequestParam(value = "enableAnalyzers", required = false) String enableAnalyzers,
+            @RequestParam(value = "disableAnalyzers", required = false) String disableAnalyzers,
+            HttpServletRequest request, HttpServletResponse response, RedirectAttributes redirectAttributes) {
     java.util.Locale current = LocaleContextHolder.getLocale();
     // Para PRG, solo usamos flash attributes y redireccionamos
         model.addAttribute("title", messageSource.getMessage("app.title", null, current));
@@ -128,27 +161,190 @@ public class Application {
             return "redirect:/";
         }
 
-        try {
-            logger.info("Procesando archivo subido: {}", file.getOriginalFilename());
-
+        AnalysisOptions options = buildOptions(include, exclude, skipTests, skipGenerated);
+        applyAnalyzerSelection(options, profile, enableAnalyzers, disableAnalyzers);
+        return processUpload(file.getOriginalFilename(), model, request, response, redirectAttributes, current, () -> {
             // Usar configuración centralizada para directorios
             File uploadDir = new File(properties.getFullUploadPath());
             if (!uploadDir.exists()) {
                 uploadDir.mkdirs();
             }
 
-            // Guardar el archivo en uploads
-            File destFile = new File(uploadDir, file.getOriginalFilename());
-            file.transferTo(destFile);
+            // Guardar el archivo en uploads calculando su hash por el camino; el nombre
+            // es único para que dos subidas con el mismo nombre no se pisen
+            File destFile = File.createTempFile("upload-", ".zip", uploadDir);
+            try {
+                String sourceHash = umlGeneratorUtil.saveUpload(file.getInputStream(), destFile);
 
-            // Procesar el archivo subido usando UMLGeneratorUtil
-            umlGeneratorUtil.processUploadedFile(destFile);
+                // Procesar el archivo subido usando UMLGeneratorUtil
+                return umlGeneratorUtil.processUploadedFile(destFile, sourceHash, options, request.getRemoteAddr());
+            } finally {
+                Files.deleteIfExists(destFile.toPath());
+            }
+        });
+    }
+
+    /**
+     * Subida en flujo: el ZIP llega como cuerpo binario de la petición y se
+     * procesa en una sola pasada, sin volcado intermedio a disco. Los límites de
+     * multipart configurados en application.properties se aplican igualmente.
+     * Las opciones de análisis llegan como parámetros de la URL.
+     */
+    @PostMapping(value = "/upload/stream", consumes = { "application/zip", "application/x-zip-compressed",
+            "application/octet-stream" })
+    public String handleStreamUpload(HttpServletRequest request,
+            @RequestHeader(value = "X-File-Name", required = false) String encodedFileName,
+            @RequestParam(value = "include", required = false) String include,
+            @RequestParam(value = "exclude", required = false) String exclude,
+            @RequestParam(value = "skipTests", required = false) Boolean skipTests,
+            @RequestParam(value = "skipGenerated", required = false) Boolean skipGenerated,
+            @RequestParam(value = "profile", required = false) String profile,
+            @RequestParam(value = "enableAnalyzers", required = false) String enableAnalyzers,
+            @RequestParam(value = "disableAnalyzers", required = false) String disableAnalyzers,
+            HttpServletResponse response, Model model, RedirectAttributes redirectAttributes) {
+        java.util.Locale current = LocaleContextHolder.getLocale();
+        String fileName = encodedFileName != null
+                ? URLDecoder.decode(encodedFileName, StandardCharsets.UTF_8)
+                : "upload.zip";
+        long maxBytes = getMaxUploadBytes();
+
+        if (maxBytes >= 0 && request.getContentLengthLong() > maxBytes) {
+            logger.warn("Subida rechazada por tamaño: {} ({} bytes)", fileName, request.getContentLengthLong());
+            redirectAttributes.addFlashAttribute("message",
+                    messageSource.getMessage("upload.tooLarge", null, current));
+            return "redirect:/";
+        }
+
+        AnalysisOptions options = buildOptions(include, exclude, skipTests, skipGenerated);
+        applyAnalyzerSelection(options, profile, enableAnalyzers, disableAnalyzers);
+        return processUpload(fileName, model, request, response, redirectAttributes, current,
+                () -> umlGeneratorUtil.processUploadStream(request.getInputStream(), fileName, maxBytes,
+                        request.getContentLengthLong(), options, request.getRemoteAddr()));
+    }
+
+    /**
+     * Opciones de análisis de una petición: los valores por defecto de la
+     * configuración más los filtros indicados en el formulario.
+     */
+    private AnalysisOptions buildOptions(String include, String exclude, Boolean skipTests, Boolean skipGenerated) {
+        AnalysisOptions options = AnalysisOptions.fromProperties(properties);
+        options.addIncludePatterns(include);
+        options.addExcludePatterns(exclude);
+        if (skipTests != null) {
+            options.setSkipTestSources(skipTests);
+        }
+        if (skipGenerated != null) {
+            options.setSkipGeneratedSources(skipGenerated);
+        }
+        return options;
+    }
+
+    /**
+     * Aplica el perfil de detectores elegido en la petición y los detectores
+     * activados o desactivados uno a uno. Los nombres no reconocidos se ignoran.
+     */
+    private void applyAnalyzerSelection(AnalysisOptions options, String profile, String enableAnalyzers,
+            String disableAnalyzers) {
+        if (profile != null && !profile.isBlank()) {
+            try {
+                options.setAnalyzerProfile(AnalyzerProfile.valueOf(enumName(profile)));
+            } catch (IllegalArgumentException e) {
+                logger.warn("Perfil de análisis no reconocido: {}", profile);
+            }
+        }
+        options.enableAnalyzers(parseAnalyzers(enableAnalyzers));
+        options.disableAnalyzers(parseAnalyzers(disableAnalyzers));
+    }
+
+    private List<RelationshipAnalyzer> parseAnalyzers(String names) {
+        List<RelationshipAnalyzer> analyzers = new ArrayList<>();
+        if (names == null) {
+            return analyzers;
+        }
+        for (String name : names.split(",")) {
+            if (name.isBlank()) {
+                continue;
+            }
+            try {
+                analyzers.add(RelationshipAnalyzer.valueOf(enumName(name)));
+            } catch (IllegalArgumentException e) {
+                logger.warn("Detector de relaciones no reconocido: {}", name);
+            }
+        }
+        return analyzers;
+    }
+
+    // Admite "structure-only" además de "STRUCTURE_ONLY"
+    private static String enumName(String value) {
+        return value.trim().replace('-', '_').toUpperCase(java.util.Locale.ROOT);
+    }
+
+    /**
+     * Límite efectivo de bytes por subida según la configuración de multipart
+     * (el menor entre tamaño de archivo y de petición; negativo si no hay límite).
+     */
+    private long getMaxUploadBytes() {
+        long maxFile = multipartProperties.getMaxFileSize() != null
+                ? multipartProperties.getMaxFileSize().toBytes() : -1;
+        long maxRequest = multipartProperties.getMaxRequestSize() != null
+                ? multipartProperties.getMaxRequestSize().toBytes() : -1;
+        if (maxFile < 0) {
+            return maxRequest;
+        }
+        return maxRequest < 0 ? maxFile : Math.min(maxFile, maxRequest);
+    }
+
+    /**
+     * Ejecuta el procesamiento de una subida y traduce los errores a mensajes
+     * para la vista (patrón PRG con flash attributes). Un trabajo no admitido
+     * responde 429 (límite del cliente) o 503 (servidor ocupado) con
+     * Retry-After y la página principal con el aviso, sin redirección. El
+     * trabajo queda en la sesión como el que consulta por defecto la API del
+     * modelo.
+     *
+     * @return Vista a devolver
+     */
+    private String processUpload(String fileName, Model model, HttpServletRequest request,
+            HttpServletResponse response, RedirectAttributes redirectAttributes, java.util.Locale current,
+            UploadTask task) {
+        try {
+            logger.info("Procesando archivo subido: {}", fileName);
+            long start = System.nanoTime();
+            AnalysisReport report = task.run();
+            warmupRunner.recordUpload((System.nanoTime() - start) / 1_000_000, report.isReused());
 
-            // Usar configuración centralizada para URL del diagrama
-            redirectAttributes.addFlashAttribute("diagramUrl", properties.getDiagramUrl());
-            logger.info("Archivo procesado exitosamente: {}", file.getOriginalFilename());
+            // Las salidas se piden al almacén con el identificador del trabajo
+            String jobId = report.getJobId();
+            request.getSession().setAttribute(LAST_JOB_ATTRIBUTE, jobId);
+            redirectAttributes.addFlashAttribute("diagramUrl",
+                    properties.getJobFileUrl(jobId, properties.getSvgFileName()));
+            redirectAttributes.addFlashAttribute("report", report);
+            redirectAttributes.addFlashAttribute("modelUrl",
+                    properties.getJobFileUrl(jobId, properties.getModelFileName()));
+            if (report.getRenderId() != null) {
+                // PlantUML sigue en segundo plano: la página muestra la vista previa y consulta el estado
+                redirectAttributes.addFlashAttribute("previewUrl", properties.getJobFileUrl(jobId,
+                        properties.getPreviewFileName() + properties.getSvgExtension()));
+                redirectAttributes.addFlashAttribute("overviewUrl", overviewUrl(jobId));
+            } else {
+                addTiledViewer(redirectAttributes, jobId);
+            }
+            logger.info("Archivo procesado exitosamente: {}", fileName);
+        } catch (JobRejectedException e) {
+            response.setStatus(e.isClientLimit() ? HttpStatus.TOO_MANY_REQUESTS.value()
+                    : HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+            populateIndex(model, current);
+            model.addAttribute("message", messageSource.getMessage(
+                    e.isClientLimit() ? "upload.tooManyJobs" : "upload.busy",
+                    new Object[] { e.getRetryAfterSeconds() }, current));
+            return "index";
+        } catch (MaxUploadSizeExceededException e) {
+            logger.warn("Subida rechazada por tamaño: {}", fileName);
+            redirectAttributes.addFlashAttribute("message",
+                    messageSource.getMessage("upload.tooLarge", null, current));
         } catch (IOException e) {
-            logger.error("Error de E/O al procesar archivo: {}", file.getOriginalFilename(), e);
+            logger.error("Error de E/O al procesar archivo: {}", fileName, e);
             redirectAttributes.addFlashAttribute("message", messageSource.getMessage("upload.ioError", null, current));
         } catch (PlantUMLExecutionException e) {
             logger.error("Error ejecutando PlantUML: {}", e.getCommand(), e);
@@ -163,13 +359,261 @@ public class Application {
             redirectAttributes.addFlashAttribute("message",
                     messageSource.getMessage("upload.umlGenError", null, current));
         } catch (Exception e) {
-            logger.error("Error inesperado procesando archivo: {}", file.getOriginalFilename(), e);
+            logger.error("Error inesperado procesando archivo: {}", fileName, e);
             redirectAttributes.addFlashAttribute("message",
                     messageSource.getMessage("upload.unexpectedError", null, current));
         }
-
         // PRG: Redirigir a la home para evitar quedarse en /upload (que solo acepta
         // POST)
         return "redirect:/";
     }
+
+    private String overviewUrl(String jobId) {
+        return properties.getJobFileUrl(jobId, properties.getOverviewFileName() + properties.getSvgExtension());
+    }
+
+    /**
+     * Si el diagrama generado es grande, pasa a la vista los datos del visor
+     * por teselas (no el índice) y la URL de la vista por paquetes.
+     */
+    private void addTiledViewer(RedirectAttributes redirectAttributes, String jobId) {
+        Map<String, Object> tiles = tiledViewer(jobId);
+        if (tiles == null) {
+            return;
+        }
+        redirectAttributes.addFlashAttribute("tiles", tiles);
+        redirectAttributes.addFlashAttribute("overviewUrl", overviewUrl(jobId));
+    }
+
+    /**
+     * @return Datos del visor por teselas del diagrama guardado de un trabajo
+     *         o null si no lo necesita
+     */
+    private Map<String, Object> tiledViewer(String jobId) {
+        SvgTileService.Tiles jobTiles;
+        try {
+            jobTiles = jobTiles(jobId);
+        } catch (IOException e) {
+            logger.warn("No se pudo indexar el SVG del trabajo {}: {}", jobId, e.getMessage());
+            return null;
+        }
+        if (jobTiles == null) {
+            return null;
+        }
+        SvgTileIndex index = jobTiles.index();
+        Map<String, Object> tiles = new HashMap<>();
+        tiles.put("url", "/jobs/" + jobId + "/tiles");
+        tiles.put("version", index.getVersion());
+        tiles.put("width", index.getWidth());
+        tiles.put("height", index.getHeight());
+        tiles.put("tileSize", index.getTileSize());
+        tiles.put("maxLevel", index.getMaxLevel());
+        return tiles;
+    }
+
+    /**
+     * Estado del renderizado en segundo plano de un diagrama entregado como
+     * vista previa. Cuando está listo incluye los datos del visor por
+     * teselas si el diagrama los necesita.
+     */
+    @GetMapping("/diagram/status")
+    public ResponseEntity<Map<String, Object>> diagramStatus(@RequestParam("id") String renderId) {
+        UMLGeneratorUtil.RenderState state = umlGeneratorUtil.getRenderState(renderId);
+        if (state == null) {
+            return ResponseEntity.notFound().build();
+        }
+        Map<String, Object> status = new HashMap<>();
+        status.put("state", state);
+        if (state == UMLGeneratorUtil.RenderState.READY) {
+            // El renderizado es el del trabajo con el mismo identificador
+            Map<String, Object> tiles = tiledViewer(renderId);
+            if (tiles != null) {
+                status.put("tiles", tiles);
+            }
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(status);
+    }
+
+    /**
+     * @return Índice del SVG guardado de un trabajo o null si el trabajo no
+     *         existe o su diagrama no necesita teselas
+     */
+    private SvgTileService.Tiles jobTiles(String jobId) throws IOException {
+        Path svg = jobStore.jobFile(jobId, properties.getSvgFileName());
+        return svg != null ? svgTileService.getObject().tiles(jobId, svg.toFile()) : null;
+    }
+
+    /**
+     * Tesela del visor de diagramas grandes de un trabajo. El trabajo y la
+     * versión del SVG viajan en la URL y la tesela se compone con el mismo
+     * índice que pasó la comprobación, así que se puede cachear sin mezclar
+     * diagramas.
+     */
+    @GetMapping("/jobs/{job}/tiles/{level}/{x}/{y}")
+    public ResponseEntity<byte[]> diagramTile(@PathVariable String job, @PathVariable int level,
+            @PathVariable int x, @PathVariable int y,
+            @RequestParam(value = "v", required = false) String version) throws IOException {
+        SvgTileService.Tiles tiles = jobTiles(job);
+        if (tiles == null || (version != null && !version.equals(tiles.index().getVersion()))) {
+            return ResponseEntity.notFound().build();
+        }
+        byte[] tile = svgTileService.getObject().renderTile(tiles, level, x, y);
+        if (tile == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(SVG)
+                .cacheControl(CacheControl.maxAge(Duration.ofHours(1)))
+                .body(tile);
+    }
+
+    /**
+     * Relaciones directas de una clase (o de un paquete con scope=package).
+     * direction: out (dependencias), in (dependientes) o both.
+     */
+    @GetMapping("/model/neighbors")
+    public ResponseEntity<List<ClassGraph.Neighbor>> modelNeighbors(@RequestParam("class") String className,
+            @RequestParam(value = "direction", defaultValue = "both") String direction,
+            @RequestParam(value = "scope", defaultValue = "class") String scope,
+            @RequestParam(value = "job", required = false) String job,
+            @SessionAttribute(value = LAST_JOB_ATTRIBUTE, required = false) String lastJob) {
+        ClassGraph graph = queryGraph(job != null ? job : lastJob, scope);
+        ClassGraph.Direction parsed = parseDirection(direction);
+        if (graph == null || !graph.contains(className)) {
+            return ResponseEntity.notFound().build();
+        }
+        if (parsed == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(graph.neighbors(className, parsed));
+    }
+
+    /**
+     * Cierre transitivo de una clase hasta depth relaciones (0 = sin límite).
+     */
+    @GetMapping("/model/reachable")
+    public ResponseEntity<List<ClassGraph.Reached>> modelReachable(@RequestParam("class") String className,
+            @RequestParam(value = "direction", defaultValue = "out") String direction,
+            @RequestParam(value = "depth", defaultValue = "0") int depth,
+            @RequestParam(value = "scope", defaultValue = "class") String scope,
+            @RequestParam(value = "job", required = false) String job,
+            @SessionAttribute(value = LAST_JOB_ATTRIBUTE, required = false) String lastJob) {
+        ClassGraph graph = queryGraph(job != null ? job : lastJob, scope);
+        ClassGraph.Direction parsed = parseDirection(direction);
+        if (graph == null || !graph.contains(className)) {
+            return ResponseEntity.notFound().build();
+        }
+        if (parsed == null || depth < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(graph.reachable(className, parsed, depth));
+    }
+
+    /**
+     * Ciclos de dependencias: componentes fuertemente conexas con más de un
+     * elemento, entre clases o entre paquetes (scope=package).
+     */
+    @GetMapping("/model/cycles")
+    public ResponseEntity<List<List<String>>> modelCycles(
+            @RequestParam(value = "scope", defaultValue = "class") String scope,
+            @RequestParam(value = "job", required = false) String job,
+            @SessionAttribute(value = LAST_JOB_ATTRIBUTE, required = false) String lastJob) {
+        ClassGraph graph = queryGraph(job != null ? job : lastJob, scope);
+        if (graph == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(graph.cycles());
+    }
+
+    /**
+     * Las n clases con más relaciones; by: in (fan-in), out (fan-out) o both.
+     */
+    @GetMapping("/model/top")
+    public ResponseEntity<List<ClassGraph.Degree>> modelTop(
+            @RequestParam(value = "by", defaultValue = "in") String by,
+            @RequestParam(value = "n", defaultValue = "10") int limit,
+            @RequestParam(value = "scope", defaultValue = "class") String scope,
+            @RequestParam(value = "job", required = false) String job,
+            @SessionAttribute(value = LAST_JOB_ATTRIBUTE, required = false) String lastJob) {
+        ClassGraph graph = queryGraph(job != null ? job : lastJob, scope);
+        ClassGraph.Direction parsed = parseDirection(by);
+        if (graph == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (parsed == null || limit < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(graph.top(limit, parsed));
+    }
+
+    /**
+     * @param job Trabajo guardado a consultar: el de la petición o, si no
+     *            lo indica, el último que subió el cliente en su sesión
+     * @return Modelo del trabajo, agregado por paquetes si scope=package;
+     *         null si no hay trabajo, no tiene modelo o el scope no se
+     *         reconoce
+     */
+    private ClassGraph queryGraph(String job, String scope) {
+        ClassGraph graph = job != null ? jobStore.model(job) : null;
+        if (graph == null) {
+            return null;
+        }
+        return switch (enumName(scope)) {
+            case "CLASS" -> graph;
+            case "PACKAGE" -> graph.packageGraph();
+            default -> null;
+        };
+    }
+
+    /**
+     * Archivo de un trabajo guardado: diagrama, vista por paquetes, .puml,
+     * modelo, manifiesto o perfil de tiempos. Sirve los resultados de
+     * trabajos anteriores también después de reiniciar y, mientras se
+     * renderiza un trabajo entregado como vista previa, sus salidas ya
+     * escritas.
+     */
+    @GetMapping("/jobs/{job}/{file:.+}")
+    public ResponseEntity<Resource> jobFile(@PathVariable String job, @PathVariable String file) {
+        Path path = jobStore.jobFile(job, file);
+        // Un trabajo que aún se renderiza cambia al guardarse: no se cachea
+        CacheControl cacheControl = CacheControl.maxAge(Duration.ofDays(1));
+        if (path == null) {
+            path = umlGeneratorUtil.renderingFile(job, file);
+            cacheControl = CacheControl.noStore();
+        }
+        if (path == null) {
+            return ResponseEntity.notFound().build();
+        }
+        MediaType type;
+        if (file.endsWith(properties.getSvgExtension())) {
+            type = SVG;
+        } else if (file.endsWith(".json")) {
+            type = MediaType.APPLICATION_JSON;
+        } else if (file.endsWith(".bin")) {
+            type = MediaType.APPLICATION_OCTET_STREAM;
+        } else {
+            type = new MediaType("text", "plain", StandardCharsets.UTF_8);
+        }
+        // El contenido de un trabajo no cambia una vez guardado
+        return ResponseEntity.ok()
+                .contentType(type)
+                .cacheControl(cacheControl)
+                .body(new FileSystemResource(path));
+    }
+
+    private static ClassGraph.Direction parseDirection(String direction) {
+        try {
+            return ClassGraph.Direction.valueOf(enumName(direction));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Trabajo de procesamiento de una subida.
+     */
+    @FunctionalInterface
+    private interface UploadTask {
+        AnalysisReport run() throws Exception;
+    }
 }
@@ -0,0 +1,1084 @@
+package com.example.demo;
+
+import com.example.demo.UMLGenerator.AnalysisContext;
+import com.example.demo.config.AnalyzerVocabulary;
+import com.example.demo.config.RelationshipAnalyzer;
+import com.example.demo.exception.JavaParsingException;
+import com.example.demo.exception.ParseTimeoutException;
+import com.example.demo.model.DegradationLevel;
+import com.example.demo.model.EdgeKind;
+import com.example.demo.model.FileDeadline;
+import com.example.demo.model.FileModel;
+import com.example.demo.model.Relationship;
+import com.example.demo.model.SymbolTable;
+import com.example.demo.service.AnnotationAnalysisService;
+import com.example.demo.service.DeadlineReader;
+import com.example.demo.service.HeaderOnlySource;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.ParseStart;
+import com.github.javaparser.Problem;
+import com.github.javaparser.Providers;
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.FieldDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.Parameter;
+import com.github.javaparser.ast.body.VariableDeclarator;
+import com.github.javaparser.ast.expr.ObjectCreationExpr;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.expr.VariableDeclarationExpr;
+import com.github.javaparser.ast.expr.LambdaExpr;
+import com.github.javaparser.ast.expr.MethodReferenceExpr;
+import com.github.javaparser.ast.stmt.CatchClause;
+import com.github.javaparser.ast.type.ClassOrInterfaceType;
+import com.github.javaparser.ast.type.Type;
+import com.github.javaparser.ast.type.WildcardType;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Análisis de un archivo Java: lo parsea y extrae sus clases y relaciones en
+ * un {@link FileModel}, sin tocar el modelo global del trabajo.
+ *
+ * Lo usan tanto {@link UMLGenerator} en el modo local como
+ * {@link AnalysisWorker} en los procesos trabajadores, que así no necesitan
+ * los servicios de renderizado ni de salida del generador.
+ *
+ * @author @PelayoPS
+ */
+@Lazy
+@Service
+public class SourceFileAnalyzer {
+    private static final Logger logger = LoggerFactory.getLogger(SourceFileAnalyzer.class);
+
+    // Anotaciones de clase que alimentan el índice de estereotipos
+    private static final Set<String> SPRING_STEREOTYPES = Set.of("Controller", "RestController", "Service");
+
+    // Paquete asignado a las clases sin declaración package
+    static final String DEFAULT_PACKAGE = "default";
+
+    private final AnnotationAnalysisService annotationAnalysisService;
+
+    public SourceFileAnalyzer(AnnotationAnalysisService annotationAnalysisService) {
+        this.annotationAnalysisService = annotationAnalysisService;
+    }
+
+    /**
+     * Parsea y analiza un archivo Java y devuelve su modelo compacto sin
+     * modificar el modelo global del trabajo. El árbol sintáctico no sale de
+     * este método: al volver ya es basura y solo queda el modelo.
+     *
+     * @param file    El archivo Java a procesar
+     * @param context Contexto del trabajo (tipos del proyecto, símbolos y nivel
+     *                de degradación)
+     * @return Modelo del archivo
+     * @throws JavaParsingException  Si el archivo no se puede parsear o analizar
+     * @throws ParseTimeoutException Si se supera el tiempo máximo por archivo
+     */
+    public FileModel analyzeFile(File file, AnalysisContext context) throws JavaParsingException {
+        FileDeadline deadline = new FileDeadline(file.getName(), context.getOptions().getFileTimeout());
+        try {
+            CompilationUnit cu = parse(file, context, deadline);
+            String packageName = cu.getPackageDeclaration().map(pd -> pd.getNameAsString()).orElse(DEFAULT_PACKAGE);
+            FileModel model = new FileModel(file.getAbsolutePath(), packageName);
+            // Extraer clases, atributos, métodos y relaciones
+            processClasses(cu, context, model, deadline);
+            model.seal();
+            return model;
+        } catch (JavaParsingException e) {
+            throw e;
+        } catch (StackOverflowError e) {
+            // Anidamiento patológico: se pierde este archivo, no el trabajo
+            throw new JavaParsingException("Error al parsear archivo Java: anidamiento demasiado profundo",
+                    file.getName(), e);
+        } catch (Exception e) {
+            throw new JavaParsingException("Error al parsear archivo Java: " + e.getMessage(),
+                    file.getName(), e);
+        }
+    }
+
+    /**
+     * Parsea un archivo Java con JavaParser. Si ningún detector activo lee
+     * cuerpos (por perfil o por degradación) se parsean solo las cabeceras; si
+     * esa versión no se puede parsear, se reintenta con el archivo completo.
+     * El fuente se lee a través del plazo del archivo.
+     *
+     * @return Unidad de compilación
+     * @throws JavaParsingException Si el archivo no se puede parsear o se agota su plazo
+     */
+    private CompilationUnit parse(File file, AnalysisContext context, FileDeadline deadline)
+            throws IOException, JavaParsingException {
+        JavaParser parser = new JavaParser(parserConfiguration());
+        if (!context.getOptions().isHeaderOnlyParsing() || (context.needsBodies() && bodiesEnabled(context))) {
+            try (Reader reader = new InputStreamReader(Files.newInputStream(file.toPath()), StandardCharsets.UTF_8)) {
+                return parse(parser, reader, file, deadline);
+            }
+        }
+
+        String source = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        ParseResult<CompilationUnit> headers = parser.parse(ParseStart.COMPILATION_UNIT,
+                Providers.provider(new DeadlineReader(new StringReader(HeaderOnlySource.stripBodies(source)),
+                        deadline)));
+        deadline.check();
+        if (headers.getResult().isPresent()) {
+            return headers.getResult().get();
+        }
+        logger.debug("Cabeceras no parseables, se parsea completo: {}", file.getName());
+        return parse(parser, new StringReader(source), file, deadline);
+    }
+
+    private static CompilationUnit parse(JavaParser parser, Reader reader, File file, FileDeadline deadline)
+            throws JavaParsingException {
+        ParseResult<CompilationUnit> result = parser.parse(ParseStart.COMPILATION_UNIT,
+                Providers.provider(new DeadlineReader(reader, deadline)));
+        deadline.check();
+        if (result.getResult().isPresent()) {
+            return result.getResult().get();
+        }
+        throw new JavaParsingException("No se pudo parsear el archivo Java: " + describeProblems(result),
+                file.getName());
+    }
+
+    /**
+     * Resume los problemas de un parseo fallido: la primera línea del primer
+     * problema, con su posición, y cuántos más hubo.
+     */
+    private static String describeProblems(ParseResult<?> result) {
+        List<Problem> problems = result.getProblems();
+        if (problems.isEmpty()) {
+            return "sin detalle";
+        }
+        String message = problems.get(0).getVerboseMessage();
+        int lineEnd = message.indexOf('\n');
+        if (lineEnd >= 0) {
+            message = message.substring(0, lineEnd).trim();
+        }
+        return problems.size() > 1 ? message + " (+" + (problems.size() - 1) + ")" : message;
+    }
+
+    /**
+     * Configuración del parser. Sin guardar la lista de tokens, que solo
+     * necesita la impresión con preservación léxica y duplica el tamaño del
+     * árbol.
+     */
+    private static ParserConfiguration parserConfiguration() {
+        return new ParserConfiguration().setStoreTokens(false);
+    }
+
+    /**
+     * Procesa las clases encontradas en una unidad de compilación.
+     * Incluye análisis de anotaciones para detectar estereotipos.
+     * 
+     * @param cu        La unidad de compilación a procesar
+     * @param context   Contexto de análisis thread-safe
+     * @param fileModel Modelo del archivo donde se acumulan clases y relaciones
+     */
+    private void processClasses(CompilationUnit cu, AnalysisContext context, FileModel fileModel,
+            FileDeadline deadline) throws ParseTimeoutException {
+        boolean withMembers = !context.checkBudget().atLeast(DegradationLevel.NO_MEMBERS);
+
+        for (ClassOrInterfaceDeclaration clazz : cu.findAll(ClassOrInterfaceDeclaration.class)) {
+            deadline.check();
+            StringBuilder classBuilder = new StringBuilder();
+            List<String> stereotypes = new ArrayList<>(1);
+            clazz.getAnnotations().forEach(annotation -> {
+                if (SPRING_STEREOTYPES.contains(annotation.getNameAsString())) {
+                    stereotypes.add(annotation.getNameAsString());
+                }
+            });
+
+            // Usar el servicio de análisis de anotaciones para generar la línea de clase
+            String classLineWithAnnotations = annotationAnalysisService.generateClassLineWithAnnotations(clazz);
+            classBuilder.append(classLineWithAnnotations).append("\n");
+
+            if (!withMembers) {
+                fileModel.addType(clazz.getNameAsString(), classBuilder.append("}").toString(), stereotypes);
+                continue;
+            }
+
+            // Procesar atributos
+            for (FieldDeclaration field : clazz.getFields()) {
+                String type = field.getVariable(0).getTypeAsString();
+                String name = field.getVariable(0).getNameAsString();
+                String visibility = field.isPrivate() ? "-" : field.isProtected() ? "#" : "+";
+                classBuilder.append(visibility).append(" ").append(name).append(" : ").append(type).append("\n");
+            }
+
+            // Procesar métodos
+            for (MethodDeclaration method : clazz.getMethods()) {
+                String methodName = method.getNameAsString();
+                String visibility = method.isPrivate() ? "-" : method.isProtected() ? "#" : "+";
+                String returnType = method.getTypeAsString();
+                StringBuilder parameters = new StringBuilder();
+                for (Parameter parameter : method.getParameters()) {
+                    if (parameters.length() > 0) {
+                        parameters.append(", ");
+                    }
+                    parameters.append(parameter.getTypeAsString()).append(" ").append(parameter.getNameAsString());
+                }
+                classBuilder.append(visibility).append(" ").append(methodName).append("(")
+                        .append(parameters.toString()).append(") : ").append(returnType).append("\n");
+            }
+
+            // Fin de la clase
+            classBuilder.append("}");
+
+            fileModel.addType(clazz.getNameAsString(), classBuilder.toString(), stereotypes);
+        }
+
+        // Procesar relaciones una sola vez por archivo, no por cada clase
+        processRelationships(cu, context, fileModel, deadline);
+
+        // Las estadísticas recorren el árbol completo: solo sin degradación
+        if (context.checkBudget().atLeast(DegradationLevel.NO_BODY_ANALYSIS)) {
+            return;
+        }
+        deadline.check();
+
+        // Generar estadísticas de anotaciones para logging
+        annotationAnalysisService.generateAnnotationStatistics(cu);
+
+        // Detectar patrones arquitectónicos
+        List<String> patterns = annotationAnalysisService.detectArchitecturalPatterns(cu);
+        if (!patterns.isEmpty()) {
+            logger.info("Patrones arquitectónicos detectados en {}: {}",
+                    cu.getPrimaryTypeName().orElse("archivo"), patterns);
+        }
+    }
+
+    /**
+     * Procesa las relaciones entre las clases de forma exhaustiva y completa.
+     * Analiza TODOS los tipos de relaciones posibles en el código Java.
+     * 
+     * @param cu        La unidad de compilación a procesar
+     * @param context   Contexto de análisis thread-safe
+     * @param fileModel Modelo del archivo; descarta las relaciones duplicadas
+     * @param deadline  Plazo del archivo, comprobado por clase y entre pasadas
+     */
+    private void processRelationships(CompilationUnit cu, AnalysisContext context, FileModel fileModel,
+            FileDeadline deadline) throws ParseTimeoutException {
+        boolean constructors = isEnabled(context, RelationshipAnalyzer.CONSTRUCTOR_INJECTION)
+                || isEnabled(context, RelationshipAnalyzer.INSTANTIATIONS)
+                || isEnabled(context, RelationshipAnalyzer.METHOD_CALLS);
+        boolean methods = isEnabled(context, RelationshipAnalyzer.METHOD_SIGNATURES)
+                || isEnabled(context, RelationshipAnalyzer.INSTANTIATIONS)
+                || isEnabled(context, RelationshipAnalyzer.LOCAL_VARIABLES)
+                || isEnabled(context, RelationshipAnalyzer.METHOD_CALLS);
+
+        for (ClassOrInterfaceDeclaration classDecl : cu.findAll(ClassOrInterfaceDeclaration.class)) {
+            deadline.check();
+            String className = classDecl.getNameAsString();
+
+            if (isJavaNativeClass(className, context)) {
+                continue;
+            }
+            boolean analyzeBodies = bodiesEnabled(context);
+
+            // 1. HERENCIA: Child --|> Parent
+            if (isEnabled(context, RelationshipAnalyzer.INHERITANCE)) {
+                classDecl.getExtendedTypes().forEach(extendedType -> {
+                    String parentClassName = extractSimpleClassName(extendedType.asString(), context);
+                    if (isReferenceCandidate(parentClassName, context)) {
+                        addRelationship(fileModel, context,
+                                className, parentClassName, EdgeKind.INHERITANCE, "Herencia");
+                    }
+                });
+            }
+
+            // 2. IMPLEMENTACIÓN: Class ..|> Interface
+            if (isEnabled(context, RelationshipAnalyzer.IMPLEMENTATION)) {
+                classDecl.getImplementedTypes().forEach(implType -> {
+                    String interfaceName = extractSimpleClassName(implType.asString(), context);
+                    if (isReferenceCandidate(interfaceName, context)) {
+                        addRelationship(fileModel, context,
+                                className, interfaceName, EdgeKind.REALIZATION,
+                                "Implementación");
+                    }
+                });
+            }
+
+            // 3. ANÁLISIS COMPLETO DE CONSTRUCTORES
+            if (constructors) {
+                classDecl.getConstructors().forEach(constructor -> {
+                    // Parámetros del constructor (inyección de dependencias)
+                    if (isEnabled(context, RelationshipAnalyzer.CONSTRUCTOR_INJECTION)) {
+                        constructor.getParameters().forEach(param -> {
+                            String paramType = extractSimpleClassName(param.getType().asString(), context);
+                            if (isReferenceCandidate(paramType, context)) {
+                                addRelationship(fileModel, context,
+                                        className, paramType, EdgeKind.INJECT,
+                                        "Inyección constructor");
+                            }
+                        });
+                    }
+
+                    if (!analyzeBodies) {
+                        return;
+                    }
+
+                    // Instanciaciones dentro del constructor
+                    if (isEnabled(context, RelationshipAnalyzer.INSTANTIATIONS)) {
+                        constructor.getBody().findAll(ObjectCreationExpr.class).forEach(creation -> {
+                            String createdType = extractSimpleClassName(creation.getType().asString(), context);
+                            if (isReferenceCandidate(createdType, context)) {
+                                addRelationship(fileModel, context,
+                                        className, createdType, EdgeKind.CREATES,
+                                        "Creación en constructor");
+                            }
+                        });
+                    }
+
+                    // Llamadas a métodos en el constructor
+                    if (isEnabled(context, RelationshipAnalyzer.METHOD_CALLS)) {
+                        constructor.getBody().findAll(MethodCallExpr.class).forEach(methodCall -> {
+                            if (methodCall.getScope().isPresent()) {
+                                String scopeType = extractTypeFromExpression(methodCall.getScope().get().toString(),
+                                        cu, context);
+                                if (isReferenceCandidate(scopeType, context)) {
+                                    addRelationship(fileModel, context,
+                                            className, scopeType, EdgeKind.USES, "Uso en constructor");
+                                }
+                            }
+                        });
+                    }
+                });
+            }
+
+            // 4. ANÁLISIS EXHAUSTIVO DE CAMPOS/ATRIBUTOS
+            if (isEnabled(context, RelationshipAnalyzer.FIELDS)) {
+                classDecl.getFields().forEach(field -> {
+                    field.getVariables().forEach(variable -> {
+                        String fieldType = extractSimpleClassName(field.getElementType().asString(), context);
+
+                        if (isReferenceCandidate(fieldType, context)) {
+                            addRelationship(fileModel, context,
+                                    className, fieldType,
+                                    determineFieldRelationship(field, classDecl, fieldType, context),
+                                    "Campo/Atributo");
+                        }
+                    });
+                });
+            }
+
+            // 5. ANÁLISIS COMPLETO DE MÉTODOS
+            if (methods) {
+                classDecl.getMethods().forEach(method -> {
+                    if (isEnabled(context, RelationshipAnalyzer.METHOD_SIGNATURES)) {
+                        // Parámetros de métodos
+                        method.getParameters().forEach(param -> {
+                            String paramType = extractSimpleClassName(param.getType().asString(), context);
+                            if (isReferenceCandidate(paramType, context)) {
+                                addRelationship(fileModel, context,
+                                        className, paramType, EdgeKind.USES,
+                                        "Parámetro método");
+                            }
+                        });
+
+                        // Tipos de retorno
+                        String returnType = extractSimpleClassName(method.getType().asString(), context);
+                        if (isReferenceCandidate(returnType, context) && !returnType.equals("void")) {
+                            addRelationship(fileModel, context,
+                                    className, returnType, EdgeKind.RETURNS,
+                                    "Tipo retorno");
+                        }
+                    }
+
+                    if (!analyzeBodies) {
+                        return;
+                    }
+
+                    method.getBody().ifPresent(body -> {
+                        // Instanciaciones dentro del método (new Class())
+                        if (isEnabled(context, RelationshipAnalyzer.INSTANTIATIONS)) {
+                            body.findAll(ObjectCreationExpr.class).forEach(creation -> {
+                                String createdType = extractSimpleClassName(creation.getType().asString(), context);
+                                if (isReferenceCandidate(createdType, context)) {
+                                    addRelationship(fileModel, context,
+                                            className, createdType, EdgeKind.CREATES,
+                                            "Creación en método");
+                                }
+                            });
+                        }
+
+                        // Variables locales tipadas
+                        if (isEnabled(context, RelationshipAnalyzer.LOCAL_VARIABLES)) {
+                            body.findAll(VariableDeclarationExpr.class).forEach(varDecl -> {
+                                String varType = extractSimpleClassName(varDecl.getElementType().asString(),
+                                        context);
+                                if (isReferenceCandidate(varType, context)) {
+                                    addRelationship(fileModel, context,
+                                            className, varType, EdgeKind.USES,
+                                            "Variable local");
+                                }
+                            });
+                        }
+
+                        // Llamadas a métodos (Class.method() o object.method())
+                        if (isEnabled(context, RelationshipAnalyzer.METHOD_CALLS)) {
+                            body.findAll(MethodCallExpr.class).forEach(methodCall -> {
+                                if (methodCall.getScope().isPresent()) {
+                                    String scopeType = extractTypeFromExpression(
+                                            methodCall.getScope().get().toString(), cu, context);
+                                    if (isReferenceCandidate(scopeType, context)) {
+                                        addRelationship(fileModel, context,
+                                                className, scopeType, EdgeKind.CALLS, "Llamada método");
+                                    }
+                                }
+                            });
+                        }
+                    });
+                });
+            }
+
+            // 6. ANÁLISIS DE IMPORTS - Solo del proyecto actual
+            if (isEnabled(context, RelationshipAnalyzer.IMPORTS)) {
+                analyzeImportsForRelationships(cu, className, context, fileModel);
+            }
+
+            // 7. RELACIONES POR ANOTACIONES SPRING: pasada global en inferSpringInjections
+
+            // 8. RELACIONES CON CLASES ANIDADAS (Inner/Nested Classes)
+            if (isEnabled(context, RelationshipAnalyzer.NESTED_CLASSES)) {
+                analyzeNestedClassRelationships(classDecl, className, context, fileModel);
+            }
+        }
+
+        deadline.check();
+
+        // 9. RELACIONES ESTÁTICAS (llamadas a métodos estáticos de otras clases)
+        if (bodiesEnabled(context) && isEnabled(context, RelationshipAnalyzer.STATIC_CALLS)) {
+            analyzeStaticMethodRelationships(cu, context, fileModel);
+        }
+
+        // 10. RELACIONES POR MANEJO DE EXCEPCIONES (throws, catch)
+        if (isEnabled(context, RelationshipAnalyzer.EXCEPTIONS)) {
+            analyzeExceptionRelationships(cu, context, fileModel);
+        }
+
+        // 11. RELACIONES POR TIPOS GENÉRICOS (generics)
+        if (isEnabled(context, RelationshipAnalyzer.GENERICS)) {
+            analyzeGenericTypeRelationships(cu, context, fileModel);
+        }
+
+        // 12. RELACIONES POR SOBRESCRITURA DE MÉTODOS (@Override)
+        if (isEnabled(context, RelationshipAnalyzer.OVERRIDES)) {
+            analyzeMethodOverrideRelationships(cu, context, fileModel);
+        }
+
+        deadline.check();
+
+        // 13. RELACIONES POR PROGRAMACIÓN FUNCIONAL (Lambda, Method References, Stream
+        // API)
+        if (bodiesEnabled(context) && (isEnabled(context, RelationshipAnalyzer.LAMBDAS)
+                || isEnabled(context, RelationshipAnalyzer.STREAMS))) {
+            analyzeFunctionalProgrammingRelationships(cu, context, fileModel);
+        }
+
+        // 14. RELACIONES POR TYPE INFERENCE (var keyword)
+        if (bodiesEnabled(context) && isEnabled(context, RelationshipAnalyzer.VAR_INFERENCE)) {
+            analyzeTypeInferenceRelationships(cu, context, fileModel);
+        }
+
+        // 15. RELACIONES POR INTERFACES FUNCIONALES (Supplier, Consumer, Function,
+        // Predicate) Y OPTIONAL
+        if (isEnabled(context, RelationshipAnalyzer.FUNCTIONAL_INTERFACES)
+                || isEnabled(context, RelationshipAnalyzer.OPTIONAL)) {
+            analyzeFunctionalInterfaceRelationships(cu, context, fileModel);
+        }
+
+        logger.info("Total de relaciones procesadas: {}", fileModel.getEdges().size());
+    }
+
+    /**
+     * Indica si un detector de relaciones está activo en el trabajo.
+     */
+    static boolean isEnabled(AnalysisContext context, RelationshipAnalyzer analyzer) {
+        return context.getAnalyzers().contains(analyzer);
+    }
+
+    /**
+     * Indica si el presupuesto del trabajo aún permite recorrer cuerpos de
+     * métodos y constructores.
+     */
+    private boolean bodiesEnabled(AnalysisContext context) {
+        return !context.checkBudget().atLeast(DegradationLevel.NO_BODY_ANALYSIS);
+    }
+
+    /**
+     * Añade una relación al modelo del archivo evitando duplicados y loggeando
+     * la acción.
+     */
+    private void addRelationship(FileModel fileModel, AnalysisContext context,
+            String source, String target, EdgeKind kind, String type) {
+        addRelationship(fileModel, context, source, target, kind, null, type);
+    }
+
+    /**
+     * Añade una relación cuyo tipo lleva detalle (p. ej. el método sobrescrito).
+     */
+    private void addRelationship(FileModel fileModel, AnalysisContext context,
+            String source, String target, EdgeKind kind, String detail, String type) {
+        SymbolTable symbols = context.getSymbols();
+        int sourceId = symbols.intern(source);
+        int targetId = symbols.intern(target);
+        int kindId = detail == null ? symbols.kind(kind) : symbols.kind(kind, detail);
+        if (fileModel.addEdge(Relationship.key(sourceId, targetId, kindId), source, target, kind, detail)
+                && logger.isDebugEnabled()) {
+            logger.debug("{} detectada: {}", type, symbols.render(new Relationship(sourceId, targetId, kindId)));
+        }
+    }
+
+    /**
+     * Extrae el tipo de una expresión analizando el contexto.
+     */
+    private String extractTypeFromExpression(String expression, CompilationUnit cu, AnalysisContext context) {
+        // Si es una llamada a método estática (ClassName.method)
+        if (expression.contains(".") && Character.isUpperCase(expression.charAt(0))) {
+            String className = expression.substring(0, expression.indexOf("."));
+            return extractSimpleClassName(className, context);
+        }
+
+        // Si es una variable, buscar su tipo en el contexto
+        for (ClassOrInterfaceDeclaration classDecl : cu.findAll(ClassOrInterfaceDeclaration.class)) {
+            // Buscar en campos
+            for (FieldDeclaration field : classDecl.getFields()) {
+                if (field.getVariables().stream().anyMatch(var -> var.getNameAsString().equals(expression))) {
+                    return extractSimpleClassName(field.getElementType().asString(), context);
+                }
+            }
+        }
+
+        return extractSimpleClassName(expression, context);
+    }
+
+    /**
+     * Analiza relaciones con clases anidadas (inner/nested classes).
+     */
+    private void analyzeNestedClassRelationships(ClassOrInterfaceDeclaration classDecl, String className,
+            AnalysisContext context, FileModel fileModel) {
+
+        // Buscar clases anidadas dentro de esta clase
+        classDecl.findAll(ClassOrInterfaceDeclaration.class).forEach(nestedClass -> {
+            if (!nestedClass.equals(classDecl)) { // Evitar la clase padre
+                String nestedClassName = nestedClass.getNameAsString();
+
+                // Relación de composición entre clase padre e hija
+                addRelationship(fileModel, context,
+                        className, nestedClassName, EdgeKind.NESTED, "Clase anidada");
+
+                logger.debug("Clase anidada detectada: {} dentro de {}", nestedClassName, className);
+            }
+        });
+    }
+
+    /**
+     * Analiza relaciones con llamadas a métodos estáticos de otras clases.
+     */
+    private void analyzeStaticMethodRelationships(CompilationUnit cu, AnalysisContext context,
+            FileModel fileModel) {
+
+        // Buscar todas las llamadas a métodos estáticos
+        cu.findAll(MethodCallExpr.class).forEach(methodCall -> {
+            if (methodCall.getScope().isPresent()) {
+                String scope = methodCall.getScope().get().toString();
+
+                // Detectar llamadas estáticas (ClassName.method())
+                if (scope.contains(".") && Character.isUpperCase(scope.charAt(0))) {
+                    // Es una llamada estática (ej: LoggerFactory.getLogger, Arrays.asList)
+                    String staticClassName = extractSimpleClassName(scope.substring(0, scope.indexOf(".")), context);
+
+                    if (isReferenceCandidate(staticClassName, context)) {
+                        // Encontrar la clase que hace la llamada
+                        String callerClass = findCallerClassForMethodCall(methodCall);
+                        if (callerClass != null && !callerClass.equals(staticClassName)) {
+                            addRelationship(fileModel, context,
+                                    callerClass, staticClassName, EdgeKind.STATIC_CALL,
+                                    "Llamada estática");
+                        }
+                    }
+                } else if (Character.isUpperCase(scope.charAt(0)) && !scope.contains(".")) {
+                    // Llamada estática simple (ej: ClassName.method())
+                    String staticClassName = extractSimpleClassName(scope, context);
+
+                    if (isReferenceCandidate(staticClassName, context)) {
+                        String callerClass = findCallerClassForMethodCall(methodCall);
+                        if (callerClass != null && !callerClass.equals(staticClassName)) {
+                            addRelationship(fileModel, context,
+                                    callerClass, staticClassName, EdgeKind.STATIC_CALL,
+                                    "Llamada estática simple");
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Encuentra la clase más externa que contiene una llamada a método,
+     * subiendo por sus ancestros.
+     */
+    private String findCallerClassForMethodCall(MethodCallExpr methodCall) {
+        String caller = null;
+        Node current = methodCall.getParentNode().orElse(null);
+        while (current != null) {
+            if (current instanceof ClassOrInterfaceDeclaration) {
+                caller = ((ClassOrInterfaceDeclaration) current).getNameAsString();
+            }
+            current = current.getParentNode().orElse(null);
+        }
+        return caller;
+    }
+
+    /**
+     * Analiza relaciones por manejo de excepciones (throws, catch).
+     */
+    private void analyzeExceptionRelationships(CompilationUnit cu, AnalysisContext context,
+            FileModel fileModel) {
+
+        for (ClassOrInterfaceDeclaration classDecl : cu.findAll(ClassOrInterfaceDeclaration.class)) {
+            String className = classDecl.getNameAsString();
+
+            if (isJavaNativeClass(className, context)) {
+                continue;
+            }
+
+            // 1. Análisis de cláusulas throws en métodos
+            classDecl.getMethods().forEach(method -> {
+                method.getThrownExceptions().forEach(thrownException -> {
+                    String exceptionType = extractSimpleClassName(thrownException.asString(), context);
+                    if (isReferenceCandidate(exceptionType, context)) {
+                        addRelationship(fileModel, context,
+                                className, exceptionType, EdgeKind.THROWS,
+                                "Declara excepción");
+                    }
+                });
+            });
+
+            // 2. Análisis de cláusulas throws en constructores
+            classDecl.getConstructors().forEach(constructor -> {
+                constructor.getThrownExceptions().forEach(thrownException -> {
+                    String exceptionType = extractSimpleClassName(thrownException.asString(), context);
+                    if (isReferenceCandidate(exceptionType, context)) {
+                        addRelationship(fileModel, context,
+                                className, exceptionType, EdgeKind.THROWS,
+                                "Constructor declara excepción");
+                    }
+                });
+            });
+
+            // 3. Análisis de bloques catch
+            if (!bodiesEnabled(context)) {
+                continue;
+            }
+            classDecl.findAll(CatchClause.class).forEach(catchClause -> {
+                String exceptionType = extractSimpleClassName(catchClause.getParameter().getType().asString(), context);
+                if (isReferenceCandidate(exceptionType, context)) {
+                    addRelationship(fileModel, context,
+                            className, exceptionType, EdgeKind.CATCHES,
+                            "Captura excepción");
+                }
+            });
+        }
+    }
+
+    /**
+     * Analiza relaciones por tipos genéricos (generics) en campos, métodos y
+     * parámetros.
+     */
+    private void analyzeGenericTypeRelationships(CompilationUnit cu, AnalysisContext context,
+            FileModel fileModel) {
+
+        for (ClassOrInterfaceDeclaration classDecl : cu.findAll(ClassOrInterfaceDeclaration.class)) {
+            String className = classDecl.getNameAsString();
+
+            if (isJavaNativeClass(className, context)) {
+                continue;
+            }
+
+            // 1. Análisis de tipos genéricos en campos
+            classDecl.getFields().forEach(field -> {
+                analyzeGenericTypesInType(field.getElementType(), className, context, fileModel,
+                        "Campo genérico");
+            });
+
+            // 2. Análisis de tipos genéricos en métodos
+            classDecl.getMethods().forEach(method -> {
+                // Tipo de retorno genérico
+                analyzeGenericTypesInType(method.getType(), className, context, fileModel, "Retorno genérico");
+
+                // Parámetros con tipos genéricos
+                method.getParameters().forEach(param -> {
+                    analyzeGenericTypesInType(param.getType(), className, context, fileModel,
+                            "Parámetro genérico");
+                });
+            });
+
+            // 3. Análisis de tipos genéricos en constructores
+            classDecl.getConstructors().forEach(constructor -> {
+                constructor.getParameters().forEach(param -> {
+                    analyzeGenericTypesInType(param.getType(), className, context, fileModel,
+                            "Constructor genérico");
+                });
+            });
+        }
+    }
+
+    /**
+     * Analiza los argumentos de tipo de un Type y extrae relaciones.
+     * Recorre directamente los nodos del AST (sin convertir el tipo a texto), de
+     * modo que las comas anidadas de {@code Map<K, List<V>>}, los comodines y
+     * los arrays se resuelven en una sola pasada. Visible para
+     * {@code GenericTypeBenchmark}, en el conjunto de fuentes benchmark.
+     */
+    void analyzeGenericTypesInType(Type type, String className, AnalysisContext context,
+            FileModel fileModel, String relationshipDescription) {
+        walkTypeArguments(type, 1, className, context, fileModel, relationshipDescription);
+    }
+
+    /**
+     * Emite una relación por cada argumento de tipo y desciende a sus propios
+     * argumentos. El primer nivel se etiqueta como {@code <<generic>>} y los
+     * siguientes como {@code <<nested-generic>>}.
+     *
+     * @param type  Tipo cuyos argumentos se recorren
+     * @param depth Profundidad de los argumentos de {@code type} (1 = primer nivel)
+     */
+    private void walkTypeArguments(Type type, int depth, String className, AnalysisContext context,
+            FileModel fileModel, String relationshipDescription) {
+        Type base = unwrapTypeArgument(type);
+        if (base == null || !base.isClassOrInterfaceType()) {
+            return;
+        }
+        ClassOrInterfaceType classType = base.asClassOrInterfaceType();
+        // Outer<A>.Inner<B>: los argumentos del ámbito están al mismo nivel
+        classType.getScope().ifPresent(scope -> walkTypeArguments(scope, depth, className, context,
+                fileModel, relationshipDescription));
+
+        classType.getTypeArguments().ifPresent(arguments -> {
+            for (Type argument : arguments) {
+                Type argumentBase = unwrapTypeArgument(argument);
+                if (argumentBase == null || !argumentBase.isClassOrInterfaceType()) {
+                    continue;
+                }
+                String argumentName = argumentBase.asClassOrInterfaceType().getNameAsString();
+                if (isReferenceCandidate(argumentName, context)) {
+                    addRelationship(fileModel, context, className, argumentName,
+                            depth == 1 ? EdgeKind.GENERIC : EdgeKind.NESTED_GENERIC, relationshipDescription);
+                }
+                walkTypeArguments(argumentBase, depth + 1, className, context, fileModel,
+                        relationshipDescription);
+            }
+        });
+    }
+
+    /**
+     * Reduce un argumento de tipo a su tipo base: el componente de un array o
+     * el límite de un comodín ({@code ? extends T}, {@code ? super T}).
+     *
+     * @return El tipo base o null si es un comodín sin límite
+     */
+    private static Type unwrapTypeArgument(Type type) {
+        Type current = type;
+        while (true) {
+            if (current.isArrayType()) {
+                current = current.asArrayType().getComponentType();
+            } else if (current.isWildcardType()) {
+                WildcardType wildcard = current.asWildcardType();
+                Type bound = wildcard.getExtendedType().map(Type.class::cast)
+                        .or(() -> wildcard.getSuperType().map(Type.class::cast))
+                        .orElse(null);
+                if (bound == null) {
+                    return null;
+                }
+                current = bound;
+            } else {
+                return current;
+            }
+        }
+    }
+
+    /**
+     * Determina el tipo de relación más apropiado para un campo basado en su
+     * contexto.
+     */
+    private EdgeKind determineFieldRelationship(FieldDeclaration field, ClassOrInterfaceDeclaration classDecl,
+            String fieldType, AnalysisContext context) {
+        // Verificar si es composición (se crea en constructor)
+        boolean isComposition = classDecl.getConstructors().stream()
+                .anyMatch(constructor -> constructor.getBody().findAll(ObjectCreationExpr.class).stream()
+                        .anyMatch(creation -> extractSimpleClassName(creation.getType().asString(), context)
+                                .equals(fieldType)));
+
+        // Verificar si es colección
+        String fieldTypeString = field.getElementType().asString();
+        boolean isCollection = fieldTypeString.contains("List") || fieldTypeString.contains("Set") ||
+                fieldTypeString.contains("Collection") || fieldTypeString.contains("[]");
+
+        // Verificar anotaciones de Spring para inyección
+        boolean isInjected = field.getAnnotations().stream()
+                .anyMatch(annotation -> annotation.getNameAsString().equals("Autowired") ||
+                        annotation.getNameAsString().equals("Inject"));
+
+        if (isInjected) {
+            return EdgeKind.AUTOWIRED;
+        } else if (isComposition) {
+            return isCollection ? EdgeKind.COMPOSITION_MANY : EdgeKind.COMPOSITION;
+        } else if (isCollection) {
+            return EdgeKind.AGGREGATION_MANY;
+        } else {
+            return EdgeKind.ASSOCIATION;
+        }
+    }
+
+    /**
+     * Analiza los imports para detectar dependencias del proyecto.
+     */
+    private void analyzeImportsForRelationships(CompilationUnit cu, String className,
+            AnalysisContext context, FileModel fileModel) {
+        cu.getImports().forEach(importDecl -> {
+            String importName = importDecl.getNameAsString();
+
+            // Solo procesar imports del mismo proyecto (no java.*, javax.*,
+            // org.springframework.*, etc.)
+            if (!importName.startsWith("java.") &&
+                    !importName.startsWith("javax.") &&
+                    !importName.startsWith("org.springframework.") &&
+                    !importName.startsWith("org.slf4j.")) {
+
+                String importedClassName = extractSimpleClassName(importName, context);
+                if (isReferenceCandidate(importedClassName, context)) {
+                    addRelationship(fileModel, context,
+                            className, importedClassName, EdgeKind.IMPORT,
+                            "Dependencia de import");
+                }
+            }
+        });
+    }
+
+    /**
+     * Filtro local de los tipos referenciados, sin consultar el índice del
+     * proyecto: descarta nombres vacíos y clases nativas. Que el tipo sea del
+     * proyecto se comprueba al fusionar el modelo del archivo.
+     */
+    static boolean isReferenceCandidate(String className, AnalysisContext context) {
+        return className != null &&
+                !className.trim().isEmpty() &&
+                !isJavaNativeClass(className, context);
+    }
+
+    /**
+     * Nombre simple de un tipo (sin paquete, genéricos ni arrays), memorizado en
+     * la tabla de símbolos del trabajo.
+     *
+     * @see SymbolTable#toSimpleName(String)
+     */
+    private static String extractSimpleClassName(String fullType, AnalysisContext context) {
+        return context.getSymbols().simpleName(fullType);
+    }
+
+    private static boolean isJavaNativeClass(String className, AnalysisContext context) {
+        return context.getVocabulary().isNativeType(className);
+    }
+
+    /**
+     * Analiza relaciones por sobrescritura de métodos (@Override).
+     */
+    private void analyzeMethodOverrideRelationships(CompilationUnit cu, AnalysisContext context,
+            FileModel fileModel) {
+        logger.debug("Analizando relaciones por sobrescritura de métodos (@Override)");
+
+        cu.findAll(MethodDeclaration.class).forEach(method -> {
+            if (method.getAnnotationByName("Override").isPresent()) {
+                String className = getCurrentClassName(method);
+                if (className != null) {
+                    // Buscar clase padre que define el método original
+                    method.findAncestor(ClassOrInterfaceDeclaration.class).ifPresent(classDecl -> {
+                        classDecl.getExtendedTypes().forEach(extendedType -> {
+                            String parentClassName = extractSimpleClassName(extendedType.asString(), context);
+                            if (isReferenceCandidate(parentClassName, context)) {
+                                addRelationship(fileModel, context,
+                                        className, parentClassName, EdgeKind.OVERRIDES, method.getNameAsString(),
+                                        "Sobrescritura de método");
+                            }
+                        });
+
+                        classDecl.getImplementedTypes().forEach(implType -> {
+                            String interfaceName = extractSimpleClassName(implType.asString(), context);
+                            if (isReferenceCandidate(interfaceName, context)) {
+                                addRelationship(fileModel, context,
+                                        className, interfaceName, EdgeKind.IMPLEMENTS_METHOD, method.getNameAsString(),
+                                        "Implementación de método");
+                            }
+                        });
+                    });
+                }
+            }
+        });
+    }
+
+    /**
+     * Analiza relaciones por programación funcional (Lambda, Method References,
+     * Stream API).
+     */
+    private void analyzeFunctionalProgrammingRelationships(CompilationUnit cu, AnalysisContext context,
+            FileModel fileModel) {
+        logger.debug("Analizando relaciones por programación funcional");
+
+        if (isEnabled(context, RelationshipAnalyzer.LAMBDAS)) {
+            // Analizar expresiones lambda
+            cu.findAll(LambdaExpr.class).forEach(lambda -> {
+                String className = getCurrentClassNameFromNode(lambda);
+                if (className != null) {
+                    addRelationship(fileModel, context,
+                            className, "\"Functional Interface\"", EdgeKind.LAMBDA,
+                            "Expresión Lambda");
+                }
+            });
+
+            // Analizar method references
+            cu.findAll(MethodReferenceExpr.class).forEach(methodRef -> {
+                String className = getCurrentClassNameFromNode(methodRef);
+                String scope = methodRef.getScope().toString();
+                String referencedClass = extractSimpleClassName(scope, context);
+
+                if (className != null && isReferenceCandidate(referencedClass, context)) {
+                    addRelationship(fileModel, context,
+                            className, referencedClass, EdgeKind.METHOD_REFERENCE,
+                            "Method Reference");
+                }
+            });
+        }
+
+        if (!isEnabled(context, RelationshipAnalyzer.STREAMS)) {
+            return;
+        }
+
+        // Analizar Stream API
+        cu.findAll(MethodCallExpr.class).forEach(methodCall -> {
+            if (context.getVocabulary().isStreamOperation(methodCall.getNameAsString())) {
+
+                String className = getCurrentClassNameFromNode(methodCall);
+                if (className != null) {
+                    addRelationship(fileModel, context,
+                            className, "\"Stream API\"", EdgeKind.STREAM_OPERATION, methodCall.getNameAsString(),
+                            "Stream API");
+                }
+            }
+        });
+    }
+
+    /**
+     * Analiza relaciones por type inference (var keyword).
+     */
+    private void analyzeTypeInferenceRelationships(CompilationUnit cu, AnalysisContext context,
+            FileModel fileModel) {
+        logger.debug("Analizando relaciones por type inference (var)");
+
+        cu.findAll(VariableDeclarator.class).forEach(varDecl -> {
+            if (varDecl.getType().isVarType()) {
+                String className = getCurrentClassNameFromNode(varDecl);
+                if (className != null && varDecl.getInitializer().isPresent()) {
+                    String inferredType = extractTypeFromExpression(
+                            varDecl.getInitializer().get().toString(), cu, context);
+
+                    if (isReferenceCandidate(inferredType, context)) {
+                        addRelationship(fileModel, context,
+                                className, inferredType, EdgeKind.VAR_INFERENCE,
+                                "Type Inference");
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Analiza relaciones por interfaces funcionales (Supplier, Consumer, Function,
+     * Predicate) y atributos Optional.
+     */
+    private void analyzeFunctionalInterfaceRelationships(CompilationUnit cu, AnalysisContext context,
+            FileModel fileModel) {
+        logger.debug("Analizando relaciones por interfaces funcionales");
+
+        AnalyzerVocabulary vocabulary = context.getVocabulary();
+
+        if (isEnabled(context, RelationshipAnalyzer.FUNCTIONAL_INTERFACES)) {
+            cu.findAll(FieldDeclaration.class).forEach(field -> {
+                String fieldType = extractSimpleClassName(field.getElementType().asString(), context);
+
+                if (vocabulary.isFunctionalInterface(fieldType)) {
+                    String className = getCurrentClassNameFromNode(field);
+                    if (className != null) {
+                        addRelationship(fileModel, context,
+                                className, fieldType, EdgeKind.FUNCTIONAL_INTERFACE,
+                                "Interface Funcional");
+                    }
+                }
+            });
+
+            // Variables locales: requiere recorrer cuerpos
+            if (bodiesEnabled(context)) {
+                cu.findAll(VariableDeclarator.class).forEach(varDecl -> {
+                    String varType = extractSimpleClassName(varDecl.getType().asString(), context);
+
+                    if (vocabulary.isFunctionalInterface(varType)) {
+                        String className = getCurrentClassNameFromNode(varDecl);
+                        if (className != null) {
+                            addRelationship(fileModel, context,
+                                    className, varType, EdgeKind.FUNCTIONAL_INTERFACE,
+                                    "Interface Funcional");
+                        }
+                    }
+                });
+            }
+        }
+
+        // Analizar Optional
+        if (isEnabled(context, RelationshipAnalyzer.OPTIONAL)) {
+            cu.findAll(FieldDeclaration.class).forEach(field -> {
+                if (field.getElementType().asString().startsWith("Optional")) {
+                    String className = getCurrentClassNameFromNode(field);
+                    if (className != null) {
+                        addRelationship(fileModel, context,
+                                className, "Optional", EdgeKind.OPTIONAL,
+                                "Optional");
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Obtiene el nombre de la clase actual desde cualquier nodo del AST.
+     */
+    private String getCurrentClassNameFromNode(Node node) {
+        return node.findAncestor(ClassOrInterfaceDeclaration.class)
+                .map(ClassOrInterfaceDeclaration::getNameAsString)
+                .orElse(null);
+    }
+
+    /**
+     * Obtiene el nombre de la clase actual desde un método.
+     */
+    private String getCurrentClassName(MethodDeclaration method) {
+        return method.findAncestor(ClassOrInterfaceDeclaration.class)
+                .map(ClassOrInterfaceDeclaration::getNameAsString)
+                .orElse(null);
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.demo;
+
+import com.example.demo.config.UMLGeneratorProperties;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Ejecución de entrenamiento del archivo CDS (Class Data Sharing).
+ *
+ * Si {@code uml.generator.training-project} apunta a un ZIP, al terminar el
+ * arranque se recorre por HTTP el camino de un usuario real: la página
+ * principal, la subida en flujo del ZIP, la misma subida servida desde el
+ * almacén y una consulta al modelo. La JVM carga así las clases de Spring
+ * MVC, Thymeleaf, JavaParser y los servicios de análisis, y al salir las
+ * vuelca en el archivo indicado con {@code -XX:ArchiveClassesAtExit}. Después
+ * la aplicación termina; el código de salida indica si algún paso falló.
+ *
+ * @author @PelayoPS
+ */
+@Component
+public class StartupTrainer {
+    private static final Logger logger = LoggerFactory.getLogger(StartupTrainer.class);
+
+    private final UMLGeneratorProperties properties;
+
+    public StartupTrainer(UMLGeneratorProperties properties) {
+        this.properties = properties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onAppReady(ApplicationReadyEvent event) {
+        String project = properties.getTrainingProject();
+        if (project == null || project.isBlank()) {
+            return;
+        }
+        logger.info("Aplicación lista en {} ms; ejecución de entrenamiento con {}",
+                ManagementFactory.getRuntimeMXBean().getUptime(), project);
+
+        ConfigurableApplicationContext context = event.getApplicationContext();
+        int exitCode = 0;
+        try {
+            train(Path.of(project), context.getEnvironment().getProperty("local.server.port", Integer.class, 8080));
+        } catch (IOException e) {
+            logger.error("Ejecución de entrenamiento fallida: {}", e.getMessage());
+            exitCode = 1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            exitCode = 1;
+        }
+        int code = exitCode;
+        System.exit(SpringApplication.exit(context, () -> code));
+    }
+
+    /**
+     * Recorre las peticiones de un uso normal de la aplicación.
+     */
+    private void train(Path project, int port) throws IOException, InterruptedException {
+        if (!Files.isRegularFile(project)) {
+            throw new IOException("No existe el proyecto de entrenamiento: " + project);
+        }
+        String base = "http://localhost:" + port;
+        // Con cookies, la página tras la subida muestra los atributos flash del informe
+        HttpClient client = HttpClient.newBuilder()
+                .cookieHandler(new CookieManager())
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        HttpRequest upload = HttpRequest.newBuilder(URI.create(base + "/upload/stream"))
+                .header("Content-Type", "application/zip")
+                .header("X-File-Name", URLEncoder.encode(project.getFileName().toString(), StandardCharsets.UTF_8))
+                .POST(HttpRequest.BodyPublishers.ofFile(project))
+                .build();
+
+        send(client, HttpRequest.newBuilder(URI.create(base + "/")).build(), "página principal");
+        send(client, upload, "subida del proyecto");
+        send(client, upload, "subida repetida");
+        send(client, HttpRequest.newBuilder(URI.create(base + "/model/top?n=5")).build(), "consulta al modelo");
+    }
+
+    private void send(HttpClient client, HttpRequest request, String step) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        if (response.statusCode() >= 400) {
+            throw new IOException(step + ": respuesta " + response.statusCode());
+        }
+        logger.info("Entrenamiento: {} ({} {}) en {} ms", step, request.method(), request.uri().getPath(), millis);
+    }
+}
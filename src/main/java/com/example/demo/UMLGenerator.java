@@ -1,38 +1,51 @@
 package com.example.demo;
 
+import com.example.demo.config.AnalysisOptions;
+import com.example.demo.config.AnalyzerVocabulary;
+import com.example.demo.config.RelationshipAnalyzer;
 import com.example.demo.config.UMLGeneratorProperties;
 import com.example.demo.exception.UMLGenerationException;
 import com.example.demo.exception.PlantUMLExecutionException;
 import com.example.demo.exception.JavaParsingException;
-import com.example.demo.service.AnnotationAnalysisService;
+import com.example.demo.exception.ParseTimeoutException;
+import com.example.demo.model.AnalysisReport;
+import com.example.demo.model.ClassGraph;
+import com.example.demo.model.DegradationLevel;
+import com.example.demo.model.EdgeKind;
+import com.example.demo.model.FileModel;
+import com.example.demo.model.JobBudget;
+import com.example.demo.model.LongHashSet;
+import com.example.demo.model.Relationship;
+import com.example.demo.model.SymbolTable;
+import com.example.demo.service.AnalysisPool;
+import com.example.demo.service.ClassGraphService;
+import com.example.demo.service.DistributedAnalysisService;
+import com.example.demo.service.LayoutCacheService;
+import com.example.demo.service.NativeSvgRenderer;
+import com.example.demo.service.SourceDiscoveryService;
+import com.example.demo.service.SvgTileService;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import java.io.File;
 import java.io.FileWriter;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Arrays;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.io.IOException;
 
-import com.github.javaparser.JavaParser;
-import com.github.javaparser.ast.CompilationUnit;
-import com.github.javaparser.ast.Node;
-import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
-import com.github.javaparser.ast.body.FieldDeclaration;
-import com.github.javaparser.ast.body.MethodDeclaration;
-import com.github.javaparser.ast.body.Parameter;
-import com.github.javaparser.ast.body.VariableDeclarator;
-import com.github.javaparser.ast.expr.ObjectCreationExpr;
-import com.github.javaparser.ast.expr.MethodCallExpr;
-import com.github.javaparser.ast.expr.VariableDeclarationExpr;
-import com.github.javaparser.ast.expr.LambdaExpr;
-import com.github.javaparser.ast.expr.MethodReferenceExpr;
-import com.github.javaparser.ast.stmt.CatchClause;
-import com.github.javaparser.ast.type.Type;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -40,38 +53,62 @@ import org.slf4j.LoggerFactory;
  * Servicio UMLGenerator para generar diagramas UML a partir del código fuente
  * Java.
  * Convertido a servicio Spring thread-safe para soportar procesamiento
- * concurrente.
+ * concurrente. El análisis de cada archivo lo hace
+ * {@link SourceFileAnalyzer}; aquí se fusionan los modelos de los archivos y
+ * se generan las salidas.
  * 
  * @author @PelayoPS
  */
+@Lazy
 @Service
 public class UMLGenerator {
     private static final Logger logger = LoggerFactory.getLogger(UMLGenerator.class);
 
-    private static final Set<String> JAVA_NATIVE_CLASSES = new HashSet<>(Arrays.asList(
-            // Tipos primitivos y wrappers
-            "String", "Integer", "Boolean", "Long", "Double", "Float", "Character", "Byte", "Short",
-            "int", "boolean", "long", "double", "float", "char", "byte", "short", "void",
-            // Clases fundamentales de Java
-            "Object", "Class", "Exception", "RuntimeException", "Throwable", "System", "Thread",
-            // Colecciones más comunes
-            "List", "ArrayList", "LinkedList", "Set", "HashSet", "LinkedHashSet", "TreeSet",
-            "Map", "HashMap", "LinkedHashMap", "TreeMap", "Collection", "Queue", "Deque",
-            // Utilerías comunes
-            "Date", "Calendar", "LocalDate", "LocalDateTime", "Optional", "Stream",
-            "BigDecimal", "BigInteger", "UUID", "Pattern", "Matcher",
-            // Spring Framework (comunes)
-            "Model", "RedirectAttributes", "HttpServletRequest", "HttpServletResponse",
-            "MultipartFile", "ResponseEntity", "RequestMapping", "GetMapping", "PostMapping",
-            // Tipos de retorno comunes
-            "ResponseEntity", "Void"));
+    // Paquete asignado a las clases sin declaración package
+    private static final String DEFAULT_PACKAGE = SourceFileAnalyzer.DEFAULT_PACKAGE;
 
-    private final UMLGeneratorProperties properties;
-    private final AnnotationAnalysisService annotationAnalysisService;
+    // Nombre del diagrama de las ejecuciones de calentamiento
+    private static final String WARMUP_DIAGRAM = "warmup";
+
+    // Estilo común del diagrama completo y de los fragmentos por paquete
+    private static final String SKIN = """
+            !theme mono
+            skinparam linetype ortho
+            skinparam monochrome true
+            """;
 
-    public UMLGenerator(UMLGeneratorProperties properties, AnnotationAnalysisService annotationAnalysisService) {
+    // Nombre de la clase en la cabecera de su definición PlantUML
+    private static final Pattern CLASS_HEADER = Pattern
+            .compile("^(?:abstract\\s+)?(?:class|interface|enum|annotation|record)\\s+([^\\s{<]+)");
+
+    // Relaciones cuyo destino no tiene que ser un tipo del proyecto (clases
+    // anidadas, pseudo-nodos e interfaces funcionales): no se validan al fusionar
+    private static final Set<EdgeKind> UNCHECKED_KINDS = EnumSet.of(EdgeKind.NESTED, EdgeKind.LAMBDA,
+            EdgeKind.STREAM_OPERATION, EdgeKind.FUNCTIONAL_INTERFACE, EdgeKind.OPTIONAL);
+
+    private final UMLGeneratorProperties properties;
+    private final SourceFileAnalyzer sourceFileAnalyzer;
+    private final SourceDiscoveryService sourceDiscoveryService;
+    private final DistributedAnalysisService distributedAnalysisService;
+    private final SvgTileService svgTileService;
+    private final ClassGraphService classGraphService;
+    private final AnalysisPool analysisPool;
+    private final LayoutCacheService layoutCacheService;
+    private final NativeSvgRenderer nativeSvgRenderer;
+
+    public UMLGenerator(UMLGeneratorProperties properties, SourceFileAnalyzer sourceFileAnalyzer,
+            SourceDiscoveryService sourceDiscoveryService, DistributedAnalysisService distributedAnalysisService,
+            SvgTileService svgTileService, ClassGraphService classGraphService, AnalysisPool analysisPool,
+            LayoutCacheService layoutCacheService, NativeSvgRenderer nativeSvgRenderer) {
         this.properties = properties;
-        this.annotationAnalysisService = annotationAnalysisService;
+        this.sourceFileAnalyzer = sourceFileAnalyzer;
+        this.sourceDiscoveryService = sourceDiscoveryService;
+        this.distributedAnalysisService = distributedAnalysisService;
+        this.svgTileService = svgTileService;
+        this.classGraphService = classGraphService;
+        this.analysisPool = analysisPool;
+        this.layoutCacheService = layoutCacheService;
+        this.nativeSvgRenderer = nativeSvgRenderer;
     }
 
     /**
@@ -79,30 +116,127 @@ public class UMLGenerator {
      * análisis
      */
     public static class AnalysisContext {
-        private final List<String> classes = new CopyOnWriteArrayList<>();
-        private final List<String> relationships = new CopyOnWriteArrayList<>();
+        // Listas sincronizadas: reciben muchas altas y solo se recorren al final
+        private final List<String> classes = Collections.synchronizedList(new ArrayList<>());
+        private final List<Relationship> relationships = Collections.synchronizedList(new ArrayList<>());
+        private final SymbolTable symbols = new SymbolTable();
         private final Set<String> processedFiles = ConcurrentHashMap.newKeySet();
+        // Nombre simple de clase -> paquete, para la salida por paquetes
+        private final Map<String, String> classPackages = new ConcurrentHashMap<>();
+        // Nombres base de los archivos descubiertos: tipos del proyecto
+        private final Set<String> projectTypes = ConcurrentHashMap.newKeySet();
+        // Estereotipo Spring -> clases que lo declaran, ordenadas
+        private final Map<String, Set<String>> stereotypeIndex = new ConcurrentHashMap<>();
         private final String basePath;
-
-        public AnalysisContext(String basePath) {
+        // Directorio donde el trabajo escribe sus salidas (null si no escribe ninguna)
+        private final File outputDir;
+        private final AnalysisOptions options;
+        private final AnalyzerVocabulary vocabulary;
+        private final Set<RelationshipAnalyzer> analyzers;
+        private final boolean needsBodies;
+        private final AnalysisReport report = new AnalysisReport();
+        private final JobBudget budget;
+        private volatile ClassGraph classGraph;
+
+        public AnalysisContext(String basePath, File outputDir, AnalysisOptions options) {
             this.basePath = basePath;
+            this.outputDir = outputDir;
+            this.options = options;
+            this.vocabulary = options.getVocabulary();
+            this.analyzers = options.getAnalyzers();
+            this.needsBodies = options.needsBodies();
+            this.budget = new JobBudget(options.getMaxDuration(), options.getMaxParsedBytes(),
+                    options.getMaxClasses(), options.getMaxRelationships());
         }
 
         public List<String> getClasses() {
             return classes;
         }
 
-        public List<String> getRelationships() {
+        public List<Relationship> getRelationships() {
             return relationships;
         }
 
+        public SymbolTable getSymbols() {
+            return symbols;
+        }
+
+        public Map<String, String> getClassPackages() {
+            return classPackages;
+        }
+
+        public Set<String> getProjectTypes() {
+            return projectTypes;
+        }
+
+        public Map<String, Set<String>> getStereotypeIndex() {
+            return stereotypeIndex;
+        }
+
+        /**
+         * Registra una clase bajo un estereotipo en el índice.
+         */
+        public void indexStereotype(String stereotype, String className) {
+            stereotypeIndex.computeIfAbsent(stereotype, key -> new ConcurrentSkipListSet<>()).add(className);
+        }
+
         public Set<String> getProcessedFiles() {
             return processedFiles;
         }
 
+        /**
+         * @return Grafo de clases del trabajo, una vez terminado el análisis
+         */
+        public ClassGraph getClassGraph() {
+            return classGraph;
+        }
+
+        public void setClassGraph(ClassGraph classGraph) {
+            this.classGraph = classGraph;
+        }
+
         public String getBasePath() {
             return basePath;
         }
+
+        public File getOutputDir() {
+            return outputDir;
+        }
+
+        public AnalysisOptions getOptions() {
+            return options;
+        }
+
+        public AnalyzerVocabulary getVocabulary() {
+            return vocabulary;
+        }
+
+        public Set<RelationshipAnalyzer> getAnalyzers() {
+            return analyzers;
+        }
+
+        /**
+         * @return true si algún detector activo lee cuerpos de métodos
+         */
+        public boolean needsBodies() {
+            return needsBodies;
+        }
+
+        public AnalysisReport getReport() {
+            return report;
+        }
+
+        public JobBudget getBudget() {
+            return budget;
+        }
+
+        /**
+         * Revisa el presupuesto del trabajo y devuelve el nivel de degradación
+         * vigente.
+         */
+        public DegradationLevel checkBudget() {
+            return budget.evaluate(classes.size(), relationships.size(), report);
+        }
     }
 
     /**
@@ -114,9 +248,43 @@ public class UMLGenerator {
      * @throws UMLGenerationException Si ocurre un error durante el procesamiento.
      */
     public AnalysisContext generateDiagram(String path) throws UMLGenerationException {
+        return generateDiagram(path, AnalysisOptions.fromProperties(properties));
+    }
+
+    /**
+     * Genera el diagrama UML aplicando unas opciones de análisis concretas,
+     * directamente en el directorio de salida compartido. Las subidas no
+     * pasan por aquí: sus salidas se guardan y se sirven por trabajo.
+     * 
+     * @param path    Ruta del directorio a procesar
+     * @param options Opciones de la ejecución (filtros y límites)
+     * @return Contexto de análisis con los resultados
+     * @throws UMLGenerationException Si ocurre un error durante el procesamiento.
+     */
+    public AnalysisContext generateDiagram(String path, AnalysisOptions options) throws UMLGenerationException {
+        File outputDir = new File(properties.getFullOutputPath());
+        AnalysisContext context = prepareDiagram(path, outputDir, options);
+        finishDiagram(context);
+        return context;
+    }
+
+    /**
+     * Primera parte de la generación: análisis, modelo y .puml. Con el
+     * renderizado {@code NATIVE_PREVIEW} deja además la vista previa propia,
+     * que se puede mostrar antes de que termine {@link #finishDiagram}.
+     * Las salidas se escriben en el directorio indicado y no se publican.
+     *
+     * @param path      Ruta del directorio a procesar
+     * @param outputDir Directorio de salida del trabajo
+     * @param options   Opciones de la ejecución (filtros y límites)
+     * @return Contexto de análisis con los resultados
+     * @throws UMLGenerationException Si ocurre un error durante el procesamiento.
+     */
+    public AnalysisContext prepareDiagram(String path, File outputDir, AnalysisOptions options)
+            throws UMLGenerationException {
         logger.info("Iniciando generación de diagrama UML para directorio: {}", path);
         logger.debug("Configuración utilizada: outputDir={}, plantUmlJar={}",
-                properties.getOutputDirectory(), properties.getPlantUmlJarPath());
+                outputDir, properties.getPlantUmlJarPath());
 
         try {
             File srcFolder = new File(path);
@@ -125,18 +293,17 @@ public class UMLGenerator {
                 throw new UMLGenerationException("El directorio especificado no existe o no es válido: " + path);
             }
 
-            AnalysisContext context = new AnalysisContext(path);
-
-            logger.debug("Procesando directorio fuente: {}", srcFolder.getAbsolutePath());
-            processDirectory(srcFolder, context);
-
-            logger.info("Procesamiento completado. Clases encontradas: {}, Relaciones: {}",
-                    context.getClasses().size(), context.getRelationships().size());
-
-            generatePlantUML(context);
-            generateImageFromPlantUML();
+            AnalysisContext context = new AnalysisContext(path, outputDir, options);
 
-            logger.info("Generación de diagrama UML completada exitosamente");
+            // Parseo, análisis y escritura del .puml: trabajo de CPU que va al pool
+            // acotado; el renderizado solo espera a PlantUML y no ocupa el pool
+            long phaseStart = analysisPool.call(
+                    () -> analyze(srcFolder, context, properties.getDiagramFileName(), true));
+            if (properties.getDiagramRenderer() == UMLGeneratorProperties.DiagramRenderer.NATIVE_PREVIEW) {
+                renderNative(diagramGraph(context),
+                        new File(outputDir, properties.getPreviewFileName() + properties.getSvgExtension()));
+                recordPhase(context, "preview", phaseStart);
+            }
             return context;
         } catch (Exception e) {
             if (e instanceof UMLGenerationException) {
@@ -147,810 +314,620 @@ public class UMLGenerator {
     }
 
     /**
-     * Procesa recursivamente un directorio y sus archivos Java.
-     * 
-     * @param folder  El directorio a procesar
-     * @param context Contexto de análisis thread-safe
-     * @throws JavaParsingException Si ocurre un error al parsear un archivo Java
+     * Segunda parte de la generación: renderizado del diagrama y, si el SVG es
+     * grande, de la vista por paquetes del visor, en el directorio de salida
+     * del trabajo.
+     *
+     * @param context Contexto devuelto por {@link #prepareDiagram}
+     * @throws UMLGenerationException Si falla el renderizado o el visor
      */
-    private void processDirectory(File folder, AnalysisContext context) throws JavaParsingException {
-        File[] files = folder.listFiles();
-        if (files == null) {
-            logger.warn("No se pueden listar archivos en directorio: {}", folder.getAbsolutePath());
-            return;
-        }
+    public void finishDiagram(AnalysisContext context) throws UMLGenerationException {
+        try {
+            long phaseStart = System.nanoTime();
+            renderDiagram(context);
+            phaseStart = recordPhase(context, "render", phaseStart);
+            prepareViewer(context);
+            recordPhase(context, "viewer", phaseStart);
 
-        for (File file : files) {
-            if (file.isDirectory()) {
-                processDirectory(file, context);
-            } else if (file.getName().endsWith(".java")) {
-                logger.debug("Procesando archivo Java: {}", file.getName());
-                processFile(file, context);
+            logger.info("Generación de diagrama UML completada exitosamente");
+        } catch (Exception e) {
+            if (e instanceof UMLGenerationException) {
+                throw (UMLGenerationException) e;
             }
+            throw new UMLGenerationException("Error inesperado durante la generación del diagrama UML", e);
         }
     }
 
     /**
-     * Procesa un archivo Java para extraer información de clases, atributos y
-     * métodos.
-     * 
-     * @param file    El archivo Java a procesar
-     * @param context Contexto de análisis thread-safe
-     * @throws JavaParsingException Si ocurre un error al parsear el archivo
+     * Ejecuta el pipeline completo sobre un proyecto de calentamiento sin
+     * publicar ni guardar nada: el modelo no llega a la API de consultas ni
+     * al visor, y el .puml (y su SVG, si se renderiza) se escribe en un directorio propio.
+     *
+     * @param path      Directorio del proyecto de calentamiento
+     * @param outputDir Directorio para las salidas del calentamiento
+     * @param render    Si se renderiza también el SVG con PlantUML
+     * @return Informe de la ejecución
+     * @throws UMLGenerationException Si falla alguna fase
      */
-    private void processFile(File file, AnalysisContext context) throws JavaParsingException {
+    public AnalysisReport warmUp(String path, File outputDir, boolean render) throws UMLGenerationException {
+        AnalysisContext context = new AnalysisContext(path, outputDir, AnalysisOptions.fromProperties(properties));
+        String plantUmlFileName = WARMUP_DIAGRAM + properties.getPlantUmlExtension();
         try {
-            // Evitar procesamiento duplicado
-            if (!context.getProcessedFiles().add(file.getAbsolutePath())) {
-                return;
-            }
-
-            // Parsear el archivo Java con JavaParser
-            CompilationUnit cu = new JavaParser().parse(file).getResult().orElse(null);
-            if (cu == null) {
-                logger.warn("No se pudo parsear el archivo Java: {}", file.getName());
-                return;
+            long phaseStart = analysisPool.call(() -> analyze(new File(path), context, WARMUP_DIAGRAM, false));
+            if (render) {
+                try {
+                    generateImageFromPlantUML(new File(outputDir, plantUmlFileName));
+                    recordPhase(context, "render", phaseStart);
+                } catch (PlantUMLExecutionException e) {
+                    // Se avisa ya al arrancar de que PlantUML no está disponible
+                    logger.warn("PlantUML falló durante el calentamiento: {}", e.getMessage());
+                }
             }
-            // Extraer clases, atributos y métodos
-            processClasses(cu, context);
+            return context.getReport();
+        } catch (UMLGenerationException e) {
+            throw e;
         } catch (Exception e) {
-            throw new JavaParsingException("Error al parsear archivo Java: " + e.getMessage(),
-                    file.getName(), e);
+            throw new UMLGenerationException("Error inesperado durante el calentamiento", e);
         }
     }
 
     /**
-     * Procesa las clases encontradas en una unidad de compilación.
-     * Incluye análisis de anotaciones para detectar estereotipos.
-     * 
-     * @param cu      La unidad de compilación a procesar
-     * @param context Contexto de análisis thread-safe
+     * Fases de CPU de la generación: análisis de los fuentes, modelo de
+     * clases y archivo PlantUML.
+     *
+     * @param diagramName Nombre del diagrama (y de su archivo .puml)
+     * @param exportModel Si se exporta el JSON del modelo
+     * @return Instante de fin de la última fase
      */
-    private void processClasses(CompilationUnit cu, AnalysisContext context) {
-        List<String> classDefinitions = new ArrayList<>();
-
-        for (ClassOrInterfaceDeclaration clazz : cu.findAll(ClassOrInterfaceDeclaration.class)) {
-            StringBuilder classBuilder = new StringBuilder();
-
-            // Usar el servicio de análisis de anotaciones para generar la línea de clase
-            String classLineWithAnnotations = annotationAnalysisService.generateClassLineWithAnnotations(clazz);
-            classBuilder.append(classLineWithAnnotations).append("\n");
-
-            // Procesar atributos
-            for (FieldDeclaration field : clazz.getFields()) {
-                String type = field.getVariable(0).getTypeAsString();
-                String name = field.getVariable(0).getNameAsString();
-                String visibility = field.isPrivate() ? "-" : field.isProtected() ? "#" : "+";
-                classBuilder.append(visibility).append(" ").append(name).append(" : ").append(type).append("\n");
-            }
-
-            // Procesar métodos
-            for (MethodDeclaration method : clazz.getMethods()) {
-                String methodName = method.getNameAsString();
-                String visibility = method.isPrivate() ? "-" : method.isProtected() ? "#" : "+";
-                String returnType = method.getTypeAsString();
-                StringBuilder parameters = new StringBuilder();
-                for (Parameter parameter : method.getParameters()) {
-                    if (parameters.length() > 0) {
-                        parameters.append(", ");
-                    }
-                    parameters.append(parameter.getTypeAsString()).append(" ").append(parameter.getNameAsString());
-                }
-                classBuilder.append(visibility).append(" ").append(methodName).append("(")
-                        .append(parameters.toString()).append(") : ").append(returnType).append("\n");
-            }
-
-            // Fin de la clase
-            classBuilder.append("}");
+    private long analyze(File srcFolder, AnalysisContext context, String diagramName, boolean exportModel)
+            throws Exception {
+        logger.debug("Procesando directorio fuente: {}", srcFolder.getAbsolutePath());
+        long phaseStart = System.nanoTime();
+        processDirectory(srcFolder, context);
 
-            classDefinitions.add(classBuilder.toString());
+        // Pasada global sobre el modelo completo
+        if (SourceFileAnalyzer.isEnabled(context, RelationshipAnalyzer.SPRING_INFERENCE)) {
+            inferSpringInjections(context);
         }
+        phaseStart = recordPhase(context, "analysis", phaseStart);
 
-        // Agregar todas las definiciones de clase de este archivo al contexto
-        for (String classDef : classDefinitions) {
-            context.getClasses().add(classDef);
+        context.checkBudget();
+        logger.info("Procesamiento completado. Clases encontradas: {}, Relaciones: {}, Archivos: {}",
+                context.getClasses().size(), context.getRelationships().size(), context.getReport());
+        if (context.getReport().isDegraded()) {
+            logger.warn("Análisis degradado por presupuesto: {}", context.getReport().getDegradationReasons());
+        }
+        if (context.getReport().getFailedFiles() + context.getReport().getTimedOutFiles() > 0) {
+            logger.warn("Archivos sin analizar por error o tiempo: {}", context.getReport().getFailures());
         }
 
-        // Procesar relaciones una sola vez por archivo, no por cada clase
-        processRelationships(cu, context);
-
-        // Generar estadísticas de anotaciones para logging
-        annotationAnalysisService.generateAnnotationStatistics(cu);
-
-        // Detectar patrones arquitectónicos
-        List<String> patterns = annotationAnalysisService.detectArchitecturalPatterns(cu);
-        if (!patterns.isEmpty()) {
-            logger.info("Patrones arquitectónicos detectados en {}: {}",
-                    cu.getPrimaryTypeName().orElse("archivo"), patterns);
+        if (exportModel) {
+            exportModel(context);
+        } else {
+            context.setClassGraph(buildClassGraph(context));
         }
+        phaseStart = recordPhase(context, "model", phaseStart);
+
+        boolean packageLevel = context.getReport().getDegradation().atLeast(DegradationLevel.PACKAGE_LEVEL);
+        generatePlantUML(context, diagramName, packageLevel);
+        return recordPhase(context, "plantuml", phaseStart);
     }
 
     /**
-     * Procesa las relaciones entre las clases de forma exhaustiva y completa.
-     * Analiza TODOS los tipos de relaciones posibles en el código Java.
+     * Procesa los archivos Java de un directorio. El descubrimiento aplica los
+     * filtros y límites de la ejecución antes de leer ningún archivo. Con
+     * suficientes archivos y trabajadores configurados, el análisis por archivo
+     * se reparte entre procesos trabajadores. Los archivos que fallan o
+     * agotan su plazo se registran en el informe y el resto continúa.
      * 
-     * @param cu      La unidad de compilación a procesar
+     * @param folder  El directorio a procesar
      * @param context Contexto de análisis thread-safe
+     * @throws JavaParsingException Si se interrumpe el análisis distribuido
+     * @throws IOException          Si no se puede recorrer el directorio
      */
-    private void processRelationships(CompilationUnit cu, AnalysisContext context) {
-        // Set para evitar relaciones duplicadas
-        Set<String> addedRelationships = new HashSet<>();
-
-        for (ClassOrInterfaceDeclaration classDecl : cu.findAll(ClassOrInterfaceDeclaration.class)) {
-            String className = classDecl.getNameAsString();
-
-            if (isJavaNativeClass(className)) {
-                continue;
-            }
-
-            // 1. HERENCIA: Child --|> Parent
-            classDecl.getExtendedTypes().forEach(extendedType -> {
-                String parentClassName = extractSimpleClassName(extendedType.asString());
-                if (isValidClassForRelation(parentClassName, context)) {
-                    addRelationship(addedRelationships, context, className + " --|> " + parentClassName, "Herencia");
-                }
-            });
-
-            // 2. IMPLEMENTACIÓN: Class ..|> Interface
-            classDecl.getImplementedTypes().forEach(implType -> {
-                String interfaceName = extractSimpleClassName(implType.asString());
-                if (isValidClassForRelation(interfaceName, context)) {
-                    addRelationship(addedRelationships, context, className + " ..|> " + interfaceName,
-                            "Implementación");
-                }
-            });
-
-            // 3. ANÁLISIS COMPLETO DE CONSTRUCTORES
-            classDecl.getConstructors().forEach(constructor -> {
-                // Parámetros del constructor (inyección de dependencias)
-                constructor.getParameters().forEach(param -> {
-                    String paramType = extractSimpleClassName(param.getType().asString());
-                    if (isValidClassForRelation(paramType, context)) {
-                        addRelationship(addedRelationships, context, className + " ..> " + paramType + " : <<inject>>",
-                                "Inyección constructor");
-                    }
-                });
-
-                // Instanciaciones dentro del constructor
-                constructor.getBody().findAll(ObjectCreationExpr.class).forEach(creation -> {
-                    String createdType = extractSimpleClassName(creation.getType().asString());
-                    if (isValidClassForRelation(createdType, context)) {
-                        addRelationship(addedRelationships, context,
-                                className + " ..> " + createdType + " : <<creates>>", "Creación en constructor");
-                    }
-                });
-
-                // Llamadas a métodos en el constructor
-                constructor.getBody().findAll(MethodCallExpr.class).forEach(methodCall -> {
-                    if (methodCall.getScope().isPresent()) {
-                        String scopeType = extractTypeFromExpression(methodCall.getScope().get().toString(), cu);
-                        if (isValidClassForRelation(scopeType, context)) {
-                            addRelationship(addedRelationships, context,
-                                    className + " ..> " + scopeType + " : <<uses>>", "Uso en constructor");
-                        }
-                    }
-                });
-            });
-
-            // 4. ANÁLISIS EXHAUSTIVO DE CAMPOS/ATRIBUTOS
-            classDecl.getFields().forEach(field -> {
-                field.getVariables().forEach(variable -> {
-                    String fieldType = extractSimpleClassName(field.getElementType().asString());
-
-                    if (isValidClassForRelation(fieldType, context)) {
-                        String relationshipType = determineFieldRelationshipType(field, classDecl, fieldType);
-                        addRelationship(addedRelationships, context,
-                                className + " " + relationshipType + " " + fieldType, "Campo/Atributo");
-                    }
-                });
-            });
-
-            // 5. ANÁLISIS COMPLETO DE MÉTODOS
-            classDecl.getMethods().forEach(method -> {
-                // Parámetros de métodos
-                method.getParameters().forEach(param -> {
-                    String paramType = extractSimpleClassName(param.getType().asString());
-                    if (isValidClassForRelation(paramType, context)) {
-                        addRelationship(addedRelationships, context, className + " ..> " + paramType + " : <<uses>>",
-                                "Parámetro método");
-                    }
-                });
-
-                // Tipos de retorno
-                String returnType = extractSimpleClassName(method.getType().asString());
-                if (isValidClassForRelation(returnType, context) && !returnType.equals("void")) {
-                    addRelationship(addedRelationships, context, className + " ..> " + returnType + " : <<returns>>",
-                            "Tipo retorno");
-                }
-
-                // Instanciaciones dentro del método (new Class())
-                method.getBody().ifPresent(body -> {
-                    body.findAll(ObjectCreationExpr.class).forEach(creation -> {
-                        String createdType = extractSimpleClassName(creation.getType().asString());
-                        if (isValidClassForRelation(createdType, context)) {
-                            addRelationship(addedRelationships, context,
-                                    className + " ..> " + createdType + " : <<creates>>", "Creación en método");
-                        }
-                    });
-
-                    // Variables locales tipadas
-                    body.findAll(VariableDeclarationExpr.class).forEach(varDecl -> {
-                        String varType = extractSimpleClassName(varDecl.getElementType().asString());
-                        if (isValidClassForRelation(varType, context)) {
-                            addRelationship(addedRelationships, context, className + " ..> " + varType + " : <<uses>>",
-                                    "Variable local");
-                        }
-                    });
-
-                    // Llamadas a métodos (Class.method() o object.method())
-                    body.findAll(MethodCallExpr.class).forEach(methodCall -> {
-                        if (methodCall.getScope().isPresent()) {
-                            String scopeType = extractTypeFromExpression(methodCall.getScope().get().toString(), cu);
-                            if (isValidClassForRelation(scopeType, context)) {
-                                addRelationship(addedRelationships, context,
-                                        className + " ..> " + scopeType + " : <<calls>>", "Llamada método");
-                            }
-                        }
-                    });
-                });
-            });
-
-            // 6. ANÁLISIS DE IMPORTS - Solo del proyecto actual
-            analyzeImportsForRelationships(cu, className, context, addedRelationships);
-
-            // 7. RELACIONES POR ANOTACIONES SPRING
-            analyzeSpringAnnotationRelationships(classDecl, className, context, addedRelationships);
-
-            // 8. RELACIONES CON CLASES ANIDADAS (Inner/Nested Classes)
-            analyzeNestedClassRelationships(classDecl, className, context, addedRelationships);
+    private void processDirectory(File folder, AnalysisContext context) throws JavaParsingException, IOException {
+        List<File> files = sourceDiscoveryService.discover(folder, context.getOptions(), context.getReport());
+        for (File file : files) {
+            String name = file.getName();
+            context.getProjectTypes().add(name.substring(0, name.length() - ".java".length()));
         }
 
-        // 9. RELACIONES ESTÁTICAS (llamadas a métodos estáticos de otras clases)
-        analyzeStaticMethodRelationships(cu, context, addedRelationships);
-
-        // 10. RELACIONES POR MANEJO DE EXCEPCIONES (throws, catch)
-        analyzeExceptionRelationships(cu, context, addedRelationships);
+        if (distributedAnalysisService.shouldDistribute(files.size())) {
+            distributedAnalysisService.analyze(files, context.getOptions(), shardHandler(context));
+            return;
+        }
 
-        // 11. RELACIONES POR TIPOS GENÉRICOS (generics)
-        analyzeGenericTypeRelationships(cu, context, addedRelationships);
+        for (File file : files) {
+            logger.debug("Procesando archivo Java: {}", file.getName());
+            processFile(file, context);
+        }
+    }
 
-        // 12. RELACIONES POR SOBRESCRITURA DE MÉTODOS (@Override)
-        analyzeMethodOverrideRelationships(cu, context, addedRelationships);
+    /**
+     * Expone al coordinador distribuido las operaciones del trabajo.
+     */
+    private DistributedAnalysisService.ShardHandler shardHandler(AnalysisContext context) {
+        return new DistributedAnalysisService.ShardHandler() {
+            @Override
+            public boolean admit(File file) {
+                return admitFile(file, context);
+            }
 
-        // 13. RELACIONES POR PROGRAMACIÓN FUNCIONAL (Lambda, Method References, Stream
-        // API)
-        analyzeFunctionalProgrammingRelationships(cu, context, addedRelationships);
+            @Override
+            public DegradationLevel currentLevel() {
+                return context.checkBudget();
+            }
 
-        // 14. RELACIONES POR TYPE INFERENCE (var keyword)
-        analyzeTypeInferenceRelationships(cu, context, addedRelationships);
+            @Override
+            public void accept(FileModel model) {
+                mergeFileModel(model, context);
+            }
 
-        // 15. RELACIONES POR INTERFACES FUNCIONALES (Supplier, Consumer, Function,
-        // Predicate)
-        analyzeFunctionalInterfaceRelationships(cu, context, addedRelationships);
+            @Override
+            public FileModel analyzeLocally(File file) throws JavaParsingException {
+                return sourceFileAnalyzer.analyzeFile(file, context);
+            }
 
-        logger.info("Total de relaciones procesadas: {}", addedRelationships.size());
+            @Override
+            public void reject(File file, JavaParsingException e) {
+                recordFailure(file, e, context);
+            }
+        };
     }
 
     /**
-     * Añade una relación evitando duplicados y loggeando la acción.
+     * Procesa un archivo Java para extraer información de clases, atributos y
+     * métodos. Un archivo que no se puede analizar se registra en el informe
+     * y no interrumpe el trabajo.
+     * 
+     * @param file    El archivo Java a procesar
+     * @param context Contexto de análisis thread-safe
      */
-    private void addRelationship(Set<String> addedRelationships, AnalysisContext context,
-            String relationship, String type) {
-        if (addedRelationships.add(relationship)) {
-            context.getRelationships().add(relationship);
-            logger.debug("{} detectada: {}", type, relationship);
+    private void processFile(File file, AnalysisContext context) {
+        if (!admitFile(file, context)) {
+            return;
+        }
+        try {
+            mergeFileModel(sourceFileAnalyzer.analyzeFile(file, context), context);
+        } catch (JavaParsingException e) {
+            recordFailure(file, e, context);
         }
     }
 
     /**
-     * Extrae el tipo de una expresión analizando el contexto.
+     * Registra en el informe un archivo que no se pudo analizar o que superó
+     * su tiempo máximo.
      */
-    private String extractTypeFromExpression(String expression, CompilationUnit cu) {
-        // Si es una llamada a método estática (ClassName.method)
-        if (expression.contains(".") && Character.isUpperCase(expression.charAt(0))) {
-            String className = expression.substring(0, expression.indexOf("."));
-            return extractSimpleClassName(className);
-        }
-
-        // Si es una variable, buscar su tipo en el contexto
-        for (ClassOrInterfaceDeclaration classDecl : cu.findAll(ClassOrInterfaceDeclaration.class)) {
-            // Buscar en campos
-            for (FieldDeclaration field : classDecl.getFields()) {
-                if (field.getVariables().stream().anyMatch(var -> var.getNameAsString().equals(expression))) {
-                    return extractSimpleClassName(field.getElementType().asString());
-                }
-            }
+    private void recordFailure(File file, JavaParsingException e, AnalysisContext context) {
+        String path = file.getAbsolutePath();
+        String base = new File(context.getBasePath()).getAbsolutePath() + File.separator;
+        String name = path.startsWith(base) ? path.substring(base.length()) : file.getName();
+        if (e instanceof ParseTimeoutException) {
+            logger.warn("Archivo abandonado por tiempo: {} ({})", name, e.getMessage());
+            context.getReport().fileTimedOut(name, e.getMessage());
+        } else {
+            logger.warn("Archivo omitido por error de parseo: {} ({})", name, e.getMessage());
+            context.getReport().fileFailed(name, e.getMessage());
         }
-
-        return extractSimpleClassName(expression);
     }
 
     /**
-     * Analiza relaciones implícitas por anotaciones de Spring.
+     * Decide si un archivo se analiza: descarta los ya procesados y, con el
+     * tiempo del trabajo agotado, todos los demás. Contabiliza los bytes
+     * admitidos en el presupuesto.
+     *
+     * @return true si el archivo debe analizarse
      */
-    private void analyzeSpringAnnotationRelationships(ClassOrInterfaceDeclaration classDecl, String className,
-            AnalysisContext context, Set<String> addedRelationships) {
-
-        // Si es un @Controller, puede usar @Service
-        boolean isController = classDecl.getAnnotations().stream()
-                .anyMatch(ann -> ann.getNameAsString().equals("Controller")
-                        || ann.getNameAsString().equals("RestController"));
-
-        // Si es un @Service, puede usar @Repository o otros @Service
-        boolean isService = classDecl.getAnnotations().stream()
-                .anyMatch(ann -> ann.getNameAsString().equals("Service"));
-
-        if (isController || isService) {
-            // Buscar en otros archivos del proyecto clases que podrían ser inyectadas
-            // (Esto se puede expandir para ser más específico)
-            for (String otherClass : extractAllClassNamesFromContext(context)) {
-                if (!otherClass.equals(className) && isValidClassForRelation(otherClass, context)) {
-                    // Relación probable de inyección por arquitectura Spring
-                    if (isController && otherClass.contains("Service")) {
-                        addRelationship(addedRelationships, context,
-                                className + " ..> " + otherClass + " : <<likely-inject>>", "Probable inyección Spring");
-                    } else if (isService && (otherClass.contains("Repository") || otherClass.contains("Service"))) {
-                        addRelationship(addedRelationships, context,
-                                className + " ..> " + otherClass + " : <<likely-inject>>", "Probable inyección Spring");
-                    }
-                }
-            }
+    private boolean admitFile(File file, AnalysisContext context) {
+        // Evitar procesamiento duplicado
+        if (!context.getProcessedFiles().add(file.getAbsolutePath())) {
+            return false;
         }
+
+        // Con el tiempo agotado no se parsea nada más: el diagrama sale con lo acumulado
+        if (context.getBudget().isTimeExhausted()) {
+            context.checkBudget();
+            context.getReport().fileSkippedByBudget();
+            return false;
+        }
+        context.getBudget().addParsedBytes(file.length());
+        return true;
     }
 
     /**
-     * Analiza relaciones con clases anidadas (inner/nested classes).
+     * Incorpora al modelo global del trabajo el modelo de un archivo. Aquí se
+     * validan las relaciones contra el índice de tipos del proyecto: el modelo
+     * guarda todos los tipos referenciados candidatos.
      */
-    private void analyzeNestedClassRelationships(ClassOrInterfaceDeclaration classDecl, String className,
-            AnalysisContext context, Set<String> addedRelationships) {
-
-        // Buscar clases anidadas dentro de esta clase
-        classDecl.findAll(ClassOrInterfaceDeclaration.class).forEach(nestedClass -> {
-            if (!nestedClass.equals(classDecl)) { // Evitar la clase padre
-                String nestedClassName = nestedClass.getNameAsString();
-
-                // Relación de composición entre clase padre e hija
-                addRelationship(addedRelationships, context,
-                        className + " *-- " + nestedClassName + " : <<nested>>", "Clase anidada");
-
-                logger.debug("Clase anidada detectada: {} dentro de {}", nestedClassName, className);
+    private void mergeFileModel(FileModel model, AnalysisContext context) {
+        SymbolTable symbols = context.getSymbols();
+        List<String> definitions = new ArrayList<>(model.getTypes().size());
+        for (FileModel.DeclaredType type : model.getTypes()) {
+            context.getClassPackages().putIfAbsent(type.getName(), model.getPackageName());
+            for (String stereotype : type.getStereotypes()) {
+                context.indexStereotype(stereotype, type.getName());
             }
-        });
-    }
+            definitions.add(type.getDefinition());
+        }
+        context.getClasses().addAll(definitions);
 
-    /**
-     * Analiza relaciones con llamadas a métodos estáticos de otras clases.
-     */
-    private void analyzeStaticMethodRelationships(CompilationUnit cu, AnalysisContext context,
-            Set<String> addedRelationships) {
-
-        // Buscar todas las llamadas a métodos estáticos
-        cu.findAll(MethodCallExpr.class).forEach(methodCall -> {
-            if (methodCall.getScope().isPresent()) {
-                String scope = methodCall.getScope().get().toString();
-
-                // Detectar llamadas estáticas (ClassName.method())
-                if (scope.contains(".") && Character.isUpperCase(scope.charAt(0))) {
-                    // Es una llamada estática (ej: LoggerFactory.getLogger, Arrays.asList)
-                    String staticClassName = extractSimpleClassName(scope.substring(0, scope.indexOf(".")));
-
-                    if (isValidClassForRelation(staticClassName, context)) {
-                        // Encontrar la clase que hace la llamada
-                        String callerClass = findCallerClassForMethodCall(methodCall, cu);
-                        if (callerClass != null && !callerClass.equals(staticClassName)) {
-                            addRelationship(addedRelationships, context,
-                                    callerClass + " ..> " + staticClassName + " : <<static-call>>",
-                                    "Llamada estática");
-                        }
-                    }
-                } else if (Character.isUpperCase(scope.charAt(0)) && !scope.contains(".")) {
-                    // Llamada estática simple (ej: ClassName.method())
-                    String staticClassName = extractSimpleClassName(scope);
-
-                    if (isValidClassForRelation(staticClassName, context)) {
-                        String callerClass = findCallerClassForMethodCall(methodCall, cu);
-                        if (callerClass != null && !callerClass.equals(staticClassName)) {
-                            addRelationship(addedRelationships, context,
-                                    callerClass + " ..> " + staticClassName + " : <<static-call>>",
-                                    "Llamada estática simple");
-                        }
-                    }
-                }
+        List<Relationship> relationships = new ArrayList<>(model.getEdges().size());
+        for (FileModel.Edge edge : model.getEdges()) {
+            if (!UNCHECKED_KINDS.contains(edge.getKind())
+                    && !context.getProjectTypes().contains(edge.getTarget())) {
+                continue;
             }
-        });
+            int kind = edge.getDetail() == null ? symbols.kind(edge.getKind())
+                    : symbols.kind(edge.getKind(), edge.getDetail());
+            relationships.add(new Relationship(symbols.intern(edge.getSource()), symbols.intern(edge.getTarget()),
+                    kind));
+        }
+        context.getRelationships().addAll(relationships);
+        context.getReport().fileAnalyzed();
     }
 
     /**
-     * Encuentra la clase que contiene una llamada a método específica.
+     * Añade directamente al modelo global una relación de una pasada global.
      */
-    private String findCallerClassForMethodCall(MethodCallExpr methodCall, CompilationUnit cu) {
-        // Buscar la clase que contiene este método call
-        for (ClassOrInterfaceDeclaration classDecl : cu.findAll(ClassOrInterfaceDeclaration.class)) {
-            if (classDecl.findAll(MethodCallExpr.class).contains(methodCall)) {
-                return classDecl.getNameAsString();
+    private void addRelationship(LongHashSet addedRelationships, AnalysisContext context,
+            String source, String target, EdgeKind kind, String type) {
+        SymbolTable symbols = context.getSymbols();
+        int sourceId = symbols.intern(source);
+        int targetId = symbols.intern(target);
+        int kindId = symbols.kind(kind);
+        if (addedRelationships.add(Relationship.key(sourceId, targetId, kindId))) {
+            Relationship relationship = new Relationship(sourceId, targetId, kindId);
+            context.getRelationships().add(relationship);
+            if (logger.isDebugEnabled()) {
+                logger.debug("{} detectada: {}", type, context.getSymbols().render(relationship));
             }
         }
-        return null;
     }
 
     /**
-     * Analiza relaciones por manejo de excepciones (throws, catch).
+     * Pasada global de relaciones implícitas por anotaciones de Spring: los
+     * controladores dependen probablemente de los servicios y los servicios de
+     * los repositorios y de otros servicios.
+     *
+     * Se ejecuta una vez sobre el modelo completo usando el índice de
+     * estereotipos construido durante el parseo, de modo que el coste es lineal
+     * en las relaciones emitidas y el resultado no depende del orden (ni del
+     * paralelismo) con que se procesaron los archivos.
      */
-    private void analyzeExceptionRelationships(CompilationUnit cu, AnalysisContext context,
-            Set<String> addedRelationships) {
-
-        for (ClassOrInterfaceDeclaration classDecl : cu.findAll(ClassOrInterfaceDeclaration.class)) {
-            String className = classDecl.getNameAsString();
-
-            if (isJavaNativeClass(className)) {
+    private void inferSpringInjections(AnalysisContext context) {
+        Set<String> services = new TreeSet<>();
+        Set<String> servicesAndRepositories = new TreeSet<>();
+        for (String declared : context.getClassPackages().keySet()) {
+            if (!isValidClassForRelation(declared, context)) {
                 continue;
             }
+            if (declared.contains("Service")) {
+                services.add(declared);
+                servicesAndRepositories.add(declared);
+            } else if (declared.contains("Repository")) {
+                servicesAndRepositories.add(declared);
+            }
+        }
 
-            // 1. Análisis de cláusulas throws en métodos
-            classDecl.getMethods().forEach(method -> {
-                method.getThrownExceptions().forEach(thrownException -> {
-                    String exceptionType = extractSimpleClassName(thrownException.asString());
-                    if (isValidClassForRelation(exceptionType, context)) {
-                        addRelationship(addedRelationships, context,
-                                className + " ..> " + exceptionType + " : <<throws>>",
-                                "Declara excepción");
-                    }
-                });
-            });
-
-            // 2. Análisis de cláusulas throws en constructores
-            classDecl.getConstructors().forEach(constructor -> {
-                constructor.getThrownExceptions().forEach(thrownException -> {
-                    String exceptionType = extractSimpleClassName(thrownException.asString());
-                    if (isValidClassForRelation(exceptionType, context)) {
-                        addRelationship(addedRelationships, context,
-                                className + " ..> " + exceptionType + " : <<throws>>",
-                                "Constructor declara excepción");
-                    }
-                });
-            });
+        Set<String> controllers = new TreeSet<>();
+        controllers.addAll(context.getStereotypeIndex().getOrDefault("Controller", Set.of()));
+        controllers.addAll(context.getStereotypeIndex().getOrDefault("RestController", Set.of()));
+        Set<String> annotatedServices = context.getStereotypeIndex().getOrDefault("Service", Set.of());
 
-            // 3. Análisis de bloques catch
-            classDecl.findAll(CatchClause.class).forEach(catchClause -> {
-                String exceptionType = extractSimpleClassName(catchClause.getParameter().getType().asString());
-                if (isValidClassForRelation(exceptionType, context)) {
+        LongHashSet addedRelationships = new LongHashSet();
+        for (String controller : controllers) {
+            for (String target : services) {
+                if (!target.equals(controller)) {
                     addRelationship(addedRelationships, context,
-                            className + " ..> " + exceptionType + " : <<catches>>",
-                            "Captura excepción");
+                            controller, target, EdgeKind.LIKELY_INJECT,
+                            "Probable inyección Spring");
                 }
-            });
+            }
         }
+        for (String service : annotatedServices) {
+            for (String target : servicesAndRepositories) {
+                if (!target.equals(service)) {
+                    addRelationship(addedRelationships, context,
+                            service, target, EdgeKind.LIKELY_INJECT,
+                            "Probable inyección Spring");
+                }
+            }
+        }
+        logger.debug("Inferencia Spring: {} controladores, {} servicios, {} relaciones",
+                controllers.size(), annotatedServices.size(), addedRelationships.size());
     }
 
     /**
-     * Analiza relaciones por tipos genéricos (generics) en campos, métodos y
-     * parámetros.
+     * Valida si una clase es válida para crear relaciones.
      */
-    private void analyzeGenericTypeRelationships(CompilationUnit cu, AnalysisContext context,
-            Set<String> addedRelationships) {
-
-        for (ClassOrInterfaceDeclaration classDecl : cu.findAll(ClassOrInterfaceDeclaration.class)) {
-            String className = classDecl.getNameAsString();
-
-            if (isJavaNativeClass(className)) {
-                continue;
-            }
-
-            // 1. Análisis de tipos genéricos en campos
-            classDecl.getFields().forEach(field -> {
-                analyzeGenericTypesInType(field.getElementType(), className, context, addedRelationships,
-                        "Campo genérico");
-            });
-
-            // 2. Análisis de tipos genéricos en métodos
-            classDecl.getMethods().forEach(method -> {
-                // Tipo de retorno genérico
-                analyzeGenericTypesInType(method.getType(), className, context, addedRelationships, "Retorno genérico");
-
-                // Parámetros con tipos genéricos
-                method.getParameters().forEach(param -> {
-                    analyzeGenericTypesInType(param.getType(), className, context, addedRelationships,
-                            "Parámetro genérico");
-                });
-            });
-
-            // 3. Análisis de tipos genéricos en constructores
-            classDecl.getConstructors().forEach(constructor -> {
-                constructor.getParameters().forEach(param -> {
-                    analyzeGenericTypesInType(param.getType(), className, context, addedRelationships,
-                            "Constructor genérico");
-                });
-            });
-        }
+    private boolean isValidClassForRelation(String className, AnalysisContext context) {
+        return SourceFileAnalyzer.isReferenceCandidate(className, context)
+                && context.getProjectTypes().contains(className);
     }
 
     /**
-     * Analiza tipos genéricos específicos en un Type y extrae relaciones.
+     * Genera el archivo PlantUML a partir de la información extraída.
+     * 
+     * @param context Contexto de análisis con las clases y relaciones
+     * @throws UMLGenerationException Si ocurre un error durante la generación del
+     *                                archivo
      */
-    private void analyzeGenericTypesInType(Type type, String className, AnalysisContext context,
-            Set<String> addedRelationships, String relationshipDescription) {
-        String typeString = type.asString();
-
-        // Detectar tipos genéricos (ej: List<User>, Map<String, User>)
-        if (typeString.contains("<") && typeString.contains(">")) {
-            // Extraer tipos dentro de los genéricos
-            String genericContent = typeString.substring(typeString.indexOf("<") + 1, typeString.lastIndexOf(">"));
-
-            // Manejar múltiples tipos genéricos separados por coma
-            String[] genericTypes = genericContent.split(",");
-
-            for (String genericType : genericTypes) {
-                String cleanGenericType = extractSimpleClassName(genericType.trim());
-                if (isValidClassForRelation(cleanGenericType, context)) {
-                    addRelationship(addedRelationships, context,
-                            className + " ..> " + cleanGenericType + " : <<generic>>",
-                            relationshipDescription);
-                }
-
-                // Manejar genéricos anidados (ej: List<Map<String, User>>)
-                if (genericType.contains("<")) {
-                    analyzeNestedGenerics(genericType.trim(), className, context, addedRelationships,
-                            relationshipDescription);
+    private void generatePlantUML(AnalysisContext context, String diagramName, boolean packageLevel)
+            throws UMLGenerationException {
+        String fileName = diagramName + properties.getPlantUmlExtension();
+        try {
+            File outputDir = context.getOutputDir();
+            if (!outputDir.exists()) {
+                outputDir.mkdirs();
+            }
+            try (FileWriter writer = new FileWriter(new File(outputDir, fileName))) {
+                writer.write("@startuml " + diagramName + "\n");
+                writer.write(SKIN);
+                DegradationLevel level = context.getReport().getDegradation();
+                if (packageLevel) {
+                    writePackageDiagram(writer, context);
+                } else {
+                    boolean withMembers = !level.atLeast(DegradationLevel.NO_MEMBERS);
+                    for (String clazz : context.getClasses())
+                        writer.write((withMembers ? clazz : withoutMembers(clazz)) + "\n");
+                    for (Relationship rel : context.getRelationships())
+                        writer.write(context.getSymbols().render(rel) + "\n");
                 }
+                writer.write("@enduml\n");
             }
+            logger.info("Diagrama PlantUML generado exitosamente: {}/{}",
+                    context.getOutputDir().getName(), fileName);
+        } catch (IOException e) {
+            throw new UMLGenerationException("Error al escribir archivo PlantUML",
+                    "generatePlantUML", fileName, e);
         }
     }
 
     /**
-     * Analiza tipos genéricos anidados recursivamente.
+     * Renderiza el diagrama principal. Con el renderizado propio no se lanza
+     * PlantUML. En modo por paquetes se compone a partir de la caché de
+     * maquetación, de modo que solo se maquetan los paquetes que cambiaron; si
+     * la composición falla se renderiza el .puml completo, que se escribe en
+     * ambos modos. La vista degradada por paquetes se renderiza siempre entera.
      */
-    private void analyzeNestedGenerics(String genericType, String className, AnalysisContext context,
-            Set<String> addedRelationships, String relationshipDescription) {
-        if (genericType.contains("<") && genericType.contains(">")) {
-            String nestedContent = genericType.substring(genericType.indexOf("<") + 1, genericType.lastIndexOf(">"));
-            String[] nestedTypes = nestedContent.split(",");
-
-            for (String nestedType : nestedTypes) {
-                String cleanNestedType = extractSimpleClassName(nestedType.trim());
-                if (isValidClassForRelation(cleanNestedType, context)) {
-                    addRelationship(addedRelationships, context,
-                            className + " ..> " + cleanNestedType + " : <<nested-generic>>",
-                            relationshipDescription + " anidado");
-                }
-
-                // Recursión para genéricos más profundos
-                if (nestedType.contains("<")) {
-                    analyzeNestedGenerics(nestedType.trim(), className, context, addedRelationships,
-                            relationshipDescription);
-                }
+    private void renderDiagram(AnalysisContext context) throws UMLGenerationException {
+        File svg = new File(context.getOutputDir(), properties.getSvgFileName());
+        if (properties.getDiagramRenderer() == UMLGeneratorProperties.DiagramRenderer.NATIVE) {
+            renderNative(diagramGraph(context), svg);
+            return;
+        }
+        boolean packageLevel = context.getReport().getDegradation().atLeast(DegradationLevel.PACKAGE_LEVEL);
+        if (properties.getLayoutMode() == UMLGeneratorProperties.LayoutMode.PARTITIONED && !packageLevel) {
+            List<LayoutCacheService.Fragment> fragments = new ArrayList<>();
+            List<LayoutCacheService.Link> links = new ArrayList<>();
+            partitionByPackage(context, fragments, links);
+            try {
+                layoutCacheService.compose(fragments, links, svg, this::runPlantUml);
+                return;
+            } catch (IOException | PlantUMLExecutionException e) {
+                logger.warn("Falló la composición por paquetes, se renderiza el diagrama completo: {}",
+                        e.getMessage());
+            }
+        }
+        generateImageFromPlantUML(new File(context.getOutputDir(), properties.getPlantUmlFileName()));
+    }
+
+    /**
+     * Reparte el diagrama en un fragmento por paquete con sus clases y las
+     * relaciones que salen de ellas hacia el mismo paquete o hacia tipos que no
+     * son del proyecto; el resto son relaciones entre paquetes. Las líneas se
+     * ordenan para que un paquete sin cambios produzca siempre la misma fuente.
+     */
+    private static void partitionByPackage(AnalysisContext context, List<LayoutCacheService.Fragment> fragments,
+            List<LayoutCacheService.Link> links) {
+        Map<String, String> classPackages = context.getClassPackages();
+        boolean withMembers = !context.getReport().getDegradation().atLeast(DegradationLevel.NO_MEMBERS);
+        Map<String, List<String>> definitions = new TreeMap<>();
+        for (String clazz : context.getClasses()) {
+            Matcher header = CLASS_HEADER.matcher(clazz);
+            String packageName = header.find()
+                    ? classPackages.getOrDefault(header.group(1), DEFAULT_PACKAGE)
+                    : DEFAULT_PACKAGE;
+            definitions.computeIfAbsent(packageName, key -> new ArrayList<>())
+                    .add(withMembers ? clazz : withoutMembers(clazz));
+        }
+
+        SymbolTable symbols = context.getSymbols();
+        Map<String, List<String>> edges = new TreeMap<>();
+        for (Relationship rel : context.getRelationships()) {
+            String source = symbols.name(rel.getSource());
+            String target = symbols.name(rel.getTarget());
+            String from = classPackages.getOrDefault(source, DEFAULT_PACKAGE);
+            String to = classPackages.get(target);
+            if (to == null || to.equals(from)) {
+                edges.computeIfAbsent(from, key -> new ArrayList<>()).add(symbols.render(rel));
+            } else {
+                links.add(new LayoutCacheService.Link(source, target, symbols.arrow(rel.getKind()),
+                        symbols.label(rel.getKind())));
             }
         }
-    }
 
-    /**
-     * Extrae todos los nombres de clases del contexto para análisis de relaciones.
-     */
-    private Set<String> extractAllClassNamesFromContext(AnalysisContext context) {
-        Set<String> classNames = new HashSet<>();
-        for (String classDef : context.getClasses()) {
-            // Extraer nombre de clase de la primera línea de definición
-            String[] lines = classDef.split("\n");
-            if (lines.length > 0) {
-                String firstLine = lines[0].trim();
-                if (firstLine.startsWith("class ") || firstLine.startsWith("interface ")) {
-                    String className = firstLine.replaceFirst("(class|interface)\\s+", "")
-                            .replaceAll("\\s*<<.*?>>.*", "")
-                            .replaceAll("\\s*\\{.*", "")
-                            .trim();
-                    if (!className.isEmpty()) {
-                        classNames.add(className);
-                    }
-                }
+        Set<String> packages = new TreeSet<>(definitions.keySet());
+        packages.addAll(edges.keySet());
+        for (String packageName : packages) {
+            StringBuilder source = new StringBuilder(SKIN);
+            for (List<String> lines : List.of(definitions.getOrDefault(packageName, List.of()),
+                    edges.getOrDefault(packageName, List.of()))) {
+                lines.stream().sorted().forEach(line -> source.append(line).append('\n'));
             }
+            fragments.add(new LayoutCacheService.Fragment(packageName, source.toString()));
         }
-        return classNames;
     }
 
     /**
-     * Determina el tipo de relación más apropiado para un campo basado en su
-     * contexto.
+     * Prepara el visor de diagramas grandes. Si el SVG supera el umbral se
+     * renderiza una vista previa por paquetes, que es lo primero que carga la
+     * página; el SVG guardado se indexa cuando la página pide el visor.
      */
-    private String determineFieldRelationshipType(FieldDeclaration field, ClassOrInterfaceDeclaration classDecl,
-            String fieldType) {
-        // Verificar si es composición (se crea en constructor)
-        boolean isComposition = classDecl.getConstructors().stream()
-                .anyMatch(constructor -> constructor.getBody().findAll(ObjectCreationExpr.class).stream()
-                        .anyMatch(creation -> extractSimpleClassName(creation.getType().asString()).equals(fieldType)));
-
-        // Verificar si es colección
-        String fieldTypeString = field.getElementType().asString();
-        boolean isCollection = fieldTypeString.contains("List") || fieldTypeString.contains("Set") ||
-                fieldTypeString.contains("Collection") || fieldTypeString.contains("[]");
-
-        // Verificar anotaciones de Spring para inyección
-        boolean isInjected = field.getAnnotations().stream()
-                .anyMatch(annotation -> annotation.getNameAsString().equals("Autowired") ||
-                        annotation.getNameAsString().equals("Inject"));
-
-        if (isInjected) {
-            return "..> : <<autowired>>";
-        } else if (isComposition) {
-            return isCollection ? "*-- \"*\"" : "*--";
-        } else if (isCollection) {
-            return "o-- \"*\"";
+    private void prepareViewer(AnalysisContext context) throws UMLGenerationException {
+        File outputDir = context.getOutputDir();
+        if (!svgTileService.needsTiles(new File(outputDir, properties.getSvgFileName()))) {
+            return;
+        }
+        generatePlantUML(context, properties.getOverviewFileName(), true);
+        if (properties.getDiagramRenderer() == UMLGeneratorProperties.DiagramRenderer.NATIVE) {
+            renderNative(context.getClassGraph().packageGraph(),
+                    new File(outputDir, properties.getOverviewFileName() + properties.getSvgExtension()));
         } else {
-            return "-->";
+            generateImageFromPlantUML(
+                    new File(outputDir, properties.getOverviewFileName() + properties.getPlantUmlExtension()));
         }
     }
 
     /**
-     * Analiza los imports para detectar dependencias del proyecto.
+     * @return Grafo que representa el diagrama: el de clases o, en la vista
+     *         degradada, el agregado por paquetes
      */
-    private void analyzeImportsForRelationships(CompilationUnit cu, String className,
-            AnalysisContext context, Set<String> addedRelationships) {
-        cu.getImports().forEach(importDecl -> {
-            String importName = importDecl.getNameAsString();
-
-            // Solo procesar imports del mismo proyecto (no java.*, javax.*,
-            // org.springframework.*, etc.)
-            if (!importName.startsWith("java.") &&
-                    !importName.startsWith("javax.") &&
-                    !importName.startsWith("org.springframework.") &&
-                    !importName.startsWith("org.slf4j.")) {
-
-                String importedClassName = extractSimpleClassName(importName);
-                if (isValidClassForRelation(importedClassName, context)) {
-                    String relationship = className + " ..> " + importedClassName + " : <<import>>";
-                    if (addedRelationships.add(relationship)) {
-                        context.getRelationships().add(relationship);
-                        logger.debug("Dependencia de import detectada: {}", relationship);
-                    }
-                }
-            }
-        });
+    private static ClassGraph diagramGraph(AnalysisContext context) {
+        boolean packageLevel = context.getReport().getDegradation().atLeast(DegradationLevel.PACKAGE_LEVEL);
+        return packageLevel ? context.getClassGraph().packageGraph() : context.getClassGraph();
     }
 
     /**
-     * Valida si una clase es válida para crear relaciones.
+     * Renderiza un grafo a SVG con la maquetación propia, sin PlantUML.
+     *
+     * @param svg Archivo SVG de destino
      */
-    private boolean isValidClassForRelation(String className, AnalysisContext context) {
-        return className != null &&
-                !className.trim().isEmpty() &&
-                !isJavaNativeClass(className) &&
-                isClassInDirectory(className, context);
+    private void renderNative(ClassGraph graph, File svg) throws UMLGenerationException {
+        try {
+            nativeSvgRenderer.render(graph, svg);
+        } catch (IOException e) {
+            throw new UMLGenerationException("Error al escribir el SVG del renderizado propio",
+                    "renderNative", svg.getName(), e);
+        }
     }
 
     /**
-     * Extrae el nombre simple de una clase desde un tipo complejo.
-     * Maneja tipos genéricos, arrays, nombres completos de paquetes, etc.
-     * 
-     * @param fullType El tipo completo (ej: "java.util.List<com.example.User>",
-     *                 "User[]", "com.example.User")
-     * @return El nombre simple de la clase principal (ej: "List", "User", "User")
+     * Anota en el informe la duración de una fase.
+     *
+     * @return Instante de fin, que es el inicio de la fase siguiente
      */
-    private static String extractSimpleClassName(String fullType) {
-        if (fullType == null || fullType.trim().isEmpty()) {
-            return "";
-        }
-
-        String cleanType = fullType.trim();
-
-        // Manejar arrays (User[] -> User)
-        if (cleanType.endsWith("[]")) {
-            cleanType = cleanType.substring(0, cleanType.length() - 2);
-        }
-
-        // Manejar tipos genéricos (List<User> -> List)
-        if (cleanType.contains("<")) {
-            cleanType = cleanType.substring(0, cleanType.indexOf("<"));
-        }
-
-        // Manejar nombres completos de paquetes (com.example.User -> User)
-        if (cleanType.contains(".")) {
-            cleanType = cleanType.substring(cleanType.lastIndexOf(".") + 1);
-        }
-
-        return cleanType.trim();
-    }
-
-    private static boolean isJavaNativeClass(String className) {
-        return JAVA_NATIVE_CLASSES.contains(className);
+    private static long recordPhase(AnalysisContext context, String phase, long start) {
+        long end = System.nanoTime();
+        context.getReport().recordPhase(phase, (end - start) / 1_000_000);
+        return end;
     }
 
     /**
-     * Verifica si una clase está en el directorio de origen o sus subdirectorios.
-     * 
-     * @param className El nombre de la clase a verificar
-     * @param context   Contexto de análisis con el path base
-     * @return true si la clase está en el directorio, false en caso contrario
+     * Construye el modelo de clases del trabajo y lo exporta a su directorio
+     * de salida; la API de consultas lo lee del almacén al guardarse.
      */
-    private boolean isClassInDirectory(String className, AnalysisContext context) {
-        File srcFolder = new File(context.getBasePath());
-        File[] files = srcFolder.listFiles();
-        if (files == null)
-            return false;
-
-        for (File file : files) {
-            if (file.isDirectory()) {
-                if (isClassInDirectory(file, className)) {
-                    return true;
-                }
-            } else if (file.getName().equals(className + ".java")) {
-                return true;
-            }
+    private void exportModel(AnalysisContext context) throws UMLGenerationException {
+        ClassGraph graph = buildClassGraph(context);
+        context.setClassGraph(graph);
+        try {
+            classGraphService.export(graph, context.getOutputDir());
+        } catch (IOException e) {
+            throw new UMLGenerationException("Error al exportar el modelo de clases",
+                    "exportModel", properties.getModelFileName(), e);
+        }
+    }
+
+    /**
+     * Construye el grafo indexado del trabajo: las clases con su paquete y
+     * las relaciones del diagrama, con los tipos de relación renumerados de
+     * forma compacta.
+     */
+    static ClassGraph buildClassGraph(AnalysisContext context) {
+        SymbolTable symbols = context.getSymbols();
+        List<Relationship> relationships = new ArrayList<>(context.getRelationships());
+        Set<String> nameSet = new TreeSet<>(context.getClassPackages().keySet());
+        for (Relationship rel : relationships) {
+            nameSet.add(symbols.name(rel.getSource()));
+            nameSet.add(symbols.name(rel.getTarget()));
+        }
+        String[] names = nameSet.toArray(new String[0]);
+        String[] packages = new String[names.length];
+        Map<String, Integer> nodeIds = new HashMap<>(names.length * 2);
+        for (int i = 0; i < names.length; i++) {
+            packages[i] = context.getClassPackages().getOrDefault(names[i], "");
+            nodeIds.put(names[i], i);
+        }
+
+        Map<Integer, Integer> kindIds = new HashMap<>();
+        List<String> relations = new ArrayList<>();
+        int[] sources = new int[relationships.size()];
+        int[] targets = new int[relationships.size()];
+        int[] kinds = new int[relationships.size()];
+        for (int e = 0; e < relationships.size(); e++) {
+            Relationship rel = relationships.get(e);
+            sources[e] = nodeIds.get(symbols.name(rel.getSource()));
+            targets[e] = nodeIds.get(symbols.name(rel.getTarget()));
+            kinds[e] = kindIds.computeIfAbsent(rel.getKind(), kind -> {
+                String label = symbols.label(kind);
+                relations.add(label != null ? symbols.arrow(kind) + " " + label : symbols.arrow(kind));
+                return relations.size() - 1;
+            });
         }
-        return false;
+        return new ClassGraph(names, packages, relations.toArray(new String[0]), sources, targets, kinds,
+                relationships.size());
     }
 
     /**
-     * Verifica si una clase está en un directorio o sus subdirectorios.
-     * 
-     * @param folder    directorio a revisar
-     * @param className nombre de la clase a buscar
-     * @return true si la clase está en el directorio, false en caso contrario
+     * Escribe el diagrama agregado por paquetes: un nodo por paquete y una
+     * dependencia por par de paquetes distintos, etiquetada con el número de
+     * relaciones entre clases que resume.
      */
-    private boolean isClassInDirectory(File folder, String className) {
-        File[] files = folder.listFiles();
-        if (files == null)
-            return false;
-
-        for (File file : files) {
-            if (file.isDirectory()) {
-                if (isClassInDirectory(file, className)) {
-                    return true;
-                }
-            } else if (file.getName().equals(className + ".java")) {
-                return true;
+    private void writePackageDiagram(FileWriter writer, AnalysisContext context) throws IOException {
+        Map<String, String> classPackages = context.getClassPackages();
+        Map<String, Integer> packageEdges = new TreeMap<>();
+        for (Relationship rel : context.getRelationships()) {
+            String from = classPackages.get(context.getSymbols().name(rel.getSource()));
+            String to = classPackages.get(context.getSymbols().name(rel.getTarget()));
+            if (from != null && to != null && !from.equals(to)) {
+                packageEdges.merge(from + " ..> " + to, 1, Integer::sum);
             }
         }
-        return false;
+
+        writer.write("set separator none\n");
+        for (String packageName : new TreeSet<>(classPackages.values())) {
+            writer.write("package " + packageName + " {\n}\n");
+        }
+        for (Map.Entry<String, Integer> edge : packageEdges.entrySet()) {
+            writer.write(edge.getKey() + " : " + edge.getValue() + "\n");
+        }
     }
 
     /**
-     * Genera el archivo PlantUML a partir de la información extraída.
-     * 
-     * @param context Contexto de análisis con las clases y relaciones
-     * @throws UMLGenerationException Si ocurre un error durante la generación del
-     *                                archivo
+     * Reduce una definición de clase a su cabecera.
      */
-    private void generatePlantUML(AnalysisContext context) throws UMLGenerationException {
-        try {
-            File outputDir = new File(properties.getFullOutputPath());
-            if (!outputDir.exists()) {
-                outputDir.mkdirs();
-            }
-            try (FileWriter writer = new FileWriter(new File(outputDir, properties.getPlantUmlFileName()))) {
-                writer.write("@startuml " + properties.getDiagramFileName() + "\n");
-                createSkin(writer);
-                for (String clazz : context.getClasses())
-                    writer.write(clazz + "\n");
-                for (String rel : context.getRelationships())
-                    writer.write(rel + "\n");
-                writer.write("@enduml\n");
-            }
-            logger.info("Diagrama PlantUML generado exitosamente: {}/{}",
-                    properties.getOutputDirectory(), properties.getPlantUmlFileName());
-        } catch (IOException e) {
-            throw new UMLGenerationException("Error al escribir archivo PlantUML",
-                    "generatePlantUML", properties.getPlantUmlFileName(), e);
-        }
+    private static String withoutMembers(String classDefinition) {
+        int endOfHeader = classDefinition.indexOf('\n');
+        return endOfHeader < 0 ? classDefinition : classDefinition.substring(0, endOfHeader) + "\n}";
     }
 
     /**
-     * Genera una imagen SVG a partir del archivo PlantUML.
+     * Genera una imagen SVG junto a un archivo PlantUML.
      * 
+     * @param plantUmlFile Archivo PlantUML a renderizar
      * @throws PlantUMLExecutionException Si ocurre un error durante la generación
      *                                    de la imagen
      */
-    private void generateImageFromPlantUML() throws PlantUMLExecutionException {
+    private void generateImageFromPlantUML(File plantUmlFile) throws PlantUMLExecutionException {
+        runPlantUml(List.of(plantUmlFile));
+    }
+
+    /**
+     * Renderiza varios archivos PlantUML en una sola ejecución de PlantUML;
+     * cada SVG se escribe junto a su archivo.
+     */
+    private void runPlantUml(List<File> plantUmlFiles) throws PlantUMLExecutionException {
         logger.debug("Iniciando generación de imagen SVG desde archivo PlantUML");
 
         try {
             String plantUmlJar = properties.getResolvedPlantUmlJarPath();
             logger.debug("Usando PlantUML JAR: {}", plantUmlJar);
 
-            String inputFile = properties.getOutputDirectory() + "/" + properties.getPlantUmlFileName();
-            ProcessBuilder processBuilder = new ProcessBuilder(
-                    "java",
-                    "-jar",
-                    plantUmlJar,
-                    "-tsvg",
-                    inputFile);
+            List<String> arguments = new ArrayList<>(List.of("java", "-jar", plantUmlJar, "-tsvg"));
+            for (File file : plantUmlFiles) {
+                arguments.add(file.getPath());
+            }
+            ProcessBuilder processBuilder = new ProcessBuilder(arguments);
 
             String command = String.join(" ", processBuilder.command());
             logger.debug("Ejecutando comando PlantUML: {}", command);
@@ -958,10 +935,22 @@ public class UMLGenerator {
             processBuilder.inheritIO();
             Process process = processBuilder.start();
 
-            int exitCode = process.waitFor();
+            // onExit() aparca el hilo sin retener un monitor, a diferencia de
+            // waitFor(), que en un hilo virtual bloquearía también a su portador
+            try {
+                process.onExit().get(properties.getPlantUmlTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                process.destroyForcibly();
+                throw new PlantUMLExecutionException(
+                        "PlantUML superó el tiempo máximo de " + properties.getPlantUmlTimeout(), command, -1);
+            } catch (ExecutionException e) {
+                throw new PlantUMLExecutionException(
+                        "Error esperando al proceso PlantUML: " + e.getCause(), command, -1, e);
+            }
+            int exitCode = process.exitValue();
             if (exitCode == 0) {
-                logger.info("Imagen SVG generada exitosamente: {}/{}",
-                        properties.getOutputDirectory(), properties.getSvgFileName());
+                logger.info("Imagen SVG generada exitosamente a partir de {}",
+                        plantUmlFiles.size() == 1 ? plantUmlFiles.get(0) : plantUmlFiles.size() + " archivos");
             } else {
                 throw new PlantUMLExecutionException(
                         "PlantUML terminó con código de error", command, exitCode);
@@ -976,193 +965,4 @@ public class UMLGenerator {
                     "Proceso PlantUML interrumpido", "java -jar PlantUML", -1, e);
         }
     }
-
-    /**
-     * Analiza relaciones por sobrescritura de métodos (@Override).
-     */
-    private void analyzeMethodOverrideRelationships(CompilationUnit cu, AnalysisContext context,
-            Set<String> addedRelationships) {
-        logger.debug("Analizando relaciones por sobrescritura de métodos (@Override)");
-
-        cu.findAll(MethodDeclaration.class).forEach(method -> {
-            if (method.getAnnotationByName("Override").isPresent()) {
-                String className = getCurrentClassName(method);
-                if (className != null) {
-                    // Buscar clase padre que define el método original
-                    method.findAncestor(ClassOrInterfaceDeclaration.class).ifPresent(classDecl -> {
-                        classDecl.getExtendedTypes().forEach(extendedType -> {
-                            String parentClassName = extractSimpleClassName(extendedType.asString());
-                            if (isValidClassForRelation(parentClassName, context)) {
-                                addRelationship(addedRelationships, context,
-                                        className + " ..> " + parentClassName + " : <<overrides "
-                                                + method.getNameAsString() + ">>",
-                                        "Sobrescritura de método");
-                            }
-                        });
-
-                        classDecl.getImplementedTypes().forEach(implType -> {
-                            String interfaceName = extractSimpleClassName(implType.asString());
-                            if (isValidClassForRelation(interfaceName, context)) {
-                                addRelationship(addedRelationships, context,
-                                        className + " ..> " + interfaceName + " : <<implements "
-                                                + method.getNameAsString() + ">>",
-                                        "Implementación de método");
-                            }
-                        });
-                    });
-                }
-            }
-        });
-    }
-
-    /**
-     * Analiza relaciones por programación funcional (Lambda, Method References,
-     * Stream API).
-     */
-    private void analyzeFunctionalProgrammingRelationships(CompilationUnit cu, AnalysisContext context,
-            Set<String> addedRelationships) {
-        logger.debug("Analizando relaciones por programación funcional");
-
-        // Analizar expresiones lambda
-        cu.findAll(LambdaExpr.class).forEach(lambda -> {
-            String className = getCurrentClassNameFromNode(lambda);
-            if (className != null) {
-                addRelationship(addedRelationships, context,
-                        className + " ..> \"Functional Interface\" : <<lambda>>",
-                        "Expresión Lambda");
-            }
-        });
-
-        // Analizar method references
-        cu.findAll(MethodReferenceExpr.class).forEach(methodRef -> {
-            String className = getCurrentClassNameFromNode(methodRef);
-            String scope = methodRef.getScope().toString();
-            String referencedClass = extractSimpleClassName(scope);
-
-            if (className != null && isValidClassForRelation(referencedClass, context)) {
-                addRelationship(addedRelationships, context,
-                        className + " ..> " + referencedClass + " : <<method reference>>",
-                        "Method Reference");
-            }
-        });
-
-        // Analizar Stream API
-        cu.findAll(MethodCallExpr.class).forEach(methodCall -> {
-            if ("stream".equals(methodCall.getNameAsString()) ||
-                    "parallelStream".equals(methodCall.getNameAsString()) ||
-                    methodCall.getNameAsString().matches("collect|filter|map|flatMap|reduce|forEach")) {
-
-                String className = getCurrentClassNameFromNode(methodCall);
-                if (className != null) {
-                    addRelationship(addedRelationships, context,
-                            className + " ..> \"Stream API\" : <<" + methodCall.getNameAsString() + ">>",
-                            "Stream API");
-                }
-            }
-        });
-    }
-
-    /**
-     * Analiza relaciones por type inference (var keyword).
-     */
-    private void analyzeTypeInferenceRelationships(CompilationUnit cu, AnalysisContext context,
-            Set<String> addedRelationships) {
-        logger.debug("Analizando relaciones por type inference (var)");
-
-        cu.findAll(VariableDeclarator.class).forEach(varDecl -> {
-            if (varDecl.getType().isVarType()) {
-                String className = getCurrentClassNameFromNode(varDecl);
-                if (className != null && varDecl.getInitializer().isPresent()) {
-                    String inferredType = extractTypeFromExpression(
-                            varDecl.getInitializer().get().toString(), cu);
-
-                    if (isValidClassForRelation(inferredType, context)) {
-                        addRelationship(addedRelationships, context,
-                                className + " ..> " + inferredType + " : <<var inference>>",
-                                "Type Inference");
-                    }
-                }
-            }
-        });
-    }
-
-    /**
-     * Analiza relaciones por interfaces funcionales (Supplier, Consumer, Function,
-     * Predicate).
-     */
-    private void analyzeFunctionalInterfaceRelationships(CompilationUnit cu, AnalysisContext context,
-            Set<String> addedRelationships) {
-        logger.debug("Analizando relaciones por interfaces funcionales");
-
-        Set<String> functionalInterfaces = Set.of("Supplier", "Consumer", "Function", "Predicate",
-                "BiFunction", "BiConsumer", "BiPredicate", "UnaryOperator", "BinaryOperator");
-
-        cu.findAll(FieldDeclaration.class).forEach(field -> {
-            String fieldType = extractSimpleClassName(field.getElementType().asString());
-
-            if (functionalInterfaces.contains(fieldType)) {
-                String className = getCurrentClassNameFromNode(field);
-                if (className != null) {
-                    addRelationship(addedRelationships, context,
-                            className + " ..> " + fieldType + " : <<functional interface>>",
-                            "Interface Funcional");
-                }
-            }
-        });
-
-        cu.findAll(VariableDeclarator.class).forEach(varDecl -> {
-            String varType = extractSimpleClassName(varDecl.getType().asString());
-
-            if (functionalInterfaces.contains(varType)) {
-                String className = getCurrentClassNameFromNode(varDecl);
-                if (className != null) {
-                    addRelationship(addedRelationships, context,
-                            className + " ..> " + varType + " : <<functional interface>>",
-                            "Interface Funcional");
-                }
-            }
-        });
-
-        // Analizar Optional
-        cu.findAll(FieldDeclaration.class).forEach(field -> {
-            if (field.getElementType().asString().startsWith("Optional")) {
-                String className = getCurrentClassNameFromNode(field);
-                if (className != null) {
-                    addRelationship(addedRelationships, context,
-                            className + " ..> Optional : <<optional>>",
-                            "Optional");
-                }
-            }
-        });
-    }
-
-    /**
-     * Obtiene el nombre de la clase actual desde cualquier nodo del AST.
-     */
-    private String getCurrentClassNameFromNode(Node node) {
-        return node.findAncestor(ClassOrInterfaceDeclaration.class)
-                .map(ClassOrInterfaceDeclaration::getNameAsString)
-                .orElse(null);
-    }
-
-    /**
-     * Obtiene el nombre de la clase actual desde un método.
-     */
-    private String getCurrentClassName(MethodDeclaration method) {
-        return method.findAncestor(ClassOrInterfaceDeclaration.class)
-                .map(ClassOrInterfaceDeclaration::getNameAsString)
-                .orElse(null);
-    }
-
-    /**
-     * Crea la configuración de estilo para el diagrama PlantUML.
-     * 
-     * @param writer El escritor de archivos.
-     * @throws IOException Si ocurre un error durante la escritura del archivo.
-     */
-    private static void createSkin(FileWriter writer) throws IOException {
-        writer.write("!theme mono\n");
-        writer.write("skinparam linetype ortho\n");
-        writer.write("skinparam monochrome true\n");
-    }
 }
\ No newline at end of file
@@ -1,15 +1,45 @@
 package com.example.demo;
 
+import com.example.demo.config.AnalysisOptions;
 import com.example.demo.config.UMLGeneratorProperties;
 import com.example.demo.exception.UMLGenerationException;
+import com.example.demo.UMLGenerator.AnalysisContext;
+import com.example.demo.model.AnalysisReport;
+import com.example.demo.service.AdmissionService;
 import com.example.demo.service.FileValidationService;
+import com.example.demo.service.JobStore;
 import com.example.demo.service.AnnotationAnalysisService;
+import com.example.demo.service.BoundedInputStream;
+import com.example.demo.service.WorkDirectoryJanitor;
+import com.example.demo.service.ZipExtractionService;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Component;
+import jakarta.annotation.PreDestroy;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipEntry;
 
@@ -18,6 +48,32 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Clase UMLGeneratorUtil para manejar la carga y descompresión de archivos.
+ *
+ * Las subidas se identifican por el SHA-256 del ZIP y la huella de las
+ * opciones. Si el almacén ya tiene un trabajo con esa clave se devuelve su
+ * resultado sin analizar nada, y las subidas idénticas simultáneas esperan
+ * al trabajo en curso en lugar de repetirlo. Solo los trabajos que hay que
+ * calcular pasan por el control de admisión.
+ *
+ * Los componentes de parseo y renderizado se piden al contenedor en el
+ * primer uso: el arranque no los construye.
+ *
+ * Cada subida tiene un directorio de trabajo propio dentro de uploads con
+ * sus fuentes descomprimidos y sus salidas: el análisis solo ve los fuentes
+ * de ese ZIP y el almacén guarda las salidas de ese trabajo. Al terminar, el
+ * trabajo se guarda con el identificador reservado al empezar, la página las
+ * pide al almacén con ese identificador y el directorio de trabajo se aparta
+ * para su borrado. Las subidas no publican nada en el directorio de salida
+ * compartido, así que un cliente solo ve los resultados de sus trabajos.
+ *
+ * Con el renderizado {@code NATIVE_PREVIEW} la subida responde en cuanto
+ * está la vista previa propia y PlantUML renderiza el diagrama en un hilo
+ * aparte, de uno en uno y por orden de llegada; el trabajo se guarda en el
+ * almacén al terminar y, mientras tanto, sus salidas se sirven desde su
+ * directorio de trabajo. Cada trabajo tiene su propio encargo y su propio
+ * estado, así que la subida de un cliente no deja sin renderizar la de otro,
+ * y cada encargo mantiene reservada en la admisión la memoria de su trabajo
+ * hasta que termina: la admisión acota así los encargos en cola.
  * 
  * @author @PelayoPS
  */
@@ -26,48 +82,452 @@ public class UMLGeneratorUtil {
 
     private static final Logger logger = LoggerFactory.getLogger(UMLGeneratorUtil.class);
     private static final long MAX_EXTRACTED_SIZE = 1024 * 1024 * 1024; // 1GB límite de extracción
+    private static final long MAX_ENTRY_SIZE = 100 * 1024 * 1024; // 100MB por archivo
+    // Estados de renderizado que se recuerdan para las consultas de la página, por trabajo
+    private static final int MAX_RENDER_STATES = 64;
 
     private final UMLGeneratorProperties properties;
-    private final UMLGenerator umlGenerator;
+    private final ObjectProvider<UMLGenerator> umlGenerator;
     private final FileValidationService fileValidationService;
-    private final AnnotationAnalysisService annotationAnalysisService;
+    private final ObjectProvider<AnnotationAnalysisService> annotationAnalysisService;
+    private final ObjectProvider<ZipExtractionService> zipExtractionService;
+    private final JobStore jobStore;
+    private final AdmissionService admissionService;
+    private final WorkDirectoryJanitor workDirectoryJanitor;
+    // Trabajos en curso por clave de caché, para agrupar subidas idénticas
+    private final ConcurrentMap<String, CompletableFuture<AnalysisReport>> inFlight = new ConcurrentHashMap<>();
+    // Trabajo entregado como vista previa -> su directorio de salida, hasta que se guarda
+    private final Map<String, File> renderingOutputs = new ConcurrentHashMap<>();
+    private final Map<String, RenderState> renderStates = Collections.synchronizedMap(
+            new LinkedHashMap<String, RenderState>() {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, RenderState> eldest) {
+                    return size() > MAX_RENDER_STATES;
+                }
+            });
+    private final ExecutorService renderExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "diagram-render");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Estado de un renderizado en segundo plano.
+     */
+    public enum RenderState {
+        RENDERING,
+        READY,
+        FAILED
+    }
+
+    /**
+     * Renderizado encargado que espera al hilo de renderizado.
+     */
+    private record PendingRender(AnalysisContext context, AnalysisOptions options, String jobId, File workDir,
+            AdmissionService.MemoryHold memory) {
+    }
 
-    public UMLGeneratorUtil(UMLGeneratorProperties properties, UMLGenerator umlGenerator,
+    public UMLGeneratorUtil(UMLGeneratorProperties properties, ObjectProvider<UMLGenerator> umlGenerator,
             FileValidationService fileValidationService,
-            AnnotationAnalysisService annotationAnalysisService) {
+            ObjectProvider<AnnotationAnalysisService> annotationAnalysisService,
+            ObjectProvider<ZipExtractionService> zipExtractionService, JobStore jobStore,
+            AdmissionService admissionService, WorkDirectoryJanitor workDirectoryJanitor) {
         this.properties = properties;
         this.umlGenerator = umlGenerator;
         this.fileValidationService = fileValidationService;
         this.annotationAnalysisService = annotationAnalysisService;
+        this.zipExtractionService = zipExtractionService;
+        this.jobStore = jobStore;
+        this.admissionService = admissionService;
+        this.workDirectoryJanitor = workDirectoryJanitor;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renderExecutor.shutdownNow();
+    }
+
+    /**
+     * @param renderId Identificador del renderizado de la subida, que es el de
+     *                 su trabajo
+     * @return Estado del renderizado en segundo plano o null si no se conoce
+     */
+    public RenderState getRenderState(String renderId) {
+        return renderStates.get(renderId);
+    }
+
+    /**
+     * Salida de un trabajo entregado como vista previa que todavía no está en
+     * el almacén. Solo se resuelven los nombres de las salidas.
+     *
+     * @return Ruta del archivo o null si el trabajo no se está renderizando o
+     *         no tiene esa salida
+     */
+    public Path renderingFile(String jobId, String fileName) {
+        File outputDir = jobId != null ? renderingOutputs.get(jobId) : null;
+        if (outputDir == null || !properties.getOutputFileNames().contains(fileName)) {
+            return null;
+        }
+        Path file = outputDir.toPath().resolve(fileName);
+        return Files.isRegularFile(file) ? file : null;
+    }
+
+    /**
+     * Guarda un archivo subido calculando su hash SHA-256 mientras se copia.
+     *
+     * @param in       Contenido del archivo
+     * @param destFile Archivo de destino
+     * @return Hash SHA-256 en hexadecimal
+     * @throws IOException Si no se puede escribir el archivo
+     */
+    public String saveUpload(InputStream in, File destFile) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("Algoritmo de hash no disponible", e);
+        }
+        try (InputStream hashing = new DigestInputStream(in, digest);
+                OutputStream out = new FileOutputStream(destFile)) {
+            hashing.transferTo(out);
+        }
+        String hash = HexFormat.of().formatHex(digest.digest());
+        logger.info("Archivo recibido: {} ({} bytes, sha256={})", destFile.getName(), destFile.length(), hash);
+        return hash;
     }
 
     /**
      * Procesa el archivo subido y genera el diagrama UML utilizando UMLGenerator.
+     * Si ya hay un trabajo guardado o en curso para el mismo contenido y
+     * opciones, no se descomprime ni se analiza de nuevo; si no, el trabajo se
+     * admite con el coste estimado a partir del directorio central del ZIP.
      * 
-     * @param file El archivo subido.
-     * @throws UMLGenerationException Si ocurre un error durante el procesamiento.
+     * @param file       El archivo subido.
+     * @param sourceHash Hash SHA-256 del archivo calculado al guardarlo
+     * @param options    Opciones de análisis de la petición
+     * @param client     Cliente que envía la subida
+     * @return Informe de la ejecución
+     * @throws UMLGenerationException Si ocurre un error durante el procesamiento
+     *                                o el trabajo no se admite.
      */
-    public void processUploadedFile(File file) throws UMLGenerationException {
+    public AnalysisReport processUploadedFile(File file, String sourceHash, AnalysisOptions options, String client)
+            throws UMLGenerationException {
         logger.info("Iniciando procesamiento del archivo subido: {}", file.getName());
-        try {
-            // Descomprimir el archivo .zip usando configuración centralizada
-            File destDir = new File(properties.getFullUnzippedPath());
-            unzip(file, destDir);
-
-            // Obtener el directorio de destino para el diagrama UML usando configuración
-            // centralizada
-            File outputDir = new File(properties.getFullOutputPath());
-            if (!outputDir.exists()) {
-                outputDir.mkdirs();
+        Admission admission = () -> admissionService.admit(client, admissionService.estimate(file));
+        AnalysisReport report = runOnce(sourceHash, options, admission, ticket -> {
+            File workDir = null;
+            try {
+                workDir = createWorkDirectory();
+                File destDir = sourceDirectory(workDir);
+                // Descomprimir el archivo .zip usando configuración centralizada
+                if (properties.getZipExtractionMode() == UMLGeneratorProperties.ZipExtractionMode.RANDOM_ACCESS) {
+                    fileValidationService.validateFileSize(file.length(), MAX_EXTRACTED_SIZE);
+                    zipExtractionService.getObject().extract(file, destDir, MAX_EXTRACTED_SIZE, MAX_ENTRY_SIZE);
+                } else {
+                    unzip(file, destDir);
+                }
+            } catch (IOException e) {
+                releaseWorkDirectory(workDir);
+                throw new UMLGenerationException("Error al descomprimir archivo ZIP",
+                        "UMLGeneratorUtil", file.getName(), e);
+            } catch (RuntimeException e) {
+                releaseWorkDirectory(workDir);
+                throw e;
             }
+            return generateFromDirectory(workDir, options, sourceHash, ticket);
+        });
+        logger.info("Procesamiento completado exitosamente para archivo: {}", file.getName());
+        return report;
+    }
 
-            // Usar el servicio UMLGenerator inyectado
-            umlGenerator.generateDiagram(destDir.getAbsolutePath());
+    /**
+     * Procesa un ZIP recibido como flujo (el cuerpo de la petición) sin copiarlo
+     * antes a disco: el contenido se hashea, se valida y se extrae en una sola
+     * pasada. El directorio central llega al final del flujo, así que el
+     * trabajo se admite antes de leer nada con el coste estimado a partir del
+     * tamaño declarado.
+     *
+     * @param in           Flujo con el contenido del ZIP
+     * @param fileName     Nombre original del archivo (solo para trazas)
+     * @param maxBytes     Tamaño máximo admitido del cuerpo; negativo para no limitar
+     * @param declaredSize Tamaño declarado del cuerpo; negativo si no se conoce
+     * @param options      Opciones de análisis de la petición
+     * @param client       Cliente que envía la subida
+     * @return Informe de la ejecución, con el hash SHA-256 del contenido recibido
+     * @throws UMLGenerationException Si ocurre un error durante el procesamiento
+     *                                o el trabajo no se admite.
+     */
+    public AnalysisReport processUploadStream(InputStream in, String fileName, long maxBytes, long declaredSize,
+            AnalysisOptions options, String client) throws UMLGenerationException {
+        logger.info("Iniciando procesamiento en flujo del archivo subido: {}", fileName);
+        long compressedSize = declaredSize >= 0 ? declaredSize : maxBytes;
+        AdmissionService.JobCost cost = admissionService.estimateFromSize(compressedSize);
+        File workDir = null;
+        // El directorio pasa al trabajo si se llega a analizar; si no, se libera aquí
+        AtomicBoolean analyzed = new AtomicBoolean();
+        try (AdmissionService.Ticket ticket = admissionService.admit(client, cost)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            BoundedInputStream bounded = new BoundedInputStream(in, maxBytes);
+            DigestInputStream hashing = new DigestInputStream(bounded, digest);
+
+            workDir = createWorkDirectory();
+            zipExtractionService.getObject().extractStream(hashing, sourceDirectory(workDir), MAX_EXTRACTED_SIZE,
+                    MAX_ENTRY_SIZE);
+            // Consumir lo que quede tras la última entrada (directorio central) para completar el hash
+            hashing.transferTo(OutputStream.nullOutputStream());
+            fileValidationService.validateFileSize(bounded.getCount(), MAX_EXTRACTED_SIZE);
+
+            String hash = HexFormat.of().formatHex(digest.digest());
+            logger.info("Archivo recibido en flujo: {} ({} bytes, sha256={})", fileName, bounded.getCount(), hash);
+
+            // El hash solo se conoce al terminar de leer el cuerpo: una subida idéntica
+            // simultánea ya ha extraído los mismos archivos y solo se ahorra el análisis
+            File jobDir = workDir;
+            // Ya admitido: la plaza es la de la subida en flujo
+            AnalysisReport report = runOnce(hash, options, null, unused -> {
+                analyzed.set(true);
+                return generateFromDirectory(jobDir, options, hash, ticket);
+            });
 
-            logger.info("Procesamiento completado exitosamente para archivo: {}", file.getName());
+            logger.info("Procesamiento completado exitosamente para archivo: {}", fileName);
+            return report;
         } catch (IOException e) {
             throw new UMLGenerationException("Error al descomprimir archivo ZIP",
-                    "UMLGeneratorUtil", file.getName(), e);
+                    "UMLGeneratorUtil", fileName, e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new UMLGenerationException("Algoritmo de hash no disponible", e);
+        } finally {
+            if (!analyzed.get()) {
+                releaseWorkDirectory(workDir);
+            }
+        }
+    }
+
+    /**
+     * Crea un directorio de trabajo nuevo y vacío para una subida.
+     */
+    private File createWorkDirectory() throws IOException {
+        return workDirectoryJanitor.createWorkDirectory("job-").toFile();
+    }
+
+    /**
+     * @return Directorio de los fuentes descomprimidos de una subida
+     */
+    private File sourceDirectory(File workDir) {
+        return new File(workDir, properties.getUnzippedDirectory());
+    }
+
+    /**
+     * @return Directorio de las salidas de una subida
+     */
+    private File outputDirectory(File workDir) {
+        return new File(workDir, properties.getOutputDirectory());
+    }
+
+    /**
+     * Aparta para su borrado el directorio de trabajo de una subida.
+     */
+    private void releaseWorkDirectory(File workDir) {
+        if (workDir != null) {
+            workDirectoryJanitor.release(workDir.toPath());
+        }
+    }
+
+    /**
+     * Ejecuta un trabajo una sola vez por clave de caché. Si el almacén ya
+     * tiene el resultado se reutiliza; si otra petición lo está calculando se
+     * espera a ese trabajo y se devuelve su informe.
+     *
+     * @param sourceHash Hash SHA-256 del ZIP (null si no se conoce)
+     * @param options    Opciones de análisis de la petición
+     * @param admission  Admisión del trabajo si hay que calcularlo (null si ya
+     *                   se admitió)
+     * @param job        Trabajo que genera el diagrama
+     * @return Informe del trabajo ejecutado, reutilizado o compartido
+     */
+    private AnalysisReport runOnce(String sourceHash, AnalysisOptions options, Admission admission, Job job)
+            throws UMLGenerationException {
+        String key = properties.isReuseCompletedJobs() ? JobStore.cacheKey(sourceHash, options) : null;
+        if (key == null) {
+            return admitAndRun(admission, job);
+        }
+        AnalysisReport cached = reuse(key);
+        if (cached != null) {
+            return cached;
+        }
+        CompletableFuture<AnalysisReport> own = new CompletableFuture<>();
+        CompletableFuture<AnalysisReport> running = inFlight.putIfAbsent(key, own);
+        if (running != null) {
+            logger.info("Subida idéntica a un trabajo en curso; se espera su resultado (sha256={})", sourceHash);
+            return await(running);
+        }
+        try {
+            // Un trabajo con la misma clave pudo terminar entre la consulta y el registro
+            AnalysisReport report = reuse(key);
+            if (report == null) {
+                report = admitAndRun(admission, job);
+            }
+            own.complete(report);
+            return report;
+        } catch (UMLGenerationException | RuntimeException e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    private static AnalysisReport admitAndRun(Admission admission, Job job) throws UMLGenerationException {
+        if (admission == null) {
+            return job.run(null);
+        }
+        try (AdmissionService.Ticket ticket = admission.acquire()) {
+            return job.run(ticket);
+        }
+    }
+
+    /**
+     * Reutiliza el trabajo guardado con una clave; sus salidas se sirven
+     * desde el almacén.
+     *
+     * @return Informe del trabajo o null si no hay ninguno reutilizable
+     */
+    private AnalysisReport reuse(String key) {
+        return jobStore.reuse(key);
+    }
+
+    private static AnalysisReport await(CompletableFuture<AnalysisReport> running) throws UMLGenerationException {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UMLGenerationException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Genera el diagrama a partir de un directorio ya descomprimido y guarda
+     * el trabajo en el almacén. Con vista previa, el renderizado y el guardado
+     * quedan en segundo plano; el informe lleva ya el identificador del
+     * trabajo y el de su renderizado.
+     *
+     * El directorio de trabajo pasa a ser del trabajo: se libera al guardar,
+     * que vuelve a leer los fuentes para su manifiesto, o si algo falla antes.
+     *
+     * @param workDir    Directorio de trabajo de la subida, con los fuentes ya
+     *                   descomprimidos
+     * @param sourceHash Hash SHA-256 del ZIP, si se calculó durante la subida
+     * @param ticket     Plaza de admisión del trabajo (null si no pasó por la
+     *                   admisión)
+     */
+    private AnalysisReport generateFromDirectory(File workDir, AnalysisOptions options, String sourceHash,
+            AdmissionService.Ticket ticket) throws UMLGenerationException {
+        String sourcePath = sourceDirectory(workDir).getAbsolutePath();
+        File outputDir = outputDirectory(workDir);
+
+        // Usar el servicio UMLGenerator inyectado
+        UMLGenerator generator = umlGenerator.getObject();
+        String jobId = JobStore.newJobId();
+        if (properties.getDiagramRenderer() == UMLGeneratorProperties.DiagramRenderer.NATIVE_PREVIEW) {
+            boolean queued = false;
+            try {
+                AnalysisContext context = generator.prepareDiagram(sourcePath, outputDir, options);
+                AnalysisReport report = context.getReport();
+                report.setSourceHash(sourceHash);
+                report.setJobId(jobId);
+                report.setRenderId(jobId);
+                renderStates.put(jobId, RenderState.RENDERING);
+                renderingOutputs.put(jobId, outputDir);
+                queueRender(new PendingRender(context, options, jobId, workDir,
+                        ticket != null ? ticket.holdMemory() : null));
+                queued = true;
+                return report;
+            } finally {
+                if (!queued) {
+                    renderingOutputs.remove(jobId);
+                    releaseWorkDirectory(workDir);
+                }
+            }
+        }
+        try {
+            AnalysisContext context = generator.prepareDiagram(sourcePath, outputDir, options);
+            generator.finishDiagram(context);
+            AnalysisReport report = context.getReport();
+            report.setSourceHash(sourceHash);
+            save(jobId, context, options);
+            return report;
+        } finally {
+            releaseWorkDirectory(workDir);
+        }
+    }
+
+    /**
+     * Encarga al hilo de renderizado el renderizado de un trabajo. Los
+     * encargos se atienden por orden de llegada y ninguno descarta a otro.
+     */
+    private void queueRender(PendingRender pending) throws UMLGenerationException {
+        try {
+            renderExecutor.execute(() -> renderPending(pending));
+        } catch (RejectedExecutionException e) {
+            renderStates.remove(pending.jobId());
+            if (pending.memory() != null) {
+                pending.memory().close();
+            }
+            throw new UMLGenerationException("El renderizado en segundo plano no está disponible", e);
+        }
+    }
+
+    /**
+     * Termina un renderizado encargado y libera lo que reservaba.
+     */
+    private void renderPending(PendingRender pending) {
+        try {
+            finishInBackground(pending.context(), pending.options(), pending.jobId());
+        } finally {
+            releaseRender(pending);
+        }
+    }
+
+    private void releaseRender(PendingRender pending) {
+        renderingOutputs.remove(pending.jobId());
+        releaseWorkDirectory(pending.workDir());
+        if (pending.memory() != null) {
+            pending.memory().close();
+        }
+    }
+
+    /**
+     * Renderiza con PlantUML el diagrama de una subida ya entregada como
+     * vista previa y guarda el trabajo, que desde ese momento se sirve desde
+     * el almacén.
+     */
+    private void finishInBackground(AnalysisContext context, AnalysisOptions options, String jobId) {
+        try {
+            umlGenerator.getObject().finishDiagram(context);
+            save(jobId, context, options);
+            renderStates.put(jobId, RenderState.READY);
+        } catch (UMLGenerationException | RuntimeException e) {
+            logger.error("Error en el renderizado en segundo plano {}: {}", jobId, e.getMessage(), e);
+            renderStates.put(jobId, RenderState.FAILED);
+        }
+    }
+
+    /**
+     * Guarda el trabajo en el almacén, que es desde donde se sirven sus
+     * salidas: si no se puede guardar, la subida falla.
+     */
+    private void save(String jobId, AnalysisContext context, AnalysisOptions options) throws UMLGenerationException {
+        try {
+            jobStore.save(jobId, context.getReport(), options, context.getClassGraph(), context.getBasePath(),
+                    context.getProcessedFiles(), context.getOutputDir().toPath());
+        } catch (IOException e) {
+            throw new UMLGenerationException("No se pudo guardar el trabajo en el almacén",
+                    "UMLGeneratorUtil", jobId, e);
         }
     }
 
@@ -103,13 +563,15 @@ public class UMLGeneratorUtil {
 
         String rootDir = null;
         long totalExtractedSize = 0;
+        long totalWritten = 0;
+        long start = System.nanoTime();
 
         try (ZipInputStream zis = new ZipInputStream(new FileInputStream(zipFile))) {
             ZipEntry entry = zis.getNextEntry();
 
             while (entry != null) {
                 // Validar nombre del archivo
-                String sanitizedName = fileValidationService.validateAndSanitizeFileName(entry.getName());
+                String sanitizedName = fileValidationService.validateAndSanitizeEntryPath(entry.getName());
                 File newFile = new File(destDir, sanitizedName);
 
                 // Verificar que el archivo esté dentro del directorio de destino (anti-path
@@ -150,10 +612,11 @@ public class UMLGeneratorUtil {
                             fileExtractedSize += len;
 
                             // Control de tamaño por archivo individual
-                            if (fileExtractedSize > 100 * 1024 * 1024) { // 100MB por archivo
+                            if (fileExtractedSize > MAX_ENTRY_SIZE) {
                                 throw new IOException("Archivo individual demasiado grande: " + sanitizedName);
                             }
                         }
+                        totalWritten += fileExtractedSize;
                     }
 
                     if (rootDir == null) {
@@ -166,9 +629,31 @@ public class UMLGeneratorUtil {
             }
         }
 
-        logger.info("Descompresión del archivo completada: {} (Total extraído: {} MB)",
-                zipFile.getName(), totalExtractedSize / (1024 * 1024));
+        double seconds = Math.max(System.nanoTime() - start, 1) / 1_000_000_000.0;
+        logger.info("Descompresión del archivo completada: {} (Total extraído: {} MB en {} ms, {} MB/s)",
+                zipFile.getName(), totalExtractedSize / (1024 * 1024), Math.round(seconds * 1000),
+                String.format(Locale.ROOT, "%.1f", totalWritten / (1024.0 * 1024.0) / seconds));
 
         return rootDir != null ? rootDir : destDir.getAbsolutePath();
     }
+
+    /**
+     * Trabajo de generación de una subida.
+     */
+    @FunctionalInterface
+    private interface Job {
+        /**
+         * @param ticket Plaza de admisión del trabajo (null si la tiene quien
+         *               encargó el trabajo)
+         */
+        AnalysisReport run(AdmissionService.Ticket ticket) throws UMLGenerationException;
+    }
+
+    /**
+     * Admisión diferida de un trabajo: solo se pide si hay que calcularlo.
+     */
+    @FunctionalInterface
+    private interface Admission {
+        AdmissionService.Ticket acquire() throws UMLGenerationException;
+    }
 }
\ No newline at end of file
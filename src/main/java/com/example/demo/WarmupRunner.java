@@ -0,0 +1,245 @@
+package com.example.demo;
+
+import com.example.demo.config.UMLGeneratorProperties;
+import com.example.demo.exception.UMLGenerationException;
+import com.example.demo.model.AnalysisReport;
+import com.example.demo.model.StartupMetrics;
+import com.example.demo.service.WorkDirectoryJanitor;
+import com.example.demo.service.ZipExtractionService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Calentamiento del pipeline al arrancar.
+ *
+ * Los primeros diagramas tras un despliegue son varias veces más lentos que
+ * los siguientes porque JavaParser, los detectores y la escritura del .puml
+ * aún se interpretan o están en C1. Con {@code uml.generator.warmup-iterations}
+ * mayor que 0, al terminar el arranque se genera un proyecto sintético que
+ * usa todas las construcciones que miran los detectores (herencia, genéricos,
+ * inyección, lambdas, streams, Optional, clases anidadas y enums) y se pasa
+ * por el pipeline completo ese número de veces: extracción del ZIP, parseo,
+ * análisis, modelo y .puml. PlantUML corre en su propia JVM, que no se
+ * reutiliza, así que solo se lanza en la primera pasada, para comprobar el
+ * jar y calentar la caché de archivos.
+ *
+ * El calentamiento corre dentro del evento ApplicationReadyEvent, antes de
+ * que la aplicación se declare lista para recibir tráfico. Sus tiempos y los
+ * de la primera subida se exponen como {@link StartupMetrics}.
+ *
+ * @author @PelayoPS
+ */
+@Component
+public class WarmupRunner {
+    private static final Logger logger = LoggerFactory.getLogger(WarmupRunner.class);
+
+    private static final int PACKAGES = 8;
+    private static final int MIN_CLASSES = 4;
+    private static final long MAX_EXTRACTED_SIZE = 64L * 1024 * 1024;
+
+    private final UMLGeneratorProperties properties;
+    private final ObjectProvider<UMLGenerator> umlGenerator;
+    private final ObjectProvider<ZipExtractionService> zipExtractionService;
+    private final WorkDirectoryJanitor workDirectoryJanitor;
+
+    private final List<Long> iterationMillis = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean firstUploadRecorded = new AtomicBoolean();
+    private volatile long readyMillis = -1;
+    private volatile long warmupMillis;
+    private volatile long firstUploadMillis = -1;
+    private volatile boolean firstUploadReused;
+
+    public WarmupRunner(UMLGeneratorProperties properties, ObjectProvider<UMLGenerator> umlGenerator,
+            ObjectProvider<ZipExtractionService> zipExtractionService, WorkDirectoryJanitor workDirectoryJanitor) {
+        this.properties = properties;
+        this.umlGenerator = umlGenerator;
+        this.zipExtractionService = zipExtractionService;
+        this.workDirectoryJanitor = workDirectoryJanitor;
+    }
+
+    /**
+     * Ejecuta las pasadas de calentamiento configuradas. Un fallo no impide
+     * el arranque: se registra y la aplicación sigue sin calentar.
+     */
+    public void warmUp() {
+        readyMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+        int iterations = properties.getWarmupIterations();
+        if (iterations <= 0) {
+            return;
+        }
+        int classes = Math.max(MIN_CLASSES, properties.getWarmupClasses());
+        logger.info("Calentamiento: {} pasadas sobre un proyecto sintético de {} clases", iterations, classes);
+
+        long start = System.nanoTime();
+        File workDir = null;
+        try {
+            workDir = workDirectoryJanitor.createWorkDirectory("warmup-").toFile();
+            File zip = new File(workDir, "warmup.zip");
+            writeSyntheticProject(zip, classes);
+            for (int i = 1; i <= iterations; i++) {
+                long iterationStart = System.nanoTime();
+                File destDir = new File(workDir, "run-" + i);
+                zipExtractionService.getObject().extract(zip, destDir, MAX_EXTRACTED_SIZE, MAX_EXTRACTED_SIZE);
+                AnalysisReport report = umlGenerator.getObject().warmUp(destDir.getAbsolutePath(),
+                        new File(workDir, properties.getOutputDirectory()), i == 1);
+                long millis = (System.nanoTime() - iterationStart) / 1_000_000;
+                iterationMillis.add(millis);
+                logger.info("Calentamiento {}/{}: {} ms ({})", i, iterations, millis, report);
+            }
+        } catch (IOException | UMLGenerationException e) {
+            logger.warn("Calentamiento interrumpido tras {} pasadas: {}", iterationMillis.size(), e.getMessage());
+        } finally {
+            if (workDir != null) {
+                workDirectoryJanitor.release(workDir.toPath());
+            }
+        }
+        warmupMillis = (System.nanoTime() - start) / 1_000_000;
+        logger.info("Calentamiento completado en {} ms (pasadas: {} ms)", warmupMillis, iterationMillis);
+    }
+
+    /**
+     * Anota la duración de una subida; solo cuenta la primera tras el arranque.
+     *
+     * @param millis Duración de la subida
+     * @param reused Si se sirvió desde el almacén de trabajos
+     */
+    public void recordUpload(long millis, boolean reused) {
+        if (!firstUploadRecorded.compareAndSet(false, true)) {
+            return;
+        }
+        firstUploadMillis = millis;
+        firstUploadReused = reused;
+        logger.info("Primera subida tras el arranque: {} ms{} (calentamiento: {} ms en {} pasadas)", millis,
+                reused ? ", servida desde el almacén" : "", warmupMillis, iterationMillis.size());
+    }
+
+    /**
+     * @return Métricas del arranque hasta el momento
+     */
+    public StartupMetrics getMetrics() {
+        return new StartupMetrics(readyMillis, iterationMillis.size(), warmupMillis, List.copyOf(iterationMillis),
+                firstUploadMillis, firstUploadReused);
+    }
+
+    /**
+     * Escribe el proyecto sintético como ZIP. Cada clase hereda de la base de
+     * su paquete y referencia las tres anteriores, muchas de otro paquete, de
+     * modo que salen relaciones de todos los tipos y entre paquetes.
+     */
+    static void writeSyntheticProject(File zipFile, int classes) throws IOException {
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(zipFile));
+                Writer writer = new OutputStreamWriter(zip, StandardCharsets.UTF_8)) {
+            addSource(zip, writer, 0, "Node", """
+                    package warmup.module0;
+
+                    import java.util.Map;
+
+                    public interface Node {
+                        int weight(Map<String, Integer> index);
+                    }
+                    """);
+            for (int module = 0; module < PACKAGES; module++) {
+                addSource(zip, writer, module, "Base" + module, """
+                        package warmup.module%1$d;
+
+                        import warmup.module0.Node;
+
+                        public abstract class Base%1$d<T> implements Node {
+                            protected T owner;
+
+                            public T getOwner() {
+                                return owner;
+                            }
+                        }
+                        """.formatted(module));
+                addSource(zip, writer, module, "Kind" + module, """
+                        package warmup.module%1$d;
+
+                        public enum Kind%1$d {
+                            LEAF, BRANCH
+                        }
+                        """.formatted(module));
+            }
+            for (int i = 0; i < classes; i++) {
+                int module = i % PACKAGES;
+                int previous = (i + classes - 1) % classes;
+                int child = (i + classes - 2) % classes;
+                int parent = (i + classes - 3) % classes;
+                addSource(zip, writer, module, "Type" + i, """
+                        package warmup.module%1$d;
+
+                        import java.util.ArrayList;
+                        import java.util.List;
+                        import java.util.Map;
+                        import java.util.Objects;
+                        import java.util.Optional;
+                        import java.util.function.Function;
+                        import org.springframework.beans.factory.annotation.Autowired;
+                        import org.springframework.stereotype.Service;
+                        import warmup.module0.Node;
+                        import warmup.module%3$d.Type%2$d;
+                        import warmup.module%5$d.Type%4$d;
+                        import warmup.module%7$d.Type%6$d;
+
+                        @Service
+                        public class Type%8$d extends Base%1$d<Type%2$d> implements Node {
+                            @Autowired
+                            private Type%2$d previous;
+                            private final List<Type%4$d> children = new ArrayList<>();
+                            private Optional<Type%6$d> parent = Optional.empty();
+                            private Kind%1$d kind = Kind%1$d.LEAF;
+
+                            public Type%8$d(Type%2$d previous) {
+                                this.previous = previous;
+                            }
+
+                            @Override
+                            public int weight(Map<String, Integer> index) {
+                                Function<Type%4$d, Integer> weight = child -> child.weight(index);
+                                return children.stream().filter(Objects::nonNull).map(weight).reduce(0, Integer::sum)
+                                        + parent.map(p -> p.weight(index)).orElse(0);
+                            }
+
+                            public Type%4$d first() {
+                                return children.isEmpty() ? new Type%4$d(null) : children.get(0);
+                            }
+
+                            static class Entry implements Comparable<Entry> {
+                                private String key;
+
+                                @Override
+                                public int compareTo(Entry other) {
+                                    return key.compareTo(other.key);
+                                }
+                            }
+                        }
+                        """.formatted(module, previous, previous % PACKAGES, child, child % PACKAGES, parent,
+                        parent % PACKAGES, i));
+            }
+        }
+    }
+
+    private static void addSource(ZipOutputStream zip, Writer writer, int module, String className, String source)
+            throws IOException {
+        zip.putNextEntry(new ZipEntry("warmup/src/warmup/module" + module + "/" + className + ".java"));
+        writer.write(source);
+        writer.flush();
+        zip.closeEntry();
+    }
+}
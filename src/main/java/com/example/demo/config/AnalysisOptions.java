@@ -0,0 +1,319 @@
+package com.example.demo.config;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Opciones de una ejecución de análisis concreta.
+ * Parte de los valores por defecto de {@link UMLGeneratorProperties} y admite
+ * ajustes por petición (filtros de inclusión/exclusión y directorios a omitir).
+ *
+ * @author @PelayoPS
+ */
+public class AnalysisOptions {
+
+    /**
+     * Patrones de inclusión (prefijo "glob:" o "regex:"; sin prefijo se asume glob)
+     */
+    private final List<String> includePatterns = new ArrayList<>();
+
+    /**
+     * Patrones de exclusión (prefijo "glob:" o "regex:"; sin prefijo se asume glob)
+     */
+    private final List<String> excludePatterns = new ArrayList<>();
+
+    /**
+     * Tamaño máximo en bytes de un archivo fuente; los mayores no se leen
+     */
+    private long maxFileSize;
+
+    /**
+     * Número máximo de archivos fuente a analizar (0 = sin límite)
+     */
+    private int maxFileCount;
+
+    /**
+     * Omitir directorios src/test
+     */
+    private boolean skipTestSources;
+
+    /**
+     * Omitir directorios de código generado
+     */
+    private boolean skipGeneratedSources;
+
+    /**
+     * Nombres de directorio considerados código generado
+     */
+    private final List<String> generatedSourceDirectories = new ArrayList<>();
+
+    /**
+     * Tiempo máximo de análisis del trabajo
+     */
+    private Duration maxDuration;
+
+    /**
+     * Bytes parseados a partir de los cuales se omite el análisis de cuerpos
+     */
+    private long maxParsedBytes;
+
+    /**
+     * Clases a partir de las cuales se omiten los miembros
+     */
+    private int maxClasses;
+
+    /**
+     * Relaciones a partir de las cuales se emite el diagrama por paquetes
+     */
+    private int maxRelationships;
+
+    /**
+     * Tiempo máximo de análisis por archivo
+     */
+    private Duration fileTimeout;
+
+    /**
+     * Tablas de nombres de los analizadores
+     */
+    private AnalyzerVocabulary vocabulary = AnalyzerVocabulary.DEFAULT;
+
+    /**
+     * Detectores de relaciones activos
+     */
+    private EnumSet<RelationshipAnalyzer> analyzers = AnalyzerProfile.EXHAUSTIVE.analyzers();
+
+    /**
+     * Parsear solo las cabeceras cuando ningún detector activo lee cuerpos
+     */
+    private boolean headerOnlyParsing = true;
+
+    /**
+     * Crea unas opciones a partir de los valores por defecto de la configuración.
+     *
+     * @param properties Configuración del generador
+     * @return Opciones con los valores por defecto
+     */
+    public static AnalysisOptions fromProperties(UMLGeneratorProperties properties) {
+        AnalysisOptions options = new AnalysisOptions();
+        options.includePatterns.addAll(properties.getIncludePatterns());
+        options.excludePatterns.addAll(properties.getExcludePatterns());
+        options.maxFileSize = properties.getMaxSourceFileSize().toBytes();
+        options.maxFileCount = properties.getMaxSourceFiles();
+        options.skipTestSources = properties.isSkipTestSources();
+        options.skipGeneratedSources = properties.isSkipGeneratedSources();
+        options.generatedSourceDirectories.addAll(properties.getGeneratedSourceDirectories());
+        options.maxDuration = properties.getMaxJobDuration();
+        options.maxParsedBytes = properties.getMaxParsedBytes().toBytes();
+        options.maxClasses = properties.getMaxClasses();
+        options.maxRelationships = properties.getMaxRelationships();
+        options.fileTimeout = properties.getFileAnalysisTimeout();
+        options.vocabulary = AnalyzerVocabulary.fromProperties(properties);
+        options.setAnalyzerProfile(properties.getAnalyzerProfile());
+        options.enableAnalyzers(properties.getEnabledAnalyzers());
+        options.disableAnalyzers(properties.getDisabledAnalyzers());
+        options.headerOnlyParsing = properties.isHeaderOnlyParsing();
+        return options;
+    }
+
+    /**
+     * Añade patrones de inclusión separados por comas o saltos de línea.
+     */
+    public void addIncludePatterns(String patterns) {
+        includePatterns.addAll(splitPatterns(patterns));
+    }
+
+    /**
+     * Añade patrones de exclusión separados por comas o saltos de línea.
+     */
+    public void addExcludePatterns(String patterns) {
+        excludePatterns.addAll(splitPatterns(patterns));
+    }
+
+    private static List<String> splitPatterns(String patterns) {
+        if (patterns == null || patterns.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(patterns.split("[,\\r\\n]+"))
+                .map(String::trim)
+                .filter(p -> !p.isEmpty())
+                .toList();
+    }
+
+    public List<String> getIncludePatterns() {
+        return includePatterns;
+    }
+
+    public List<String> getExcludePatterns() {
+        return excludePatterns;
+    }
+
+    public long getMaxFileSize() {
+        return maxFileSize;
+    }
+
+    public void setMaxFileSize(long maxFileSize) {
+        this.maxFileSize = maxFileSize;
+    }
+
+    public int getMaxFileCount() {
+        return maxFileCount;
+    }
+
+    public void setMaxFileCount(int maxFileCount) {
+        this.maxFileCount = maxFileCount;
+    }
+
+    public boolean isSkipTestSources() {
+        return skipTestSources;
+    }
+
+    public void setSkipTestSources(boolean skipTestSources) {
+        this.skipTestSources = skipTestSources;
+    }
+
+    public boolean isSkipGeneratedSources() {
+        return skipGeneratedSources;
+    }
+
+    public void setSkipGeneratedSources(boolean skipGeneratedSources) {
+        this.skipGeneratedSources = skipGeneratedSources;
+    }
+
+    public List<String> getGeneratedSourceDirectories() {
+        return generatedSourceDirectories;
+    }
+
+    public Duration getMaxDuration() {
+        return maxDuration;
+    }
+
+    public void setMaxDuration(Duration maxDuration) {
+        this.maxDuration = maxDuration;
+    }
+
+    public long getMaxParsedBytes() {
+        return maxParsedBytes;
+    }
+
+    public void setMaxParsedBytes(long maxParsedBytes) {
+        this.maxParsedBytes = maxParsedBytes;
+    }
+
+    public int getMaxClasses() {
+        return maxClasses;
+    }
+
+    public void setMaxClasses(int maxClasses) {
+        this.maxClasses = maxClasses;
+    }
+
+    public int getMaxRelationships() {
+        return maxRelationships;
+    }
+
+    public void setMaxRelationships(int maxRelationships) {
+        this.maxRelationships = maxRelationships;
+    }
+
+    public Duration getFileTimeout() {
+        return fileTimeout;
+    }
+
+    public void setFileTimeout(Duration fileTimeout) {
+        this.fileTimeout = fileTimeout;
+    }
+
+    /**
+     * Sustituye los detectores activos por los de un perfil.
+     */
+    public void setAnalyzerProfile(AnalyzerProfile profile) {
+        analyzers = profile.analyzers();
+    }
+
+    public void enableAnalyzers(Collection<RelationshipAnalyzer> enabled) {
+        analyzers.addAll(enabled);
+    }
+
+    public void disableAnalyzers(Collection<RelationshipAnalyzer> disabled) {
+        analyzers.removeAll(disabled);
+    }
+
+    public boolean isAnalyzerEnabled(RelationshipAnalyzer analyzer) {
+        return analyzers.contains(analyzer);
+    }
+
+    public EnumSet<RelationshipAnalyzer> getAnalyzers() {
+        return analyzers;
+    }
+
+    public void setAnalyzers(EnumSet<RelationshipAnalyzer> analyzers) {
+        this.analyzers = EnumSet.copyOf(analyzers);
+    }
+
+    /**
+     * @return true si algún detector activo necesita los cuerpos de métodos
+     */
+    public boolean needsBodies() {
+        return analyzers.stream().anyMatch(RelationshipAnalyzer::readsBodies);
+    }
+
+    public boolean isHeaderOnlyParsing() {
+        return headerOnlyParsing;
+    }
+
+    public void setHeaderOnlyParsing(boolean headerOnlyParsing) {
+        this.headerOnlyParsing = headerOnlyParsing;
+    }
+
+    public AnalyzerVocabulary getVocabulary() {
+        return vocabulary;
+    }
+
+    public void setVocabulary(AnalyzerVocabulary vocabulary) {
+        this.vocabulary = vocabulary;
+    }
+
+    /**
+     * Huella de las opciones que influyen en el resultado. Dos ejecuciones
+     * sobre el mismo ZIP con la misma huella producen el mismo diagrama, lo
+     * que permite reutilizar un trabajo anterior.
+     *
+     * @return Primeros 16 caracteres hexadecimales del SHA-256 de las opciones
+     */
+    public String fingerprint() {
+        StringBuilder canonical = new StringBuilder()
+                .append("include=").append(includePatterns)
+                .append("\nexclude=").append(excludePatterns)
+                .append("\nmaxFileSize=").append(maxFileSize)
+                .append("\nmaxFileCount=").append(maxFileCount)
+                .append("\nskipTests=").append(skipTestSources)
+                .append("\nskipGenerated=").append(skipGeneratedSources)
+                .append("\ngenerated=").append(generatedSourceDirectories)
+                .append("\nmaxDuration=").append(maxDuration)
+                .append("\nmaxParsedBytes=").append(maxParsedBytes)
+                .append("\nmaxClasses=").append(maxClasses)
+                .append("\nmaxRelationships=").append(maxRelationships)
+                .append("\nfileTimeout=").append(fileTimeout)
+                .append("\nanalyzers=").append(analyzers)
+                .append("\nheaderOnly=").append(headerOnlyParsing)
+                .append("\nnativeTypes=").append(new TreeSet<>(vocabulary.getNativeTypes()))
+                .append("\nstreamOperations=").append(new TreeSet<>(vocabulary.getStreamOperations()))
+                .append("\nfunctionalInterfaces=").append(new TreeSet<>(vocabulary.getFunctionalInterfaces()));
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(canonical.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Algoritmo de hash no disponible", e);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.demo.config;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Perfiles de análisis: conjuntos predefinidos de detectores de relaciones.
+ *
+ * @author @PelayoPS
+ */
+public enum AnalyzerProfile {
+    /** Solo estructura: herencia, implementación y atributos; no recorre cuerpos */
+    STRUCTURE_ONLY(EnumSet.of(RelationshipAnalyzer.INHERITANCE, RelationshipAnalyzer.IMPLEMENTATION,
+            RelationshipAnalyzer.FIELDS)),
+    /** Estructura, firmas y dependencias; sin los detectores de programación funcional ni variables locales */
+    STANDARD(EnumSet.complementOf(EnumSet.of(RelationshipAnalyzer.LOCAL_VARIABLES, RelationshipAnalyzer.IMPORTS,
+            RelationshipAnalyzer.LAMBDAS, RelationshipAnalyzer.STREAMS, RelationshipAnalyzer.VAR_INFERENCE,
+            RelationshipAnalyzer.FUNCTIONAL_INTERFACES, RelationshipAnalyzer.OPTIONAL))),
+    /** Todos los detectores */
+    EXHAUSTIVE(EnumSet.allOf(RelationshipAnalyzer.class));
+
+    private final Set<RelationshipAnalyzer> analyzers;
+
+    AnalyzerProfile(Set<RelationshipAnalyzer> analyzers) {
+        this.analyzers = analyzers;
+    }
+
+    /**
+     * @return Copia modificable de los detectores del perfil
+     */
+    public EnumSet<RelationshipAnalyzer> analyzers() {
+        return EnumSet.copyOf(analyzers);
+    }
+}
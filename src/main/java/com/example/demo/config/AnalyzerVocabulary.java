@@ -0,0 +1,125 @@
+package com.example.demo.config;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Tablas de nombres que consultan los analizadores de relaciones: tipos
+ * nativos que nunca generan relación, operaciones de Stream API e interfaces
+ * funcionales.
+ *
+ * Los valores por defecto se amplían con las listas de
+ * {@link UMLGeneratorProperties}. Las tablas son inmutables y se construyen
+ * una vez por trabajo, de modo que cada comprobación es una búsqueda en un
+ * conjunto hash.
+ *
+ * @author @PelayoPS
+ */
+public final class AnalyzerVocabulary {
+
+    private static final List<String> DEFAULT_NATIVE_TYPES = List.of(
+            // Tipos primitivos y wrappers
+            "String", "Integer", "Boolean", "Long", "Double", "Float", "Character", "Byte", "Short",
+            "int", "boolean", "long", "double", "float", "char", "byte", "short", "void",
+            // Clases fundamentales de Java
+            "Object", "Class", "Exception", "RuntimeException", "Throwable", "System", "Thread",
+            // Colecciones más comunes
+            "List", "ArrayList", "LinkedList", "Set", "HashSet", "LinkedHashSet", "TreeSet",
+            "Map", "HashMap", "LinkedHashMap", "TreeMap", "Collection", "Queue", "Deque",
+            // Utilerías comunes
+            "Date", "Calendar", "LocalDate", "LocalDateTime", "Optional", "Stream",
+            "BigDecimal", "BigInteger", "UUID", "Pattern", "Matcher",
+            // Spring Framework (comunes)
+            "Model", "RedirectAttributes", "HttpServletRequest", "HttpServletResponse",
+            "MultipartFile", "ResponseEntity", "RequestMapping", "GetMapping", "PostMapping",
+            // Tipos de retorno comunes
+            "Void");
+
+    private static final List<String> DEFAULT_STREAM_OPERATIONS = List.of(
+            "stream", "parallelStream", "collect", "filter", "map", "flatMap", "reduce", "forEach");
+
+    private static final List<String> DEFAULT_FUNCTIONAL_INTERFACES = List.of(
+            "Supplier", "Consumer", "Function", "Predicate",
+            "BiFunction", "BiConsumer", "BiPredicate", "UnaryOperator", "BinaryOperator");
+
+    /** Vocabulario sin ampliaciones */
+    public static final AnalyzerVocabulary DEFAULT = new AnalyzerVocabulary(List.of(), List.of(), List.of());
+
+    private final Set<String> nativeTypes;
+    private final Set<String> streamOperations;
+    private final Set<String> functionalInterfaces;
+
+    /**
+     * Crea un vocabulario con los valores por defecto más los indicados.
+     *
+     * @param extraNativeTypes          Tipos adicionales que no generan relación
+     * @param extraStreamOperations     Métodos adicionales considerados operaciones de stream
+     * @param extraFunctionalInterfaces Interfaces funcionales adicionales
+     */
+    public AnalyzerVocabulary(Collection<String> extraNativeTypes, Collection<String> extraStreamOperations,
+            Collection<String> extraFunctionalInterfaces) {
+        this.nativeTypes = merge(DEFAULT_NATIVE_TYPES, extraNativeTypes);
+        this.streamOperations = merge(DEFAULT_STREAM_OPERATIONS, extraStreamOperations);
+        this.functionalInterfaces = merge(DEFAULT_FUNCTIONAL_INTERFACES, extraFunctionalInterfaces);
+    }
+
+    /**
+     * Crea el vocabulario configurado.
+     *
+     * @param properties Configuración del generador
+     * @return Vocabulario con las ampliaciones de la configuración
+     */
+    public static AnalyzerVocabulary fromProperties(UMLGeneratorProperties properties) {
+        if (properties.getExtraNativeTypes().isEmpty() && properties.getExtraStreamOperations().isEmpty()
+                && properties.getExtraFunctionalInterfaces().isEmpty()) {
+            return DEFAULT;
+        }
+        return new AnalyzerVocabulary(properties.getExtraNativeTypes(), properties.getExtraStreamOperations(),
+                properties.getExtraFunctionalInterfaces());
+    }
+
+    private static Set<String> merge(List<String> defaults, Collection<String> extra) {
+        Set<String> merged = new HashSet<>(defaults);
+        for (String name : extra) {
+            if (name != null && !name.isBlank()) {
+                merged.add(name.trim());
+            }
+        }
+        return Set.copyOf(merged);
+    }
+
+    /**
+     * @return true si el tipo es nativo (JDK o framework) y no genera relación
+     */
+    public boolean isNativeType(String simpleName) {
+        return nativeTypes.contains(simpleName);
+    }
+
+    /**
+     * @return true si el método es una operación de Stream API
+     */
+    public boolean isStreamOperation(String methodName) {
+        return streamOperations.contains(methodName);
+    }
+
+    /**
+     * @return true si el tipo es una interfaz funcional
+     */
+    public boolean isFunctionalInterface(String simpleName) {
+        return functionalInterfaces.contains(simpleName);
+    }
+
+    public Set<String> getNativeTypes() {
+        return nativeTypes;
+    }
+
+    public Set<String> getStreamOperations() {
+        return streamOperations;
+    }
+
+    public Set<String> getFunctionalInterfaces() {
+        return functionalInterfaces;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.demo.config;
+
+import com.example.demo.config.UMLGeneratorProperties.ExecutionMode;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.Map;
+
+/**
+ * Traduce {@code uml.generator.execution-mode} a
+ * {@code spring.threads.virtual.enabled}, de modo que Spring Boot configura
+ * por sí mismo los hilos virtuales de Tomcat, de las tareas programadas y de
+ * los ejecutores asíncronos. La propiedad de Spring, si se fija, tiene
+ * prioridad.
+ *
+ * @author @PelayoPS
+ */
+public class ExecutionModeEnvironmentPostProcessor implements EnvironmentPostProcessor {
+
+    private static final String VIRTUAL_THREADS_PROPERTY = "spring.threads.virtual.enabled";
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        ExecutionMode mode = Binder.get(environment)
+                .bind("uml.generator.execution-mode", ExecutionMode.class)
+                .orElse(ExecutionMode.VIRTUAL);
+        // Al final de la lista: cualquier otra fuente que la defina gana
+        environment.getPropertySources().addLast(new MapPropertySource("umlGeneratorExecutionMode",
+                Map.of(VIRTUAL_THREADS_PROPERTY, mode == ExecutionMode.VIRTUAL)));
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.demo.config;
+
+/**
+ * Detectores de relaciones que se pueden activar o desactivar por separado.
+ * Un detector desactivado no recorre el árbol sintáctico.
+ *
+ * @author @PelayoPS
+ */
+public enum RelationshipAnalyzer {
+    /** Herencia (extends) */
+    INHERITANCE(false),
+    /** Implementación de interfaces */
+    IMPLEMENTATION(false),
+    /** Atributos: asociación, composición y agregación */
+    FIELDS(false),
+    /** Parámetros de constructor (inyección) */
+    CONSTRUCTOR_INJECTION(false),
+    /** Parámetros y tipos de retorno de los métodos */
+    METHOD_SIGNATURES(false),
+    /** Instanciaciones (new) en constructores y métodos */
+    INSTANTIATIONS(true),
+    /** Variables locales tipadas */
+    LOCAL_VARIABLES(true),
+    /** Llamadas a métodos de otros objetos */
+    METHOD_CALLS(true),
+    /** Llamadas a métodos estáticos */
+    STATIC_CALLS(true),
+    /** Imports de clases del proyecto */
+    IMPORTS(false),
+    /** Clases anidadas */
+    NESTED_CLASSES(false),
+    /** Excepciones declaradas (throws) y capturadas (catch) */
+    EXCEPTIONS(true),
+    /** Argumentos de tipos genéricos */
+    GENERICS(false),
+    /** Métodos sobrescritos (@Override) */
+    OVERRIDES(false),
+    /** Inyecciones probables entre controladores, servicios y repositorios */
+    SPRING_INFERENCE(false),
+    /** Expresiones lambda y referencias a métodos */
+    LAMBDAS(true),
+    /** Operaciones de Stream API */
+    STREAMS(true),
+    /** Inferencia de tipos con var */
+    VAR_INFERENCE(true),
+    /** Atributos y variables de interfaces funcionales */
+    FUNCTIONAL_INTERFACES(true),
+    /** Atributos Optional */
+    OPTIONAL(false);
+
+    private final boolean readsBodies;
+
+    RelationshipAnalyzer(boolean readsBodies) {
+        this.readsBodies = readsBodies;
+    }
+
+    /**
+     * @return true si el detector necesita los cuerpos de métodos y
+     *         constructores; si ninguno activo los necesita, se parsean solo
+     *         las cabeceras
+     */
+    public boolean readsBodies() {
+        return readsBodies;
+    }
+}
@@ -2,6 +2,11 @@ package com.example.demo.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Propiedades de configuración para el generador UML.
@@ -24,10 +29,17 @@ public class UMLGeneratorProperties {
     private String outputDirectory = "uml_output";
     
     /**
-     * Subdirectorio dentro de uploads para archivos descomprimidos
+     * Subdirectorio del directorio de trabajo de cada subida para los archivos
+     * descomprimidos
      */
     private String unzippedDirectory = "unzipped";
     
+    /**
+     * Almacén de trabajos: un subdirectorio por trabajo con su modelo y sus
+     * salidas. No se vacía al arrancar
+     */
+    private String jobStoreDirectory = "jobs";
+    
     /**
      * Ruta al archivo JAR de PlantUML (puede ser null para usar la detección automática)
      */
@@ -58,6 +70,338 @@ public class UMLGeneratorProperties {
      */
     private String svgExtension = ".svg";
     
+    /**
+     * Modo de descompresión de los ZIP subidos
+     */
+    private ZipExtractionMode zipExtractionMode = ZipExtractionMode.RANDOM_ACCESS;
+    
+    /**
+     * Hilos usados para descomprimir entradas en paralelo (modo acceso aleatorio)
+     */
+    private int zipExtractionThreads = Runtime.getRuntime().availableProcessors();
+    
+    /**
+     * Extensiones que se extraen del ZIP en modo acceso aleatorio; el resto se omite sin descomprimir
+     */
+    private List<String> zipRelevantExtensions = new ArrayList<>(List.of(".java"));
+    
+    /**
+     * Modo de subida usado por la interfaz web
+     */
+    private UploadMode uploadMode = UploadMode.STREAM;
+    
+    /**
+     * Modelo de hilos de las peticiones y esperas de E/S
+     */
+    private ExecutionMode executionMode = ExecutionMode.VIRTUAL;
+    
+    /**
+     * Hilos de plataforma para el parseo y el análisis en modo virtual (trabajos simultáneos)
+     */
+    private int analysisThreads = Runtime.getRuntime().availableProcessors();
+    
+    /**
+     * Trabajos admitidos a la vez (0 = uno por hilo de análisis)
+     */
+    private int maxConcurrentJobs = 1;
+    
+    /**
+     * Heap estimado de los trabajos admitidos a la vez (0 = la mitad del heap máximo)
+     */
+    private DataSize admissionMemoryBudget = DataSize.ofBytes(0);
+    
+    /**
+     * Trabajos en marcha o en cola por cliente (0 = sin límite)
+     */
+    private int maxJobsPerClient = 2;
+    
+    /**
+     * Trabajos que pueden esperar admisión; los siguientes se rechazan con Retry-After
+     */
+    private int admissionQueueSize = 16;
+    
+    /**
+     * Espera máxima en la cola de admisión antes de rechazar el trabajo
+     */
+    private Duration admissionQueueTimeout = Duration.ofSeconds(30);
+    
+    /**
+     * Antigüedad a partir de la cual el conserje borra las entradas de uploads
+     * que ningún trabajo está usando
+     */
+    private Duration workDirectoryTtl = Duration.ofHours(24);
+    
+    /**
+     * Número de trabajos que conserva el almacén; al superarlo se borran los más antiguos
+     */
+    private int maxStoredJobs = 50;
+    
+    /**
+     * Reutilizar un trabajo guardado cuando llega el mismo ZIP con las mismas opciones
+     */
+    private boolean reuseCompletedJobs = true;
+    
+    /**
+     * ZIP de ejemplo para la ejecución de entrenamiento del archivo CDS: al
+     * arrancar se procesa por HTTP y la aplicación termina (vacío = desactivado)
+     */
+    private String trainingProject = "";
+    
+    /**
+     * Pasadas de calentamiento del pipeline al arrancar, antes de declarar la
+     * aplicación lista (0 = sin calentamiento)
+     */
+    private int warmupIterations = 0;
+    
+    /**
+     * Clases del proyecto sintético que se procesa en cada pasada de calentamiento
+     */
+    private int warmupClasses = 120;
+    
+    /**
+     * Maquetación del diagrama: completa o por paquetes con caché de fragmentos
+     */
+    private LayoutMode layoutMode = LayoutMode.SINGLE;
+    
+    /**
+     * Caché de fragmentos de la maquetación por paquetes: un SVG por paquete,
+     * con nombre según su contenido. No se vacía al arrancar
+     */
+    private String layoutCacheDirectory = "layout-cache";
+    
+    /**
+     * Fragmentos que conserva la caché; al superarlo se borran los menos usados
+     */
+    private int maxLayoutCacheEntries = 2000;
+    
+    /**
+     * Renderizado del diagrama: PlantUML, el renderizado SVG propio o el propio
+     * como vista previa inmediata mientras PlantUML termina en segundo plano
+     */
+    private DiagramRenderer diagramRenderer = DiagramRenderer.PLANTUML;
+    
+    /**
+     * Esfuerzo de la maquetación propia: pasadas de reducción de cruces y de
+     * ajuste de coordenadas (0 = orden inicial)
+     */
+    private int nativeLayoutEffort = 4;
+    
+    /**
+     * Periodo entre dos pasadas del conserje de directorios de trabajo
+     */
+    private Duration janitorInterval = Duration.ofMinutes(15);
+    
+    /**
+     * Hilos dedicados a borrar directorios de trabajo en segundo plano
+     */
+    private int cleanupThreads = 2;
+    
+    /**
+     * Patrones de inclusión por defecto para archivos fuente ("glob:" o "regex:")
+     */
+    private List<String> includePatterns = new ArrayList<>();
+    
+    /**
+     * Patrones de exclusión por defecto para archivos fuente ("glob:" o "regex:")
+     */
+    private List<String> excludePatterns = new ArrayList<>();
+    
+    /**
+     * Tamaño máximo de un archivo fuente; los mayores se omiten sin leerlos
+     */
+    private DataSize maxSourceFileSize = DataSize.ofMegabytes(5);
+    
+    /**
+     * Número máximo de archivos fuente analizados por ejecución (0 = sin límite)
+     */
+    private int maxSourceFiles = 50000;
+    
+    /**
+     * Omitir por defecto los directorios src/test
+     */
+    private boolean skipTestSources = false;
+    
+    /**
+     * Omitir por defecto los directorios de código generado
+     */
+    private boolean skipGeneratedSources = false;
+    
+    /**
+     * Nombres de directorio que se consideran código generado
+     */
+    private List<String> generatedSourceDirectories = new ArrayList<>(
+            List.of("generated", "generated-sources", "generated-test-sources"));
+    
+    /**
+     * Tiempo máximo de análisis por trabajo; a la mitad, a tres cuartos y al
+     * agotarse se aplica un escalón de degradación
+     */
+    private Duration maxJobDuration = Duration.ofMinutes(2);
+    
+    /**
+     * Bytes de código fuente a partir de los cuales se deja de analizar el
+     * cuerpo de métodos y constructores
+     */
+    private DataSize maxParsedBytes = DataSize.ofMegabytes(64);
+    
+    /**
+     * Número de clases a partir del cual se omiten atributos y métodos
+     */
+    private int maxClasses = 2000;
+    
+    /**
+     * Número de relaciones a partir del cual el diagrama se emite por paquetes
+     */
+    private int maxRelationships = 10000;
+    
+    /**
+     * Tiempo máximo de análisis de un archivo; al superarse el archivo se
+     * registra en el informe y el trabajo continúa sin él. Se comprueba al leer
+     * el fuente y entre las pasadas del análisis: no corta un parseo que ya
+     * tiene todo el fuente leído
+     */
+    private Duration fileAnalysisTimeout = Duration.ofSeconds(20);
+    
+    /**
+     * Tiempo máximo de renderizado de PlantUML
+     */
+    private Duration plantUmlTimeout = Duration.ofMinutes(2);
+    
+    /**
+     * Tamaño del SVG a partir del cual el resultado se muestra con el visor
+     * por teselas y una vista previa por paquetes
+     */
+    private DataSize tiledViewerThreshold = DataSize.ofMegabytes(4);
+    
+    /**
+     * Lado de las teselas del visor en píxeles
+     */
+    private int tileSize = 1024;
+    
+    /**
+     * Procesos trabajadores locales que lanza el modo distribuido (0 = ninguno)
+     */
+    private int distributedWorkers = 0;
+    
+    /**
+     * Trabajadores ya arrancados (host:puerto) a los que también se reparten lotes
+     */
+    private List<String> workerEndpoints = new ArrayList<>();
+    
+    /**
+     * Número mínimo de archivos para repartir el análisis entre trabajadores
+     */
+    private int distributedMinFiles = 2000;
+    
+    /**
+     * Archivos por lote enviado a un trabajador
+     */
+    private int workerBatchSize = 64;
+    
+    /**
+     * Opciones de la JVM de los trabajadores locales
+     */
+    private List<String> workerJvmOptions = new ArrayList<>(List.of("-Xmx512m"));
+    
+    /**
+     * Tiempo máximo para que un trabajador arranque o acepte la conexión
+     */
+    private Duration workerStartupTimeout = Duration.ofSeconds(30);
+    
+    /**
+     * Tiempo máximo de espera de una respuesta de un trabajador; al superarse
+     * lo pendiente se analiza en local
+     */
+    private Duration workerTimeout = Duration.ofMinutes(2);
+    
+    /**
+     * Tipos adicionales que los analizadores tratan como nativos (no generan relación)
+     */
+    private List<String> extraNativeTypes = new ArrayList<>();
+    
+    /**
+     * Métodos adicionales que se consideran operaciones de Stream API
+     */
+    private List<String> extraStreamOperations = new ArrayList<>();
+    
+    /**
+     * Interfaces funcionales adicionales a las de java.util.function
+     */
+    private List<String> extraFunctionalInterfaces = new ArrayList<>();
+    
+    /**
+     * Perfil de detectores de relaciones por defecto
+     */
+    private AnalyzerProfile analyzerProfile = AnalyzerProfile.EXHAUSTIVE;
+    
+    /**
+     * Detectores que se añaden al perfil por defecto
+     */
+    private List<RelationshipAnalyzer> enabledAnalyzers = new ArrayList<>();
+    
+    /**
+     * Detectores que se quitan del perfil por defecto
+     */
+    private List<RelationshipAnalyzer> disabledAnalyzers = new ArrayList<>();
+    
+    /**
+     * Parsear solo las cabeceras (sin cuerpos de métodos) cuando ningún
+     * detector activo necesita los cuerpos
+     */
+    private boolean headerOnlyParsing = true;
+    
+    /**
+     * Modos de descompresión disponibles
+     */
+    public enum ZipExtractionMode {
+        /** Lectura secuencial con ZipInputStream de todas las entradas */
+        STREAM,
+        /** Lectura del directorio central, filtrado previo y descompresión en paralelo */
+        RANDOM_ACCESS
+    }
+    
+    /**
+     * Modos de subida disponibles
+     */
+    public enum UploadMode {
+        /** Formulario multipart: Spring vuelca el archivo a disco y se copia a uploads */
+        MULTIPART,
+        /** Cuerpo binario que se hashea, valida y extrae en una sola pasada */
+        STREAM
+    }
+    
+    /**
+     * Modos de maquetación del diagrama
+     */
+    public enum LayoutMode {
+        /** PlantUML maqueta el diagrama completo en una sola pasada */
+        SINGLE,
+        /** Cada paquete se maqueta por separado y se reutiliza mientras no cambie */
+        PARTITIONED
+    }
+    
+    /**
+     * Renderizados del diagrama disponibles
+     */
+    public enum DiagramRenderer {
+        /** PlantUML (y Graphviz) en un proceso aparte */
+        PLANTUML,
+        /** Maquetación por capas y SVG generados en la propia JVM, sin PlantUML */
+        NATIVE,
+        /** SVG propio al terminar el análisis y PlantUML en segundo plano */
+        NATIVE_PREVIEW
+    }
+    
+    /**
+     * Modelos de hilos disponibles
+     */
+    public enum ExecutionMode {
+        /** Pool de hilos de Tomcat; cada petición analiza en su propio hilo */
+        PLATFORM,
+        /** Un hilo virtual por petición; el análisis pasa a un pool acotado de hilos de plataforma */
+        VIRTUAL
+    }
+    
     // Getters y Setters
     
     public String getUploadDirectory() {
@@ -80,6 +424,14 @@ public class UMLGeneratorProperties {
         return unzippedDirectory;
     }
     
+    public String getJobStoreDirectory() {
+        return jobStoreDirectory;
+    }
+    
+    public void setJobStoreDirectory(String jobStoreDirectory) {
+        this.jobStoreDirectory = jobStoreDirectory;
+    }
+    
     public void setUnzippedDirectory(String unzippedDirectory) {
         this.unzippedDirectory = unzippedDirectory;
     }
@@ -132,6 +484,430 @@ public class UMLGeneratorProperties {
         this.svgExtension = svgExtension;
     }
     
+    public ZipExtractionMode getZipExtractionMode() {
+        return zipExtractionMode;
+    }
+    
+    public void setZipExtractionMode(ZipExtractionMode zipExtractionMode) {
+        this.zipExtractionMode = zipExtractionMode;
+    }
+    
+    public int getZipExtractionThreads() {
+        return zipExtractionThreads;
+    }
+    
+    public void setZipExtractionThreads(int zipExtractionThreads) {
+        this.zipExtractionThreads = zipExtractionThreads;
+    }
+    
+    public List<String> getZipRelevantExtensions() {
+        return zipRelevantExtensions;
+    }
+    
+    public void setZipRelevantExtensions(List<String> zipRelevantExtensions) {
+        this.zipRelevantExtensions = zipRelevantExtensions;
+    }
+    
+    public UploadMode getUploadMode() {
+        return uploadMode;
+    }
+    
+    public void setUploadMode(UploadMode uploadMode) {
+        this.uploadMode = uploadMode;
+    }
+    
+    public ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+    
+    public void setExecutionMode(ExecutionMode executionMode) {
+        this.executionMode = executionMode;
+    }
+    
+    public int getAnalysisThreads() {
+        return analysisThreads;
+    }
+    
+    public void setAnalysisThreads(int analysisThreads) {
+        this.analysisThreads = analysisThreads;
+    }
+    
+    public int getMaxConcurrentJobs() {
+        return maxConcurrentJobs;
+    }
+    
+    public void setMaxConcurrentJobs(int maxConcurrentJobs) {
+        this.maxConcurrentJobs = maxConcurrentJobs;
+    }
+    
+    public DataSize getAdmissionMemoryBudget() {
+        return admissionMemoryBudget;
+    }
+    
+    public void setAdmissionMemoryBudget(DataSize admissionMemoryBudget) {
+        this.admissionMemoryBudget = admissionMemoryBudget;
+    }
+    
+    public int getMaxJobsPerClient() {
+        return maxJobsPerClient;
+    }
+    
+    public void setMaxJobsPerClient(int maxJobsPerClient) {
+        this.maxJobsPerClient = maxJobsPerClient;
+    }
+    
+    public int getAdmissionQueueSize() {
+        return admissionQueueSize;
+    }
+    
+    public void setAdmissionQueueSize(int admissionQueueSize) {
+        this.admissionQueueSize = admissionQueueSize;
+    }
+    
+    public Duration getAdmissionQueueTimeout() {
+        return admissionQueueTimeout;
+    }
+    
+    public void setAdmissionQueueTimeout(Duration admissionQueueTimeout) {
+        this.admissionQueueTimeout = admissionQueueTimeout;
+    }
+    
+    public Duration getWorkDirectoryTtl() {
+        return workDirectoryTtl;
+    }
+    
+    public void setWorkDirectoryTtl(Duration workDirectoryTtl) {
+        this.workDirectoryTtl = workDirectoryTtl;
+    }
+    
+    public int getMaxStoredJobs() {
+        return maxStoredJobs;
+    }
+    
+    public void setMaxStoredJobs(int maxStoredJobs) {
+        this.maxStoredJobs = maxStoredJobs;
+    }
+    
+    public boolean isReuseCompletedJobs() {
+        return reuseCompletedJobs;
+    }
+    
+    public void setReuseCompletedJobs(boolean reuseCompletedJobs) {
+        this.reuseCompletedJobs = reuseCompletedJobs;
+    }
+    
+    public String getTrainingProject() {
+        return trainingProject;
+    }
+    
+    public void setTrainingProject(String trainingProject) {
+        this.trainingProject = trainingProject;
+    }
+    
+    public int getWarmupIterations() {
+        return warmupIterations;
+    }
+    
+    public void setWarmupIterations(int warmupIterations) {
+        this.warmupIterations = warmupIterations;
+    }
+    
+    public int getWarmupClasses() {
+        return warmupClasses;
+    }
+    
+    public void setWarmupClasses(int warmupClasses) {
+        this.warmupClasses = warmupClasses;
+    }
+    
+    public LayoutMode getLayoutMode() {
+        return layoutMode;
+    }
+    
+    public void setLayoutMode(LayoutMode layoutMode) {
+        this.layoutMode = layoutMode;
+    }
+    
+    public String getLayoutCacheDirectory() {
+        return layoutCacheDirectory;
+    }
+    
+    public void setLayoutCacheDirectory(String layoutCacheDirectory) {
+        this.layoutCacheDirectory = layoutCacheDirectory;
+    }
+    
+    public int getMaxLayoutCacheEntries() {
+        return maxLayoutCacheEntries;
+    }
+    
+    public void setMaxLayoutCacheEntries(int maxLayoutCacheEntries) {
+        this.maxLayoutCacheEntries = maxLayoutCacheEntries;
+    }
+    
+    public DiagramRenderer getDiagramRenderer() {
+        return diagramRenderer;
+    }
+    
+    public void setDiagramRenderer(DiagramRenderer diagramRenderer) {
+        this.diagramRenderer = diagramRenderer;
+    }
+    
+    public int getNativeLayoutEffort() {
+        return nativeLayoutEffort;
+    }
+    
+    public void setNativeLayoutEffort(int nativeLayoutEffort) {
+        this.nativeLayoutEffort = nativeLayoutEffort;
+    }
+    
+    public Duration getJanitorInterval() {
+        return janitorInterval;
+    }
+    
+    public void setJanitorInterval(Duration janitorInterval) {
+        this.janitorInterval = janitorInterval;
+    }
+    
+    public int getCleanupThreads() {
+        return cleanupThreads;
+    }
+    
+    public void setCleanupThreads(int cleanupThreads) {
+        this.cleanupThreads = cleanupThreads;
+    }
+    
+    public List<String> getIncludePatterns() {
+        return includePatterns;
+    }
+    
+    public void setIncludePatterns(List<String> includePatterns) {
+        this.includePatterns = includePatterns;
+    }
+    
+    public List<String> getExcludePatterns() {
+        return excludePatterns;
+    }
+    
+    public void setExcludePatterns(List<String> excludePatterns) {
+        this.excludePatterns = excludePatterns;
+    }
+    
+    public DataSize getMaxSourceFileSize() {
+        return maxSourceFileSize;
+    }
+    
+    public void setMaxSourceFileSize(DataSize maxSourceFileSize) {
+        this.maxSourceFileSize = maxSourceFileSize;
+    }
+    
+    public int getMaxSourceFiles() {
+        return maxSourceFiles;
+    }
+    
+    public void setMaxSourceFiles(int maxSourceFiles) {
+        this.maxSourceFiles = maxSourceFiles;
+    }
+    
+    public boolean isSkipTestSources() {
+        return skipTestSources;
+    }
+    
+    public void setSkipTestSources(boolean skipTestSources) {
+        this.skipTestSources = skipTestSources;
+    }
+    
+    public boolean isSkipGeneratedSources() {
+        return skipGeneratedSources;
+    }
+    
+    public void setSkipGeneratedSources(boolean skipGeneratedSources) {
+        this.skipGeneratedSources = skipGeneratedSources;
+    }
+    
+    public List<String> getGeneratedSourceDirectories() {
+        return generatedSourceDirectories;
+    }
+    
+    public void setGeneratedSourceDirectories(List<String> generatedSourceDirectories) {
+        this.generatedSourceDirectories = generatedSourceDirectories;
+    }
+    
+    public Duration getMaxJobDuration() {
+        return maxJobDuration;
+    }
+    
+    public void setMaxJobDuration(Duration maxJobDuration) {
+        this.maxJobDuration = maxJobDuration;
+    }
+    
+    public DataSize getMaxParsedBytes() {
+        return maxParsedBytes;
+    }
+    
+    public void setMaxParsedBytes(DataSize maxParsedBytes) {
+        this.maxParsedBytes = maxParsedBytes;
+    }
+    
+    public int getMaxClasses() {
+        return maxClasses;
+    }
+    
+    public void setMaxClasses(int maxClasses) {
+        this.maxClasses = maxClasses;
+    }
+    
+    public int getMaxRelationships() {
+        return maxRelationships;
+    }
+    
+    public void setMaxRelationships(int maxRelationships) {
+        this.maxRelationships = maxRelationships;
+    }
+    
+    public Duration getFileAnalysisTimeout() {
+        return fileAnalysisTimeout;
+    }
+    
+    public void setFileAnalysisTimeout(Duration fileAnalysisTimeout) {
+        this.fileAnalysisTimeout = fileAnalysisTimeout;
+    }
+    
+    public DataSize getTiledViewerThreshold() {
+        return tiledViewerThreshold;
+    }
+    
+    public void setTiledViewerThreshold(DataSize tiledViewerThreshold) {
+        this.tiledViewerThreshold = tiledViewerThreshold;
+    }
+    
+    public int getTileSize() {
+        return tileSize;
+    }
+    
+    public void setTileSize(int tileSize) {
+        this.tileSize = tileSize;
+    }
+    
+    public Duration getPlantUmlTimeout() {
+        return plantUmlTimeout;
+    }
+    
+    public void setPlantUmlTimeout(Duration plantUmlTimeout) {
+        this.plantUmlTimeout = plantUmlTimeout;
+    }
+    
+    public int getDistributedWorkers() {
+        return distributedWorkers;
+    }
+    
+    public void setDistributedWorkers(int distributedWorkers) {
+        this.distributedWorkers = distributedWorkers;
+    }
+    
+    public List<String> getWorkerEndpoints() {
+        return workerEndpoints;
+    }
+    
+    public void setWorkerEndpoints(List<String> workerEndpoints) {
+        this.workerEndpoints = workerEndpoints;
+    }
+    
+    public int getDistributedMinFiles() {
+        return distributedMinFiles;
+    }
+    
+    public void setDistributedMinFiles(int distributedMinFiles) {
+        this.distributedMinFiles = distributedMinFiles;
+    }
+    
+    public int getWorkerBatchSize() {
+        return workerBatchSize;
+    }
+    
+    public void setWorkerBatchSize(int workerBatchSize) {
+        this.workerBatchSize = workerBatchSize;
+    }
+    
+    public List<String> getWorkerJvmOptions() {
+        return workerJvmOptions;
+    }
+    
+    public void setWorkerJvmOptions(List<String> workerJvmOptions) {
+        this.workerJvmOptions = workerJvmOptions;
+    }
+    
+    public Duration getWorkerStartupTimeout() {
+        return workerStartupTimeout;
+    }
+    
+    public void setWorkerStartupTimeout(Duration workerStartupTimeout) {
+        this.workerStartupTimeout = workerStartupTimeout;
+    }
+    
+    public Duration getWorkerTimeout() {
+        return workerTimeout;
+    }
+    
+    public void setWorkerTimeout(Duration workerTimeout) {
+        this.workerTimeout = workerTimeout;
+    }
+    
+    public List<String> getExtraNativeTypes() {
+        return extraNativeTypes;
+    }
+    
+    public void setExtraNativeTypes(List<String> extraNativeTypes) {
+        this.extraNativeTypes = extraNativeTypes;
+    }
+    
+    public List<String> getExtraStreamOperations() {
+        return extraStreamOperations;
+    }
+    
+    public void setExtraStreamOperations(List<String> extraStreamOperations) {
+        this.extraStreamOperations = extraStreamOperations;
+    }
+    
+    public List<String> getExtraFunctionalInterfaces() {
+        return extraFunctionalInterfaces;
+    }
+    
+    public void setExtraFunctionalInterfaces(List<String> extraFunctionalInterfaces) {
+        this.extraFunctionalInterfaces = extraFunctionalInterfaces;
+    }
+    
+    public AnalyzerProfile getAnalyzerProfile() {
+        return analyzerProfile;
+    }
+    
+    public void setAnalyzerProfile(AnalyzerProfile analyzerProfile) {
+        this.analyzerProfile = analyzerProfile;
+    }
+    
+    public List<RelationshipAnalyzer> getEnabledAnalyzers() {
+        return enabledAnalyzers;
+    }
+    
+    public void setEnabledAnalyzers(List<RelationshipAnalyzer> enabledAnalyzers) {
+        this.enabledAnalyzers = enabledAnalyzers;
+    }
+    
+    public List<RelationshipAnalyzer> getDisabledAnalyzers() {
+        return disabledAnalyzers;
+    }
+    
+    public void setDisabledAnalyzers(List<RelationshipAnalyzer> disabledAnalyzers) {
+        this.disabledAnalyzers = disabledAnalyzers;
+    }
+    
+    public boolean isHeaderOnlyParsing() {
+        return headerOnlyParsing;
+    }
+    
+    public void setHeaderOnlyParsing(boolean headerOnlyParsing) {
+        this.headerOnlyParsing = headerOnlyParsing;
+    }
+    
     /**
      * Obtiene la ruta completa del directorio de uploads
      */
@@ -147,10 +923,17 @@ public class UMLGeneratorProperties {
     }
     
     /**
-     * Obtiene la ruta completa del directorio de archivos descomprimidos
+     * Obtiene la ruta completa del almacén de trabajos
      */
-    public String getFullUnzippedPath() {
-        return getFullUploadPath() + "/" + unzippedDirectory;
+    public String getFullJobStorePath() {
+        return System.getProperty("user.dir") + "/" + jobStoreDirectory;
+    }
+    
+    /**
+     * Obtiene la ruta completa de la caché de fragmentos de maquetación
+     */
+    public String getFullLayoutCachePath() {
+        return System.getProperty("user.dir") + "/" + layoutCacheDirectory;
     }
     
     /**
@@ -174,6 +957,63 @@ public class UMLGeneratorProperties {
         return "/" + outputDirectory + "/" + getSvgFileName();
     }
     
+    /**
+     * Obtiene el nombre base de la vista previa por paquetes de los diagramas grandes
+     */
+    public String getOverviewFileName() {
+        return diagramFileName + "_paquetes";
+    }
+    
+    /**
+     * Obtiene la URL de la vista previa por paquetes para la web
+     */
+    public String getOverviewUrl() {
+        return "/" + outputDirectory + "/" + getOverviewFileName() + svgExtension;
+    }
+    
+    /**
+     * Obtiene el nombre base de la vista previa del renderizado propio
+     */
+    public String getPreviewFileName() {
+        return diagramFileName + "_previa";
+    }
+    
+    /**
+     * Obtiene la URL de la vista previa del renderizado propio para la web
+     */
+    public String getPreviewUrl() {
+        return "/" + outputDirectory + "/" + getPreviewFileName() + svgExtension;
+    }
+    
+    /**
+     * Obtiene el nombre del archivo JSON con el modelo de clases exportado
+     */
+    public String getModelFileName() {
+        return diagramFileName + "_modelo.json";
+    }
+    
+    /**
+     * Obtiene la URL del modelo de clases exportado
+     */
+    public String getModelUrl() {
+        return "/" + outputDirectory + "/" + getModelFileName();
+    }
+    
+    /**
+     * Obtiene la URL de una salida de un trabajo, que sirve solo ese trabajo
+     */
+    public String getJobFileUrl(String jobId, String fileName) {
+        return "/jobs/" + jobId + "/" + fileName;
+    }
+    
+    /**
+     * Obtiene los nombres de las salidas que un trabajo publica en el directorio de salida
+     */
+    public List<String> getOutputFileNames() {
+        return List.of(getPlantUmlFileName(), getSvgFileName(), getOverviewFileName() + plantUmlExtension,
+                getOverviewFileName() + svgExtension, getPreviewFileName() + svgExtension, getModelFileName());
+    }
+    
     /**
      * Resuelve la ruta al JAR de PlantUML en orden de prioridad:
      * 1. Configuración explícita (plantUmlJarPath)
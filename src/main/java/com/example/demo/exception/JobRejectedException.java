@@ -0,0 +1,40 @@
+package com.example.demo.exception;
+
+/**
+ * Excepción para trabajos que el control de admisión no acepta: el cliente
+ * ya tiene demasiados trabajos en curso o el servidor no tiene presupuesto
+ * libre ni hueco en la cola. La petición puede repetirse más tarde.
+ *
+ * @author @PelayoPS
+ */
+public class JobRejectedException extends UMLGenerationException {
+
+    private final long retryAfterSeconds;
+    private final boolean clientLimit;
+
+    public JobRejectedException(String message, long retryAfterSeconds, boolean clientLimit) {
+        super(message, "AdmissionService", null);
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.clientLimit = clientLimit;
+    }
+
+    /**
+     * @return Segundos recomendados antes de reintentar (cabecera Retry-After)
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    /**
+     * @return true si se rechazó por el límite de trabajos del cliente y no
+     *         por falta de presupuesto global
+     */
+    public boolean isClientLimit() {
+        return clientLimit;
+    }
+
+    @Override
+    public String toString() {
+        return super.toString() + " [Reintentar en: " + retryAfterSeconds + " s]";
+    }
+}
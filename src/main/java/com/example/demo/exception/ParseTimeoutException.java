@@ -0,0 +1,23 @@
+package com.example.demo.exception;
+
+import java.time.Duration;
+
+/**
+ * Excepción para archivos Java cuyo análisis supera el tiempo máximo por
+ * archivo. El trabajo continúa con el resto de archivos.
+ * 
+ * @author @PelayoPS
+ */
+public class ParseTimeoutException extends JavaParsingException {
+    
+    private final Duration timeout;
+    
+    public ParseTimeoutException(String fileName, Duration timeout) {
+        super("Tiempo máximo de análisis por archivo agotado (" + timeout.toMillis() + " ms)", fileName);
+        this.timeout = timeout;
+    }
+    
+    public Duration getTimeout() {
+        return timeout;
+    }
+}
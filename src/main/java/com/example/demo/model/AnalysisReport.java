@@ -0,0 +1,334 @@
+package com.example.demo.model;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Informe de una ejecución de análisis: qué se analizó y qué se omitió.
+ * Thread-safe para poder actualizarse desde varios hilos.
+ *
+ * @author @PelayoPS
+ */
+public class AnalysisReport {
+
+    // Fallos que se detallan en el informe; del resto solo se cuentan
+    private static final int MAX_REPORTED_FAILURES = 20;
+
+    private final AtomicInteger analyzedFiles = new AtomicInteger();
+    private final AtomicInteger excludedFiles = new AtomicInteger();
+    private final AtomicInteger oversizedFiles = new AtomicInteger();
+    private final AtomicInteger overLimitFiles = new AtomicInteger();
+    private final AtomicInteger skippedDirectories = new AtomicInteger();
+    private final AtomicInteger budgetSkippedFiles = new AtomicInteger();
+    private final AtomicInteger failedFiles = new AtomicInteger();
+    private final AtomicInteger timedOutFiles = new AtomicInteger();
+    private final List<String> failures = new ArrayList<>();
+    private final List<String> degradationReasons = new ArrayList<>();
+    private volatile DegradationLevel degradation = DegradationLevel.NONE;
+    private volatile String sourceHash;
+    private volatile String jobId;
+    private volatile String renderId;
+    private volatile boolean reused;
+    // Duración de cada fase del trabajo en milisegundos, en orden de ejecución
+    private final Map<String, Long> phases = new LinkedHashMap<>();
+
+    public void fileAnalyzed() {
+        analyzedFiles.incrementAndGet();
+    }
+
+    public void fileExcluded() {
+        excludedFiles.incrementAndGet();
+    }
+
+    public void fileOversized() {
+        oversizedFiles.incrementAndGet();
+    }
+
+    public void filesOverLimit(int count) {
+        overLimitFiles.addAndGet(count);
+    }
+
+    public void directorySkipped() {
+        skippedDirectories.incrementAndGet();
+    }
+
+    public void fileSkippedByBudget() {
+        budgetSkippedFiles.incrementAndGet();
+    }
+
+    /**
+     * Registra un archivo que no se pudo parsear o analizar. El trabajo
+     * continúa sin él.
+     *
+     * @param fileName Archivo
+     * @param reason   Causa del fallo
+     */
+    public void fileFailed(String fileName, String reason) {
+        failedFiles.incrementAndGet();
+        addFailure(fileName, reason);
+    }
+
+    /**
+     * Registra un archivo abandonado por superar el tiempo máximo por archivo.
+     *
+     * @param fileName Archivo
+     * @param reason   Plazo superado
+     */
+    public void fileTimedOut(String fileName, String reason) {
+        timedOutFiles.incrementAndGet();
+        addFailure(fileName, reason);
+    }
+
+    private synchronized void addFailure(String fileName, String reason) {
+        if (failures.size() < MAX_REPORTED_FAILURES) {
+            failures.add(fileName + ": " + reason);
+        }
+    }
+
+    /**
+     * Avanza el nivel de degradación si {@code level} es más restrictivo que el
+     * actual. Nunca retrocede.
+     *
+     * @param level  Nivel exigido
+     * @param reason Presupuesto que lo provoca
+     */
+    public synchronized void degradeTo(DegradationLevel level, String reason) {
+        if (level.ordinal() > degradation.ordinal()) {
+            degradation = level;
+            degradationReasons.add(level + " (" + reason + ")");
+        }
+    }
+
+    /**
+     * @return Archivos fuente que pasaron los filtros y se analizaron
+     */
+    public int getAnalyzedFiles() {
+        return analyzedFiles.get();
+    }
+
+    /**
+     * @return Archivos descartados por los patrones de inclusión/exclusión
+     */
+    public int getExcludedFiles() {
+        return excludedFiles.get();
+    }
+
+    /**
+     * @return Archivos descartados por superar el tamaño máximo
+     */
+    public int getOversizedFiles() {
+        return oversizedFiles.get();
+    }
+
+    /**
+     * @return Archivos descartados por superar el número máximo de archivos
+     */
+    public int getOverLimitFiles() {
+        return overLimitFiles.get();
+    }
+
+    /**
+     * @return Directorios omitidos completos (tests, generados o excluidos)
+     */
+    public int getSkippedDirectories() {
+        return skippedDirectories.get();
+    }
+
+    /**
+     * @return Archivos no analizados por haberse agotado el tiempo del trabajo
+     */
+    public int getBudgetSkippedFiles() {
+        return budgetSkippedFiles.get();
+    }
+
+    /**
+     * @return Archivos que no se pudieron parsear o analizar
+     */
+    public int getFailedFiles() {
+        return failedFiles.get();
+    }
+
+    /**
+     * @return Archivos abandonados por superar el tiempo máximo por archivo
+     */
+    public int getTimedOutFiles() {
+        return timedOutFiles.get();
+    }
+
+    /**
+     * @return Detalle de los primeros archivos fallidos o abandonados
+     */
+    public synchronized List<String> getFailures() {
+        return new ArrayList<>(failures);
+    }
+
+    /**
+     * @return Nivel de degradación aplicado
+     */
+    public DegradationLevel getDegradation() {
+        return degradation;
+    }
+
+    /**
+     * @return true si el resultado se generó con algún recorte por presupuesto
+     */
+    public boolean isDegraded() {
+        return degradation != DegradationLevel.NONE;
+    }
+
+    /**
+     * @return Escalones aplicados y el presupuesto que provocó cada uno
+     */
+    public synchronized List<String> getDegradationReasons() {
+        return new ArrayList<>(degradationReasons);
+    }
+
+    /**
+     * @return Hash SHA-256 del ZIP de origen, si se calculó durante la subida
+     */
+    public String getSourceHash() {
+        return sourceHash;
+    }
+
+    public void setSourceHash(String sourceHash) {
+        this.sourceHash = sourceHash;
+    }
+
+    /**
+     * @return Identificador del trabajo en el almacén, si se guardó
+     */
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    /**
+     * @return Identificador del renderizado en segundo plano si el diagrama se
+     *         entregó como vista previa, o null
+     */
+    public String getRenderId() {
+        return renderId;
+    }
+
+    public void setRenderId(String renderId) {
+        this.renderId = renderId;
+    }
+
+    /**
+     * @return true si el resultado es el de un trabajo anterior con el mismo
+     *         ZIP y las mismas opciones
+     */
+    public boolean isReused() {
+        return reused;
+    }
+
+    public void setReused(boolean reused) {
+        this.reused = reused;
+    }
+
+    /**
+     * @return true si el resultado solo depende del ZIP y de las opciones: no
+     *         se omitió ni abandonó ningún archivo por tiempo, que depende de
+     *         la carga de la máquina
+     */
+    public boolean isReproducible() {
+        return getBudgetSkippedFiles() == 0 && getTimedOutFiles() == 0;
+    }
+
+    /**
+     * Vuelca los contadores del informe en un manifiesto.
+     *
+     * @param target Manifiesto de destino
+     * @param prefix Prefijo de las claves
+     */
+    public synchronized void writeTo(Properties target, String prefix) {
+        target.setProperty(prefix + "analyzed", String.valueOf(getAnalyzedFiles()));
+        target.setProperty(prefix + "excluded", String.valueOf(getExcludedFiles()));
+        target.setProperty(prefix + "oversized", String.valueOf(getOversizedFiles()));
+        target.setProperty(prefix + "overLimit", String.valueOf(getOverLimitFiles()));
+        target.setProperty(prefix + "skippedDirectories", String.valueOf(getSkippedDirectories()));
+        target.setProperty(prefix + "budgetSkipped", String.valueOf(getBudgetSkippedFiles()));
+        target.setProperty(prefix + "failed", String.valueOf(getFailedFiles()));
+        target.setProperty(prefix + "timedOut", String.valueOf(getTimedOutFiles()));
+        target.setProperty(prefix + "degradation", degradation.name());
+        target.setProperty(prefix + "degradationReasons", String.join("\n", degradationReasons));
+        target.setProperty(prefix + "failures", String.join("\n", failures));
+    }
+
+    /**
+     * Reconstruye un informe guardado con {@link #writeTo(Properties, String)}.
+     *
+     * @param source Manifiesto de origen
+     * @param prefix Prefijo de las claves
+     * @return Informe con los mismos contadores
+     * @throws IllegalArgumentException Si falta algún contador o no es válido
+     */
+    public static AnalysisReport readFrom(Properties source, String prefix) {
+        AnalysisReport report = new AnalysisReport();
+        report.analyzedFiles.set(count(source, prefix + "analyzed"));
+        report.excludedFiles.set(count(source, prefix + "excluded"));
+        report.oversizedFiles.set(count(source, prefix + "oversized"));
+        report.overLimitFiles.set(count(source, prefix + "overLimit"));
+        report.skippedDirectories.set(count(source, prefix + "skippedDirectories"));
+        report.budgetSkippedFiles.set(count(source, prefix + "budgetSkipped"));
+        report.failedFiles.set(count(source, prefix + "failed"));
+        report.timedOutFiles.set(count(source, prefix + "timedOut"));
+        report.degradation = DegradationLevel.valueOf(source.getProperty(prefix + "degradation", "NONE"));
+        report.degradationReasons.addAll(lines(source.getProperty(prefix + "degradationReasons")));
+        report.failures.addAll(lines(source.getProperty(prefix + "failures")));
+        return report;
+    }
+
+    private static int count(Properties source, String key) {
+        String value = source.getProperty(key);
+        if (value == null) {
+            throw new IllegalArgumentException("Falta el contador " + key);
+        }
+        return Integer.parseInt(value.trim());
+    }
+
+    private static List<String> lines(String value) {
+        return value == null || value.isEmpty() ? List.of() : List.of(value.split("\n"));
+    }
+
+    /**
+     * Registra la duración de una fase del trabajo (análisis, PlantUML...).
+     */
+    public synchronized void recordPhase(String phase, long millis) {
+        phases.merge(phase, millis, Long::sum);
+    }
+
+    /**
+     * @return Perfil de tiempos: fase y milisegundos
+     */
+    public synchronized Map<String, Long> getPhases() {
+        return new LinkedHashMap<>(phases);
+    }
+
+    /**
+     * @return Total de archivos fuente omitidos
+     */
+    public int getSkippedFiles() {
+        return getExcludedFiles() + getOversizedFiles() + getOverLimitFiles() + getBudgetSkippedFiles();
+    }
+
+    @Override
+    public String toString() {
+        return "analizados=" + getAnalyzedFiles() +
+                ", excluidos=" + getExcludedFiles() +
+                ", demasiado grandes=" + getOversizedFiles() +
+                ", fuera de límite=" + getOverLimitFiles() +
+                ", sin presupuesto=" + getBudgetSkippedFiles() +
+                ", directorios omitidos=" + getSkippedDirectories() +
+                ", fallidos=" + getFailedFiles() +
+                ", tiempo agotado=" + getTimedOutFiles() +
+                (isDegraded() ? ", degradado=" + getDegradationReasons() : "");
+    }
+}
@@ -0,0 +1,613 @@
+package com.example.demo.model;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+
+/**
+ * Grafo de clases de un trabajo, indexado para consultas.
+ *
+ * Los nodos son las clases del diagrama con identificadores densos y las
+ * aristas sus relaciones. Las adyacencias se guardan en formato CSR
+ * (desplazamientos y destinos en arrays de enteros) en ambos sentidos, de
+ * modo que vecinos, grado, recorridos y componentes se resuelven sin
+ * reservar un objeto por arista. El grafo es inmutable y se puede consultar
+ * desde varios hilos.
+ *
+ * Los nodos están ordenados por nombre, así que la búsqueda de una clase es
+ * binaria y no necesita un mapa. Con ello el grafo se guarda tal cual en un
+ * formato binario ({@link #writeTo(OutputStream)}) y se vuelve a abrir
+ * proyectando el archivo en memoria ({@link #map(ByteBuffer)}): los arrays
+ * se leen directamente del archivo y los nombres se decodifican al
+ * consultarse.
+ *
+ * @author @PelayoPS
+ */
+public class ClassGraph {
+
+    /**
+     * Sentido en que se siguen las relaciones.
+     */
+    public enum Direction {
+        /** Dependencias de la clase */
+        OUT,
+        /** Clases que dependen de ella */
+        IN,
+        BOTH
+    }
+
+    /** Relación entre una clase y un vecino */
+    public record Neighbor(String name, String relation, boolean outgoing) {
+    }
+
+    /** Clase alcanzada en un recorrido y su distancia en relaciones */
+    public record Reached(String name, int depth) {
+    }
+
+    /** Grados de entrada y salida de una clase */
+    public record Degree(String name, int in, int out) {
+    }
+
+    private static final String PACKAGE_RELATION = "..>";
+
+    // Cabecera del formato binario: "UMLG" y versión
+    private static final int MAGIC = 0x554D4C47;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_INTS = 5;
+
+    private final int nodeCount;
+    private final int edgeCount;
+    private final Strings names;
+    private final Strings packages;
+    private final Strings relations;
+    // Aristas salientes del nodo n: outTargets[outStart[n] .. outStart[n + 1])
+    private final IntBuffer outStart;
+    private final IntBuffer outTargets;
+    private final IntBuffer outKinds;
+    private final IntBuffer inStart;
+    private final IntBuffer inSources;
+    private final IntBuffer inKinds;
+    private volatile ClassGraph packageGraph;
+
+    /**
+     * Construye el grafo a partir de las aristas en arrays paralelos.
+     *
+     * @param names     Nombre de cada nodo, en orden ascendente y sin repetir
+     * @param packages  Paquete de cada nodo ("" si se desconoce)
+     * @param relations Texto de cada tipo de relación (flecha y etiqueta)
+     * @param sources   Origen de cada arista
+     * @param targets   Destino de cada arista
+     * @param kinds     Tipo de cada arista (índice en {@code relations})
+     * @param edgeCount Número de aristas válidas en los arrays
+     */
+    public ClassGraph(String[] names, String[] packages, String[] relations, int[] sources, int[] targets,
+            int[] kinds, int edgeCount) {
+        for (int i = 1; i < names.length; i++) {
+            if (names[i - 1].compareTo(names[i]) >= 0) {
+                throw new IllegalArgumentException("Los nodos del grafo deben estar ordenados y sin repetir: "
+                        + names[i]);
+            }
+        }
+        this.nodeCount = names.length;
+        this.edgeCount = edgeCount;
+        this.names = new Strings(names);
+        this.packages = new Strings(packages);
+        this.relations = new Strings(relations);
+        int[] outStart = new int[nodeCount + 1];
+        int[] outTargets = new int[edgeCount];
+        int[] outKinds = new int[edgeCount];
+        int[] inStart = new int[nodeCount + 1];
+        int[] inSources = new int[edgeCount];
+        int[] inKinds = new int[edgeCount];
+        index(sources, targets, kinds, outStart, outTargets, outKinds);
+        index(targets, sources, kinds, inStart, inSources, inKinds);
+        this.outStart = IntBuffer.wrap(outStart);
+        this.outTargets = IntBuffer.wrap(outTargets);
+        this.outKinds = IntBuffer.wrap(outKinds);
+        this.inStart = IntBuffer.wrap(inStart);
+        this.inSources = IntBuffer.wrap(inSources);
+        this.inKinds = IntBuffer.wrap(inKinds);
+    }
+
+    private ClassGraph(int nodeCount, int edgeCount, Strings names, Strings packages, Strings relations,
+            IntBuffer[] adjacency) {
+        this.nodeCount = nodeCount;
+        this.edgeCount = edgeCount;
+        this.names = names;
+        this.packages = packages;
+        this.relations = relations;
+        this.outStart = adjacency[0];
+        this.outTargets = adjacency[1];
+        this.outKinds = adjacency[2];
+        this.inStart = adjacency[3];
+        this.inSources = adjacency[4];
+        this.inKinds = adjacency[5];
+    }
+
+    /**
+     * Ordena las aristas por nodo de partida (ordenación por conteo).
+     */
+    private void index(int[] from, int[] to, int[] kinds, int[] start, int[] adjacent, int[] adjacentKinds) {
+        for (int e = 0; e < edgeCount; e++) {
+            start[from[e] + 1]++;
+        }
+        for (int n = 0; n < nodeCount; n++) {
+            start[n + 1] += start[n];
+        }
+        int[] next = Arrays.copyOf(start, nodeCount);
+        for (int e = 0; e < edgeCount; e++) {
+            int slot = next[from[e]]++;
+            adjacent[slot] = to[e];
+            adjacentKinds[slot] = kinds[e];
+        }
+    }
+
+    /**
+     * Escribe el grafo en formato binario: cabecera, los seis arrays de
+     * adyacencia y las tablas de nombres, paquetes y relaciones (desplazamientos
+     * y bytes UTF-8). Todo en enteros big-endian alineados a 4 bytes, que es
+     * lo que espera {@link #map(ByteBuffer)}.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(FORMAT_VERSION);
+        data.writeInt(nodeCount);
+        data.writeInt(edgeCount);
+        data.writeInt(relations.size());
+        for (IntBuffer array : new IntBuffer[] { outStart, outTargets, outKinds, inStart, inSources, inKinds }) {
+            for (int i = 0; i < array.limit(); i++) {
+                data.writeInt(array.get(i));
+            }
+        }
+        names.writeTo(data);
+        packages.writeTo(data);
+        relations.writeTo(data);
+        data.flush();
+    }
+
+    /**
+     * Abre un grafo escrito con {@link #writeTo(OutputStream)} sin copiarlo:
+     * los arrays son vistas del buffer (normalmente un archivo proyectado en
+     * memoria).
+     *
+     * @throws IllegalArgumentException Si el buffer no contiene un grafo válido
+     */
+    public static ClassGraph map(ByteBuffer buffer) {
+        ByteBuffer source = buffer.duplicate();
+        if (source.remaining() < HEADER_INTS * Integer.BYTES || source.getInt() != MAGIC) {
+            throw new IllegalArgumentException("El archivo no contiene un modelo de clases");
+        }
+        int version = source.getInt();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Versión de modelo no soportada: " + version);
+        }
+        int nodes = source.getInt();
+        int edges = source.getInt();
+        int relationCount = source.getInt();
+        if (nodes < 0 || edges < 0 || relationCount < 0) {
+            throw new IllegalArgumentException("Cabecera de modelo corrupta");
+        }
+        try {
+            int[] lengths = { nodes + 1, edges, edges, nodes + 1, edges, edges };
+            IntBuffer[] adjacency = new IntBuffer[lengths.length];
+            for (int i = 0; i < lengths.length; i++) {
+                adjacency[i] = slice(source, lengths[i]).asIntBuffer();
+            }
+            Strings names = Strings.map(source, nodes);
+            Strings packages = Strings.map(source, nodes);
+            Strings relations = Strings.map(source, relationCount);
+            return new ClassGraph(nodes, edges, names, packages, relations, adjacency);
+        } catch (IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Modelo truncado", e);
+        }
+    }
+
+    /**
+     * @return Vista de los siguientes {@code ints} enteros, avanzando la posición
+     */
+    private static ByteBuffer slice(ByteBuffer source, int ints) {
+        int bytes = Math.multiplyExact(ints, Integer.BYTES);
+        ByteBuffer slice = source.slice(source.position(), bytes);
+        source.position(source.position() + bytes);
+        return slice;
+    }
+
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    public String name(int node) {
+        return names.get(node);
+    }
+
+    public String packageOf(int node) {
+        return packages.get(node);
+    }
+
+    public String relation(int kind) {
+        return relations.get(kind);
+    }
+
+    public int relationCount() {
+        return relations.size();
+    }
+
+    /**
+     * @return Identificador de la clase o -1 si no está en el grafo
+     */
+    public int id(String name) {
+        if (name == null) {
+            return -1;
+        }
+        int low = 0;
+        int high = nodeCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = names.get(mid).compareTo(name);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    public boolean contains(String name) {
+        return id(name) >= 0;
+    }
+
+    public int outDegree(int node) {
+        return outStart.get(node + 1) - outStart.get(node);
+    }
+
+    public int inDegree(int node) {
+        return inStart.get(node + 1) - inStart.get(node);
+    }
+
+    /**
+     * Recorre las aristas salientes en el orden del índice.
+     *
+     * @param visitor Recibe origen, destino y tipo de cada arista
+     */
+    public void forEachEdge(EdgeVisitor visitor) {
+        for (int n = 0; n < nodeCount; n++) {
+            for (int e = outStart.get(n); e < outStart.get(n + 1); e++) {
+                visitor.visit(n, outTargets.get(e), outKinds.get(e));
+            }
+        }
+    }
+
+    /**
+     * Receptor de las aristas de {@link #forEachEdge(EdgeVisitor)}.
+     */
+    @FunctionalInterface
+    public interface EdgeVisitor {
+        void visit(int source, int target, int kind);
+    }
+
+    /**
+     * Relaciones directas de una clase.
+     *
+     * @return Vecinos con el tipo de relación, vacío si la clase no existe
+     */
+    public List<Neighbor> neighbors(String name, Direction direction) {
+        int node = id(name);
+        List<Neighbor> result = new ArrayList<>();
+        if (node < 0) {
+            return result;
+        }
+        if (direction != Direction.IN) {
+            for (int e = outStart.get(node); e < outStart.get(node + 1); e++) {
+                result.add(new Neighbor(name(outTargets.get(e)), relation(outKinds.get(e)), true));
+            }
+        }
+        if (direction != Direction.OUT) {
+            for (int e = inStart.get(node); e < inStart.get(node + 1); e++) {
+                result.add(new Neighbor(name(inSources.get(e)), relation(inKinds.get(e)), false));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Cierre transitivo de una clase por anchura, hasta una profundidad.
+     *
+     * @param maxDepth Número máximo de relaciones encadenadas (0 = sin límite)
+     * @return Clases alcanzadas (sin la de partida) en orden de distancia
+     */
+    public List<Reached> reachable(String name, Direction direction, int maxDepth) {
+        int start = id(name);
+        List<Reached> result = new ArrayList<>();
+        if (start < 0) {
+            return result;
+        }
+        int limit = maxDepth <= 0 ? Integer.MAX_VALUE : maxDepth;
+        int[] depth = new int[nodeCount];
+        Arrays.fill(depth, -1);
+        int[] queue = new int[nodeCount];
+        int head = 0;
+        int tail = 0;
+        depth[start] = 0;
+        queue[tail++] = start;
+        while (head < tail) {
+            int node = queue[head++];
+            if (depth[node] >= limit) {
+                continue;
+            }
+            if (direction != Direction.IN) {
+                tail = visit(node, outStart, outTargets, depth, queue, tail, result);
+            }
+            if (direction != Direction.OUT) {
+                tail = visit(node, inStart, inSources, depth, queue, tail, result);
+            }
+        }
+        return result;
+    }
+
+    private int visit(int node, IntBuffer start, IntBuffer adjacent, int[] depth, int[] queue, int tail,
+            List<Reached> result) {
+        for (int e = start.get(node); e < start.get(node + 1); e++) {
+            int next = adjacent.get(e);
+            if (depth[next] < 0) {
+                depth[next] = depth[node] + 1;
+                queue[tail++] = next;
+                result.add(new Reached(name(next), depth[next]));
+            }
+        }
+        return tail;
+    }
+
+    /**
+     * Componentes fuertemente conexas con más de una clase (ciclos de
+     * dependencias), por el algoritmo de Tarjan en versión iterativa para no
+     * depender de la profundidad de la pila.
+     *
+     * @return Componentes ordenadas de mayor a menor, cada una con sus clases
+     *         ordenadas por nombre
+     */
+    public List<List<String>> cycles() {
+        int nodes = nodeCount;
+        int[] order = new int[nodes];
+        int[] low = new int[nodes];
+        Arrays.fill(order, -1);
+        boolean[] onStack = new boolean[nodes];
+        int[] stack = new int[nodes];
+        int stackSize = 0;
+        // Pila de llamadas: nodo y siguiente arista por visitar
+        int[] callNode = new int[nodes];
+        int[] callEdge = new int[nodes];
+        int counter = 0;
+        List<List<String>> components = new ArrayList<>();
+
+        for (int root = 0; root < nodes; root++) {
+            if (order[root] >= 0) {
+                continue;
+            }
+            int depth = 0;
+            callNode[0] = root;
+            callEdge[0] = outStart.get(root);
+            order[root] = low[root] = counter++;
+            stack[stackSize++] = root;
+            onStack[root] = true;
+            while (depth >= 0) {
+                int node = callNode[depth];
+                if (callEdge[depth] < outStart.get(node + 1)) {
+                    int next = outTargets.get(callEdge[depth]++);
+                    if (order[next] < 0) {
+                        order[next] = low[next] = counter++;
+                        stack[stackSize++] = next;
+                        onStack[next] = true;
+                        depth++;
+                        callNode[depth] = next;
+                        callEdge[depth] = outStart.get(next);
+                    } else if (onStack[next]) {
+                        low[node] = Math.min(low[node], order[next]);
+                    }
+                    continue;
+                }
+                if (low[node] == order[node]) {
+                    int size = 0;
+                    while (stack[stackSize - 1 - size] != node) {
+                        size++;
+                    }
+                    size++;
+                    if (size > 1) {
+                        List<String> component = new ArrayList<>(size);
+                        for (int i = stackSize - size; i < stackSize; i++) {
+                            component.add(name(stack[i]));
+                        }
+                        component.sort(null);
+                        components.add(component);
+                    }
+                    for (int i = stackSize - size; i < stackSize; i++) {
+                        onStack[stack[i]] = false;
+                    }
+                    stackSize -= size;
+                }
+                depth--;
+                if (depth >= 0) {
+                    int parent = callNode[depth];
+                    low[parent] = Math.min(low[parent], low[node]);
+                }
+            }
+        }
+        components.sort((a, b) -> b.size() != a.size() ? b.size() - a.size() : a.get(0).compareTo(b.get(0)));
+        return components;
+    }
+
+    /**
+     * Clases con más relaciones en un sentido.
+     *
+     * @param limit Número de clases a devolver
+     * @return Clases ordenadas por grado descendente (y por nombre ante empate)
+     */
+    public List<Degree> top(int limit, Direction direction) {
+        int count = Math.min(Math.max(limit, 0), nodeCount);
+        // Montículo de mínimos con los mejores candidatos vistos
+        PriorityQueue<Integer> best = new PriorityQueue<>(count + 1,
+                (a, b) -> compareDegree(b, a, direction));
+        for (int n = 0; n < nodeCount && count > 0; n++) {
+            if (best.size() < count) {
+                best.add(n);
+            } else if (compareDegree(n, best.peek(), direction) < 0) {
+                best.poll();
+                best.add(n);
+            }
+        }
+        List<Degree> result = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            int node = best.poll();
+            result.add(new Degree(name(node), inDegree(node), outDegree(node)));
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    /**
+     * @return Negativo si el nodo a va antes que b en el ranking
+     */
+    private int compareDegree(int a, int b, Direction direction) {
+        int byDegree = Integer.compare(degree(b, direction), degree(a, direction));
+        // Los nodos están ordenados por nombre: el identificador desempata igual
+        return byDegree != 0 ? byDegree : Integer.compare(a, b);
+    }
+
+    private int degree(int node, Direction direction) {
+        return switch (direction) {
+            case OUT -> outDegree(node);
+            case IN -> inDegree(node);
+            case BOTH -> outDegree(node) + inDegree(node);
+        };
+    }
+
+    /**
+     * Grafo agregado por paquetes: un nodo por paquete y una arista por par
+     * de paquetes distintos relacionados. Se calcula una vez por grafo.
+     */
+    public ClassGraph packageGraph() {
+        ClassGraph graph = packageGraph;
+        if (graph == null) {
+            graph = buildPackageGraph();
+            packageGraph = graph;
+        }
+        return graph;
+    }
+
+    private ClassGraph buildPackageGraph() {
+        TreeSet<String> packageSet = new TreeSet<>();
+        for (int n = 0; n < nodeCount; n++) {
+            packageSet.add(packageOf(n));
+        }
+        String[] nodeNames = packageSet.toArray(new String[0]);
+        int[] packageOf = new int[nodeCount];
+        for (int n = 0; n < nodeCount; n++) {
+            packageOf[n] = Arrays.binarySearch(nodeNames, packageOf(n));
+        }
+        LongHashSet seen = new LongHashSet(edgeCount);
+        int[] sources = new int[Math.max(edgeCount, 1)];
+        int[] targets = new int[sources.length];
+        int[] kinds = new int[sources.length];
+        int count = 0;
+        for (int n = 0; n < nodeCount; n++) {
+            for (int e = outStart.get(n); e < outStart.get(n + 1); e++) {
+                int from = packageOf[n];
+                int to = packageOf[outTargets.get(e)];
+                if (from != to && seen.add(((long) from << 32) | to)) {
+                    sources[count] = from;
+                    targets[count] = to;
+                    count++;
+                }
+            }
+        }
+        return new ClassGraph(nodeNames, nodeNames, new String[] { PACKAGE_RELATION }, sources, targets, kinds,
+                count);
+    }
+
+    /**
+     * Columna de textos: en memoria como array o, en un grafo proyectado,
+     * como desplazamientos y bytes UTF-8 que se decodifican al leerse y se
+     * memorizan.
+     */
+    private static final class Strings {
+        private final String[] values;
+        private final IntBuffer offsets;
+        private final ByteBuffer bytes;
+
+        Strings(String[] values) {
+            this.values = values;
+            this.offsets = null;
+            this.bytes = null;
+        }
+
+        private Strings(int size, IntBuffer offsets, ByteBuffer bytes) {
+            this.values = new String[size];
+            this.offsets = offsets;
+            this.bytes = bytes;
+        }
+
+        int size() {
+            return values.length;
+        }
+
+        String get(int index) {
+            String value = values[index];
+            if (value == null) {
+                int start = offsets.get(index);
+                byte[] utf8 = new byte[offsets.get(index + 1) - start];
+                bytes.get(start, utf8);
+                value = new String(utf8, StandardCharsets.UTF_8);
+                values[index] = value;
+            }
+            return value;
+        }
+
+        /**
+         * Escribe count + 1 desplazamientos, los bytes y el relleno hasta
+         * múltiplo de 4.
+         */
+        void writeTo(DataOutputStream data) throws IOException {
+            byte[][] encoded = new byte[values.length][];
+            int offset = 0;
+            data.writeInt(0);
+            for (int i = 0; i < values.length; i++) {
+                encoded[i] = get(i).getBytes(StandardCharsets.UTF_8);
+                offset += encoded[i].length;
+                data.writeInt(offset);
+            }
+            for (byte[] value : encoded) {
+                data.write(value);
+            }
+            for (int pad = offset; pad % Integer.BYTES != 0; pad++) {
+                data.writeByte(0);
+            }
+        }
+
+        static Strings map(ByteBuffer source, int count) {
+            IntBuffer offsets = slice(source, count + 1).asIntBuffer();
+            int length = offsets.get(count);
+            if (length < 0) {
+                throw new IllegalArgumentException("Tabla de textos corrupta");
+            }
+            ByteBuffer bytes = source.slice(source.position(), length);
+            source.position(source.position() + (length + Integer.BYTES - 1) / Integer.BYTES * Integer.BYTES);
+            return new Strings(count, offsets, bytes);
+        }
+    }
+}
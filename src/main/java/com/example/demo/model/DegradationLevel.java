@@ -0,0 +1,25 @@
+package com.example.demo.model;
+
+/**
+ * Escalones de degradación de un análisis que supera su presupuesto. Cada
+ * nivel incluye los recortes de los anteriores.
+ *
+ * @author @PelayoPS
+ */
+public enum DegradationLevel {
+    /** Análisis completo */
+    NONE,
+    /** Sin analizadores que recorren cuerpos de métodos y constructores */
+    NO_BODY_ANALYSIS,
+    /** Además, las clases se emiten sin atributos ni métodos */
+    NO_MEMBERS,
+    /** Además, el diagrama se emite a nivel de paquete */
+    PACKAGE_LEVEL;
+
+    /**
+     * @return true si este nivel incluye los recortes de {@code other}
+     */
+    public boolean atLeast(DegradationLevel other) {
+        return ordinal() >= other.ordinal();
+    }
+}
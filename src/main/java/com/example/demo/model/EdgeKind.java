@@ -0,0 +1,78 @@
+package com.example.demo.model;
+
+/**
+ * Tipos de relación que emite el análisis: flecha PlantUML y etiqueta.
+ * Los tipos con detalle (p. ej. {@code <<overrides save>>}) completan la
+ * etiqueta con un texto que se internará por trabajo en la
+ * {@link SymbolTable}.
+ *
+ * @author @PelayoPS
+ */
+public enum EdgeKind {
+    INHERITANCE("--|>", null),
+    REALIZATION("..|>", null),
+    ASSOCIATION("-->", null),
+    COMPOSITION("*--", null),
+    COMPOSITION_MANY("*-- \"*\"", null),
+    AGGREGATION_MANY("o-- \"*\"", null),
+    NESTED("*--", "nested"),
+    AUTOWIRED("..>", "autowired"),
+    INJECT("..>", "inject"),
+    LIKELY_INJECT("..>", "likely-inject"),
+    CREATES("..>", "creates"),
+    USES("..>", "uses"),
+    CALLS("..>", "calls"),
+    RETURNS("..>", "returns"),
+    STATIC_CALL("..>", "static-call"),
+    THROWS("..>", "throws"),
+    CATCHES("..>", "catches"),
+    GENERIC("..>", "generic"),
+    NESTED_GENERIC("..>", "nested-generic"),
+    IMPORT("..>", "import"),
+    LAMBDA("..>", "lambda"),
+    METHOD_REFERENCE("..>", "method reference"),
+    VAR_INFERENCE("..>", "var inference"),
+    FUNCTIONAL_INTERFACE("..>", "functional interface"),
+    OPTIONAL("..>", "optional"),
+    OVERRIDES("..>", "overrides ", true),
+    IMPLEMENTS_METHOD("..>", "implements ", true),
+    STREAM_OPERATION("..>", "", true);
+
+    private final String arrow;
+    private final String labelPrefix;
+    private final boolean detailed;
+
+    EdgeKind(String arrow, String label) {
+        this(arrow, label, false);
+    }
+
+    EdgeKind(String arrow, String labelPrefix, boolean detailed) {
+        this.arrow = arrow;
+        this.labelPrefix = labelPrefix;
+        this.detailed = detailed;
+    }
+
+    public String getArrow() {
+        return arrow;
+    }
+
+    /**
+     * @return true si la etiqueta se completa con un detalle
+     */
+    public boolean isDetailed() {
+        return detailed;
+    }
+
+    /**
+     * Construye la etiqueta PlantUML de la relación.
+     *
+     * @param detail Detalle de la etiqueta (solo para tipos con detalle)
+     * @return La etiqueta o null si el tipo no lleva etiqueta
+     */
+    public String label(String detail) {
+        if (labelPrefix == null) {
+            return null;
+        }
+        return "<<" + labelPrefix + (detailed && detail != null ? detail : "") + ">>";
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.demo.model;
+
+import com.example.demo.exception.ParseTimeoutException;
+
+import java.time.Duration;
+
+/**
+ * Plazo de análisis de un archivo. El parser no se puede interrumpir, así
+ * que el plazo se comprueba de forma cooperativa: al leer el fuente y entre
+ * las pasadas del análisis. Un parseo que ya ha leído todo el fuente termina
+ * aunque se pase del plazo; el archivo se descarta al volver.
+ *
+ * @author @PelayoPS
+ */
+public class FileDeadline {
+
+    private final String fileName;
+    private final Duration timeout;
+    private final long deadlineNanos;
+
+    /**
+     * @param fileName Archivo al que se aplica el plazo
+     * @param timeout  Tiempo máximo; null, 0 o negativo desactiva el plazo
+     */
+    public FileDeadline(String fileName, Duration timeout) {
+        this.fileName = fileName;
+        this.timeout = timeout;
+        this.deadlineNanos = timeout != null && timeout.isPositive() ? System.nanoTime() + timeout.toNanos() : 0;
+    }
+
+    /**
+     * @return true si el plazo se ha superado
+     */
+    public boolean isExpired() {
+        return deadlineNanos != 0 && System.nanoTime() - deadlineNanos > 0;
+    }
+
+    /**
+     * @throws ParseTimeoutException Si el plazo se ha superado
+     */
+    public void check() throws ParseTimeoutException {
+        if (isExpired()) {
+            throw new ParseTimeoutException(fileName, timeout);
+        }
+    }
+}
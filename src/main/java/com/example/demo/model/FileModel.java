@@ -0,0 +1,241 @@
+package com.example.demo.model;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resultado compacto del análisis de un archivo fuente: los tipos declarados
+ * (con su definición PlantUML y sus estereotipos Spring) y las relaciones
+ * detectadas, expresadas por nombre simple. Las relaciones aún no están
+ * validadas contra los tipos del proyecto.
+ *
+ * Es lo único que sobrevive al árbol sintáctico del archivo; el contexto del
+ * trabajo lo fusiona después. Se puede serializar para transferirlo desde un
+ * proceso trabajador al coordinador.
+ *
+ * @author @PelayoPS
+ */
+public class FileModel {
+
+    private final String path;
+    private final String packageName;
+    private final List<DeclaredType> types = new ArrayList<>();
+    private final List<Edge> edges = new ArrayList<>();
+    // Identidades de relación ya añadidas; solo se usa mientras se analiza
+    private LongHashSet edgeKeys = new LongHashSet();
+
+    public FileModel(String path, String packageName) {
+        this.path = path;
+        this.packageName = packageName;
+    }
+
+    /**
+     * Tipo declarado en el archivo.
+     */
+    public static class DeclaredType {
+        private final String name;
+        private final String definition;
+        private final List<String> stereotypes;
+
+        public DeclaredType(String name, String definition, List<String> stereotypes) {
+            this.name = name;
+            this.definition = definition;
+            this.stereotypes = stereotypes;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return Definición PlantUML de la clase
+         */
+        public String getDefinition() {
+            return definition;
+        }
+
+        /**
+         * @return Estereotipos Spring que alimentan el índice del trabajo
+         */
+        public List<String> getStereotypes() {
+            return stereotypes;
+        }
+    }
+
+    /**
+     * Relación detectada en el archivo.
+     */
+    public static class Edge {
+        private final String source;
+        private final String target;
+        private final EdgeKind kind;
+        private final String detail;
+
+        public Edge(String source, String target, EdgeKind kind, String detail) {
+            this.source = source;
+            this.target = target;
+            this.kind = kind;
+            this.detail = detail;
+        }
+
+        public String getSource() {
+            return source;
+        }
+
+        public String getTarget() {
+            return target;
+        }
+
+        public EdgeKind getKind() {
+            return kind;
+        }
+
+        /**
+         * @return Detalle de la etiqueta o null si el tipo no lo lleva
+         */
+        public String getDetail() {
+            return detail;
+        }
+    }
+
+    public void addType(String name, String definition, List<String> stereotypes) {
+        types.add(new DeclaredType(name, definition, stereotypes));
+    }
+
+    /**
+     * Añade una relación si su identidad no se había añadido ya en este archivo.
+     *
+     * @param key Identidad empaquetada de la relación ({@link Relationship#key})
+     * @return true si la relación es nueva
+     */
+    public boolean addEdge(long key, String source, String target, EdgeKind kind, String detail) {
+        if (edgeKeys != null && !edgeKeys.add(key)) {
+            return false;
+        }
+        edges.add(new Edge(source, target, kind, detail));
+        return true;
+    }
+
+    /**
+     * Libera las estructuras que solo hacen falta durante el análisis.
+     */
+    public void seal() {
+        edgeKeys = null;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public String getPackageName() {
+        return packageName;
+    }
+
+    public List<DeclaredType> getTypes() {
+        return types;
+    }
+
+    public List<Edge> getEdges() {
+        return edges;
+    }
+
+    /**
+     * Escribe el modelo en formato binario. Los nombres de las relaciones se
+     * envían una sola vez mediante una tabla local.
+     */
+    public void writeTo(DataOutputStream out) throws IOException {
+        out.writeUTF(path);
+        out.writeUTF(packageName);
+        out.writeInt(types.size());
+        for (DeclaredType type : types) {
+            out.writeUTF(type.name);
+            writeLongString(out, type.definition);
+            out.writeInt(type.stereotypes.size());
+            for (String stereotype : type.stereotypes) {
+                out.writeUTF(stereotype);
+            }
+        }
+
+        Map<String, Integer> nameIndex = new HashMap<>();
+        List<String> names = new ArrayList<>();
+        int[] endpoints = new int[edges.size() * 2];
+        for (int i = 0; i < edges.size(); i++) {
+            Edge edge = edges.get(i);
+            endpoints[2 * i] = nameIndex.computeIfAbsent(edge.source, name -> addName(names, name));
+            endpoints[2 * i + 1] = nameIndex.computeIfAbsent(edge.target, name -> addName(names, name));
+        }
+        out.writeInt(names.size());
+        for (String name : names) {
+            out.writeUTF(name);
+        }
+        out.writeInt(edges.size());
+        for (int i = 0; i < edges.size(); i++) {
+            Edge edge = edges.get(i);
+            out.writeInt(endpoints[2 * i]);
+            out.writeInt(endpoints[2 * i + 1]);
+            out.writeByte(edge.kind.ordinal());
+            out.writeBoolean(edge.detail != null);
+            if (edge.detail != null) {
+                out.writeUTF(edge.detail);
+            }
+        }
+    }
+
+    /**
+     * Lee un modelo escrito con {@link #writeTo(DataOutputStream)}.
+     */
+    public static FileModel readFrom(DataInputStream in) throws IOException {
+        FileModel model = new FileModel(in.readUTF(), in.readUTF());
+        int typeCount = in.readInt();
+        for (int i = 0; i < typeCount; i++) {
+            String name = in.readUTF();
+            String definition = readLongString(in);
+            int stereotypeCount = in.readInt();
+            List<String> stereotypes = new ArrayList<>(stereotypeCount);
+            for (int j = 0; j < stereotypeCount; j++) {
+                stereotypes.add(in.readUTF());
+            }
+            model.addType(name, definition, stereotypes);
+        }
+
+        String[] names = new String[in.readInt()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = in.readUTF();
+        }
+        EdgeKind[] kinds = EdgeKind.values();
+        int edgeCount = in.readInt();
+        for (int i = 0; i < edgeCount; i++) {
+            String source = names[in.readInt()];
+            String target = names[in.readInt()];
+            EdgeKind kind = kinds[in.readUnsignedByte()];
+            String detail = in.readBoolean() ? in.readUTF() : null;
+            model.edges.add(new Edge(source, target, kind, detail));
+        }
+        model.seal();
+        return model;
+    }
+
+    private static int addName(List<String> names, String name) {
+        names.add(name);
+        return names.size() - 1;
+    }
+
+    // writeUTF admite como máximo 64 KB; las definiciones de clase pueden superarlo
+    private static void writeLongString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readLongString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.demo.model;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Presupuesto de un trabajo de análisis: tiempo de reloj, bytes parseados,
+ * número de clases y número de relaciones.
+ *
+ * Cada presupuesto superado exige un escalón de degradación; el tiempo se
+ * reparte en tramos (mitad, tres cuartos y total) para degradar antes de
+ * agotarlo. Un valor 0 o negativo desactiva el límite correspondiente.
+ *
+ * @author @PelayoPS
+ */
+public class JobBudget {
+
+    private final long startNanos = System.nanoTime();
+    private final long maxNanos;
+    private final long maxParsedBytes;
+    private final int maxClasses;
+    private final int maxRelationships;
+    private final AtomicLong parsedBytes = new AtomicLong();
+
+    public JobBudget(Duration maxDuration, long maxParsedBytes, int maxClasses, int maxRelationships) {
+        this.maxNanos = maxDuration != null ? maxDuration.toNanos() : 0;
+        this.maxParsedBytes = maxParsedBytes;
+        this.maxClasses = maxClasses;
+        this.maxRelationships = maxRelationships;
+    }
+
+    /**
+     * Contabiliza los bytes de un archivo que se va a parsear.
+     */
+    public void addParsedBytes(long bytes) {
+        parsedBytes.addAndGet(bytes);
+    }
+
+    public long getParsedBytes() {
+        return parsedBytes.get();
+    }
+
+    /**
+     * @return true si se agotó el tiempo total del trabajo
+     */
+    public boolean isTimeExhausted() {
+        return maxNanos > 0 && System.nanoTime() - startNanos > maxNanos;
+    }
+
+    /**
+     * Evalúa el presupuesto frente al estado actual y aplica sobre el informe el
+     * escalón que corresponda. Los escalones solo avanzan.
+     *
+     * @param classes       Clases acumuladas
+     * @param relationships Relaciones acumuladas
+     * @param report        Informe del trabajo
+     * @return Nivel de degradación vigente tras la evaluación
+     */
+    public DegradationLevel evaluate(int classes, int relationships, AnalysisReport report) {
+        long elapsed = System.nanoTime() - startNanos;
+        if (maxRelationships > 0 && relationships > maxRelationships) {
+            report.degradeTo(DegradationLevel.PACKAGE_LEVEL, "relaciones > " + maxRelationships);
+        } else if (maxNanos > 0 && elapsed > maxNanos) {
+            report.degradeTo(DegradationLevel.PACKAGE_LEVEL, "tiempo agotado");
+        }
+        if (maxClasses > 0 && classes > maxClasses) {
+            report.degradeTo(DegradationLevel.NO_MEMBERS, "clases > " + maxClasses);
+        } else if (maxNanos > 0 && elapsed > maxNanos / 4 * 3) {
+            report.degradeTo(DegradationLevel.NO_MEMBERS, "75% del tiempo consumido");
+        }
+        if (maxParsedBytes > 0 && parsedBytes.get() > maxParsedBytes) {
+            report.degradeTo(DegradationLevel.NO_BODY_ANALYSIS, "bytes parseados > " + maxParsedBytes);
+        } else if (maxNanos > 0 && elapsed > maxNanos / 2) {
+            report.degradeTo(DegradationLevel.NO_BODY_ANALYSIS, "50% del tiempo consumido");
+        }
+        return report.getDegradation();
+    }
+}
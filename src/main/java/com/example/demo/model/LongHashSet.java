@@ -0,0 +1,127 @@
+package com.example.demo.model;
+
+import java.util.Arrays;
+
+/**
+ * Conjunto de {@code long} con direccionamiento abierto (sondeo lineal).
+ * Sustituye a {@code HashSet<Long>} en la deduplicación de relaciones: no
+ * reserva un {@code Long} ni un nodo por inserción, de modo que comprobar un
+ * candidato repetido no genera basura.
+ *
+ * No es thread-safe; cada hilo de análisis usa su propio conjunto.
+ *
+ * @author @PelayoPS
+ */
+public class LongHashSet {
+
+    private static final int DEFAULT_CAPACITY = 64;
+    // El 0 marca las celdas libres; su presencia se guarda aparte
+    private static final long EMPTY = 0L;
+
+    private long[] table;
+    private int mask;
+    private int size;
+    private int resizeThreshold;
+    private boolean containsEmpty;
+
+    public LongHashSet() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize Número de elementos previsto
+     */
+    public LongHashSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize * 2 - 1, DEFAULT_CAPACITY - 1)) << 1;
+        allocate(capacity);
+    }
+
+    /**
+     * Añade un valor al conjunto.
+     *
+     * @return true si el valor no estaba presente
+     */
+    public boolean add(long value) {
+        if (value == EMPTY) {
+            if (containsEmpty) {
+                return false;
+            }
+            containsEmpty = true;
+            size++;
+            return true;
+        }
+        int slot = slot(value);
+        while (table[slot] != EMPTY) {
+            if (table[slot] == value) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = value;
+        if (++size > resizeThreshold) {
+            rehash(table.length << 1);
+        }
+        return true;
+    }
+
+    public boolean contains(long value) {
+        if (value == EMPTY) {
+            return containsEmpty;
+        }
+        int slot = slot(value);
+        while (table[slot] != EMPTY) {
+            if (table[slot] == value) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(table, EMPTY);
+        containsEmpty = false;
+        size = 0;
+    }
+
+    private int slot(long value) {
+        // Mezcla de bits (finalizador de MurmurHash3): las claves de relación
+        // empaquetadas difieren sobre todo en los bits altos
+        long h = value;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+
+    private void allocate(int capacity) {
+        table = new long[capacity];
+        mask = capacity - 1;
+        // Factor de carga 0,5: sondeos cortos con sondeo lineal
+        resizeThreshold = capacity >>> 1;
+    }
+
+    private void rehash(int capacity) {
+        long[] old = table;
+        allocate(capacity);
+        for (long value : old) {
+            if (value != EMPTY) {
+                int slot = slot(value);
+                while (table[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = value;
+            }
+        }
+    }
+}
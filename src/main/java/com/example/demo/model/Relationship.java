@@ -0,0 +1,47 @@
+package com.example.demo.model;
+
+/**
+ * Relación entre dos tipos del diagrama, expresada con los identificadores
+ * de la {@link SymbolTable} del trabajo (origen, destino y tipo de relación).
+ *
+ * @author @PelayoPS
+ */
+public final class Relationship {
+
+    private final int source;
+    private final int target;
+    private final int kind;
+
+    public Relationship(int source, int target, int kind) {
+        this.source = source;
+        this.target = target;
+        this.kind = kind;
+    }
+
+    public int getSource() {
+        return source;
+    }
+
+    public int getTarget() {
+        return target;
+    }
+
+    public int getKind() {
+        return kind;
+    }
+
+    /**
+     * @return Identidad de la relación empaquetada en un long
+     */
+    public long key() {
+        return key(source, target, kind);
+    }
+
+    /**
+     * Empaqueta la identidad de una relación: origen en los bits 40-63,
+     * destino en los bits 16-39 y tipo en los bits 0-15.
+     */
+    public static long key(int source, int target, int kind) {
+        return ((long) source << 40) | ((long) target << 16) | kind;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.demo.model;
+
+import java.util.List;
+
+/**
+ * Métricas del arranque: cuándo estuvo lista la aplicación, cuánto duró el
+ * calentamiento y cuánto tardó la primera subida atendida después.
+ *
+ * @param readyMillis       Tiempo de la JVM hasta que la aplicación estuvo
+ *                          lista, antes del calentamiento
+ * @param warmupIterations  Pasadas de calentamiento completadas
+ * @param warmupMillis      Duración total del calentamiento
+ * @param iterationMillis   Duración de cada pasada, en orden
+ * @param firstUploadMillis Duración de la primera subida (-1 si aún no hubo)
+ * @param firstUploadReused Si la primera subida se sirvió desde el almacén
+ *
+ * @author @PelayoPS
+ */
+public record StartupMetrics(long readyMillis, int warmupIterations, long warmupMillis,
+        List<Long> iterationMillis, long firstUploadMillis, boolean firstUploadReused) {
+
+    /**
+     * @return Las mismas métricas con la primera subida anotada
+     */
+    public StartupMetrics withFirstUpload(long millis, boolean reused) {
+        return new StartupMetrics(readyMillis, warmupIterations, warmupMillis, iterationMillis, millis, reused);
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.demo.model;
+
+/**
+ * Índice espacial de un SVG de PlantUML para servirlo por teselas.
+ *
+ * El SVG se divide en grupos (cada clase, enlace o paquete que PlantUML
+ * precede de un comentario) con su posición en bytes dentro del archivo y su
+ * rectángulo envolvente. Una tesela se compone copiando los grupos que la
+ * cortan, sin cargar el SVG completo.
+ *
+ * Niveles: el 0 cubre todo el diagrama con una sola tesela y cada nivel
+ * siguiente divide cada tesela en cuatro; en el último una tesela abarca
+ * {@code tileSize} unidades del diagrama a escala 1:1. Los niveles con escala
+ * menor que {@link #DETAIL_SCALE} se dibujan simplificados.
+ *
+ * @author @PelayoPS
+ */
+public class SvgTileIndex {
+
+    /** Escala mínima (píxeles por unidad) a la que se copian los grupos completos */
+    public static final double DETAIL_SCALE = 0.5;
+
+    public static final byte ENTITY = 0;
+    public static final byte LINK = 1;
+    public static final byte CLUSTER = 2;
+    /** Punta de flecha o etiqueta suelta: no se dibuja en los niveles simplificados */
+    public static final byte LABEL = 3;
+
+    private final String version;
+    private final float width;
+    private final float height;
+    private final int tileSize;
+    private final int maxLevel;
+    private final long defsOffset;
+    private final int defsLength;
+    private final int size;
+    private final long[] offsets;
+    private final int[] lengths;
+    private final byte[] kinds;
+    // minX, minY, maxX, maxY por grupo
+    private final float[] bounds;
+    // Extremos de los enlaces: x1, y1, x2, y2 por grupo
+    private final float[] ends;
+
+    public SvgTileIndex(String version, float width, float height, int tileSize, long defsOffset, int defsLength,
+            int size, long[] offsets, int[] lengths, byte[] kinds, float[] bounds, float[] ends) {
+        this.version = version;
+        this.width = width;
+        this.height = height;
+        this.tileSize = tileSize;
+        this.defsOffset = defsOffset;
+        this.defsLength = defsLength;
+        this.size = size;
+        this.offsets = offsets;
+        this.lengths = lengths;
+        this.kinds = kinds;
+        this.bounds = bounds;
+        this.ends = ends;
+        int level = 0;
+        while ((double) tileSize * (1L << level) < Math.max(width, height) && level < 30) {
+            level++;
+        }
+        this.maxLevel = level;
+    }
+
+    /**
+     * @return Identificador del SVG indexado (cambia con cada renderizado)
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    public float getWidth() {
+        return width;
+    }
+
+    public float getHeight() {
+        return height;
+    }
+
+    /**
+     * @return Lado de una tesela en píxeles
+     */
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    /**
+     * @return Nivel más detallado (escala 1:1)
+     */
+    public int getMaxLevel() {
+        return maxLevel;
+    }
+
+    /**
+     * @return Primer nivel que se dibuja con detalle completo
+     */
+    public int getDetailLevel() {
+        int level = maxLevel;
+        while (level > 0 && scale(level - 1) >= DETAIL_SCALE) {
+            level--;
+        }
+        return level;
+    }
+
+    public long getDefsOffset() {
+        return defsOffset;
+    }
+
+    public int getDefsLength() {
+        return defsLength;
+    }
+
+    /**
+     * @return Número de grupos indexados
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return Unidades del diagrama que abarca el lado de una tesela del nivel
+     */
+    public double span(int level) {
+        return (double) tileSize * (1L << (maxLevel - level));
+    }
+
+    /**
+     * @return Píxeles por unidad del diagrama en el nivel
+     */
+    public double scale(int level) {
+        return 1.0 / (1L << (maxLevel - level));
+    }
+
+    /**
+     * @return true si el nivel se dibuja copiando los grupos completos
+     */
+    public boolean isDetailed(int level) {
+        return scale(level) >= DETAIL_SCALE;
+    }
+
+    /**
+     * @return Número de teselas por lado en el nivel
+     */
+    public int columns(int level) {
+        return (int) Math.max(1, Math.ceil(width / span(level)));
+    }
+
+    public int rows(int level) {
+        return (int) Math.max(1, Math.ceil(height / span(level)));
+    }
+
+    /**
+     * @return true si el grupo corta el rectángulo indicado
+     */
+    public boolean intersects(int group, double minX, double minY, double maxX, double maxY) {
+        int i = group * 4;
+        return bounds[i] <= maxX && bounds[i + 2] >= minX && bounds[i + 1] <= maxY && bounds[i + 3] >= minY;
+    }
+
+    public long offset(int group) {
+        return offsets[group];
+    }
+
+    public int length(int group) {
+        return lengths[group];
+    }
+
+    public byte kind(int group) {
+        return kinds[group];
+    }
+
+    public float minX(int group) {
+        return bounds[group * 4];
+    }
+
+    public float minY(int group) {
+        return bounds[group * 4 + 1];
+    }
+
+    public float maxX(int group) {
+        return bounds[group * 4 + 2];
+    }
+
+    public float maxY(int group) {
+        return bounds[group * 4 + 3];
+    }
+
+    /**
+     * @param point 0 = x inicial, 1 = y inicial, 2 = x final, 3 = y final
+     * @return Extremo del enlace
+     */
+    public float end(int group, int point) {
+        return ends[group * 4 + point];
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.demo.model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tabla de símbolos de un trabajo de análisis.
+ *
+ * Asigna a cada nombre simple de tipo un identificador entero compacto y
+ * memoriza la traducción de texto de tipo ({@code java.util.List<User>},
+ * {@code User[]}...) a nombre simple, que es la operación más repetida del
+ * análisis. También interna los tipos de relación con detalle. Las lecturas
+ * de nombres y de los tipos de relación fijos no bloquean; la asignación de
+ * identificadores nuevos y todo acceso a los tipos con detalle se sincronizan.
+ *
+ * @author @PelayoPS
+ */
+public class SymbolTable {
+
+    // Límites impuestos por el empaquetado de Relationship#key
+    private static final int MAX_SYMBOLS = 1 << 24;
+    private static final int MAX_KINDS = 1 << 16;
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private final Map<String, Integer> rawTypes = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[256];
+    private int size;
+
+    private static final EdgeKind[] FIXED_KINDS = EdgeKind.values();
+    // Tipos con detalle: se leen y escriben solo con el monitor de la tabla
+    private final Map<EdgeKind, Map<String, Integer>> detailedKinds = new HashMap<>();
+    private EdgeKind[] kindBases = new EdgeKind[64];
+    private String[] kindDetails = new String[64];
+    private int kindCount = FIXED_KINDS.length;
+
+    /**
+     * Devuelve el identificador de un nombre, asignándolo si es nuevo.
+     */
+    public int intern(String name) {
+        Integer id = ids.get(name);
+        return id != null ? id : assign(name);
+    }
+
+    private synchronized int assign(String name) {
+        Integer id = ids.get(name);
+        if (id != null) {
+            return id;
+        }
+        if (size >= MAX_SYMBOLS) {
+            throw new IllegalStateException("Tabla de símbolos llena (" + MAX_SYMBOLS + " nombres)");
+        }
+        if (size == names.length) {
+            names = Arrays.copyOf(names, size * 2);
+        }
+        String[] current = names;
+        current[size] = name;
+        names = current;
+        ids.put(name, size);
+        return size++;
+    }
+
+    /**
+     * @return El nombre asociado a un identificador
+     */
+    public String name(int id) {
+        return names[id];
+    }
+
+    /**
+     * @return El número de nombres internados
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Identificador del nombre simple de un texto de tipo, memorizado por texto.
+     */
+    public int typeId(String rawType) {
+        Integer id = rawTypes.get(rawType);
+        if (id == null) {
+            id = intern(toSimpleName(rawType));
+            rawTypes.putIfAbsent(rawType, id);
+        }
+        return id;
+    }
+
+    /**
+     * Nombre simple de un texto de tipo, memorizado por texto.
+     */
+    public String simpleName(String rawType) {
+        return rawType == null ? "" : name(typeId(rawType));
+    }
+
+    /**
+     * @return Identificador de un tipo de relación sin detalle
+     */
+    public int kind(EdgeKind kind) {
+        return kind.ordinal();
+    }
+
+    /**
+     * @return Identificador de un tipo de relación con detalle, asignándolo si es nuevo
+     */
+    public synchronized int kind(EdgeKind kind, String detail) {
+        Map<String, Integer> details = detailedKinds.computeIfAbsent(kind, key -> new HashMap<>());
+        Integer id = details.get(detail);
+        if (id != null) {
+            return id;
+        }
+        if (kindCount >= MAX_KINDS) {
+            throw new IllegalStateException("Demasiados tipos de relación (" + MAX_KINDS + ")");
+        }
+        if (kindCount >= kindBases.length) {
+            kindBases = Arrays.copyOf(kindBases, kindBases.length * 2);
+            kindDetails = Arrays.copyOf(kindDetails, kindDetails.length * 2);
+        }
+        kindBases[kindCount] = kind;
+        kindDetails[kindCount] = detail;
+        details.put(detail, kindCount);
+        return kindCount++;
+    }
+
+    /**
+     * @return La flecha PlantUML de un tipo de relación
+     */
+    public String arrow(int kind) {
+        return kind < FIXED_KINDS.length ? FIXED_KINDS[kind].getArrow() : kindBase(kind).getArrow();
+    }
+
+    /**
+     * @return La etiqueta PlantUML de un tipo de relación o null si no tiene
+     */
+    public String label(int kind) {
+        return kind < FIXED_KINDS.length ? FIXED_KINDS[kind].label(null) : kindBase(kind).label(kindDetail(kind));
+    }
+
+    private synchronized EdgeKind kindBase(int kind) {
+        return kindBases[kind];
+    }
+
+    private synchronized String kindDetail(int kind) {
+        return kindDetails[kind];
+    }
+
+    /**
+     * @return La relación como línea PlantUML
+     */
+    public String render(Relationship relationship) {
+        String line = name(relationship.getSource()) + " " + arrow(relationship.getKind()) + " "
+                + name(relationship.getTarget());
+        String label = label(relationship.getKind());
+        return label != null ? line + " : " + label : line;
+    }
+
+    /**
+     * Extrae el nombre simple de una clase desde un tipo complejo.
+     * Maneja tipos genéricos, arrays, nombres completos de paquetes, etc.
+     *
+     * @param fullType El tipo completo (ej: "java.util.List&lt;com.example.User&gt;",
+     *                 "User[]", "com.example.User")
+     * @return El nombre simple de la clase principal (ej: "List", "User", "User")
+     */
+    public static String toSimpleName(String fullType) {
+        if (fullType == null || fullType.trim().isEmpty()) {
+            return "";
+        }
+
+        String cleanType = fullType.trim();
+
+        // Manejar arrays (User[] -> User)
+        if (cleanType.endsWith("[]")) {
+            cleanType = cleanType.substring(0, cleanType.length() - 2);
+        }
+
+        // Manejar tipos genéricos (List<User> -> List)
+        if (cleanType.contains("<")) {
+            cleanType = cleanType.substring(0, cleanType.indexOf("<"));
+        }
+
+        // Manejar nombres completos de paquetes (com.example.User -> User)
+        if (cleanType.contains(".")) {
+            cleanType = cleanType.substring(cleanType.lastIndexOf(".") + 1);
+        }
+
+        return cleanType.trim();
+    }
+}
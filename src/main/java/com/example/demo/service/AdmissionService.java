@@ -0,0 +1,334 @@
+package com.example.demo.service;
+
+import com.example.demo.config.UMLGeneratorProperties;
+import com.example.demo.exception.JobRejectedException;
+import org.springframework.stereotype.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Control de admisión de trabajos.
+ *
+ * Antes de analizar se estima el coste del trabajo a partir del directorio
+ * central del ZIP (número de entradas y tamaño descomprimido de los fuentes)
+ * o, si el ZIP llega en flujo y el directorio central aún no se ha leído, a
+ * partir del tamaño comprimido declarado. Un trabajo entra si caben a la vez
+ * su memoria estimada en el presupuesto global y un hueco de trabajo
+ * simultáneo, y si su cliente no supera su límite de trabajos en curso.
+ *
+ * Los que no caben esperan en una cola FIFO acotada; si la cola está llena o
+ * se agota la espera, el trabajo se rechaza con un tiempo de reintento
+ * estimado. Un trabajo mayor que todo el presupuesto solo entra cuando no hay
+ * ningún otro en marcha ni memoria reservada, y su propio presupuesto lo
+ * degrada si hace falta.
+ *
+ * Por defecto se admite un trabajo a la vez. Cada trabajo extrae y escribe
+ * sus salidas en su propio directorio de trabajo y la página las pide al
+ * almacén con el identificador del trabajo, así que
+ * {@code uml.generator.max-concurrent-jobs} se puede subir sin que un
+ * cliente vea los resultados de otro.
+ *
+ * @author @PelayoPS
+ */
+@Service
+public class AdmissionService {
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionService.class);
+
+    // Heap por byte de fuente: el pico medido del análisis ronda 3 veces el
+    // tamaño de los fuentes; se deja margen para el .puml y el modelo
+    private static final long HEAP_PER_SOURCE_BYTE = 4;
+    private static final long HEAP_PER_JOB = 16L * 1024 * 1024;
+    private static final long HEAP_PER_ENTRY = 1024;
+    // Relación de compresión supuesta cuando solo se conoce el tamaño comprimido
+    private static final long ASSUMED_COMPRESSION_RATIO = 4;
+    private static final long MAX_RETRY_AFTER_SECONDS = 300;
+
+    /**
+     * Coste estimado de un trabajo.
+     *
+     * @param entries     Entradas del ZIP (-1 si no se conocen)
+     * @param sourceBytes Bytes descomprimidos de los fuentes relevantes
+     * @param memoryBytes Heap estimado del análisis
+     */
+    public record JobCost(int entries, long sourceBytes, long memoryBytes) {
+    }
+
+    /**
+     * Plaza concedida a un trabajo; se libera al cerrarla.
+     */
+    public final class Ticket implements AutoCloseable {
+        private final String client;
+        private final JobCost cost;
+        private final long start = System.nanoTime();
+        private boolean closed;
+        // La memoria sigue reservada después de cerrar la plaza
+        private boolean memoryHeld;
+
+        private Ticket(String client, JobCost cost) {
+            this.client = client;
+            this.cost = cost;
+        }
+
+        /**
+         * Mantiene reservada la memoria estimada del trabajo mientras algo
+         * siga reteniendo su resultado después de terminar (el renderizado en
+         * segundo plano). Al cerrar la plaza se liberan el hueco de trabajo y
+         * el del cliente; la memoria, al cerrar la reserva devuelta.
+         *
+         * @return Reserva de memoria, que hay que cerrar al soltar el resultado
+         */
+        public MemoryHold holdMemory() {
+            return AdmissionService.this.holdMemory(this);
+        }
+
+        @Override
+        public void close() {
+            release(this);
+        }
+    }
+
+    /**
+     * Memoria de un trabajo que sigue reservada después de cerrar su plaza.
+     */
+    public final class MemoryHold implements AutoCloseable {
+        private final long bytes;
+        private boolean closed;
+
+        private MemoryHold(long bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public void close() {
+            releaseMemory(this);
+        }
+    }
+
+    private final UMLGeneratorProperties properties;
+    private final long memoryBudget;
+    private final int maxJobs;
+    private final ReentrantLock lock = new ReentrantLock();
+    // Turno de cada trabajo en cola, en orden de llegada
+    private final Deque<Condition> queue = new ArrayDeque<>();
+    // Trabajos en marcha o en cola por cliente
+    private final Map<String, Integer> clientJobs = new HashMap<>();
+    private long memoryInUse;
+    private int running;
+    // Media móvil de la duración de los trabajos, para estimar Retry-After
+    private volatile long averageJobMillis = 10_000;
+
+    public AdmissionService(UMLGeneratorProperties properties) {
+        this.properties = properties;
+        long configured = properties.getAdmissionMemoryBudget().toBytes();
+        this.memoryBudget = configured > 0 ? configured : Runtime.getRuntime().maxMemory() / 2;
+        this.maxJobs = Math.max(1, properties.getMaxConcurrentJobs() > 0 ? properties.getMaxConcurrentJobs()
+                : properties.getAnalysisThreads());
+        logger.info("Admisión: {} trabajos simultáneos, {} MB de presupuesto de memoria, {} por cliente",
+                maxJobs, memoryBudget / (1024 * 1024), properties.getMaxJobsPerClient());
+    }
+
+    /**
+     * Estima el coste de un trabajo leyendo solo el directorio central del ZIP.
+     *
+     * @param zipFile ZIP subido
+     * @return Coste estimado; si el ZIP no se puede leer, el del tamaño del archivo
+     */
+    public JobCost estimate(File zipFile) {
+        List<String> extensions = properties.getZipRelevantExtensions();
+        try (ZipFile zip = new ZipFile(zipFile)) {
+            int entries = 0;
+            long sourceBytes = 0;
+            Enumeration<? extends ZipEntry> all = zip.entries();
+            while (all.hasMoreElements()) {
+                ZipEntry entry = all.nextElement();
+                entries++;
+                String name = entry.getName().toLowerCase(Locale.ROOT);
+                if (entry.isDirectory() || extensions.stream().noneMatch(name::endsWith)) {
+                    continue;
+                }
+                long size = entry.getSize();
+                sourceBytes += size >= 0 ? size : Math.max(0, entry.getCompressedSize()) * ASSUMED_COMPRESSION_RATIO;
+            }
+            return cost(entries, sourceBytes);
+        } catch (IOException e) {
+            logger.debug("No se pudo leer el directorio central de {}: {}", zipFile.getName(), e.getMessage());
+            return estimateFromSize(zipFile.length());
+        }
+    }
+
+    /**
+     * Estima el coste de un trabajo a partir del tamaño comprimido del ZIP.
+     */
+    public JobCost estimateFromSize(long compressedBytes) {
+        return cost(-1, Math.max(0, compressedBytes) * ASSUMED_COMPRESSION_RATIO);
+    }
+
+    private static JobCost cost(int entries, long sourceBytes) {
+        long memory = HEAP_PER_JOB + sourceBytes * HEAP_PER_SOURCE_BYTE + Math.max(0, entries) * HEAP_PER_ENTRY;
+        return new JobCost(entries, sourceBytes, memory);
+    }
+
+    /**
+     * Admite un trabajo, esperando en la cola si no hay presupuesto libre.
+     *
+     * @param client Identificador del cliente (dirección remota)
+     * @param cost   Coste estimado del trabajo
+     * @return Plaza del trabajo, que hay que cerrar al terminar
+     * @throws JobRejectedException Si el cliente supera su límite, la cola
+     *                              está llena o se agota la espera
+     */
+    public Ticket admit(String client, JobCost cost) throws JobRejectedException {
+        lock.lock();
+        try {
+            int perClient = properties.getMaxJobsPerClient();
+            if (perClient > 0 && clientJobs.getOrDefault(client, 0) >= perClient) {
+                logger.warn("Trabajo rechazado: el cliente {} ya tiene {} trabajos en curso", client, perClient);
+                throw new JobRejectedException("El cliente ya tiene " + perClient + " trabajos en curso",
+                        retryAfterSeconds(0), true);
+            }
+            if (queue.isEmpty() && fits(cost)) {
+                clientJobs.merge(client, 1, Integer::sum);
+                return start(client, cost);
+            }
+            if (queue.size() >= properties.getAdmissionQueueSize()) {
+                logger.warn("Trabajo rechazado: cola de admisión llena ({} en marcha, {} en cola)", running,
+                        queue.size());
+                throw new JobRejectedException("Cola de admisión llena", retryAfterSeconds(queue.size()), false);
+            }
+            return await(client, cost);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Espera en la cola hasta que el trabajo está a la cabeza y cabe.
+     */
+    private Ticket await(String client, JobCost cost) throws JobRejectedException {
+        Condition waiter = lock.newCondition();
+        queue.addLast(waiter);
+        clientJobs.merge(client, 1, Integer::sum);
+        logger.info("Trabajo en cola de admisión: {} MB estimados, posición {}", cost.memoryBytes() / (1024 * 1024),
+                queue.size());
+        long nanos = properties.getAdmissionQueueTimeout().toNanos();
+        boolean admitted = false;
+        try {
+            while (queue.peekFirst() != waiter || !fits(cost)) {
+                if (nanos <= 0) {
+                    logger.warn("Trabajo rechazado: espera de admisión agotada ({})",
+                            properties.getAdmissionQueueTimeout());
+                    throw new JobRejectedException("Espera de admisión agotada", retryAfterSeconds(queue.size()),
+                            false);
+                }
+                nanos = waiter.awaitNanos(nanos);
+            }
+            admitted = true;
+            return start(client, cost);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JobRejectedException("Espera de admisión interrumpida", retryAfterSeconds(queue.size()),
+                    false);
+        } finally {
+            queue.remove(waiter);
+            if (!admitted) {
+                decrementClient(client);
+            }
+            // El siguiente puede caber ahora que este ya no bloquea la cabeza
+            signalHead();
+        }
+    }
+
+    private boolean fits(JobCost cost) {
+        return running < maxJobs && (memoryInUse == 0 || memoryInUse + cost.memoryBytes() <= memoryBudget);
+    }
+
+    private Ticket start(String client, JobCost cost) {
+        running++;
+        memoryInUse += cost.memoryBytes();
+        return new Ticket(client, cost);
+    }
+
+    private void release(Ticket ticket) {
+        lock.lock();
+        try {
+            if (ticket.closed) {
+                return;
+            }
+            ticket.closed = true;
+            running--;
+            if (!ticket.memoryHeld) {
+                memoryInUse -= ticket.cost.memoryBytes();
+            }
+            decrementClient(ticket.client);
+            long millis = (System.nanoTime() - ticket.start) / 1_000_000;
+            averageJobMillis = (averageJobMillis * 7 + millis) / 8;
+            signalHead();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private MemoryHold holdMemory(Ticket ticket) {
+        lock.lock();
+        try {
+            long bytes = ticket.cost.memoryBytes();
+            if (!ticket.closed && !ticket.memoryHeld) {
+                // Al cerrar la plaza la memoria queda reservada para la reserva
+                ticket.memoryHeld = true;
+            } else {
+                memoryInUse += bytes;
+            }
+            return new MemoryHold(bytes);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void releaseMemory(MemoryHold hold) {
+        lock.lock();
+        try {
+            if (hold.closed) {
+                return;
+            }
+            hold.closed = true;
+            memoryInUse -= hold.bytes;
+            signalHead();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void decrementClient(String client) {
+        clientJobs.computeIfPresent(client, (key, count) -> count > 1 ? count - 1 : null);
+    }
+
+    private void signalHead() {
+        Condition head = queue.peekFirst();
+        if (head != null) {
+            head.signal();
+        }
+    }
+
+    /**
+     * Segundos hasta que probablemente haya hueco: duración media de un
+     * trabajo por las tandas de trabajos que hay por delante.
+     */
+    private long retryAfterSeconds(int ahead) {
+        long millis = averageJobMillis * (ahead / maxJobs + 1);
+        return Math.max(1, Math.min(MAX_RETRY_AFTER_SECONDS, (millis + 999) / 1000));
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.demo.service;
+
+import com.example.demo.config.UMLGeneratorProperties;
+import com.example.demo.config.UMLGeneratorProperties.ExecutionMode;
+import jakarta.annotation.PreDestroy;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool acotado de hilos de plataforma para el trabajo de CPU (parseo, análisis
+ * y escritura del .puml).
+ *
+ * En modo de ejecución virtual las peticiones corren en hilos virtuales, que
+ * solo compensan mientras esperan E/S: un análisis largo ocuparía uno de los
+ * pocos hilos portadores y frenaría al resto de peticiones. La petición
+ * entrega aquí la parte de CPU y espera su resultado, lo que no bloquea
+ * ningún hilo de plataforma. En modo plataforma el trabajo se ejecuta en el
+ * propio hilo de la petición, como hasta ahora.
+ *
+ * @author @PelayoPS
+ */
+@Lazy
+@Service
+public class AnalysisPool {
+    private static final Logger logger = LoggerFactory.getLogger(AnalysisPool.class);
+
+    private static final String THREAD_PREFIX = "uml-analysis-";
+
+    private final ExecutorService pool;
+
+    /**
+     * Trabajo de CPU que se ejecuta en el pool.
+     */
+    @FunctionalInterface
+    public interface Task<T> {
+        T run() throws Exception;
+    }
+
+    public AnalysisPool(UMLGeneratorProperties properties) {
+        if (properties.getExecutionMode() != ExecutionMode.VIRTUAL) {
+            this.pool = null;
+            return;
+        }
+        int threads = Math.max(1, properties.getAnalysisThreads());
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, THREAD_PREFIX + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        logger.info("Análisis en un pool de {} hilos de plataforma; peticiones en hilos virtuales", threads);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Ejecuta un trabajo de CPU en el pool y espera su resultado. Los
+     * trabajos que no caben esperan su turno en la cola.
+     *
+     * @param task Trabajo a ejecutar
+     * @return Resultado del trabajo
+     * @throws Exception La excepción que lance el trabajo
+     */
+    public <T> T call(Task<T> task) throws Exception {
+        if (pool == null || Thread.currentThread().getName().startsWith(THREAD_PREFIX)) {
+            return task.run();
+        }
+        Future<T> future = pool.submit(task::run);
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.example.demo.service;
 import com.github.javaparser.ast.CompilationUnit;
 import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
 import com.github.javaparser.ast.expr.AnnotationExpr;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,6 +17,7 @@ import java.util.stream.Collectors;
  * 
  * @author @PelayoPS
  */
+@Lazy
 @Service
 public class AnnotationAnalysisService {
     private static final Logger logger = LoggerFactory.getLogger(AnnotationAnalysisService.class);
@@ -42,6 +44,12 @@ public class AnnotationAnalysisService {
         "PutMapping", "DeleteMapping", "Override", "Deprecated"
     );
     
+    // Primitivos, sus wrappers y String
+    private static final Set<String> BUILTIN_TYPES = Set.of(
+        "String", "int", "Integer", "long", "Long", "double", "Double", "boolean", "Boolean",
+        "float", "Float", "char", "Character", "byte", "Byte", "short", "Short"
+    );
+    
     /**
      * Analiza las anotaciones de una clase y devuelve estereotipos PlantUML.
      * 
@@ -201,11 +209,6 @@ public class AnnotationAnalysisService {
      * @return true si es un tipo built-in
      */
     private boolean isJavaBuiltinType(String typeName) {
-        return typeName.equals("String") || typeName.equals("int") || typeName.equals("Integer") ||
-               typeName.equals("long") || typeName.equals("Long") || typeName.equals("double") ||
-               typeName.equals("Double") || typeName.equals("boolean") || typeName.equals("Boolean") ||
-               typeName.equals("float") || typeName.equals("Float") || typeName.equals("char") ||
-               typeName.equals("Character") || typeName.equals("byte") || typeName.equals("Byte") ||
-               typeName.equals("short") || typeName.equals("Short");
+        return BUILTIN_TYPES.contains(typeName);
     }
 }
@@ -0,0 +1,74 @@
+package com.example.demo.service;
+
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Flujo de entrada que cuenta los bytes leídos y corta la lectura al superar
+ * un límite, del mismo modo que lo haría el límite de multipart de Spring.
+ *
+ * @author @PelayoPS
+ */
+public class BoundedInputStream extends FilterInputStream {
+
+    private final long maxBytes;
+    private long count;
+
+    /**
+     * @param in       Flujo original
+     * @param maxBytes Máximo de bytes permitidos; un valor negativo desactiva el límite
+     */
+    public BoundedInputStream(InputStream in, long maxBytes) {
+        super(in);
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) {
+            advance(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, len);
+        if (n > 0) {
+            advance(n);
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        if (skipped > 0) {
+            advance(skipped);
+        }
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    /**
+     * @return Bytes leídos hasta el momento
+     */
+    public long getCount() {
+        return count;
+    }
+
+    private void advance(long n) {
+        count += n;
+        if (maxBytes >= 0 && count > maxBytes) {
+            throw new MaxUploadSizeExceededException(maxBytes);
+        }
+    }
+}
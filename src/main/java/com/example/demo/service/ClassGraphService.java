@@ -0,0 +1,114 @@
+package com.example.demo.service;
+
+import com.example.demo.config.UMLGeneratorProperties;
+import com.example.demo.model.ClassGraph;
+import org.springframework.stereotype.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Exporta el modelo de clases de un trabajo en JSON junto al diagrama. La
+ * API de consultas no usa un modelo global: consulta el modelo guardado de
+ * cada trabajo en el almacén ({@link JobStore#model(String)}).
+ *
+ * El JSON es compacto: las clases y los tipos de relación se listan una vez
+ * y cada relación es un triple de índices {@code [origen, destino, tipo]}.
+ *
+ * @author @PelayoPS
+ */
+@Service
+public class ClassGraphService {
+    private static final Logger logger = LoggerFactory.getLogger(ClassGraphService.class);
+
+    /** Versión del formato del JSON exportado */
+    public static final int FORMAT_VERSION = 1;
+
+    private final UMLGeneratorProperties properties;
+
+    public ClassGraphService(UMLGeneratorProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Exporta el modelo de un trabajo en JSON a su directorio de salida.
+     *
+     * @param graph     Grafo de clases del trabajo
+     * @param outputDir Directorio de salida del trabajo
+     * @return Archivo JSON exportado
+     * @throws IOException Si no se puede escribir el archivo
+     */
+    public File export(ClassGraph graph, File outputDir) throws IOException {
+        if (!outputDir.exists()) {
+            outputDir.mkdirs();
+        }
+        File file = new File(outputDir, properties.getModelFileName());
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            write(graph, writer);
+        }
+        logger.info("Modelo exportado: {} ({} clases, {} relaciones)", file.getName(), graph.nodeCount(),
+                graph.edgeCount());
+        return file;
+    }
+
+    /**
+     * Escribe el modelo en JSON.
+     */
+    static void write(ClassGraph graph, Writer writer) throws IOException {
+        writer.write("{\"format\":" + FORMAT_VERSION + ",\"classes\":[");
+        for (int n = 0; n < graph.nodeCount(); n++) {
+            if (n > 0) {
+                writer.write(',');
+            }
+            writer.write("{\"name\":");
+            writeString(graph.name(n), writer);
+            writer.write(",\"package\":");
+            writeString(graph.packageOf(n), writer);
+            writer.write('}');
+        }
+        writer.write("],\"relations\":[");
+        for (int k = 0; k < graph.relationCount(); k++) {
+            if (k > 0) {
+                writer.write(',');
+            }
+            writeString(graph.relation(k), writer);
+        }
+        writer.write("],\"edges\":[");
+        StringBuilder edges = new StringBuilder(64 * 1024);
+        graph.forEachEdge((source, target, kind) -> {
+            if (edges.length() > 0 && edges.charAt(edges.length() - 1) == ']') {
+                edges.append(',');
+            }
+            edges.append('[').append(source).append(',').append(target).append(',').append(kind).append(']');
+        });
+        writer.append(edges);
+        writer.write("]}\n");
+    }
+
+    private static void writeString(String value, Writer writer) throws IOException {
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> writer.write("\\\"");
+                case '\\' -> writer.write("\\\\");
+                case '\n' -> writer.write("\\n");
+                case '\r' -> writer.write("\\r");
+                case '\t' -> writer.write("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        writer.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        writer.write(c);
+                    }
+                }
+            }
+        }
+        writer.write('"');
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.demo.service;
+
+import com.example.demo.model.FileDeadline;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+
+/**
+ * Lector que corta la lectura al superarse el plazo de un archivo. El parser
+ * consume el fuente por bloques a medida que avanza, de modo que un archivo
+ * enorme deja de leerse poco después de agotar su plazo. Lo que el parser ya
+ * tiene en su búfer se sigue parseando.
+ *
+ * @author @PelayoPS
+ */
+public class DeadlineReader extends FilterReader {
+
+    private final FileDeadline deadline;
+
+    public DeadlineReader(Reader in, FileDeadline deadline) {
+        super(in);
+        this.deadline = deadline;
+    }
+
+    @Override
+    public int read() throws IOException {
+        checkDeadline();
+        return super.read();
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        checkDeadline();
+        return super.read(cbuf, off, len);
+    }
+
+    private void checkDeadline() throws InterruptedIOException {
+        if (deadline.isExpired()) {
+            throw new InterruptedIOException("Plazo de análisis agotado");
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.example.demo.service;
 
 import com.github.javaparser.ast.CompilationUnit;
 import com.github.javaparser.ast.ImportDeclaration;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,6 +16,7 @@ import java.util.stream.Collectors;
  * 
  * @author @PelayoPS
  */
+@Lazy
 @Service
 public class DependencyAnalysisService {
     private static final Logger logger = LoggerFactory.getLogger(DependencyAnalysisService.class);
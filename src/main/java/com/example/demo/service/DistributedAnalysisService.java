@@ -0,0 +1,498 @@
+package com.example.demo.service;
+
+import com.example.demo.config.AnalysisOptions;
+import com.example.demo.config.UMLGeneratorProperties;
+import com.example.demo.exception.JavaParsingException;
+import com.example.demo.exception.ParseTimeoutException;
+import com.example.demo.model.DegradationLevel;
+import com.example.demo.model.FileModel;
+import jakarta.annotation.PreDestroy;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Coordinador del modo distribuido.
+ *
+ * Reparte los archivos descubiertos en lotes entre procesos trabajadores (JVM
+ * hijas lanzadas por este servicio o instancias ya arrancadas accesibles por
+ * socket local). Cada trabajador parsea y analiza sus archivos y devuelve un
+ * {@link FileModel} compacto por archivo; el coordinador los fusiona en el
+ * orden de descubrimiento, de modo que el diagrama no depende de qué
+ * trabajador terminó antes. Los árboles sintácticos nunca llegan a la JVM del
+ * coordinador.
+ *
+ * Si un trabajador no responde, sus lotes pendientes se analizan en local.
+ * Un archivo que no se puede analizar se entrega al trabajo como rechazado y
+ * el reparto continúa.
+ *
+ * @author @PelayoPS
+ */
+@Lazy
+@Service
+public class DistributedAnalysisService {
+    private static final Logger logger = LoggerFactory.getLogger(DistributedAnalysisService.class);
+
+    // Lanzador de los jar ejecutables de Spring Boot que admite otra clase principal
+    private static final String BOOT_PROPERTIES_LAUNCHER = "org.springframework.boot.loader.launch.PropertiesLauncher";
+
+    private final UMLGeneratorProperties properties;
+    private final List<LocalWorker> localWorkers = new ArrayList<>();
+    private final AtomicInteger workerCounter = new AtomicInteger();
+
+    public DistributedAnalysisService(UMLGeneratorProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Operaciones del trabajo que el coordinador necesita para repartirlo.
+     */
+    public interface ShardHandler {
+        /**
+         * @return true si el archivo debe analizarse (presupuesto y duplicados)
+         */
+        boolean admit(File file);
+
+        /**
+         * @return Nivel de degradación vigente, que se envía con cada lote
+         */
+        DegradationLevel currentLevel();
+
+        /**
+         * Fusiona el modelo de un archivo; se invoca en orden de descubrimiento
+         * y nunca de forma concurrente.
+         */
+        void accept(FileModel model);
+
+        /**
+         * Analiza un archivo en este proceso cuando su trabajador no está disponible.
+         */
+        FileModel analyzeLocally(File file) throws JavaParsingException;
+
+        /**
+         * Registra un archivo que no se pudo analizar o agotó su plazo. Puede
+         * invocarse desde varios hilos a la vez.
+         */
+        void reject(File file, JavaParsingException e);
+    }
+
+    /**
+     * Proceso trabajador lanzado por este servicio.
+     */
+    private static final class LocalWorker {
+        private final Process process;
+        private final InetSocketAddress address;
+
+        private LocalWorker(Process process, InetSocketAddress address) {
+            this.process = process;
+            this.address = address;
+        }
+    }
+
+    /**
+     * Indica si un trabajo con ese número de archivos se reparte entre trabajadores.
+     */
+    public boolean shouldDistribute(int fileCount) {
+        return (properties.getDistributedWorkers() > 0 || !properties.getWorkerEndpoints().isEmpty())
+                && fileCount >= properties.getDistributedMinFiles();
+    }
+
+    /**
+     * Analiza los archivos repartiéndolos entre los trabajadores disponibles.
+     *
+     * @param files      Archivos a analizar, en orden de descubrimiento
+     * @param options    Opciones del trabajo; los trabajadores reciben su vocabulario y detectores
+     * @param handler    Operaciones del trabajo
+     * @throws JavaParsingException Si el análisis se interrumpe
+     */
+    public void analyze(List<File> files, AnalysisOptions options, ShardHandler handler)
+            throws JavaParsingException {
+        List<InetSocketAddress> endpoints = endpoints();
+        OrderedMerger merger = new OrderedMerger(files.size(), handler);
+        Queue<int[]> batches = new ConcurrentLinkedQueue<>();
+        int batchSize = Math.max(1, properties.getWorkerBatchSize());
+        for (int start = 0; start < files.size(); start += batchSize) {
+            batches.add(new int[] { start, Math.min(files.size(), start + batchSize) });
+        }
+        logger.info("Análisis distribuido: {} archivos en {} lotes entre {} trabajadores",
+                files.size(), batches.size(), endpoints.size());
+
+        if (endpoints.isEmpty()) {
+            logger.warn("No hay trabajadores disponibles; el análisis se hace en local");
+            int[] batch;
+            while ((batch = batches.poll()) != null) {
+                analyzeBatchLocally(files, batch, handler, merger);
+            }
+            return;
+        }
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(endpoints.size(), r -> {
+            Thread thread = new Thread(r, "analysis-coordinator-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> shards = new ArrayList<>();
+            for (InetSocketAddress endpoint : endpoints) {
+                shards.add(pool.submit(() -> {
+                    runShard(endpoint, files, batches, options, handler, merger);
+                    return null;
+                }));
+            }
+            for (Future<?> shard : shards) {
+                shard.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JavaParsingException("Análisis distribuido interrumpido", null, e);
+        } catch (ExecutionException e) {
+            throw new JavaParsingException("Error en el análisis distribuido: " + e.getCause().getMessage(),
+                    null, e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Consume lotes de la cola compartida y los envía a un trabajador. Si el
+     * trabajador falla, lo que quede se analiza en local.
+     */
+    private void runShard(InetSocketAddress endpoint, List<File> files, Queue<int[]> batches,
+            AnalysisOptions options, ShardHandler handler, OrderedMerger merger) {
+        WorkerConnection connection = null;
+        try {
+            connection = new WorkerConnection(endpoint, options);
+        } catch (IOException e) {
+            logger.warn("No se pudo conectar con el trabajador {}: {}", endpoint, e.getMessage());
+        }
+
+        try {
+            int[] batch;
+            while ((batch = batches.poll()) != null) {
+                List<Integer> admitted = new ArrayList<>(batch[1] - batch[0]);
+                for (int i = batch[0]; i < batch[1]; i++) {
+                    if (handler.admit(files.get(i))) {
+                        admitted.add(i);
+                    } else {
+                        merger.deliver(i, null);
+                    }
+                }
+                if (connection != null) {
+                    try {
+                        admitted = connection.analyze(files, admitted, handler.currentLevel(), options, handler,
+                                merger);
+                    } catch (IOException e) {
+                        // admitted conserva solo los archivos que quedaron sin respuesta
+                        logger.warn("El trabajador {} dejó de responder; se continúa en local: {}",
+                                endpoint, e.getMessage());
+                        connection.closeQuietly();
+                        connection = null;
+                    }
+                }
+                // Sin trabajador: lo no resuelto por él se analiza aquí
+                for (int index : admitted) {
+                    merger.deliver(index, analyzeLocally(files.get(index), handler));
+                }
+            }
+        } finally {
+            if (connection != null) {
+                connection.close();
+            }
+        }
+    }
+
+    private void analyzeBatchLocally(List<File> files, int[] batch, ShardHandler handler, OrderedMerger merger) {
+        for (int i = batch[0]; i < batch[1]; i++) {
+            File file = files.get(i);
+            merger.deliver(i, handler.admit(file) ? analyzeLocally(file, handler) : null);
+        }
+    }
+
+    /**
+     * Analiza un archivo en local; si falla se rechaza y no hay modelo que fusionar.
+     */
+    private static FileModel analyzeLocally(File file, ShardHandler handler) {
+        try {
+            return handler.analyzeLocally(file);
+        } catch (JavaParsingException e) {
+            handler.reject(file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Conexión con un trabajador para la duración de un trabajo.
+     */
+    private final class WorkerConnection {
+        private final Socket socket;
+        private final DataInputStream in;
+        private final DataOutputStream out;
+
+        private WorkerConnection(InetSocketAddress endpoint, AnalysisOptions options) throws IOException {
+            socket = new Socket();
+            try {
+                socket.connect(endpoint, (int) properties.getWorkerStartupTimeout().toMillis());
+                socket.setSoTimeout((int) properties.getWorkerTimeout().toMillis());
+                socket.setTcpNoDelay(true);
+                in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                out.writeInt(WorkerProtocol.MAGIC);
+                out.writeInt(WorkerProtocol.VERSION);
+                out.writeByte(WorkerProtocol.JOB);
+                WorkerProtocol.writeJob(out, options);
+                out.flush();
+            } catch (IOException e) {
+                socket.close();
+                throw e;
+            }
+        }
+
+        /**
+         * Envía un lote y fusiona las respuestas a medida que llegan.
+         *
+         * @param indexes Índices del lote; si la conexión falla quedan en la
+         *                lista solo los que el trabajador no llegó a resolver
+         * @return Índices que el trabajador no llegó a resolver
+         * @throws IOException Si la conexión falla
+         */
+        private List<Integer> analyze(List<File> files, List<Integer> indexes, DegradationLevel level,
+                AnalysisOptions options, ShardHandler handler, OrderedMerger merger) throws IOException {
+            if (indexes.isEmpty()) {
+                return indexes;
+            }
+            out.writeByte(WorkerProtocol.BATCH);
+            out.writeByte(level.ordinal());
+            out.writeInt(indexes.size());
+            for (int index : indexes) {
+                out.writeUTF(files.get(index).getAbsolutePath());
+            }
+            out.flush();
+
+            int resolved = 0;
+            try {
+                while (true) {
+                    byte frame = in.readByte();
+                    if (frame == WorkerProtocol.BATCH_DONE) {
+                        break;
+                    }
+                    int index = indexes.get(resolved);
+                    File file = files.get(index);
+                    if (frame == WorkerProtocol.MODEL) {
+                        merger.deliver(index, FileModel.readFrom(in));
+                    } else if (frame == WorkerProtocol.FAILED) {
+                        handler.reject(file, new JavaParsingException(in.readUTF(), file.getName()));
+                        merger.deliver(index, null);
+                    } else if (frame == WorkerProtocol.TIMED_OUT) {
+                        handler.reject(file, new ParseTimeoutException(file.getName(), options.getFileTimeout()));
+                        merger.deliver(index, null);
+                    } else {
+                        throw new IOException("Respuesta desconocida del trabajador: " + frame);
+                    }
+                    resolved++;
+                }
+            } catch (IOException e) {
+                indexes.subList(0, resolved).clear();
+                throw e;
+            }
+            if (resolved != indexes.size()) {
+                throw new IOException("El trabajador respondió " + resolved + " de " + indexes.size() + " archivos");
+            }
+            return List.of();
+        }
+
+        private void close() {
+            try {
+                out.writeByte(WorkerProtocol.CLOSE);
+                out.flush();
+            } catch (IOException e) {
+                logger.debug("No se pudo cerrar ordenadamente la conexión con el trabajador: {}", e.getMessage());
+            }
+            closeQuietly();
+        }
+
+        private void closeQuietly() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Nada que hacer
+            }
+        }
+    }
+
+    /**
+     * Entrega los modelos al trabajo en orden de descubrimiento aunque lleguen
+     * desordenados: retiene los que se adelantan hasta que llegan los anteriores.
+     */
+    private static final class OrderedMerger {
+        private final FileModel[] pending;
+        private final boolean[] delivered;
+        private final ShardHandler handler;
+        private int next;
+
+        private OrderedMerger(int size, ShardHandler handler) {
+            this.pending = new FileModel[size];
+            this.delivered = new boolean[size];
+            this.handler = handler;
+        }
+
+        /**
+         * @param model Modelo del archivo o null si no produjo ninguno
+         */
+        private synchronized void deliver(int index, FileModel model) {
+            pending[index] = model;
+            delivered[index] = true;
+            while (next < pending.length && delivered[next]) {
+                if (pending[next] != null) {
+                    handler.accept(pending[next]);
+                    pending[next] = null;
+                }
+                next++;
+            }
+        }
+    }
+
+    /**
+     * Direcciones de los trabajadores configurados más las de los locales,
+     * arrancando los que falten.
+     */
+    private List<InetSocketAddress> endpoints() {
+        List<InetSocketAddress> endpoints = new ArrayList<>();
+        for (String endpoint : properties.getWorkerEndpoints()) {
+            int separator = endpoint.lastIndexOf(':');
+            if (separator <= 0) {
+                logger.warn("Dirección de trabajador no válida (se espera host:puerto): {}", endpoint);
+                continue;
+            }
+            try {
+                endpoints.add(new InetSocketAddress(endpoint.substring(0, separator).trim(),
+                        Integer.parseInt(endpoint.substring(separator + 1).trim())));
+            } catch (IllegalArgumentException e) {
+                logger.warn("Dirección de trabajador no válida: {} ({})", endpoint, e.getMessage());
+            }
+        }
+        synchronized (localWorkers) {
+            localWorkers.removeIf(worker -> !worker.process.isAlive());
+            while (localWorkers.size() < properties.getDistributedWorkers()) {
+                try {
+                    localWorkers.add(startLocalWorker());
+                } catch (IOException e) {
+                    logger.warn("No se pudo arrancar un trabajador local: {}", e.getMessage());
+                    break;
+                }
+            }
+            for (LocalWorker worker : localWorkers) {
+                endpoints.add(worker.address);
+            }
+        }
+        return endpoints;
+    }
+
+    /**
+     * Lanza una JVM trabajadora con el mismo classpath que esta y espera a que
+     * anuncie su puerto. El trabajador termina solo cuando se cierra su
+     * entrada estándar, es decir, cuando muere este proceso.
+     */
+    private LocalWorker startLocalWorker() throws IOException {
+        String name = "uml-worker-" + workerCounter.incrementAndGet();
+        ProcessBuilder builder = new ProcessBuilder(workerCommand());
+        builder.redirectErrorStream(true);
+        Process process = builder.start();
+
+        CompletableFuture<Integer> port = new CompletableFuture<>();
+        Thread output = new Thread(() -> {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!port.isDone() && line.startsWith(WorkerProtocol.READY_PREFIX)) {
+                        port.complete(Integer.parseInt(line.substring(WorkerProtocol.READY_PREFIX.length()).trim()));
+                    } else {
+                        logger.debug("[{}] {}", name, line);
+                    }
+                }
+            } catch (IOException | NumberFormatException e) {
+                port.completeExceptionally(e);
+            }
+            port.completeExceptionally(new IOException("el proceso terminó sin anunciar su puerto"));
+        }, name + "-output");
+        output.setDaemon(true);
+        output.start();
+
+        try {
+            int workerPort = port.get(properties.getWorkerStartupTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            logger.info("Trabajador local {} escuchando en el puerto {} (pid {})", name, workerPort, process.pid());
+            return new LocalWorker(process, new InetSocketAddress(InetAddress.getLoopbackAddress(), workerPort));
+        } catch (TimeoutException e) {
+            process.destroyForcibly();
+            throw new IOException("el trabajador no arrancó en " + properties.getWorkerStartupTimeout());
+        } catch (ExecutionException e) {
+            process.destroyForcibly();
+            throw new IOException(e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+            throw new IOException("arranque del trabajador interrumpido", e);
+        }
+    }
+
+    private List<String> workerCommand() {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(properties.getWorkerJvmOptions());
+        String classPath = System.getProperty("java.class.path");
+        if (!classPath.contains(File.pathSeparator) && classPath.endsWith(".jar")) {
+            // Jar ejecutable: las clases de la aplicación están en BOOT-INF y solo
+            // las carga el lanzador de Spring Boot
+            command.add("-Dloader.main=" + WorkerProtocol.WORKER_MAIN_CLASS);
+            command.add("-cp");
+            command.add(classPath);
+            command.add(BOOT_PROPERTIES_LAUNCHER);
+        } else {
+            command.add("-cp");
+            command.add(classPath);
+            command.add(WorkerProtocol.WORKER_MAIN_CLASS);
+        }
+        command.add("--port");
+        command.add("0");
+        command.add("--exit-on-stdin-eof");
+        return command;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        synchronized (localWorkers) {
+            for (LocalWorker worker : localWorkers) {
+                worker.process.destroy();
+            }
+            localWorkers.clear();
+        }
+    }
+}
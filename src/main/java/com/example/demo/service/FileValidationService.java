@@ -4,6 +4,8 @@ import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Set;
 import java.util.regex.Pattern;
 
 /**
@@ -19,11 +21,14 @@ public class FileValidationService {
     // Patrón para nombres de archivo seguros (solo caracteres alfanuméricos, guiones, puntos y guiones bajos)
     private static final Pattern SAFE_FILENAME_PATTERN = Pattern.compile("^[a-zA-Z0-9._-]+$");
     
+    // Caracteres que se sustituyen al sanitizar
+    private static final Pattern UNSAFE_CHARACTERS = Pattern.compile("[^a-zA-Z0-9._-]");
+    
     // Nombres de archivo peligrosos en sistemas Windows y Unix
-    private static final String[] DANGEROUS_NAMES = {
+    private static final Set<String> DANGEROUS_NAMES = Set.of(
         "CON", "PRN", "AUX", "NUL", "COM1", "COM2", "COM3", "COM4", "COM5", "COM6", "COM7", "COM8", "COM9",
         "LPT1", "LPT2", "LPT3", "LPT4", "LPT5", "LPT6", "LPT7", "LPT8", "LPT9"
-    };
+    );
     
     /**
      * Valida y sanitiza el nombre de un archivo.
@@ -47,12 +52,11 @@ public class FileValidationService {
         }
         
         // Verificar nombres reservados del sistema
-        String baseName = fileName.split("\\.")[0].toUpperCase();
-        for (String dangerous : DANGEROUS_NAMES) {
-            if (baseName.equals(dangerous)) {
-                logger.warn("Nombre de archivo reservado del sistema detectado: {}", fileName);
-                throw new SecurityException("Nombre de archivo reservado del sistema: " + dangerous);
-            }
+        int dot = fileName.indexOf('.');
+        String baseName = (dot < 0 ? fileName : fileName.substring(0, dot)).toUpperCase(Locale.ROOT);
+        if (DANGEROUS_NAMES.contains(baseName)) {
+            logger.warn("Nombre de archivo reservado del sistema detectado: {}", fileName);
+            throw new SecurityException("Nombre de archivo reservado del sistema: " + baseName);
         }
         
         // Verificar longitud máxima
@@ -61,14 +65,49 @@ public class FileValidationService {
             throw new SecurityException("Nombre de archivo demasiado largo (máximo 255 caracteres)");
         }
         
+        // Caso habitual: el nombre ya es seguro
+        if (SAFE_FILENAME_PATTERN.matcher(fileName).matches()) {
+            return fileName;
+        }
+        
         // Sanitizar caracteres especiales
-        String sanitized = fileName.replaceAll("[^a-zA-Z0-9._-]", "_");
+        String sanitized = UNSAFE_CHARACTERS.matcher(fileName).replaceAll("_");
+        logger.info("Nombre de archivo sanitizado: '{}' -> '{}'", fileName, sanitized);
+        return sanitized;
+    }
+    
+    /**
+     * Valida y sanitiza la ruta relativa de una entrada de ZIP conservando su
+     * estructura de directorios. Cada segmento se valida como nombre de archivo.
+     * 
+     * @param entryName Ruta de la entrada tal como aparece en el ZIP
+     * @return Ruta relativa sanitizada con '/' como separador
+     * @throws SecurityException Si la ruta navega fuera del destino o algún segmento es peligroso
+     */
+    public String validateAndSanitizeEntryPath(String entryName) {
+        if (entryName == null || entryName.trim().isEmpty()) {
+            throw new SecurityException("Nombre de archivo vacío o nulo");
+        }
         
-        if (!fileName.equals(sanitized)) {
-            logger.info("Nombre de archivo sanitizado: '{}' -> '{}'", fileName, sanitized);
+        StringBuilder sanitized = new StringBuilder();
+        for (String segment : entryName.replace('\\', '/').split("/")) {
+            if (segment.isEmpty() || segment.equals(".")) {
+                continue;
+            }
+            if (segment.equals("..")) {
+                logger.warn("Intento de path traversal detectado: {}", entryName);
+                throw new SecurityException("Ruta de entrada contiene navegación de directorio");
+            }
+            if (sanitized.length() > 0) {
+                sanitized.append('/');
+            }
+            sanitized.append(validateAndSanitizeFileName(segment));
         }
         
-        return sanitized;
+        if (sanitized.length() == 0) {
+            throw new SecurityException("Nombre de archivo vacío o nulo");
+        }
+        return sanitized.toString();
     }
     
     /**
@@ -0,0 +1,248 @@
+package com.example.demo.service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Reduce un archivo fuente Java a sus cabeceras: declaraciones de tipos,
+ * miembros y firmas, con los cuerpos de métodos, bloques de inicialización y
+ * constantes de enum vaciados. Los cuerpos de los constructores se conservan
+ * porque la clasificación de atributos (composición) los consulta.
+ *
+ * El parser construye entonces solo los nodos estructurales, que es lo que
+ * necesitan los detectores que no leen cuerpos. Se conservan los saltos de
+ * línea de los cuerpos eliminados para que las posiciones de los errores de
+ * parseo sigan apuntando a la línea original.
+ *
+ * La clasificación de cada llave es léxica: una llave abre el cuerpo de un
+ * tipo si en su declaración aparece class, interface, enum o record. Ante la
+ * duda se conserva el cuerpo, de modo que un error de clasificación solo
+ * cuesta rendimiento. Las llaves dentro de paréntesis (valores de anotación)
+ * se copian tal cual.
+ *
+ * @author @PelayoPS
+ */
+public final class HeaderOnlySource {
+
+    private HeaderOnlySource() {
+    }
+
+    /**
+     * Elimina los cuerpos de un archivo fuente.
+     *
+     * @param source Código fuente completo
+     * @return Código fuente con los cuerpos vacíos
+     */
+    public static String stripBodies(String source) {
+        StringBuilder out = new StringBuilder(source.length() / 2);
+        // true = cuerpo de tipo, false = llave conservada dentro de una declaración
+        Deque<Boolean> braces = new ArrayDeque<>();
+        // Nombres de los tipos cuyos cuerpos están abiertos
+        Deque<String> typeNames = new ArrayDeque<>();
+        boolean typeDeclaration = false;
+        boolean expectTypeName = false;
+        String declaredName = "";
+        // Último identificador de la declaración y el que precede a su primer paréntesis
+        int identifierStart = -1;
+        int identifierEnd = -1;
+        int calleeStart = -1;
+        int calleeEnd = -1;
+        int parenDepth = 0;
+        // El último identificador es el nombre de una anotación (sus paréntesis no son la firma)
+        boolean annotation = false;
+        char previous = 0;
+        int length = source.length();
+        int i = 0;
+
+        while (i < length) {
+            char c = source.charAt(i);
+            int literalEnd = skipCommentOrLiteral(source, i);
+            if (literalEnd > i) {
+                out.append(source, i, literalEnd);
+                i = literalEnd;
+                continue;
+            }
+
+            if (Character.isJavaIdentifierStart(c)) {
+                int end = i + 1;
+                while (end < length && Character.isJavaIdentifierPart(source.charAt(end))) {
+                    end++;
+                }
+                if (expectTypeName) {
+                    declaredName = source.substring(i, end);
+                    expectTypeName = false;
+                } else if (previous != '.' && isTypeKeyword(source, i, end)) {
+                    typeDeclaration = true;
+                    expectTypeName = true;
+                }
+                annotation = previous == '@' || (previous == '.' && annotation);
+                identifierStart = i;
+                identifierEnd = end;
+                out.append(source, i, end);
+                previous = source.charAt(end - 1);
+                i = end;
+                continue;
+            }
+
+            switch (c) {
+                case '(' -> {
+                    if (parenDepth++ == 0 && calleeStart < 0 && !annotation) {
+                        calleeStart = identifierStart;
+                        calleeEnd = identifierEnd;
+                    }
+                }
+                case ')' -> parenDepth = Math.max(0, parenDepth - 1);
+                case ';' -> {
+                    typeDeclaration = false;
+                    parenDepth = 0;
+                    identifierStart = calleeStart = -1;
+                }
+                case '{' -> {
+                    if (typeDeclaration) {
+                        braces.push(true);
+                        typeNames.push(declaredName);
+                        typeDeclaration = false;
+                        parenDepth = 0;
+                        identifierStart = calleeStart = -1;
+                    } else if (parenDepth > 0) {
+                        braces.push(false);
+                    } else {
+                        // Constructor: su nombre es el del tipo (con paréntesis o compacto de record)
+                        String typeName = typeNames.isEmpty() ? "" : typeNames.peek();
+                        boolean constructor = calleeStart >= 0
+                                ? isName(source, calleeStart, calleeEnd, typeName)
+                                : isName(source, identifierStart, identifierEnd, typeName);
+                        int bodyEnd = skipBody(source, i + 1);
+                        if (constructor) {
+                            out.append(source, i, bodyEnd);
+                        } else {
+                            out.append('{');
+                            appendLineBreaks(source, i + 1, bodyEnd, out);
+                            out.append('}');
+                        }
+                        i = bodyEnd;
+                        previous = '}';
+                        typeDeclaration = false;
+                        identifierStart = calleeStart = -1;
+                        continue;
+                    }
+                }
+                case '}' -> {
+                    Boolean typeBody = braces.poll();
+                    if (typeBody == null || typeBody) {
+                        typeNames.poll();
+                        typeDeclaration = false;
+                        parenDepth = 0;
+                        identifierStart = calleeStart = -1;
+                    }
+                }
+                default -> {
+                }
+            }
+            out.append(c);
+            if (!Character.isWhitespace(c)) {
+                previous = c;
+            }
+            i++;
+        }
+        return out.toString();
+    }
+
+    /**
+     * Recorre un cuerpo hasta su llave de cierre.
+     *
+     * @return Posición siguiente a la llave de cierre
+     */
+    private static int skipBody(String source, int start) {
+        int depth = 1;
+        int i = start;
+        int length = source.length();
+        while (i < length) {
+            int literalEnd = skipCommentOrLiteral(source, i);
+            int end = literalEnd > i ? literalEnd : i + 1;
+            if (literalEnd == i) {
+                char c = source.charAt(i);
+                if (c == '{') {
+                    depth++;
+                } else if (c == '}' && --depth == 0) {
+                    return i + 1;
+                }
+            }
+            i = end;
+        }
+        return length;
+    }
+
+    /**
+     * Copia los saltos de línea de un tramo eliminado.
+     */
+    private static void appendLineBreaks(String source, int start, int end, StringBuilder out) {
+        for (int i = start; i < end; i++) {
+            if (source.charAt(i) == '\n') {
+                out.append('\n');
+            }
+        }
+    }
+
+    private static boolean isName(String source, int start, int end, String name) {
+        return start >= 0 && !name.isEmpty() && end - start == name.length()
+                && source.startsWith(name, start);
+    }
+
+    /**
+     * @return Fin del comentario o literal que empieza en la posición, o la
+     *         misma posición si no empieza ninguno
+     */
+    private static int skipCommentOrLiteral(String source, int i) {
+        int length = source.length();
+        char c = source.charAt(i);
+        char next = i + 1 < length ? source.charAt(i + 1) : 0;
+        if (c == '/' && next == '/') {
+            int end = source.indexOf('\n', i);
+            return end < 0 ? length : end;
+        }
+        if (c == '/' && next == '*') {
+            int end = source.indexOf("*/", i + 2);
+            return end < 0 ? length : end + 2;
+        }
+        if (c == '"' && source.startsWith("\"\"\"", i)) {
+            int end = source.indexOf("\"\"\"", i + 3);
+            while (end > 0 && isEscaped(source, end)) {
+                end = source.indexOf("\"\"\"", end + 1);
+            }
+            return end < 0 ? length : end + 3;
+        }
+        if (c == '"' || c == '\'') {
+            int j = i + 1;
+            while (j < length) {
+                char d = source.charAt(j);
+                if (d == '\\') {
+                    j += 2;
+                    continue;
+                }
+                if (d == c || d == '\n') {
+                    return j + 1;
+                }
+                j++;
+            }
+            return length;
+        }
+        return i;
+    }
+
+    private static boolean isEscaped(String source, int i) {
+        int backslashes = 0;
+        while (i - backslashes - 1 >= 0 && source.charAt(i - backslashes - 1) == '\\') {
+            backslashes++;
+        }
+        return backslashes % 2 == 1;
+    }
+
+    private static boolean isTypeKeyword(String source, int start, int end) {
+        int length = end - start;
+        return (length == 5 && source.startsWith("class", start))
+                || (length == 9 && source.startsWith("interface", start))
+                || (length == 4 && source.startsWith("enum", start))
+                || (length == 6 && source.startsWith("record", start));
+    }
+}
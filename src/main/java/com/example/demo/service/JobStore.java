@@ -0,0 +1,453 @@
+package com.example.demo.service;
+
+import com.example.demo.config.AnalysisOptions;
+import com.example.demo.config.UMLGeneratorProperties;
+import com.example.demo.model.AnalysisReport;
+import com.example.demo.model.ClassGraph;
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+/**
+ * Almacén persistente de trabajos.
+ *
+ * Cada trabajo terminado se guarda en su propio directorio dentro de
+ * {@code uml.generator.job-store-directory}:
+ * <ul>
+ * <li>{@code job.properties}: identificador, fecha, hash del ZIP, clave de
+ * caché, opciones y contadores del informe</li>
+ * <li>{@code sources.sha256}: hash de cada fuente analizado (formato de
+ * {@code sha256sum})</li>
+ * <li>{@code model.bin}: el grafo de clases en formato binario, que se abre
+ * proyectándolo en memoria</li>
+ * <li>{@code profile.properties}: duración de cada fase</li>
+ * <li>el {@code .puml}, el SVG, la vista por paquetes y el JSON del
+ * modelo</li>
+ * </ul>
+ * El directorio se escribe con un nombre temporal y se renombra al final, de
+ * modo que un trabajo visible siempre está completo. El almacén no se vacía
+ * al arrancar: sus trabajos se siguen sirviendo y consultando por
+ * identificador y los más antiguos que {@code uml.generator.max-stored-jobs}
+ * se retiran.
+ *
+ * Los trabajos cuyo resultado es reproducible se indexan por su clave de
+ * caché (hash del ZIP más huella de las opciones): una subida con la misma
+ * clave reutiliza el trabajo guardado en lugar de repetir el análisis. Las
+ * salidas se copian del directorio de salida propio del trabajo, de modo que
+ * lo guardado corresponde siempre a ese ZIP.
+ *
+ * @author @PelayoPS
+ */
+@Service
+public class JobStore {
+    private static final Logger logger = LoggerFactory.getLogger(JobStore.class);
+
+    public static final String MANIFEST_FILE = "job.properties";
+    public static final String SOURCES_FILE = "sources.sha256";
+    public static final String MODEL_FILE = "model.bin";
+    public static final String PROFILE_FILE = "profile.properties";
+
+    // Prefijo de los contadores del informe en el manifiesto
+    private static final String REPORT_PREFIX = "report.";
+    private static final String TEMP_PREFIX = ".tmp-";
+    // Versión de las claves de caché: los trabajos guardados con otra versión no se reutilizan
+    private static final String KEY_VERSION = "v2";
+    // Marca de papelera del conserje (WorkDirectoryJanitor)
+    private static final String TRASH_MARKER = ".trash-";
+    private static final Pattern JOB_ID = Pattern.compile("[0-9]{8}-[0-9]{9}-[0-9a-f]{4}");
+    private static final DateTimeFormatter ID_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmssSSS")
+            .withZone(ZoneOffset.UTC);
+    // Modelos proyectados en memoria que se mantienen abiertos
+    private static final int OPEN_MODELS = 8;
+
+    private final UMLGeneratorProperties properties;
+    private final WorkDirectoryJanitor workDirectoryJanitor;
+    // Clave de caché -> trabajo guardado con ese resultado
+    private final Map<String, String> jobsByKey = new ConcurrentHashMap<>();
+    private final Map<String, ClassGraph> openModels = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ClassGraph> eldest) {
+            return size() > OPEN_MODELS;
+        }
+    };
+
+    public JobStore(UMLGeneratorProperties properties, WorkDirectoryJanitor workDirectoryJanitor) {
+        this.properties = properties;
+        this.workDirectoryJanitor = workDirectoryJanitor;
+    }
+
+    /**
+     * Retira los restos de escrituras interrumpidas e indexa los trabajos
+     * guardados por su clave de caché.
+     */
+    @PostConstruct
+    public void restore() {
+        Path root = root();
+        try {
+            Files.createDirectories(root);
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(root)) {
+                for (Path entry : stream) {
+                    String name = entry.getFileName().toString();
+                    if (name.startsWith(TEMP_PREFIX) || name.contains(TRASH_MARKER)) {
+                        workDirectoryJanitor.discard(entry);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("No se pudo preparar el almacén de trabajos {}: {}", root, e.getMessage());
+            return;
+        }
+        for (String id : listJobIds()) {
+            Properties manifest = manifest(id);
+            if (manifest != null && manifest.getProperty("cacheKey") != null) {
+                jobsByKey.put(manifest.getProperty("cacheKey"), id);
+            }
+        }
+    }
+
+    /**
+     * Guarda un trabajo terminado y anota su identificador en el informe.
+     *
+     * @param id          Identificador reservado con {@link #newJobId()}
+     * @param report      Informe del trabajo
+     * @param options     Opciones con las que se analizó
+     * @param graph       Grafo de clases (null si no se llegó a construir)
+     * @param basePath    Directorio raíz de los fuentes
+     * @param sourceFiles Rutas absolutas de los fuentes analizados
+     * @param outputDir   Directorio de salida del trabajo
+     * @return Identificador del trabajo
+     * @throws IOException Si no se puede escribir el almacén
+     */
+    public String save(String id, AnalysisReport report, AnalysisOptions options, ClassGraph graph, String basePath,
+            Collection<String> sourceFiles, Path outputDir) throws IOException {
+        long start = System.nanoTime();
+        Path root = root();
+        Files.createDirectories(root);
+        Path temp = root.resolve(TEMP_PREFIX + id);
+        Files.createDirectories(temp);
+        // Solo se reutilizan resultados que no dependen de la carga de la máquina
+        String cacheKey = report.isReproducible() ? cacheKey(report.getSourceHash(), options) : null;
+        try {
+            if (graph != null) {
+                try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp.resolve(MODEL_FILE)),
+                        64 * 1024)) {
+                    graph.writeTo(out);
+                }
+            }
+            writeSourceManifest(basePath, sourceFiles, temp.resolve(SOURCES_FILE));
+            copyOutputs(outputDir, temp);
+            writeManifest(id, cacheKey, report, options, graph, temp.resolve(MANIFEST_FILE));
+            report.recordPhase("store", (System.nanoTime() - start) / 1_000_000);
+            writeProfile(report, temp.resolve(PROFILE_FILE));
+            Files.move(temp, root.resolve(id), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            workDirectoryJanitor.discard(temp);
+            throw e;
+        }
+        report.setJobId(id);
+        if (cacheKey != null) {
+            jobsByKey.put(cacheKey, id);
+        }
+        logger.info("Trabajo guardado: {} ({} ms)", id, (System.nanoTime() - start) / 1_000_000);
+        pruneOldJobs();
+        return id;
+    }
+
+    /**
+     * Clave de caché de un trabajo: hash del ZIP y huella de las opciones.
+     *
+     * @return La clave o null si no se conoce el hash del ZIP
+     */
+    public static String cacheKey(String sourceHash, AnalysisOptions options) {
+        return sourceHash == null ? null : KEY_VERSION + "-" + sourceHash + "-" + options.fingerprint();
+    }
+
+    /**
+     * Busca el trabajo guardado con una clave de caché y reconstruye su
+     * informe. Sus salidas se publican desde {@link #jobDirectory(String)}.
+     *
+     * @param cacheKey Clave de caché de la subida
+     * @return Informe del trabajo reutilizado o null si no hay ninguno válido
+     */
+    public AnalysisReport reuse(String cacheKey) {
+        String id = cacheKey == null ? null : jobsByKey.get(cacheKey);
+        if (id == null) {
+            return null;
+        }
+        Properties manifest = manifest(id);
+        ClassGraph graph = model(id);
+        if (manifest == null || graph == null || jobFile(id, properties.getSvgFileName()) == null) {
+            // Trabajo retirado o incompleto: se vuelve a generar
+            jobsByKey.remove(cacheKey, id);
+            return null;
+        }
+        AnalysisReport report;
+        try {
+            report = AnalysisReport.readFrom(manifest, REPORT_PREFIX);
+        } catch (IllegalArgumentException e) {
+            logger.warn("No se pudo reutilizar el trabajo {}: {}", id, e.getMessage());
+            jobsByKey.remove(cacheKey, id);
+            return null;
+        }
+        report.setSourceHash(manifest.getProperty("sourceHash"));
+        report.setJobId(id);
+        report.setReused(true);
+        logger.info("Resultado reutilizado del trabajo {}", id);
+        return report;
+    }
+
+    /**
+     * @return Identificadores de los trabajos guardados, del más antiguo al más reciente
+     */
+    public List<String> listJobIds() {
+        Set<String> ids = new TreeSet<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(root())) {
+            for (Path entry : stream) {
+                String name = entry.getFileName().toString();
+                if (JOB_ID.matcher(name).matches() && Files.isDirectory(entry)) {
+                    ids.add(name);
+                }
+            }
+        } catch (IOException e) {
+            logger.debug("No se pudo listar el almacén de trabajos: {}", e.getMessage());
+        }
+        return new ArrayList<>(ids);
+    }
+
+    /**
+     * @return Identificador del trabajo más reciente o null si no hay ninguno
+     */
+    public String latestJobId() {
+        List<String> ids = listJobIds();
+        return ids.isEmpty() ? null : ids.get(ids.size() - 1);
+    }
+
+    /**
+     * Modelo de un trabajo guardado, proyectado en memoria. Los últimos
+     * modelos abiertos se conservan para las consultas siguientes.
+     *
+     * @return El grafo o null si el trabajo no existe o no tiene modelo
+     */
+    public ClassGraph model(String jobId) {
+        Path file = jobFile(jobId, MODEL_FILE);
+        if (file == null) {
+            return null;
+        }
+        synchronized (openModels) {
+            ClassGraph graph = openModels.get(jobId);
+            if (graph != null) {
+                return graph;
+            }
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // La proyección sigue siendo válida después de cerrar el canal
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            ClassGraph graph = ClassGraph.map(buffer);
+            synchronized (openModels) {
+                openModels.put(jobId, graph);
+            }
+            return graph;
+        } catch (IOException | IllegalArgumentException e) {
+            logger.warn("No se pudo abrir el modelo del trabajo {}: {}", jobId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @return Manifiesto de un trabajo o null si no existe
+     */
+    public Properties manifest(String jobId) {
+        Path file = jobFile(jobId, MANIFEST_FILE);
+        if (file == null) {
+            return null;
+        }
+        Properties manifest = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            manifest.load(in);
+            return manifest;
+        } catch (IOException e) {
+            logger.warn("No se pudo leer el manifiesto del trabajo {}: {}", jobId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Archivo de un trabajo guardado. Solo se resuelven nombres simples dentro
+     * del directorio del trabajo.
+     *
+     * @return Ruta del archivo o null si el trabajo o el archivo no existen
+     */
+    public Path jobFile(String jobId, String fileName) {
+        if (jobId == null || !JOB_ID.matcher(jobId).matches() || fileName == null
+                || fileName.isEmpty() || fileName.startsWith(".") || fileName.contains("/")
+                || fileName.contains("\\")) {
+            return null;
+        }
+        Path file = root().resolve(jobId).resolve(fileName);
+        return Files.isRegularFile(file) ? file : null;
+    }
+
+    /**
+     * @return Directorio de un trabajo guardado
+     */
+    public Path jobDirectory(String jobId) {
+        return root().resolve(jobId);
+    }
+
+    private Path root() {
+        return Paths.get(properties.getFullJobStorePath()).toAbsolutePath().normalize();
+    }
+
+    /**
+     * Identificador ordenable por fecha de creación: instante UTC con
+     * milisegundos y un sufijo aleatorio. Se reserva al empezar el trabajo
+     * para que la página pueda pedir sus salidas antes de que se guarde.
+     */
+    public static String newJobId() {
+        return ID_TIME.format(Instant.now()) + "-"
+                + String.format("%04x", ThreadLocalRandom.current().nextInt(0x10000));
+    }
+
+    /**
+     * Escribe el hash SHA-256 de cada fuente analizado, con su ruta relativa
+     * al directorio del proyecto, en el formato de {@code sha256sum}.
+     */
+    private static void writeSourceManifest(String basePath, Collection<String> sourceFiles, Path target)
+            throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("Algoritmo de hash no disponible", e);
+        }
+        Path base = Paths.get(basePath).toAbsolutePath().normalize();
+        byte[] buffer = new byte[64 * 1024];
+        try (Writer writer = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+            for (String processed : new TreeSet<>(sourceFiles)) {
+                Path file = Paths.get(processed);
+                if (!Files.isRegularFile(file)) {
+                    continue;
+                }
+                digest.reset();
+                try (InputStream in = Files.newInputStream(file)) {
+                    int read;
+                    while ((read = in.read(buffer)) > 0) {
+                        digest.update(buffer, 0, read);
+                    }
+                }
+                Path relative = file.startsWith(base) ? base.relativize(file) : file.getFileName();
+                writer.write(HexFormat.of().formatHex(digest.digest()));
+                writer.write("  ");
+                writer.write(relative.toString().replace('\\', '/'));
+                writer.write('\n');
+            }
+        }
+    }
+
+    /**
+     * Copia al trabajo las salidas que la generación dejó en su directorio.
+     */
+    private void copyOutputs(Path output, Path target) throws IOException {
+        for (String name : outputNames()) {
+            Path file = output.resolve(name);
+            if (Files.isRegularFile(file)) {
+                Files.copy(file, target.resolve(name), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+
+    private List<String> outputNames() {
+        return List.of(properties.getPlantUmlFileName(), properties.getSvgFileName(),
+                properties.getOverviewFileName() + properties.getPlantUmlExtension(),
+                properties.getOverviewFileName() + properties.getSvgExtension(), properties.getModelFileName());
+    }
+
+    private static void writeManifest(String id, String cacheKey, AnalysisReport report, AnalysisOptions options,
+            ClassGraph graph, Path target) throws IOException {
+        Properties manifest = new Properties();
+        manifest.setProperty("id", id);
+        manifest.setProperty("created", Instant.now().toString());
+        if (report.getSourceHash() != null) {
+            manifest.setProperty("sourceHash", report.getSourceHash());
+        }
+        if (cacheKey != null) {
+            manifest.setProperty("cacheKey", cacheKey);
+        }
+        report.writeTo(manifest, REPORT_PREFIX);
+        if (graph != null) {
+            manifest.setProperty("classes", String.valueOf(graph.nodeCount()));
+            manifest.setProperty("relationships", String.valueOf(graph.edgeCount()));
+        }
+        manifest.setProperty("options.include", String.join(",", options.getIncludePatterns()));
+        manifest.setProperty("options.exclude", String.join(",", options.getExcludePatterns()));
+        manifest.setProperty("options.skipTests", String.valueOf(options.isSkipTestSources()));
+        manifest.setProperty("options.skipGenerated", String.valueOf(options.isSkipGeneratedSources()));
+        manifest.setProperty("options.analyzers", options.getAnalyzers().toString());
+        manifest.setProperty("options.fingerprint", options.fingerprint());
+        try (Writer writer = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+            manifest.store(writer, "Trabajo de generación UML");
+        }
+    }
+
+    private static void writeProfile(AnalysisReport report, Path target) throws IOException {
+        Properties profile = new Properties();
+        long total = 0;
+        for (Map.Entry<String, Long> phase : report.getPhases().entrySet()) {
+            profile.setProperty(phase.getKey() + ".ms", String.valueOf(phase.getValue()));
+            total += phase.getValue();
+        }
+        profile.setProperty("total.ms", String.valueOf(total));
+        try (Writer writer = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+            profile.store(writer, "Perfil de tiempos del trabajo");
+        }
+    }
+
+    /**
+     * Retira los trabajos más antiguos por encima del máximo configurado.
+     */
+    private void pruneOldJobs() {
+        List<String> ids = listJobIds();
+        int excess = ids.size() - Math.max(1, properties.getMaxStoredJobs());
+        for (int i = 0; i < excess; i++) {
+            String id = ids.get(i);
+            synchronized (openModels) {
+                openModels.remove(id);
+            }
+            jobsByKey.values().remove(id);
+            workDirectoryJanitor.discard(root().resolve(id));
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package com.example.demo.service;
+
+import com.example.demo.config.UMLGeneratorProperties;
+import com.example.demo.exception.PlantUMLExecutionException;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Maquetación por paquetes con caché de fragmentos.
+ *
+ * Cada paquete se maqueta como un diagrama PlantUML independiente con sus
+ * clases y las relaciones internas. El SVG resultante se guarda con el hash
+ * SHA-256 de su fuente como nombre, de modo que un paquete cuyas clases y
+ * relaciones no cambian se reutiliza en el siguiente diagrama sin volver a
+ * maquetarlo; solo los paquetes nuevos o modificados se renderizan, todos en
+ * una sola llamada a PlantUML. Los fragmentos se colocan por filas, cada uno
+ * dentro de un marco con el nombre del paquete, y las relaciones entre
+ * paquetes se trazan en línea recta por encima al componer.
+ *
+ * @author @PelayoPS
+ */
+@Lazy
+@Service
+public class LayoutCacheService {
+    private static final Logger logger = LoggerFactory.getLogger(LayoutCacheService.class);
+
+    private static final String FRAGMENT_EXTENSION = ".svg";
+    private static final String TEMP_PREFIX = "render-";
+    private static final double PADDING = 16;
+    private static final double TITLE_HEIGHT = 22;
+    private static final double GAP = 40;
+    private static final double ROW_ALIGNMENT = 256;
+    // Relación de aspecto aproximada de la composición (ancho / alto)
+    private static final double ASPECT = 1.4;
+
+    private final UMLGeneratorProperties properties;
+    private final WorkDirectoryJanitor workDirectoryJanitor;
+
+    /**
+     * Paquete que se maqueta por separado.
+     *
+     * @param name   Nombre del paquete
+     * @param source Cuerpo del diagrama PlantUML, sin {@code @startuml}
+     */
+    public record Fragment(String name, String source) {
+    }
+
+    /**
+     * Relación entre clases de paquetes distintos.
+     *
+     * @param label Etiqueta o null
+     */
+    public record Link(String source, String target, String arrow, String label) {
+    }
+
+    /**
+     * Resultado de una composición.
+     *
+     * @param fragments Paquetes compuestos
+     * @param reused    Paquetes servidos desde la caché
+     * @param rendered  Paquetes maquetados en esta ejecución
+     */
+    public record Result(int fragments, int reused, int rendered) {
+    }
+
+    /**
+     * Renderiza a SVG, junto a cada uno, los archivos PlantUML dados.
+     */
+    @FunctionalInterface
+    public interface Renderer {
+        void render(List<File> plantUmlFiles) throws PlantUMLExecutionException;
+    }
+
+    public LayoutCacheService(UMLGeneratorProperties properties, WorkDirectoryJanitor workDirectoryJanitor) {
+        this.properties = properties;
+        this.workDirectoryJanitor = workDirectoryJanitor;
+    }
+
+    /**
+     * Compone el diagrama a partir de los paquetes, maquetando solo los que
+     * no están en la caché.
+     *
+     * @param fragments Paquetes, en el orden en que se colocan
+     * @param links     Relaciones entre paquetes
+     * @param target    SVG de salida
+     * @param renderer  Renderizado de los paquetes que faltan
+     * @return Paquetes reutilizados y maquetados
+     * @throws IOException                Si falla la caché o la escritura
+     * @throws PlantUMLExecutionException Si falla el renderizado
+     */
+    public Result compose(List<Fragment> fragments, List<Link> links, File target, Renderer renderer)
+            throws IOException, PlantUMLExecutionException {
+        long start = System.nanoTime();
+        Path root = Path.of(properties.getFullLayoutCachePath());
+        Files.createDirectories(root);
+
+        Map<String, String> keys = new LinkedHashMap<>();
+        Map<String, SvgFragment> cached = new HashMap<>();
+        Map<String, Fragment> missing = new LinkedHashMap<>();
+        for (Fragment fragment : fragments) {
+            String key = key(fragment.source());
+            keys.put(fragment.name(), key);
+            if (cached.containsKey(key) || missing.containsKey(key)) {
+                continue;
+            }
+            SvgFragment hit = readCached(root.resolve(key + FRAGMENT_EXTENSION));
+            if (hit != null) {
+                cached.put(key, hit);
+            } else {
+                missing.put(key, fragment);
+            }
+        }
+        Map<String, SvgFragment> rendered = missing.isEmpty() ? Map.of() : render(root, missing, renderer);
+
+        Map<String, SvgFragment> parsed = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : keys.entrySet()) {
+            SvgFragment fragment = rendered.get(entry.getValue());
+            parsed.put(entry.getKey(), fragment != null ? fragment : cached.get(entry.getValue()));
+        }
+        write(parsed, links, target.toPath());
+
+        Result result = new Result(fragments.size(), fragments.size() - missing.size(), missing.size());
+        logger.info("Diagrama compuesto por paquetes: {} paquetes, {} desde la caché, {} maquetados, {} ms",
+                result.fragments(), result.reused(), result.rendered(), (System.nanoTime() - start) / 1_000_000);
+        prune(root);
+        return result;
+    }
+
+    /**
+     * Lee un fragmento de la caché en el momento de consultarla: un trabajo
+     * simultáneo puede podarlo justo después y entonces se maqueta de nuevo.
+     *
+     * @return El fragmento o null si no está en la caché
+     */
+    private static SvgFragment readCached(Path svg) throws IOException {
+        try {
+            // La fecha de modificación marca el último uso para la poda
+            Files.setLastModifiedTime(svg, FileTime.fromMillis(System.currentTimeMillis()));
+            return SvgFragment.parse(Files.readString(svg, StandardCharsets.UTF_8));
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Maqueta los paquetes que faltan en un directorio temporal de la caché y
+     * mueve cada SVG a su nombre definitivo, de modo que una ejecución
+     * concurrente nunca ve un fragmento a medias. PlantUML escribe sus errores
+     * como una imagen sin clases: esos fragmentos se componen igualmente pero
+     * no se guardan, para reintentarlos en el siguiente diagrama.
+     *
+     * @return Fragmentos maquetados por clave
+     */
+    private Map<String, SvgFragment> render(Path root, Map<String, Fragment> missing, Renderer renderer)
+            throws IOException, PlantUMLExecutionException {
+        Path temp = Files.createTempDirectory(root, TEMP_PREFIX);
+        try {
+            List<File> sources = new ArrayList<>(missing.size());
+            for (Map.Entry<String, Fragment> entry : missing.entrySet()) {
+                Path source = temp.resolve(entry.getKey() + ".puml");
+                Files.writeString(source, "@startuml " + entry.getKey() + "\n" + entry.getValue().source()
+                        + "@enduml\n", StandardCharsets.UTF_8);
+                sources.add(source.toFile());
+            }
+            renderer.render(sources);
+            Map<String, SvgFragment> rendered = new HashMap<>();
+            for (Map.Entry<String, Fragment> entry : missing.entrySet()) {
+                Path svg = temp.resolve(entry.getKey() + FRAGMENT_EXTENSION);
+                if (!Files.isRegularFile(svg)) {
+                    throw new IOException("PlantUML no generó el fragmento " + svg.getFileName());
+                }
+                SvgFragment fragment = SvgFragment.parse(Files.readString(svg, StandardCharsets.UTF_8));
+                rendered.put(entry.getKey(), fragment);
+                if (fragment.getBoxes().isEmpty()) {
+                    logger.warn("PlantUML no pudo maquetar el paquete {}; no se guarda en la caché",
+                            entry.getValue().name());
+                    continue;
+                }
+                Files.move(svg, root.resolve(entry.getKey() + FRAGMENT_EXTENSION), StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+            return rendered;
+        } finally {
+            workDirectoryJanitor.discard(temp);
+        }
+    }
+
+    /**
+     * Coloca los fragmentos por filas de ancho parecido al alto total y
+     * escribe el SVG compuesto: definiciones, un marco por paquete con su
+     * contenido desplazado y, encima, las relaciones entre paquetes.
+     */
+    private static void write(Map<String, SvgFragment> fragments, List<Link> links, Path target)
+            throws IOException {
+        double area = 0;
+        double widest = 0;
+        for (SvgFragment fragment : fragments.values()) {
+            double width = fragment.getWidth() + 2 * PADDING;
+            area += (width + GAP) * (fragment.getHeight() + 2 * PADDING + TITLE_HEIGHT + GAP);
+            widest = Math.max(widest, width);
+        }
+        double rowWidth = Math.max(widest,
+                Math.ceil(Math.sqrt(area * ASPECT) / ROW_ALIGNMENT) * ROW_ALIGNMENT);
+
+        StringBuilder defs = new StringBuilder();
+        StringBuilder body = new StringBuilder();
+        Map<String, double[]> boxes = new HashMap<>();
+        double x = 0;
+        double y = 0;
+        double rowHeight = 0;
+        double width = 0;
+        for (Map.Entry<String, SvgFragment> entry : fragments.entrySet()) {
+            SvgFragment fragment = entry.getValue();
+            double frameWidth = fragment.getWidth() + 2 * PADDING;
+            double frameHeight = fragment.getHeight() + 2 * PADDING + TITLE_HEIGHT;
+            if (x > 0 && x + frameWidth > rowWidth) {
+                x = 0;
+                y += rowHeight + GAP;
+                rowHeight = 0;
+            }
+            String name = SvgEdges.escape(entry.getKey());
+            body.append("<!--cluster ").append(name).append("--><g id=\"cluster_").append(name).append("\">")
+                    .append("<rect fill=\"none\" height=\"").append(SvgFragment.number(frameHeight))
+                    .append("\" rx=\"2.5\" ry=\"2.5\" style=\"stroke:#000000;stroke-width:1.5;\" width=\"")
+                    .append(SvgFragment.number(frameWidth)).append("\" x=\"").append(SvgFragment.number(x))
+                    .append("\" y=\"").append(SvgFragment.number(y)).append("\"/>");
+            SvgEdges.text(body, entry.getKey(), x + PADDING / 2, y + TITLE_HEIGHT - 6, 14);
+            body.append("</g>");
+
+            double dx = x + PADDING;
+            double dy = y + PADDING + TITLE_HEIGHT;
+            fragment.appendTranslated(body, dx, dy);
+            defs.append(fragment.getDefs());
+            for (Map.Entry<String, double[]> box : fragment.getBoxes().entrySet()) {
+                double[] local = box.getValue();
+                boxes.putIfAbsent(box.getKey(), new double[] { local[0] + dx, local[1] + dy, local[2], local[3] });
+            }
+
+            x += frameWidth + GAP;
+            width = Math.max(width, x - GAP);
+            rowHeight = Math.max(rowHeight, frameHeight);
+        }
+        double height = y + rowHeight;
+
+        int drawn = 0;
+        for (Link link : links) {
+            double[] from = boxes.get(link.source());
+            double[] to = boxes.get(link.target());
+            if (from != null && to != null) {
+                SvgEdges.append(body, link.source(), link.target(), link.arrow(), link.label(), from, to);
+                drawn++;
+            }
+        }
+        if (drawn < links.size()) {
+            logger.debug("Relaciones entre paquetes sin clase en el diagrama: {}", links.size() - drawn);
+        }
+
+        String svg = SvgEdges.document(defs, body, width, height);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        Files.writeString(temp, svg, StandardCharsets.UTF_8);
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Borra los fragmentos usados hace más tiempo cuando la caché supera el
+     * máximo de entradas.
+     */
+    private void prune(Path root) {
+        int max = Math.max(0, properties.getMaxLayoutCacheEntries());
+        try (Stream<Path> entries = Files.list(root)) {
+            List<Path> fragments = entries.filter(path -> path.getFileName().toString().endsWith(FRAGMENT_EXTENSION))
+                    .sorted(Comparator.comparingLong(path -> path.toFile().lastModified()))
+                    .toList();
+            for (int i = 0; i < fragments.size() - max; i++) {
+                Files.deleteIfExists(fragments.get(i));
+            }
+        } catch (IOException e) {
+            logger.warn("No se pudo podar la caché de maquetación {}: {}", root, e.getMessage());
+        }
+    }
+
+    private static String key(String source) throws IOException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(source.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("Algoritmo de hash no disponible", e);
+        }
+    }
+}
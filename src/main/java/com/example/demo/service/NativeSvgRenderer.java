@@ -0,0 +1,762 @@
+package com.example.demo.service;
+
+import com.example.demo.config.UMLGeneratorProperties;
+import com.example.demo.model.ClassGraph;
+import com.example.demo.model.LongHashSet;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Renderizado del diagrama a SVG sin PlantUML.
+ *
+ * Maqueta el grafo de clases por capas (método de Sugiyama): se invierten
+ * las aristas que cierran ciclos, cada clase recibe la capa del camino más
+ * largo desde las raíces, las capas demasiado anchas se reparten en varias
+ * filas, las aristas largas pasan por nodos ficticios en las capas
+ * intermedias, los cruces se reducen con barridos por baricentro y las
+ * coordenadas horizontales se ajustan hacia la media de los vecinos sin
+ * solapar cajas. Todo trabaja sobre arrays de enteros indexados por nodo,
+ * así que miles de clases se maquetan en milisegundos.
+ *
+ * Las cajas solo llevan el nombre de la clase y cada par de clases se
+ * dibuja con una única relación (la primera), de modo que el resultado sirve
+ * como vista previa mientras PlantUML maqueta el diagrama completo. Las
+ * clases sin relaciones se colocan en una rejilla debajo del resto. El SVG
+ * usa los mismos comentarios y grupos que PlantUML y se indexa igual en el
+ * visor por teselas.
+ *
+ * @author @PelayoPS
+ */
+@Lazy
+@Service
+public class NativeSvgRenderer {
+    private static final Logger logger = LoggerFactory.getLogger(NativeSvgRenderer.class);
+
+    private static final double MARGIN = 20;
+    private static final double BOX_HEIGHT = 30;
+    private static final double LAYER_GAP = 56;
+    private static final double NODE_GAP = 24;
+    private static final double DUMMY_GAP = 12;
+    // Ancho medio de un carácter de 14 px en sans-serif
+    private static final double CHAR_WIDTH = 7.2;
+    private static final double BOX_PADDING = 20;
+    private static final int FONT_SIZE = 14;
+    private static final int MIN_LAYER_WIDTH = 8;
+    // Nodos ficticios por clase como mucho; las aristas que no caben se trazan rectas
+    private static final int DUMMIES_PER_NODE = 4;
+    // Los nodos ficticios pesan más al ajustar coordenadas para enderezar las aristas largas
+    private static final double DUMMY_WEIGHT = 2;
+    // Relación de aspecto de la rejilla de clases sin relaciones
+    private static final double ASPECT = 1.4;
+
+    private final UMLGeneratorProperties properties;
+
+    /**
+     * Resumen de una maquetación.
+     *
+     * @param nodes     Clases dibujadas
+     * @param edges     Relaciones dibujadas
+     * @param layers    Capas
+     * @param dummies   Nodos ficticios de las aristas largas
+     * @param crossings Cruces entre capas tras la reducción
+     * @param millis    Duración de la maquetación y la escritura
+     */
+    public record Stats(int nodes, int edges, int layers, int dummies, long crossings, long millis) {
+    }
+
+    public NativeSvgRenderer(UMLGeneratorProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Maqueta el grafo y escribe el SVG. El archivo se sustituye de forma
+     * atómica, así que nunca se sirve a medio escribir.
+     *
+     * @param graph  Grafo de clases
+     * @param target SVG de salida
+     * @return Resumen de la maquetación
+     * @throws IOException Si falla la escritura
+     */
+    public Stats render(ClassGraph graph, File target) throws IOException {
+        long start = System.nanoTime();
+        Layout layout = new Layout(graph, Math.max(0, properties.getNativeLayoutEffort()));
+        layout.run();
+        String svg = layout.toSvg();
+
+        Path path = target.toPath();
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.writeString(temp, svg, StandardCharsets.UTF_8);
+        Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        Stats stats = new Stats(graph.nodeCount(), layout.edgeCount, layout.layers, layout.dummies,
+                layout.crossings, (System.nanoTime() - start) / 1_000_000);
+        logger.info("SVG generado sin PlantUML: {} ({})", target.getName(), stats);
+        return stats;
+    }
+
+    /**
+     * Estado de una maquetación. Los nodos {@code 0..n-1} son las clases del
+     * grafo y los siguientes, los nodos ficticios.
+     */
+    private static final class Layout {
+        private final ClassGraph graph;
+        private final int effort;
+        private final int n;
+
+        // Relaciones distintas entre pares de clases, sin bucles
+        private int edgeCount;
+        private int[] edgeSource;
+        private int[] edgeTarget;
+        private int[] edgeKind;
+        // La arista se recorre al revés para romper un ciclo
+        private boolean[] reversed;
+        // Primer nodo ficticio de la arista, o -1 si no tiene
+        private int[] chainStart;
+
+        private boolean[] isolated;
+        private int[] byPackage;
+        private int total;
+        private int dummies;
+        private int layers;
+        private int[] layer;
+        private int[][] rows;
+        private int[] position;
+        private long crossings;
+
+        // Vecinos en la capa anterior y en la siguiente, en formato CSR
+        private int[] upStart;
+        private int[] up;
+        private int[] downStart;
+        private int[] down;
+
+        private double[] width;
+        private double[] x;
+        private double[] y;
+        private double diagramWidth;
+        private double diagramHeight;
+
+        Layout(ClassGraph graph, int effort) {
+            this.graph = graph;
+            this.effort = effort;
+            this.n = graph.nodeCount();
+        }
+
+        void run() {
+            collectEdges();
+            removeCycles();
+            assignLayers();
+            wrapLayers();
+            addDummies();
+            initialOrder();
+            reduceCrossings();
+            assignCoordinates();
+        }
+
+        private void collectEdges() {
+            int capacity = graph.edgeCount();
+            edgeSource = new int[capacity];
+            edgeTarget = new int[capacity];
+            edgeKind = new int[capacity];
+            LongHashSet seen = new LongHashSet(capacity);
+            graph.forEachEdge((source, target, kind) -> {
+                if (source != target && seen.add(((long) source << 32) | target)) {
+                    edgeSource[edgeCount] = source;
+                    edgeTarget[edgeCount] = target;
+                    edgeKind[edgeCount] = kind;
+                    edgeCount++;
+                }
+            });
+            reversed = new boolean[edgeCount];
+            isolated = new boolean[n];
+            Arrays.fill(isolated, true);
+            for (int e = 0; e < edgeCount; e++) {
+                isolated[edgeSource[e]] = false;
+                isolated[edgeTarget[e]] = false;
+            }
+        }
+
+        private int from(int e) {
+            return reversed[e] ? edgeTarget[e] : edgeSource[e];
+        }
+
+        private int to(int e) {
+            return reversed[e] ? edgeSource[e] : edgeTarget[e];
+        }
+
+        /**
+         * Invierte las aristas de retroceso de un recorrido en profundidad,
+         * empezando por las clases sin dependientes para que las relaciones
+         * invertidas sean pocas.
+         */
+        private void removeCycles() {
+            int[] outStart = new int[n + 1];
+            int[] outEdges = outgoing(outStart);
+            int[] inCount = new int[n];
+            for (int e = 0; e < edgeCount; e++) {
+                inCount[edgeTarget[e]]++;
+            }
+
+            byte[] state = new byte[n];
+            int[] stack = new int[n];
+            int[] cursor = new int[n];
+            for (int pass = 0; pass < 2; pass++) {
+                for (int root = 0; root < n; root++) {
+                    if (state[root] != 0 || (pass == 0 && inCount[root] > 0)) {
+                        continue;
+                    }
+                    int size = 0;
+                    stack[size++] = root;
+                    state[root] = 1;
+                    cursor[root] = outStart[root];
+                    while (size > 0) {
+                        int u = stack[size - 1];
+                        if (cursor[u] < outStart[u + 1]) {
+                            int e = outEdges[cursor[u]++];
+                            int v = edgeTarget[e];
+                            if (state[v] == 1) {
+                                reversed[e] = true;
+                            } else if (state[v] == 0) {
+                                state[v] = 1;
+                                cursor[v] = outStart[v];
+                                stack[size++] = v;
+                            }
+                        } else {
+                            state[u] = 2;
+                            size--;
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * @param start Recibe los desplazamientos por nodo de origen
+         * @return Aristas ordenadas por nodo de origen en el sentido actual
+         */
+        private int[] outgoing(int[] start) {
+            for (int e = 0; e < edgeCount; e++) {
+                start[from(e) + 1]++;
+            }
+            for (int i = 0; i < n; i++) {
+                start[i + 1] += start[i];
+            }
+            int[] fill = Arrays.copyOf(start, n);
+            int[] edges = new int[edgeCount];
+            for (int e = 0; e < edgeCount; e++) {
+                edges[fill[from(e)]++] = e;
+            }
+            return edges;
+        }
+
+        /**
+         * Capa del camino más largo desde las raíces. Después, cada raíz baja
+         * hasta justo encima de su dependencia más cercana para no alargar sus
+         * aristas.
+         */
+        private void assignLayers() {
+            int[] outStart = new int[n + 1];
+            int[] outEdges = outgoing(outStart);
+            int[] inCount = new int[n];
+            for (int e = 0; e < edgeCount; e++) {
+                inCount[to(e)]++;
+            }
+            layer = new int[n];
+            int[] order = new int[n];
+            int head = 0;
+            int tail = 0;
+            for (int v = 0; v < n; v++) {
+                if (inCount[v] == 0 && !isolated[v]) {
+                    order[tail++] = v;
+                }
+            }
+            boolean[] source = new boolean[n];
+            for (int i = 0; i < tail; i++) {
+                source[order[i]] = true;
+            }
+            while (head < tail) {
+                int u = order[head++];
+                for (int i = outStart[u]; i < outStart[u + 1]; i++) {
+                    int v = to(outEdges[i]);
+                    layer[v] = Math.max(layer[v], layer[u] + 1);
+                    if (--inCount[v] == 0) {
+                        order[tail++] = v;
+                    }
+                }
+            }
+            for (int v = 0; v < n; v++) {
+                if (source[v] && outStart[v + 1] > outStart[v]) {
+                    int nearest = Integer.MAX_VALUE;
+                    for (int i = outStart[v]; i < outStart[v + 1]; i++) {
+                        nearest = Math.min(nearest, layer[to(outEdges[i])]);
+                    }
+                    layer[v] = nearest - 1;
+                }
+            }
+        }
+
+        /**
+         * Reparte las capas con más clases que el máximo en filas
+         * consecutivas, agrupando las clases por paquete.
+         */
+        private void wrapLayers() {
+            int connected = 0;
+            int maxLayer = -1;
+            for (int v = 0; v < n; v++) {
+                if (!isolated[v]) {
+                    connected++;
+                    maxLayer = Math.max(maxLayer, layer[v]);
+                }
+            }
+            Integer[] nodes = new Integer[n];
+            for (int v = 0; v < n; v++) {
+                nodes[v] = v;
+            }
+            Arrays.sort(nodes, Comparator.<Integer>comparingInt(v -> isolated[v] ? Integer.MAX_VALUE : layer[v])
+                    .thenComparing(graph::packageOf).thenComparingInt(v -> v));
+            byPackage = new int[n];
+            for (int i = 0; i < n; i++) {
+                byPackage[i] = nodes[i];
+            }
+
+            int maxWidth = Math.max(MIN_LAYER_WIDTH, (int) Math.ceil(2 * Math.sqrt(connected)));
+            int[] count = new int[maxLayer + 1];
+            for (int v = 0; v < n; v++) {
+                if (!isolated[v]) {
+                    count[layer[v]]++;
+                }
+            }
+            int[] offset = new int[maxLayer + 2];
+            for (int l = 0; l <= maxLayer; l++) {
+                offset[l + 1] = offset[l] + Math.max(1, (count[l] + maxWidth - 1) / maxWidth);
+            }
+            int[] rank = new int[maxLayer + 1];
+            for (int v : byPackage) {
+                if (!isolated[v]) {
+                    int l = layer[v];
+                    layer[v] = offset[l] + rank[l]++ / maxWidth;
+                }
+            }
+            layers = offset[maxLayer + 1];
+        }
+
+        /**
+         * Sustituye cada arista que salta capas por una cadena de nodos
+         * ficticios, empezando por las más cortas mientras quede presupuesto.
+         */
+        private void addDummies() {
+            int maxSpan = 0;
+            for (int e = 0; e < edgeCount; e++) {
+                maxSpan = Math.max(maxSpan, layer[to(e)] - layer[from(e)]);
+            }
+            int[] spanStart = new int[maxSpan + 2];
+            for (int e = 0; e < edgeCount; e++) {
+                spanStart[layer[to(e)] - layer[from(e)] + 1]++;
+            }
+            for (int s = 0; s <= maxSpan; s++) {
+                spanStart[s + 1] += spanStart[s];
+            }
+            int[] bySpan = new int[edgeCount];
+            for (int e = 0; e < edgeCount; e++) {
+                bySpan[spanStart[layer[to(e)] - layer[from(e)]]++] = e;
+            }
+
+            int budget = DUMMIES_PER_NODE * n;
+            chainStart = new int[edgeCount];
+            Arrays.fill(chainStart, -1);
+            boolean[] straight = new boolean[edgeCount];
+            for (int e : bySpan) {
+                int length = layer[to(e)] - layer[from(e)] - 1;
+                if (length > 0 && dummies + length <= budget) {
+                    chainStart[e] = n + dummies;
+                    dummies += length;
+                } else if (length > 0) {
+                    straight[e] = true;
+                }
+            }
+            total = n + dummies;
+            layer = Arrays.copyOf(layer, total);
+
+            // Tramos entre capas consecutivas
+            int[] upper = new int[edgeCount + dummies];
+            int[] lower = new int[upper.length];
+            int segments = 0;
+            for (int e = 0; e < edgeCount; e++) {
+                if (straight[e]) {
+                    continue;
+                }
+                int previous = from(e);
+                int length = chainStart[e] < 0 ? 0 : layer[to(e)] - layer[from(e)] - 1;
+                for (int k = 0; k < length; k++) {
+                    int dummy = chainStart[e] + k;
+                    layer[dummy] = layer[from(e)] + 1 + k;
+                    upper[segments] = previous;
+                    lower[segments++] = dummy;
+                    previous = dummy;
+                }
+                upper[segments] = previous;
+                lower[segments++] = to(e);
+            }
+            upStart = new int[total + 1];
+            up = adjacency(lower, upper, segments, upStart);
+            downStart = new int[total + 1];
+            down = adjacency(upper, lower, segments, downStart);
+        }
+
+        private int[] adjacency(int[] keys, int[] values, int size, int[] start) {
+            for (int i = 0; i < size; i++) {
+                start[keys[i] + 1]++;
+            }
+            for (int v = 0; v < total; v++) {
+                start[v + 1] += start[v];
+            }
+            int[] fill = Arrays.copyOf(start, total);
+            int[] adjacent = new int[size];
+            for (int i = 0; i < size; i++) {
+                adjacent[fill[keys[i]]++] = values[i];
+            }
+            return adjacent;
+        }
+
+        /**
+         * Orden inicial de cada capa: el de un recorrido en profundidad sin
+         * tener en cuenta el sentido, que deja juntas las clases relacionadas.
+         */
+        private void initialOrder() {
+            int[] rowSize = new int[layers];
+            boolean[] visited = new boolean[total];
+            int[] visit = new int[total];
+            int visits = 0;
+            int[] stack = new int[total];
+            int[] cursor = new int[total];
+            for (int root : byPackage) {
+                if (isolated[root] || visited[root]) {
+                    continue;
+                }
+                int size = 0;
+                stack[size++] = root;
+                visited[root] = true;
+                visit[visits++] = root;
+                while (size > 0) {
+                    int u = stack[size - 1];
+                    int degree = downStart[u + 1] - downStart[u] + upStart[u + 1] - upStart[u];
+                    if (cursor[u] < degree) {
+                        int i = cursor[u]++;
+                        int down = downStart[u + 1] - downStart[u];
+                        int v = i < down ? this.down[downStart[u] + i] : up[upStart[u] + i - down];
+                        if (!visited[v]) {
+                            visited[v] = true;
+                            visit[visits++] = v;
+                            stack[size++] = v;
+                        }
+                    } else {
+                        size--;
+                    }
+                }
+            }
+            for (int i = 0; i < visits; i++) {
+                rowSize[layer[visit[i]]]++;
+            }
+            rows = new int[layers][];
+            for (int l = 0; l < layers; l++) {
+                rows[l] = new int[rowSize[l]];
+                rowSize[l] = 0;
+            }
+            position = new int[total];
+            for (int i = 0; i < visits; i++) {
+                int v = visit[i];
+                int l = layer[v];
+                position[v] = rowSize[l];
+                rows[l][rowSize[l]++] = v;
+            }
+        }
+
+        /**
+         * Barridos por baricentro hacia abajo y hacia arriba; se conserva el
+         * orden con menos cruces.
+         */
+        private void reduceCrossings() {
+            crossings = countCrossings();
+            int[][] best = copyRows();
+            for (int pass = 0; pass < effort && crossings > 0; pass++) {
+                sweep(true);
+                sweep(false);
+                long current = countCrossings();
+                if (current < crossings) {
+                    crossings = current;
+                    best = copyRows();
+                }
+            }
+            rows = best;
+            for (int[] row : rows) {
+                for (int i = 0; i < row.length; i++) {
+                    position[row[i]] = i;
+                }
+            }
+        }
+
+        private int[][] copyRows() {
+            int[][] copy = new int[rows.length][];
+            for (int l = 0; l < rows.length; l++) {
+                copy[l] = rows[l].clone();
+            }
+            return copy;
+        }
+
+        private void sweep(boolean downwards) {
+            for (int step = 1; step < layers; step++) {
+                int[] row = rows[downwards ? step : layers - 1 - step];
+                int[] start = downwards ? upStart : downStart;
+                int[] adjacent = downwards ? up : down;
+                // Baricentro en 1/1024 de posición y, para desempatar, la posición actual
+                long[] keys = new long[row.length];
+                for (int i = 0; i < row.length; i++) {
+                    int v = row[i];
+                    int degree = start[v + 1] - start[v];
+                    double barycenter = i;
+                    if (degree > 0) {
+                        long sum = 0;
+                        for (int k = start[v]; k < start[v + 1]; k++) {
+                            sum += position[adjacent[k]];
+                        }
+                        barycenter = (double) sum / degree;
+                    }
+                    keys[i] = ((long) (barycenter * 1024) << 21) | i;
+                }
+                Arrays.sort(keys);
+                int[] sorted = new int[row.length];
+                for (int i = 0; i < row.length; i++) {
+                    sorted[i] = row[(int) (keys[i] & ((1 << 21) - 1))];
+                    position[sorted[i]] = i;
+                }
+                System.arraycopy(sorted, 0, row, 0, row.length);
+            }
+        }
+
+        /**
+         * Cruces entre cada par de capas: inversiones de las posiciones de
+         * abajo recorridas en el orden de las de arriba, contadas con un
+         * árbol de Fenwick.
+         */
+        private long countCrossings() {
+            long count = 0;
+            for (int l = 0; l + 1 < layers; l++) {
+                int size = rows[l + 1].length;
+                long[] tree = new long[size + 1];
+                long inserted = 0;
+                for (int v : rows[l]) {
+                    int degree = downStart[v + 1] - downStart[v];
+                    int[] targets = new int[degree];
+                    for (int k = 0; k < degree; k++) {
+                        targets[k] = position[down[downStart[v] + k]];
+                    }
+                    Arrays.sort(targets);
+                    for (int target : targets) {
+                        long notAfter = 0;
+                        for (int i = target + 1; i > 0; i -= i & -i) {
+                            notAfter += tree[i];
+                        }
+                        count += inserted - notAfter;
+                        for (int i = target + 1; i <= size; i += i & -i) {
+                            tree[i]++;
+                        }
+                        inserted++;
+                    }
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Coordenadas: cada capa empieza centrada y en cada pasada sus nodos
+         * se acercan a la media de sus vecinos en la capa ya colocada,
+         * respetando la separación mínima (regresión isotónica con PAV).
+         */
+        private void assignCoordinates() {
+            width = new double[total];
+            x = new double[total];
+            y = new double[total];
+            for (int v = 0; v < n; v++) {
+                width[v] = graph.name(v).length() * CHAR_WIDTH + BOX_PADDING;
+            }
+
+            double widest = 0;
+            for (int[] row : rows) {
+                double left = 0;
+                for (int i = 0; i < row.length; i++) {
+                    left += i == 0 ? 0 : separation(row[i - 1], row[i]);
+                    x[row[i]] = left;
+                }
+                widest = Math.max(widest, row.length == 0 ? 0 : left);
+            }
+            for (int[] row : rows) {
+                if (row.length > 0) {
+                    double shift = (widest - x[row[row.length - 1]]) / 2;
+                    for (int v : row) {
+                        x[v] += shift;
+                    }
+                }
+            }
+            for (int pass = 0; pass < effort; pass++) {
+                for (int step = 1; step < layers; step++) {
+                    align(rows[step], upStart, up);
+                }
+                for (int step = layers - 2; step >= 0; step--) {
+                    align(rows[step], downStart, down);
+                }
+            }
+
+            double left = Double.POSITIVE_INFINITY;
+            double right = Double.NEGATIVE_INFINITY;
+            for (int[] row : rows) {
+                for (int v : row) {
+                    left = Math.min(left, x[v] - width[v] / 2);
+                    right = Math.max(right, x[v] + width[v] / 2);
+                }
+            }
+            double shift = left == Double.POSITIVE_INFINITY ? 0 : MARGIN - left;
+            diagramWidth = left == Double.POSITIVE_INFINITY ? 0 : right - left + 2 * MARGIN;
+            for (int v = 0; v < total; v++) {
+                x[v] += shift;
+                y[v] = MARGIN + layer[v] * (BOX_HEIGHT + LAYER_GAP);
+            }
+            diagramHeight = layers == 0 ? MARGIN : MARGIN + layers * (BOX_HEIGHT + LAYER_GAP) - LAYER_GAP + MARGIN;
+            placeIsolated();
+        }
+
+        private double separation(int a, int b) {
+            return (width[a] + width[b]) / 2 + (a < n && b < n ? NODE_GAP : DUMMY_GAP);
+        }
+
+        /**
+         * Mueve una capa hacia los baricentros de sus vecinos con el mínimo
+         * desplazamiento cuadrático que respeta la separación entre nodos.
+         */
+        private void align(int[] row, int[] start, int[] adjacent) {
+            int size = row.length;
+            double[] offset = new double[size];
+            double[] value = new double[size];
+            double[] weight = new double[size];
+            int[] count = new int[size];
+            int blocks = 0;
+            for (int i = 0; i < size; i++) {
+                int v = row[i];
+                offset[i] = i == 0 ? 0 : offset[i - 1] + separation(row[i - 1], v);
+                double desired = x[v];
+                if (start[v + 1] > start[v]) {
+                    double sum = 0;
+                    for (int k = start[v]; k < start[v + 1]; k++) {
+                        sum += x[adjacent[k]];
+                    }
+                    desired = sum / (start[v + 1] - start[v]);
+                }
+                // Bloques de PAV sobre x - offset, que debe ser no decreciente
+                value[blocks] = desired - offset[i];
+                weight[blocks] = v < n ? 1 : DUMMY_WEIGHT;
+                count[blocks] = 1;
+                blocks++;
+                while (blocks > 1 && value[blocks - 2] > value[blocks - 1]) {
+                    double merged = weight[blocks - 2] + weight[blocks - 1];
+                    value[blocks - 2] = (value[blocks - 2] * weight[blocks - 2]
+                            + value[blocks - 1] * weight[blocks - 1]) / merged;
+                    weight[blocks - 2] = merged;
+                    count[blocks - 2] += count[blocks - 1];
+                    blocks--;
+                }
+            }
+            int i = 0;
+            for (int b = 0; b < blocks; b++) {
+                for (int k = 0; k < count[b]; k++, i++) {
+                    x[row[i]] = value[b] + offset[i];
+                }
+            }
+        }
+
+        /**
+         * Coloca las clases sin relaciones en filas debajo del diagrama, con
+         * un ancho que deja la rejilla cerca de la relación de aspecto.
+         */
+        private void placeIsolated() {
+            double area = 0;
+            for (int v = 0; v < n; v++) {
+                if (isolated[v]) {
+                    area += (width[v] + NODE_GAP) * (BOX_HEIGHT + NODE_GAP);
+                }
+            }
+            if (area == 0) {
+                return;
+            }
+            double rowWidth = Math.max(diagramWidth - 2 * MARGIN, Math.sqrt(area * ASPECT));
+            double left = 0;
+            double top = diagramHeight + (layers == 0 ? 0 : LAYER_GAP - MARGIN);
+            double right = 0;
+            for (int v : byPackage) {
+                if (!isolated[v]) {
+                    continue;
+                }
+                if (left > 0 && left + width[v] > rowWidth) {
+                    left = 0;
+                    top += BOX_HEIGHT + NODE_GAP;
+                }
+                x[v] = MARGIN + left + width[v] / 2;
+                y[v] = top;
+                left += width[v] + NODE_GAP;
+                right = Math.max(right, left - NODE_GAP);
+            }
+            diagramWidth = Math.max(diagramWidth, right + 2 * MARGIN);
+            diagramHeight = top + BOX_HEIGHT + MARGIN;
+        }
+
+        private double[] box(int v) {
+            return new double[] { x[v] - width[v] / 2, y[v], width[v], BOX_HEIGHT };
+        }
+
+        String toSvg() {
+            StringBuilder body = new StringBuilder(n * 300 + edgeCount * 400);
+            for (int v = 0; v < n; v++) {
+                String name = SvgEdges.escape(graph.name(v));
+                double[] box = box(v);
+                body.append("<!--class ").append(name).append("--><g id=\"elem_").append(name).append("\">")
+                        .append("<rect fill=\"#F1F1F1\" height=\"").append(SvgFragment.number(box[3]))
+                        .append("\" rx=\"2.5\" ry=\"2.5\" style=\"stroke:#181818;stroke-width:0.5;\" width=\"")
+                        .append(SvgFragment.number(box[2])).append("\" x=\"").append(SvgFragment.number(box[0]))
+                        .append("\" y=\"").append(SvgFragment.number(box[1])).append("\"/>")
+                        .append("<text fill=\"#000000\" font-family=\"sans-serif\" font-size=\"").append(FONT_SIZE)
+                        .append("\" lengthAdjust=\"spacingAndGlyphs\" textLength=\"")
+                        .append(SvgFragment.number(box[2] - BOX_PADDING)).append("\" x=\"")
+                        .append(SvgFragment.number(box[0] + BOX_PADDING / 2)).append("\" y=\"")
+                        .append(SvgFragment.number(box[1] + BOX_HEIGHT / 2 + FONT_SIZE / 3.0)).append("\">")
+                        .append(name).append("</text></g>");
+            }
+
+            for (int e = 0; e < edgeCount; e++) {
+                int length = chainStart[e] < 0 ? 0 : layer[to(e)] - layer[from(e)] - 1;
+                double[] bends = new double[length * 2];
+                for (int k = 0; k < length; k++) {
+                    int dummy = chainStart[e] + k;
+                    int index = reversed[e] ? length - 1 - k : k;
+                    bends[index * 2] = x[dummy];
+                    bends[index * 2 + 1] = y[dummy] + BOX_HEIGHT / 2;
+                }
+                String relation = graph.relation(edgeKind[e]);
+                int split = relation.indexOf(" <<");
+                SvgEdges.append(body, graph.name(edgeSource[e]), graph.name(edgeTarget[e]),
+                        split < 0 ? relation : relation.substring(0, split),
+                        split < 0 ? null : relation.substring(split + 1),
+                        box(edgeSource[e]), box(edgeTarget[e]), bends);
+            }
+            return SvgEdges.document("", body, diagramWidth, diagramHeight);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.demo.service;
+
+import com.example.demo.config.AnalysisOptions;
+import com.example.demo.model.AnalysisReport;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Servicio de descubrimiento de archivos fuente.
+ * Aplica los filtros de inclusión/exclusión, los directorios a omitir y los
+ * límites de tamaño y número mientras recorre el árbol, de modo que lo
+ * descartado nunca llega a leerse ni a parsearse.
+ *
+ * @author @PelayoPS
+ */
+@Lazy
+@Service
+public class SourceDiscoveryService {
+    private static final Logger logger = LoggerFactory.getLogger(SourceDiscoveryService.class);
+
+    private static final String SOURCE_EXTENSION = ".java";
+    private static final Path TEST_SOURCES = Paths.get("src", "test");
+
+    /**
+     * Descubre los archivos Java a analizar bajo un directorio.
+     *
+     * @param root    Directorio raíz del proyecto
+     * @param options Opciones de filtrado de la ejecución
+     * @param report  Informe donde se contabilizan las omisiones
+     * @return Archivos aceptados, ordenados por ruta relativa
+     * @throws IOException Si no se puede recorrer el directorio
+     */
+    public List<File> discover(File root, AnalysisOptions options, AnalysisReport report) throws IOException {
+        Path rootPath = root.toPath();
+        List<PathMatcher> includes = compile(options.getIncludePatterns());
+        List<PathMatcher> excludes = compile(options.getExcludePatterns());
+        Set<String> generatedDirs = new HashSet<>(options.getGeneratedSourceDirectories());
+        List<Path> accepted = new ArrayList<>();
+
+        Files.walkFileTree(rootPath, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                if (dir.equals(rootPath)) {
+                    return FileVisitResult.CONTINUE;
+                }
+                Path relative = rootPath.relativize(dir);
+                boolean skip = (options.isSkipTestSources() && relative.endsWith(TEST_SOURCES))
+                        || (options.isSkipGeneratedSources() && generatedDirs.contains(dir.getFileName().toString()))
+                        || matchesAny(excludes, relative);
+                if (skip) {
+                    logger.debug("Directorio omitido: {}", relative);
+                    report.directorySkipped();
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (!attrs.isRegularFile() || !file.getFileName().toString().endsWith(SOURCE_EXTENSION)) {
+                    return FileVisitResult.CONTINUE;
+                }
+                Path relative = rootPath.relativize(file);
+                if ((!includes.isEmpty() && !matchesAny(includes, relative)) || matchesAny(excludes, relative)) {
+                    report.fileExcluded();
+                } else if (options.getMaxFileSize() > 0 && attrs.size() > options.getMaxFileSize()) {
+                    logger.info("Archivo omitido por tamaño ({} bytes): {}", attrs.size(), relative);
+                    report.fileOversized();
+                } else {
+                    accepted.add(relative);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                logger.warn("No se puede acceder a {}: {}", file, exc.getMessage());
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        // Orden estable, independiente del orden que devuelva el sistema de ficheros
+        accepted.sort(Comparator.comparing(Path::toString));
+        if (options.getMaxFileCount() > 0 && accepted.size() > options.getMaxFileCount()) {
+            logger.warn("Se alcanzó el límite de {} archivos; se omiten {}", options.getMaxFileCount(),
+                    accepted.size() - options.getMaxFileCount());
+            report.filesOverLimit(accepted.size() - options.getMaxFileCount());
+            accepted.subList(options.getMaxFileCount(), accepted.size()).clear();
+        }
+
+        List<File> files = new ArrayList<>(accepted.size());
+        for (Path relative : accepted) {
+            files.add(rootPath.resolve(relative).toFile());
+        }
+        logger.info("Descubrimiento completado en {}: {} archivos aceptados ({})", root, files.size(), report);
+        return files;
+    }
+
+    private static List<PathMatcher> compile(List<String> patterns) {
+        List<PathMatcher> matchers = new ArrayList<>(patterns.size());
+        for (String pattern : patterns) {
+            String syntaxAndPattern = pattern.startsWith("glob:") || pattern.startsWith("regex:")
+                    ? pattern
+                    : "glob:" + pattern;
+            matchers.add(FileSystems.getDefault().getPathMatcher(syntaxAndPattern));
+        }
+        return matchers;
+    }
+
+    private static boolean matchesAny(List<PathMatcher> matchers, Path relative) {
+        for (PathMatcher matcher : matchers) {
+            if (matcher.matches(relative)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.demo.service;
+
+import static com.example.demo.service.SvgFragment.number;
+
+/**
+ * Trazado de relaciones como SVG con el mismo aspecto que les da PlantUML:
+ * discontinua si la flecha lleva {@code ..}, triángulo hueco para
+ * {@code |>}, punta rellena para {@code >}, rombo en el origen para
+ * {@code *} y {@code o} y la multiplicidad junto al destino. Cada relación
+ * va precedida de un comentario {@code link} para que el visor por teselas
+ * la indexe como enlace. Incluye también el envoltorio del documento que
+ * comparten los SVG compuestos y los generados sin PlantUML.
+ *
+ * @author @PelayoPS
+ */
+final class SvgEdges {
+
+    private static final String STROKE = "stroke:#000000;stroke-width:1.0;";
+    private static final String DASHED = "stroke-dasharray:7.0,7.0;";
+    private static final double HEAD_LENGTH = 10;
+    private static final double HEAD_WIDTH = 5;
+    private static final double DIAMOND_LENGTH = 16;
+    private static final double DIAMOND_WIDTH = 4.5;
+    private static final double[] NO_BENDS = new double[0];
+
+    private SvgEdges() {
+    }
+
+    /**
+     * Escribe una relación en línea recta entre los bordes de dos cajas.
+     *
+     * @param out    Destino
+     * @param source Clase de origen
+     * @param target Clase de destino
+     * @param arrow  Flecha PlantUML, con la multiplicidad entre comillas si la hay
+     * @param label  Etiqueta o null
+     * @param from   Caja de origen: x, y, ancho, alto
+     * @param to     Caja de destino: x, y, ancho, alto
+     */
+    static void append(StringBuilder out, String source, String target, String arrow, String label,
+            double[] from, double[] to) {
+        append(out, source, target, arrow, label, from, to, NO_BENDS);
+    }
+
+    /**
+     * Escribe una relación que pasa por unos puntos intermedios, recortada en
+     * los bordes de las cajas.
+     *
+     * @param bends Puntos intermedios como x0, y0, x1, y1...; vacío para una
+     *              línea recta
+     */
+    static void append(StringBuilder out, String source, String target, String arrow, String label,
+            double[] from, double[] to, double[] bends) {
+        double fromX = from[0] + from[2] / 2;
+        double fromY = from[1] + from[3] / 2;
+        double toX = to[0] + to[2] / 2;
+        double toY = to[1] + to[3] / 2;
+        // Primer y último tramo: de la caja al punto intermedio más cercano
+        double firstX = bends.length > 0 ? bends[0] : toX;
+        double firstY = bends.length > 0 ? bends[1] : toY;
+        double lastX = bends.length > 0 ? bends[bends.length - 2] : fromX;
+        double lastY = bends.length > 0 ? bends[bends.length - 1] : fromY;
+        double[] start = border(fromX, fromY, from, firstX - fromX, firstY - fromY);
+        double[] end = border(toX, toY, to, lastX - toX, lastY - toY);
+        boolean straight = bends.length == 0;
+        double[] tail = unit(start[0], start[1], straight ? end[0] : firstX, straight ? end[1] : firstY);
+        double[] head = unit(straight ? start[0] : lastX, straight ? start[1] : lastY, end[0], end[1]);
+        if (tail == null || head == null) {
+            return;
+        }
+
+        String line = arrow.contains("\"") ? arrow.substring(0, arrow.indexOf('"')).trim() : arrow;
+        String multiplicity = arrow.contains("\"")
+                ? arrow.substring(arrow.indexOf('"') + 1, arrow.lastIndexOf('"'))
+                : null;
+        boolean triangle = line.endsWith("|>");
+        boolean pointed = !triangle && line.endsWith(">");
+        char tailMark = line.charAt(0);
+        boolean diamond = tailMark == '*' || tailMark == 'o';
+
+        out.append("<!--link ").append(escape(source)).append(" to ").append(escape(target)).append("-->")
+                .append("<g id=\"link_").append(escape(source)).append('_').append(escape(target)).append("\">");
+        double lineStartX = start[0] + (diamond ? tail[0] * DIAMOND_LENGTH : 0);
+        double lineStartY = start[1] + (diamond ? tail[1] * DIAMOND_LENGTH : 0);
+        double lineEndX = end[0] - (triangle ? head[0] * HEAD_LENGTH : 0);
+        double lineEndY = end[1] - (triangle ? head[1] * HEAD_LENGTH : 0);
+        out.append("<path d=\"M").append(number(lineStartX)).append(',').append(number(lineStartY));
+        for (int i = 0; i < bends.length; i += 2) {
+            out.append(" L").append(number(bends[i])).append(',').append(number(bends[i + 1]));
+        }
+        out.append(" L").append(number(lineEndX)).append(',').append(number(lineEndY))
+                .append("\" fill=\"none\" style=\"").append(STROKE).append(line.contains("..") ? DASHED : "")
+                .append("\"/>");
+
+        if (triangle || pointed) {
+            double baseX = end[0] - head[0] * HEAD_LENGTH;
+            double baseY = end[1] - head[1] * HEAD_LENGTH;
+            polygon(out, triangle ? "none" : "#000000", end[0], end[1],
+                    baseX - head[1] * HEAD_WIDTH, baseY + head[0] * HEAD_WIDTH,
+                    baseX + head[1] * HEAD_WIDTH, baseY - head[0] * HEAD_WIDTH);
+        }
+        if (diamond) {
+            double midX = start[0] + tail[0] * DIAMOND_LENGTH / 2;
+            double midY = start[1] + tail[1] * DIAMOND_LENGTH / 2;
+            polygon(out, tailMark == '*' ? "#000000" : "none", start[0], start[1],
+                    midX - tail[1] * DIAMOND_WIDTH, midY + tail[0] * DIAMOND_WIDTH,
+                    start[0] + tail[0] * DIAMOND_LENGTH, start[1] + tail[1] * DIAMOND_LENGTH,
+                    midX + tail[1] * DIAMOND_WIDTH, midY - tail[0] * DIAMOND_WIDTH);
+        }
+        if (multiplicity != null) {
+            text(out, multiplicity, end[0] - head[0] * 18 + head[1] * 8, end[1] - head[1] * 18 - head[0] * 8 + 4,
+                    13);
+        }
+        if (label != null) {
+            // En el punto intermedio central o, sin ellos, en el centro del trazo
+            int middle = bends.length / 4 * 2;
+            double labelX = straight ? (start[0] + end[0]) / 2 : bends[middle];
+            double labelY = straight ? (start[1] + end[1]) / 2 : bends[middle + 1];
+            text(out, label, labelX + 4, labelY - 4, 13);
+        }
+        out.append("</g>");
+    }
+
+    /**
+     * Envuelve un contenido en un documento SVG con la misma cabecera y el
+     * mismo grupo raíz que escribe PlantUML.
+     *
+     * @param defs Contenido de {@code <defs>}, puede estar vacío
+     */
+    static String document(CharSequence defs, CharSequence body, double width, double height) {
+        String w = number(Math.ceil(width));
+        String h = number(Math.ceil(height));
+        StringBuilder svg = new StringBuilder(body.length() + defs.length() + 512);
+        svg.append("<svg xmlns=\"http://www.w3.org/2000/svg\" xmlns:xlink=\"http://www.w3.org/1999/xlink\"")
+                .append(" contentStyleType=\"text/css\" height=\"").append(h).append("px\"")
+                .append(" preserveAspectRatio=\"none\" style=\"width:").append(w).append("px;height:").append(h)
+                .append("px;background:#FFFFFF;\" version=\"1.1\" viewBox=\"0 0 ").append(w).append(' ').append(h)
+                .append("\" width=\"").append(w).append("px\" zoomAndPan=\"magnify\">")
+                .append(defs.length() == 0 ? "<defs/>" : "<defs>" + defs + "</defs>")
+                .append("<g>").append(body).append("</g></svg>");
+        return svg.toString();
+    }
+
+    /**
+     * Escribe un texto con la fuente de PlantUML.
+     */
+    static void text(StringBuilder out, String value, double x, double y, int fontSize) {
+        out.append("<text fill=\"#000000\" font-family=\"sans-serif\" font-size=\"").append(fontSize)
+                .append("\" x=\"").append(number(x)).append("\" y=\"").append(number(y)).append("\">")
+                .append(escape(value)).append("</text>");
+    }
+
+    /**
+     * Escapa un texto para XML; los estereotipos se muestran con comillas
+     * angulares, como en PlantUML.
+     */
+    static String escape(String value) {
+        return value.replace("<<", "«").replace(">>", "»").replace("&", "&amp;")
+                .replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+
+    /**
+     * @return Punto en el que la recta desde el centro de la caja en la
+     *         dirección dada corta su borde
+     */
+    private static double[] border(double centerX, double centerY, double[] box, double dx, double dy) {
+        if (dx == 0 && dy == 0) {
+            return new double[] { centerX, centerY };
+        }
+        double scale = Math.min(dx == 0 ? Double.MAX_VALUE : box[2] / 2 / Math.abs(dx),
+                dy == 0 ? Double.MAX_VALUE : box[3] / 2 / Math.abs(dy));
+        return new double[] { centerX + dx * scale, centerY + dy * scale };
+    }
+
+    /**
+     * @return Vector unitario de un punto a otro o null si coinciden
+     */
+    private static double[] unit(double fromX, double fromY, double toX, double toY) {
+        double length = Math.hypot(toX - fromX, toY - fromY);
+        return length == 0 ? null : new double[] { (toX - fromX) / length, (toY - fromY) / length };
+    }
+
+    private static void polygon(StringBuilder out, String fill, double... points) {
+        out.append("<polygon fill=\"").append(fill).append("\" points=\"");
+        for (int i = 0; i < points.length; i++) {
+            out.append(number(points[i])).append(',');
+        }
+        out.append(number(points[0])).append(',').append(number(points[1]))
+                .append("\" style=\"").append(STROKE).append("\"/>");
+    }
+}
@@ -0,0 +1,240 @@
+package com.example.demo.service;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * SVG de PlantUML preparado para incrustarse en otro: tamaño, definiciones,
+ * contenido del grupo raíz y rectángulo de cada clase. El contenido se puede
+ * desplazar reescribiendo las coordenadas absolutas de cada elemento, ya que
+ * PlantUML no usa {@code transform}.
+ *
+ * @author @PelayoPS
+ */
+final class SvgFragment {
+
+    private static final Pattern VIEW_BOX = Pattern.compile("viewBox=\"([^\"]*)\"");
+    private static final Pattern TAG = Pattern.compile("<[a-zA-Z][^>]*>");
+    private static final Pattern COORDINATE = Pattern
+            .compile("(\\s)(x|y|x1|y1|x2|y2|cx|cy|points|d)=\"([^\"]*)\"");
+    private static final Pattern PATH_COMMAND = Pattern.compile("([a-zA-Z])([^a-zA-Z]*)");
+    private static final Pattern NUMBER = Pattern.compile("-?(?:\\d+\\.?\\d*|\\.\\d+)(?:[eE][-+]?\\d+)?");
+    private static final Pattern ENTITY = Pattern
+            .compile("<g id=\"elem_([^\"]+)\">\\s*<rect [^>]*>");
+    private static final Pattern SOURCE_COMMENT = Pattern.compile("<!--SRC=\\[[^\\]]*\\]-->");
+
+    private final double width;
+    private final double height;
+    private final String defs;
+    private final String body;
+    // Nombre de clase -> x, y, ancho, alto en coordenadas del fragmento
+    private final Map<String, double[]> boxes;
+
+    private SvgFragment(double width, double height, String defs, String body, Map<String, double[]> boxes) {
+        this.width = width;
+        this.height = height;
+        this.defs = defs;
+        this.body = body;
+        this.boxes = boxes;
+    }
+
+    /**
+     * Separa un SVG generado por PlantUML en sus partes.
+     *
+     * @param svg Contenido del SVG
+     * @return El fragmento
+     * @throws IOException Si el SVG no tiene la forma que escribe PlantUML
+     */
+    static SvgFragment parse(String svg) throws IOException {
+        int rootEnd = svg.indexOf('>', svg.indexOf("<svg"));
+        Matcher viewBox = VIEW_BOX.matcher(svg);
+        if (rootEnd < 0 || !viewBox.find() || viewBox.start() > rootEnd) {
+            throw new IOException("SVG sin viewBox");
+        }
+        String[] parts = viewBox.group(1).trim().split("[\\s,]+");
+        if (parts.length != 4) {
+            throw new IOException("viewBox no válido: " + viewBox.group(1));
+        }
+
+        String defs = "";
+        int defsStart = svg.indexOf("<defs>", rootEnd);
+        int groupStart = svg.indexOf("<g>", rootEnd);
+        if (defsStart >= 0 && (groupStart < 0 || defsStart < groupStart)) {
+            int defsEnd = svg.indexOf("</defs>", defsStart);
+            if (defsEnd > 0) {
+                defs = svg.substring(defsStart + "<defs>".length(), defsEnd);
+            }
+        }
+        int groupEnd = svg.lastIndexOf("</g>");
+        if (groupStart < 0 || groupEnd < groupStart) {
+            throw new IOException("SVG sin grupo raíz");
+        }
+        String body = SOURCE_COMMENT.matcher(svg.substring(groupStart + "<g>".length(), groupEnd)).replaceAll("");
+
+        Map<String, double[]> boxes = new LinkedHashMap<>();
+        Matcher entity = ENTITY.matcher(body);
+        while (entity.find()) {
+            String rect = entity.group();
+            boxes.putIfAbsent(entity.group(1), new double[] { attribute(rect, "x"), attribute(rect, "y"),
+                    attribute(rect, "width"), attribute(rect, "height") });
+        }
+        return new SvgFragment(Double.parseDouble(parts[2]), Double.parseDouble(parts[3]), defs, body,
+                Collections.unmodifiableMap(boxes));
+    }
+
+    double getWidth() {
+        return width;
+    }
+
+    double getHeight() {
+        return height;
+    }
+
+    String getDefs() {
+        return defs;
+    }
+
+    /**
+     * @return Rectángulos de las clases, en coordenadas del fragmento
+     */
+    Map<String, double[]> getBoxes() {
+        return boxes;
+    }
+
+    /**
+     * Escribe el contenido del fragmento desplazado.
+     *
+     * @param out Destino
+     * @param dx  Desplazamiento horizontal
+     * @param dy  Desplazamiento vertical
+     */
+    void appendTranslated(StringBuilder out, double dx, double dy) {
+        Matcher tag = TAG.matcher(body);
+        int last = 0;
+        while (tag.find()) {
+            out.append(body, last, tag.start());
+            translateTag(out, tag.group(), dx, dy);
+            last = tag.end();
+        }
+        out.append(body, last, body.length());
+    }
+
+    private static void translateTag(StringBuilder out, String tag, double dx, double dy) {
+        Matcher coordinate = COORDINATE.matcher(tag);
+        int last = 0;
+        while (coordinate.find()) {
+            out.append(tag, last, coordinate.start()).append(coordinate.group(1)).append(coordinate.group(2))
+                    .append("=\"");
+            String name = coordinate.group(2);
+            String value = coordinate.group(3);
+            switch (name) {
+                case "d" -> translatePath(out, value, dx, dy);
+                case "points" -> translatePoints(out, value, dx, dy);
+                default -> out.append(number(parseNumber(value) + (name.startsWith("x") || name.equals("cx")
+                        ? dx : dy)));
+            }
+            out.append('"');
+            last = coordinate.end();
+        }
+        out.append(tag, last, tag.length());
+    }
+
+    private static void translatePoints(StringBuilder out, String points, double dx, double dy) {
+        Matcher number = NUMBER.matcher(points);
+        int i = 0;
+        while (number.find()) {
+            if (i > 0) {
+                out.append(',');
+            }
+            out.append(number(Double.parseDouble(number.group()) + (i % 2 == 0 ? dx : dy)));
+            i++;
+        }
+    }
+
+    /**
+     * Desplaza un trazo. Solo cambian los comandos absolutos (en mayúsculas):
+     * pares x,y en M, L, C, S, Q y T, una coordenada en H y V y el punto final
+     * en A. Los relativos no dependen del origen.
+     */
+    private static void translatePath(StringBuilder out, String path, double dx, double dy) {
+        Matcher command = PATH_COMMAND.matcher(path);
+        boolean first = true;
+        while (command.find()) {
+            char letter = command.group(1).charAt(0);
+            if (!first) {
+                out.append(' ');
+            }
+            first = false;
+            out.append(letter);
+            Matcher number = NUMBER.matcher(command.group(2));
+            int i = 0;
+            while (number.find()) {
+                double value = Double.parseDouble(number.group());
+                if (Character.isUpperCase(letter)) {
+                    value += switch (letter) {
+                        case 'H' -> dx;
+                        case 'V' -> dy;
+                        case 'A' -> i % 7 == 5 ? dx : i % 7 == 6 ? dy : 0;
+                        default -> i % 2 == 0 ? dx : dy;
+                    };
+                }
+                boolean pairEnd = letter != 'H' && letter != 'V' && letter != 'h' && letter != 'v'
+                        && letter != 'A' && letter != 'a' && i % 2 == 1;
+                out.append(i == 0 ? "" : pairEnd ? "," : " ").append(number(value));
+                i++;
+            }
+        }
+    }
+
+    private static double attribute(String tag, String name) {
+        Matcher matcher = Pattern.compile("\\s" + name + "=\"([^\"]*)\"").matcher(tag);
+        return matcher.find() ? parseNumber(matcher.group(1)) : 0;
+    }
+
+    private static double parseNumber(String value) {
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Formatea una coordenada con cuatro decimales como mucho, igual que
+     * PlantUML. Se redondea a mano porque String.format se lleva buena parte
+     * del tiempo de escritura de los diagramas grandes.
+     */
+    static String number(double value) {
+        if (value == Math.rint(value)) {
+            return Long.toString((long) value);
+        }
+        long scaled = Math.round(Math.abs(value) * 10_000);
+        if (scaled == 0) {
+            return "0";
+        }
+        StringBuilder text = new StringBuilder(16);
+        if (value < 0) {
+            text.append('-');
+        }
+        text.append(scaled / 10_000);
+        long fraction = scaled % 10_000;
+        if (fraction != 0) {
+            int digits = 4;
+            while (fraction % 10 == 0) {
+                fraction /= 10;
+                digits--;
+            }
+            String decimals = Long.toString(fraction);
+            text.append('.');
+            for (int i = decimals.length(); i < digits; i++) {
+                text.append('0');
+            }
+            text.append(decimals);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,690 @@
+package com.example.demo.service;
+
+import com.example.demo.config.UMLGeneratorProperties;
+import com.example.demo.model.SvgTileIndex;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Visor por teselas de los diagramas grandes.
+ *
+ * Tras el renderizado, si el SVG supera el umbral configurado, se indexa en
+ * una sola pasada en flujo (ver {@link SvgTileIndex}). Las teselas se componen
+ * bajo demanda leyendo del SVG solo los tramos de los grupos que cortan cada
+ * una; en los niveles alejados cada clase se dibuja como un rectángulo y cada
+ * enlace como una línea, de modo que ninguna tesela crece con el texto del
+ * diagrama.
+ *
+ * Cada trabajo tiene su propio índice: las teselas se piden con el
+ * identificador del trabajo y se componen con el mismo índice que se
+ * comprobó contra la versión de la URL, así que una tesela cacheada nunca
+ * mezcla dos diagramas. Los índices de los últimos trabajos consultados se
+ * conservan en memoria.
+ *
+ * @author @PelayoPS
+ */
+@Lazy
+@Service
+public class SvgTileService {
+    private static final Logger logger = LoggerFactory.getLogger(SvgTileService.class);
+
+    // Margen en unidades del diagrama para no cortar trazos en el borde de una tesela
+    private static final double TILE_MARGIN = 4;
+    // Índices de trabajos que se mantienen en memoria
+    private static final int OPEN_INDEXES = 8;
+
+    private final UMLGeneratorProperties properties;
+    private final Map<String, Tiles> indexes = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Tiles> eldest) {
+            return size() > OPEN_INDEXES;
+        }
+    };
+
+    /**
+     * Índice de un SVG y el archivo del que se leen sus teselas.
+     */
+    public record Tiles(SvgTileIndex index, File svg) {
+    }
+
+    public SvgTileService(UMLGeneratorProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * @return true si el SVG es lo bastante grande para mostrarse por teselas
+     */
+    public boolean needsTiles(File svg) {
+        return svg.isFile() && svg.length() > properties.getTiledViewerThreshold().toBytes();
+    }
+
+    /**
+     * Índice del SVG de un trabajo para el visor. Se indexa la primera vez y
+     * de nuevo si el archivo cambió desde entonces.
+     *
+     * @param jobId Identificador del trabajo
+     * @param svg   SVG del trabajo
+     * @return Índice del diagrama o null si no necesita teselas
+     * @throws IOException Si no se puede leer el SVG
+     */
+    public Tiles tiles(String jobId, File svg) throws IOException {
+        if (!needsTiles(svg)) {
+            return null;
+        }
+        synchronized (indexes) {
+            Tiles tiles = indexes.get(jobId);
+            if (tiles != null && tiles.svg().equals(svg) && tiles.index().getVersion().equals(version(svg))) {
+                return tiles;
+            }
+        }
+        long start = System.nanoTime();
+        SvgTileIndex index = index(svg, properties.getTileSize());
+        logger.info("SVG del trabajo {} indexado para el visor por teselas: {} grupos, {} niveles, {} ms",
+                jobId, index.size(), index.getMaxLevel() + 1, (System.nanoTime() - start) / 1_000_000);
+        Tiles tiles = new Tiles(index, svg);
+        synchronized (indexes) {
+            indexes.put(jobId, tiles);
+        }
+        return tiles;
+    }
+
+    /**
+     * Compone una tesela de un diagrama con el índice dado, sin volver a
+     * consultar qué índice tiene el trabajo.
+     *
+     * @param tiles Índice y SVG del diagrama
+     * @param level Nivel de zoom (0 = diagrama completo)
+     * @param x     Columna
+     * @param y     Fila
+     * @return SVG de la tesela o null si la tesela no existe
+     * @throws IOException Si no se puede leer el SVG
+     */
+    public byte[] renderTile(Tiles tiles, int level, int x, int y) throws IOException {
+        SvgTileIndex index = tiles.index();
+        if (level < 0 || level > index.getMaxLevel()
+                || x < 0 || y < 0 || x >= index.columns(level) || y >= index.rows(level)) {
+            return null;
+        }
+        double span = index.span(level);
+        double minX = x * span;
+        double minY = y * span;
+        double margin = TILE_MARGIN / index.scale(level);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 * 1024);
+        write(out, String.format(Locale.ROOT,
+                "<?xml version=\"1.0\" encoding=\"UTF-8\"?><svg xmlns=\"http://www.w3.org/2000/svg\" "
+                        + "xmlns:xlink=\"http://www.w3.org/1999/xlink\" width=\"%d\" height=\"%d\" "
+                        + "viewBox=\"%s %s %s %s\" preserveAspectRatio=\"none\">",
+                index.getTileSize(), index.getTileSize(), number(minX), number(minY), number(span), number(span)));
+
+        try (FileChannel channel = FileChannel.open(tiles.svg().toPath(), StandardOpenOption.READ)) {
+            if (index.isDetailed(level)) {
+                copy(channel, index.getDefsOffset(), index.getDefsLength(), out);
+                write(out, "<g>");
+                copyGroups(index, channel, minX - margin, minY - margin, minX + span + margin, minY + span + margin,
+                        out);
+                write(out, "</g>");
+            } else {
+                writeSimplified(index, minX - margin, minY - margin, minX + span + margin, minY + span + margin,
+                        out);
+            }
+        }
+        write(out, "</svg>");
+        return out.toByteArray();
+    }
+
+    /**
+     * Copia los grupos que cortan la tesela. Los grupos consecutivos del
+     * archivo se leen con una sola lectura.
+     */
+    private static void copyGroups(SvgTileIndex index, FileChannel channel, double minX, double minY,
+            double maxX, double maxY, ByteArrayOutputStream out) throws IOException {
+        long rangeStart = -1;
+        long rangeEnd = -1;
+        for (int group = 0; group < index.size(); group++) {
+            if (!index.intersects(group, minX, minY, maxX, maxY)) {
+                continue;
+            }
+            long offset = index.offset(group);
+            if (offset != rangeEnd) {
+                if (rangeStart >= 0) {
+                    copy(channel, rangeStart, (int) (rangeEnd - rangeStart), out);
+                }
+                rangeStart = offset;
+            }
+            rangeEnd = offset + index.length(group);
+        }
+        if (rangeStart >= 0) {
+            copy(channel, rangeStart, (int) (rangeEnd - rangeStart), out);
+        }
+    }
+
+    /**
+     * Dibuja los grupos como rectángulos (clases y paquetes) y líneas
+     * (enlaces), con trazo de un píxel a cualquier escala.
+     */
+    private static void writeSimplified(SvgTileIndex index, double minX, double minY, double maxX, double maxY,
+            ByteArrayOutputStream out) throws IOException {
+        StringBuilder svg = new StringBuilder(8 * 1024);
+        svg.append("<g stroke=\"#181818\" stroke-width=\"1\">");
+        for (int group = 0; group < index.size(); group++) {
+            if (!index.intersects(group, minX, minY, maxX, maxY)) {
+                continue;
+            }
+            byte kind = index.kind(group);
+            if (kind == SvgTileIndex.LABEL) {
+                continue;
+            }
+            if (kind == SvgTileIndex.LINK) {
+                svg.append("<line x1=\"").append(number(index.end(group, 0)))
+                        .append("\" y1=\"").append(number(index.end(group, 1)))
+                        .append("\" x2=\"").append(number(index.end(group, 2)))
+                        .append("\" y2=\"").append(number(index.end(group, 3)))
+                        .append("\" vector-effect=\"non-scaling-stroke\"/>");
+            } else {
+                svg.append("<rect x=\"").append(number(index.minX(group)))
+                        .append("\" y=\"").append(number(index.minY(group)))
+                        .append("\" width=\"").append(number(index.maxX(group) - index.minX(group)))
+                        .append("\" height=\"").append(number(index.maxY(group) - index.minY(group)))
+                        .append(kind == SvgTileIndex.CLUSTER ? "\" fill=\"none" : "\" fill=\"#F1F1F1")
+                        .append("\" vector-effect=\"non-scaling-stroke\"/>");
+            }
+        }
+        svg.append("</g>");
+        write(out, svg.toString());
+    }
+
+    private static void copy(FileChannel channel, long offset, int length, ByteArrayOutputStream out)
+            throws IOException {
+        if (length <= 0) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new IOException("El SVG es más corto que su índice");
+            }
+        }
+        out.write(buffer.array(), 0, length);
+    }
+
+    private static void write(ByteArrayOutputStream out, String text) {
+        out.writeBytes(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String number(double value) {
+        return value == Math.rint(value) ? Long.toString((long) value) : String.format(Locale.ROOT, "%.1f", value);
+    }
+
+    private static String version(File svg) {
+        return Long.toHexString(svg.lastModified()) + "-" + Long.toHexString(svg.length());
+    }
+
+    /**
+     * Indexa un SVG de PlantUML en una pasada en flujo.
+     *
+     * @param svg      SVG generado por PlantUML
+     * @param tileSize Lado de las teselas en píxeles
+     * @return Índice espacial del SVG
+     * @throws IOException Si no se puede leer el SVG
+     */
+    static SvgTileIndex index(File svg, int tileSize) throws IOException {
+        String version = version(svg);
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(svg.toPath()), 64 * 1024)) {
+            return new SvgScanner(in).scan(version, Math.max(64, tileSize));
+        }
+    }
+
+    /**
+     * Recorrido léxico del SVG. PlantUML escribe un único grupo raíz dentro
+     * de {@code <svg>} y, dentro de él, un comentario antes de cada clase,
+     * paquete o enlace; cada comentario abre un grupo del índice. Los
+     * elementos sueltos que siguen a un grupo ya cerrado (los enlaces del
+     * motor de layout interno no llevan comentario) forman un grupo cada uno.
+     */
+    private static final class SvgScanner {
+        private final InputStream in;
+        private final StringBuilder tag = new StringBuilder(256);
+        private long position;
+        private int depth;
+
+        private float width;
+        private float height;
+        private long defsOffset = -1;
+        private long defsEnd = -1;
+        private boolean inRootGroup;
+
+        private int size;
+        private long[] offsets = new long[1024];
+        private int[] lengths = new int[1024];
+        private byte[] kinds = new byte[1024];
+        private float[] bounds = new float[4096];
+        private float[] ends = new float[4096];
+
+        private long groupStart = -1;
+        private long groupEnd = -1;
+        private byte groupKind;
+        private boolean groupHasEnds;
+        // El grupo es un elemento suelto, sin comentario
+        private boolean groupLoose;
+        // El grupo ya tiene su elemento y el siguiente abre otro
+        private boolean groupSealed;
+        private float minX;
+        private float minY;
+        private float maxX;
+        private float maxY;
+
+        private SvgScanner(InputStream in) {
+            this.in = in;
+        }
+
+        private SvgTileIndex scan(String version, int tileSize) throws IOException {
+            int b;
+            while ((b = read()) >= 0) {
+                if (b != '<') {
+                    continue;
+                }
+                long start = position - 1;
+                int next = read();
+                if (next == '!') {
+                    readMarkup(start);
+                } else if (next == '?') {
+                    skipPast("?>");
+                } else if (next == '/') {
+                    readTag(-1);
+                    closeElement(start);
+                } else if (next >= 0) {
+                    readTag(next);
+                    openElement(start);
+                }
+            }
+            closeGroup();
+            if (width <= 0 || height <= 0) {
+                throw new IOException("El SVG no declara su tamaño");
+            }
+            return new SvgTileIndex(version, width, height, tileSize,
+                    Math.max(0, defsOffset), defsEnd > defsOffset ? (int) (defsEnd - defsOffset) : 0, size,
+                    offsets, lengths, kinds, bounds, ends);
+        }
+
+        private int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) {
+                position++;
+            }
+            return b;
+        }
+
+        /**
+         * Comentarios, CDATA y declaraciones. Dentro del grupo raíz un
+         * comentario abre un grupo nuevo del índice.
+         */
+        private void readMarkup(long start) throws IOException {
+            int first = read();
+            if (first == '-') {
+                read();
+                tag.setLength(0);
+                readUntil("-->", true);
+                if (inRootGroup && depth == 2) {
+                    closeGroup();
+                    openGroup(start, kindOf(tag), false);
+                    groupEnd = position;
+                }
+            } else if (first == '[') {
+                skipPast("]]>");
+            } else {
+                skipPast(">");
+            }
+        }
+
+        /**
+         * Lee el resto de una etiqueta hasta su '>', respetando las comillas de
+         * los atributos.
+         */
+        private void readTag(int first) throws IOException {
+            tag.setLength(0);
+            if (first >= 0) {
+                tag.append((char) first);
+            }
+            int quote = 0;
+            int b;
+            while ((b = read()) >= 0) {
+                if (quote != 0) {
+                    if (b == quote) {
+                        quote = 0;
+                    }
+                } else if (b == '"' || b == '\'') {
+                    quote = b;
+                } else if (b == '>') {
+                    return;
+                }
+                tag.append((char) b);
+            }
+        }
+
+        private void openElement(long start) {
+            boolean selfClosing = tag.length() > 0 && tag.charAt(tag.length() - 1) == '/';
+            String name = tagName();
+            if (depth == 0 && name.equals("svg")) {
+                readRootSize();
+            } else if (depth == 1 && name.equals("defs")) {
+                defsOffset = start;
+                if (selfClosing) {
+                    defsEnd = position;
+                }
+            } else if (depth == 1 && name.equals("g") && !inRootGroup) {
+                inRootGroup = true;
+            } else if (inRootGroup && depth >= 2) {
+                if (depth == 2) {
+                    if (groupStart < 0 || groupSealed) {
+                        closeGroup();
+                        openGroup(start, looseKind(name), true);
+                    }
+                    if (name.equals("g") && attribute("id").startsWith("link_")) {
+                        groupKind = SvgTileIndex.LINK;
+                    }
+                }
+                extendBounds(name);
+                if (selfClosing && depth == 2) {
+                    groupEnd = position;
+                    groupSealed = groupLoose;
+                }
+            }
+            if (!selfClosing) {
+                depth++;
+            }
+        }
+
+        private void closeElement(long start) {
+            depth--;
+            if (depth == 1 && defsOffset >= 0 && defsEnd < 0) {
+                defsEnd = position;
+            } else if (inRootGroup && depth == 2) {
+                groupEnd = position;
+                groupSealed = groupLoose || tagName().equals("g");
+            } else if (inRootGroup && depth == 1) {
+                closeGroup();
+                inRootGroup = false;
+            }
+        }
+
+        private void openGroup(long start, byte kind, boolean loose) {
+            groupStart = start;
+            groupEnd = start;
+            groupKind = kind;
+            groupHasEnds = false;
+            groupLoose = loose;
+            groupSealed = false;
+            minX = minY = Float.POSITIVE_INFINITY;
+            maxX = maxY = Float.NEGATIVE_INFINITY;
+        }
+
+        private void closeGroup() {
+            if (groupStart < 0) {
+                return;
+            }
+            if (minX <= maxX) {
+                ensureCapacity();
+                offsets[size] = groupStart;
+                lengths[size] = (int) (groupEnd - groupStart);
+                kinds[size] = groupKind;
+                bounds[size * 4] = minX;
+                bounds[size * 4 + 1] = minY;
+                bounds[size * 4 + 2] = maxX;
+                bounds[size * 4 + 3] = maxY;
+                if (!groupHasEnds) {
+                    ends[size * 4] = minX;
+                    ends[size * 4 + 1] = minY;
+                    ends[size * 4 + 2] = maxX;
+                    ends[size * 4 + 3] = maxY;
+                }
+                size++;
+            }
+            groupStart = -1;
+        }
+
+        private void ensureCapacity() {
+            if (size == offsets.length) {
+                int capacity = size * 2;
+                offsets = Arrays.copyOf(offsets, capacity);
+                lengths = Arrays.copyOf(lengths, capacity);
+                kinds = Arrays.copyOf(kinds, capacity);
+                bounds = Arrays.copyOf(bounds, capacity * 4);
+                ends = Arrays.copyOf(ends, capacity * 4);
+            }
+        }
+
+        private static byte kindOf(CharSequence comment) {
+            String text = comment.toString();
+            // Versiones antiguas anteponen una línea MD5=[...]
+            int lineStart = text.lastIndexOf('\n') + 1;
+            if (text.startsWith("link ", lineStart)) {
+                return SvgTileIndex.LINK;
+            }
+            if (text.startsWith("cluster ", lineStart)) {
+                return SvgTileIndex.CLUSTER;
+            }
+            return SvgTileIndex.ENTITY;
+        }
+
+        /**
+         * @return Tipo de un elemento suelto: los trazos son enlaces y el
+         *         resto (puntas de flecha, etiquetas) solo se dibuja con detalle
+         */
+        private static byte looseKind(String name) {
+            return switch (name) {
+                case "path", "line", "polyline" -> SvgTileIndex.LINK;
+                case "g" -> SvgTileIndex.ENTITY;
+                default -> SvgTileIndex.LABEL;
+            };
+        }
+
+        private void readRootSize() {
+            String viewBox = attribute("viewBox");
+            if (!viewBox.isEmpty()) {
+                String[] parts = viewBox.trim().split("[\\s,]+");
+                if (parts.length == 4) {
+                    width = parseNumber(parts[2]);
+                    height = parseNumber(parts[3]);
+                    return;
+                }
+            }
+            width = parseNumber(attribute("width"));
+            height = parseNumber(attribute("height"));
+        }
+
+        /**
+         * Amplía el rectángulo envolvente del grupo con la geometría de un
+         * elemento.
+         */
+        private void extendBounds(String name) {
+            if (groupStart < 0) {
+                return;
+            }
+            switch (name) {
+                case "rect", "image" -> {
+                    float x = number("x");
+                    float y = number("y");
+                    extend(x, y);
+                    extend(x + number("width"), y + number("height"));
+                }
+                case "text" -> {
+                    float x = number("x");
+                    float y = number("y");
+                    float fontSize = attribute("font-size").isEmpty() ? 14 : number("font-size");
+                    extend(x, y - fontSize);
+                    extend(x + number("textLength"), y);
+                }
+                case "ellipse", "circle" -> {
+                    float cx = number("cx");
+                    float cy = number("cy");
+                    float rx = name.equals("circle") ? number("r") : number("rx");
+                    float ry = name.equals("circle") ? rx : number("ry");
+                    extend(cx - rx, cy - ry);
+                    extend(cx + rx, cy + ry);
+                }
+                case "line" -> {
+                    extend(number("x1"), number("y1"));
+                    extend(number("x2"), number("y2"));
+                }
+                case "polygon", "polyline" -> extendPoints(attribute("points"), false);
+                case "path" -> extendPoints(attribute("d"), groupKind == SvgTileIndex.LINK && !groupHasEnds);
+                default -> {
+                }
+            }
+        }
+
+        /**
+         * Amplía con los pares de coordenadas de una lista de puntos o de un
+         * trazado con coordenadas absolutas (lo que emite PlantUML).
+         *
+         * @param recordEnds Guardar el primer y el último punto como extremos del enlace
+         */
+        private void extendPoints(String values, boolean recordEnds) {
+            float[] pair = new float[2];
+            int count = 0;
+            float firstX = 0;
+            float firstY = 0;
+            int i = 0;
+            int length = values.length();
+            while (i < length) {
+                char c = values.charAt(i);
+                if ((c >= '0' && c <= '9') || c == '-' || c == '.') {
+                    int end = i + 1;
+                    while (end < length) {
+                        char d = values.charAt(end);
+                        if ((d >= '0' && d <= '9') || d == '.' || d == 'e' || d == 'E'
+                                || ((d == '-' || d == '+') && (values.charAt(end - 1) == 'e'
+                                        || values.charAt(end - 1) == 'E'))) {
+                            end++;
+                        } else {
+                            break;
+                        }
+                    }
+                    pair[count % 2] = parseNumber(values.substring(i, end));
+                    count++;
+                    if (count % 2 == 0) {
+                        extend(pair[0], pair[1]);
+                        if (count == 2) {
+                            firstX = pair[0];
+                            firstY = pair[1];
+                        }
+                    }
+                    i = end;
+                } else {
+                    i++;
+                }
+            }
+            if (recordEnds && count >= 4) {
+                ensureCapacity();
+                ends[size * 4] = firstX;
+                ends[size * 4 + 1] = firstY;
+                ends[size * 4 + 2] = pair[0];
+                ends[size * 4 + 3] = pair[1];
+                groupHasEnds = true;
+            }
+        }
+
+        private void extend(float x, float y) {
+            if (Float.isNaN(x) || Float.isNaN(y)) {
+                return;
+            }
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            maxX = Math.max(maxX, x);
+            maxY = Math.max(maxY, y);
+        }
+
+        private String tagName() {
+            int end = 0;
+            while (end < tag.length() && !Character.isWhitespace(tag.charAt(end)) && tag.charAt(end) != '/') {
+                end++;
+            }
+            return tag.substring(0, end);
+        }
+
+        private float number(String name) {
+            return parseNumber(attribute(name));
+        }
+
+        /**
+         * @return Valor del atributo en la etiqueta actual o cadena vacía
+         */
+        private String attribute(String name) {
+            int from = 0;
+            while (true) {
+                int at = tag.indexOf(name, from);
+                if (at < 0) {
+                    return "";
+                }
+                int equals = at + name.length();
+                boolean boundary = at > 0 && Character.isWhitespace(tag.charAt(at - 1));
+                if (boundary && equals + 1 < tag.length() && tag.charAt(equals) == '=') {
+                    char quote = tag.charAt(equals + 1);
+                    int end = tag.indexOf(String.valueOf(quote), equals + 2);
+                    if (end > 0) {
+                        return tag.substring(equals + 2, end);
+                    }
+                }
+                from = at + 1;
+            }
+        }
+
+        private static float parseNumber(String value) {
+            int end = 0;
+            while (end < value.length() && "0123456789.-+eE".indexOf(value.charAt(end)) >= 0) {
+                end++;
+            }
+            if (end == 0) {
+                return 0;
+            }
+            try {
+                return Float.parseFloat(value.substring(0, end));
+            } catch (NumberFormatException e) {
+                return Float.NaN;
+            }
+        }
+
+        private void readUntil(String terminator, boolean capture) throws IOException {
+            int matched = 0;
+            int b;
+            while ((b = read()) >= 0) {
+                if (capture) {
+                    tag.append((char) b);
+                }
+                if (b == terminator.charAt(matched)) {
+                    matched++;
+                    if (matched == terminator.length()) {
+                        if (capture) {
+                            tag.setLength(tag.length() - terminator.length());
+                        }
+                        return;
+                    }
+                } else {
+                    matched = b == terminator.charAt(0) ? 1 : 0;
+                }
+            }
+        }
+
+        private void skipPast(String terminator) throws IOException {
+            readUntil(terminator, false);
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.example.demo.service;
+
+import com.example.demo.config.UMLGeneratorProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limpieza de los directorios de trabajo (uploads y salida).
+ *
+ * Nunca borra en el hilo que la invoca: primero renombra lo que hay que
+ * eliminar a un nombre de papelera (operación atómica en el mismo sistema de
+ * ficheros) y después lo borra en segundo plano con un número acotado de hilos.
+ * Además de la limpieza de arranque, caduca periódicamente las entradas de
+ * uploads más antiguas que el TTL configurado. La fecha de un directorio no
+ * cambia cuando se escriben ficheros dentro, así que los directorios de
+ * trabajo que siguen en uso se registran aquí y nunca caducan. El directorio
+ * de salida solo guarda las salidas actuales y no caduca.
+ *
+ * @author @PelayoPS
+ */
+@Component
+public class WorkDirectoryJanitor {
+    private static final Logger logger = LoggerFactory.getLogger(WorkDirectoryJanitor.class);
+
+    // Marca de los directorios renombrados pendientes de borrado
+    private static final String TRASH_MARKER = ".trash-";
+
+    private final UMLGeneratorProperties properties;
+    private final ExecutorService deletionPool;
+    private final Set<Path> scheduled = ConcurrentHashMap.newKeySet();
+    // Directorios de trabajo de uploads que algún trabajo está usando
+    private final Set<Path> inUse = ConcurrentHashMap.newKeySet();
+
+    public WorkDirectoryJanitor(UMLGeneratorProperties properties) {
+        this.properties = properties;
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.deletionPool = Executors.newFixedThreadPool(Math.max(1, properties.getCleanupThreads()), r -> {
+            Thread thread = new Thread(r, "work-dir-cleanup-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    /**
+     * Aparta los directorios de trabajo de la ejecución anterior antes de que el
+     * servidor acepte peticiones y los recrea vacíos. Solo renombra, no borra.
+     */
+    @PostConstruct
+    public void moveAsideOnStartup() {
+        for (Path dir : workDirectories()) {
+            if (Files.exists(dir)) {
+                moveAside(dir);
+            }
+            ensureDir(dir);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        deletionPool.shutdownNow();
+    }
+
+    /**
+     * Programa en segundo plano el borrado de todas las papeleras existentes,
+     * incluidas las que dejó una ejecución anterior interrumpida.
+     */
+    public void purgeInBackground() {
+        for (Path dir : workDirectories()) {
+            Path parent = dir.getParent();
+            if (parent == null || !Files.isDirectory(parent)) {
+                continue;
+            }
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(parent,
+                    dir.getFileName() + TRASH_MARKER + "*")) {
+                for (Path trash : stream) {
+                    scheduleDeletion(trash);
+                }
+            } catch (IOException e) {
+                logger.warn("No se pudieron listar las papeleras de {}: {}", dir, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Caduca las entradas de uploads que no están en uso y cuya última
+     * modificación es anterior al TTL configurado. Del directorio de salida
+     * solo se recogen las papeleras pendientes.
+     */
+    @Scheduled(fixedDelayString = "#{@UMLGeneratorProperties.janitorInterval.toMillis()}",
+            initialDelayString = "#{@UMLGeneratorProperties.janitorInterval.toMillis()}")
+    public void expireOldEntries() {
+        Instant cutoff = Instant.now().minus(properties.getWorkDirectoryTtl());
+        int expired = 0;
+        Path uploads = uploadDirectory();
+        for (Path dir : workDirectories()) {
+            if (!Files.isDirectory(dir)) {
+                continue;
+            }
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+                for (Path entry : stream) {
+                    if (entry.getFileName().toString().contains(TRASH_MARKER)) {
+                        scheduleDeletion(entry);
+                    } else if (dir.equals(uploads) && !inUse.contains(entry)
+                            && Files.getLastModifiedTime(entry).toInstant().isBefore(cutoff)) {
+                        Path trash = moveAside(entry);
+                        if (trash != null) {
+                            scheduleDeletion(trash);
+                            expired++;
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                logger.warn("No se pudo revisar el directorio {}: {}", dir, e.getMessage());
+            }
+        }
+        if (expired > 0) {
+            logger.info("Entradas de trabajo caducadas (TTL {}): {}", properties.getWorkDirectoryTtl(), expired);
+        }
+    }
+
+    /**
+     * Crea un directorio de trabajo nuevo y vacío dentro de uploads y lo marca
+     * en uso hasta que se libere con {@link #release(Path)}.
+     *
+     * @param prefix Prefijo del nombre del directorio
+     * @return Ruta absoluta del directorio creado
+     * @throws IOException Si no se puede crear
+     */
+    public Path createWorkDirectory(String prefix) throws IOException {
+        Path uploads = uploadDirectory();
+        Files.createDirectories(uploads);
+        Path dir = Files.createTempDirectory(uploads, prefix);
+        inUse.add(dir);
+        return dir;
+    }
+
+    /**
+     * Libera un directorio de trabajo creado con
+     * {@link #createWorkDirectory(String)} y lo borra en segundo plano.
+     */
+    public void release(Path dir) {
+        discard(dir);
+        inUse.remove(dir);
+    }
+
+    /**
+     * Aparta una ruta y la borra en segundo plano. Lo usa el almacén de
+     * trabajos para retirar los trabajos antiguos sin bloquear la petición.
+     */
+    public void discard(Path path) {
+        Path trash = moveAside(path);
+        if (trash != null) {
+            scheduleDeletion(trash);
+        }
+    }
+
+    /**
+     * Renombra una ruta a un nombre de papelera hermano de forma atómica.
+     *
+     * @return La ruta renombrada o null si no se pudo apartar
+     */
+    private Path moveAside(Path path) {
+        Path trash = path.resolveSibling(path.getFileName() + TRASH_MARKER + System.currentTimeMillis()
+                + "-" + Long.toHexString(System.nanoTime()));
+        try {
+            return Files.move(path, trash, StandardCopyOption.ATOMIC_MOVE);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            logger.warn("No se pudo apartar {} para su borrado: {}", path, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Borra una papelera en segundo plano: cada hijo directo es una tarea del
+     * pool y la raíz se elimina cuando terminan todas.
+     */
+    private void scheduleDeletion(Path trash) {
+        if (!scheduled.add(trash)) {
+            return;
+        }
+        List<CompletableFuture<Void>> children = new ArrayList<>();
+        if (Files.isDirectory(trash)) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(trash)) {
+                for (Path child : stream) {
+                    children.add(CompletableFuture.runAsync(() -> deleteTree(child), deletionPool));
+                }
+            } catch (IOException e) {
+                logger.warn("No se pudo listar la papelera {}: {}", trash, e.getMessage());
+            }
+        }
+        long start = System.nanoTime();
+        CompletableFuture.allOf(children.toArray(new CompletableFuture[0]))
+                .whenCompleteAsync((ignored, error) -> {
+                    deleteTree(trash);
+                    scheduled.remove(trash);
+                    logger.debug("Papelera eliminada: {} ({} ms)", trash, (System.nanoTime() - start) / 1_000_000);
+                }, deletionPool);
+    }
+
+    private void deleteTree(Path root) {
+        try {
+            Files.walkFileTree(root, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    Files.deleteIfExists(file);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                    Files.deleteIfExists(dir);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (NoSuchFileException e) {
+            // Ya borrado
+        } catch (IOException e) {
+            logger.warn("No se pudo borrar {}: {}", root, e.getMessage());
+        }
+    }
+
+    private List<Path> workDirectories() {
+        return List.of(uploadDirectory(), Paths.get(properties.getFullOutputPath()).toAbsolutePath().normalize());
+    }
+
+    private Path uploadDirectory() {
+        return Paths.get(properties.getFullUploadPath()).toAbsolutePath().normalize();
+    }
+
+    private void ensureDir(Path dir) {
+        try {
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            logger.warn("No se pudo crear el directorio {} al iniciar: {}", dir, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.demo.service;
+
+import com.example.demo.config.AnalysisOptions;
+import com.example.demo.config.AnalyzerVocabulary;
+import com.example.demo.config.RelationshipAnalyzer;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * Protocolo binario entre el coordinador del modo distribuido y sus procesos
+ * trabajadores.
+ *
+ * Tras la cabecera ({@link #MAGIC} y {@link #VERSION}) el coordinador abre un
+ * {@link #JOB} con el vocabulario, los detectores activos y el plazo por
+ * archivo y después envía tantos {@link #BATCH} como quiera. El trabajador
+ * responde a cada archivo del lote, en el mismo orden, con {@link #MODEL},
+ * {@link #FAILED} o {@link #TIMED_OUT}, y cierra el lote con {@link #BATCH_DONE}. Los modelos no están validados contra los tipos del
+ * proyecto: eso lo hace el coordinador al fusionarlos.
+ *
+ * @author @PelayoPS
+ */
+public final class WorkerProtocol {
+
+    /** Clase principal de los procesos trabajadores */
+    public static final String WORKER_MAIN_CLASS = "com.example.demo.AnalysisWorker";
+
+    /** Línea con la que el trabajador anuncia por su salida estándar el puerto en que escucha */
+    public static final String READY_PREFIX = "UML-WORKER-READY ";
+
+    public static final int MAGIC = 0x554D4C57;
+    public static final int VERSION = 6;
+
+    // Coordinador -> trabajador
+    public static final byte JOB = 1;
+    public static final byte BATCH = 2;
+    public static final byte CLOSE = 3;
+
+    // Trabajador -> coordinador
+    public static final byte MODEL = 10;
+    public static final byte FAILED = 12;
+    public static final byte BATCH_DONE = 13;
+    public static final byte TIMED_OUT = 14;
+
+    // Límite de writeUTF para los mensajes de error
+    private static final int MAX_MESSAGE_LENGTH = 16 * 1024;
+
+    private WorkerProtocol() {
+    }
+
+    /**
+     * Escribe el contenido de un {@link #JOB}: lo que el trabajador necesita de
+     * las opciones del trabajo. Los presupuestos no se envían; el coordinador
+     * manda el nivel de degradación con cada lote.
+     */
+    public static void writeJob(DataOutputStream out, AnalysisOptions options) throws IOException {
+        AnalyzerVocabulary vocabulary = options.getVocabulary();
+        writeStrings(out, vocabulary.getNativeTypes());
+        writeStrings(out, vocabulary.getStreamOperations());
+        writeStrings(out, vocabulary.getFunctionalInterfaces());
+        long analyzers = 0;
+        for (RelationshipAnalyzer analyzer : options.getAnalyzers()) {
+            analyzers |= 1L << analyzer.ordinal();
+        }
+        out.writeLong(analyzers);
+        out.writeBoolean(options.isHeaderOnlyParsing());
+        out.writeLong(options.getFileTimeout() != null ? options.getFileTimeout().toMillis() : 0);
+    }
+
+    /**
+     * Lee el contenido de un {@link #JOB} escrito con
+     * {@link #writeJob(DataOutputStream, AnalysisOptions)}.
+     */
+    public static AnalysisOptions readJob(DataInputStream in) throws IOException {
+        AnalysisOptions options = new AnalysisOptions();
+        options.setVocabulary(new AnalyzerVocabulary(readStrings(in), readStrings(in), readStrings(in)));
+        long mask = in.readLong();
+        EnumSet<RelationshipAnalyzer> analyzers = EnumSet.noneOf(RelationshipAnalyzer.class);
+        for (RelationshipAnalyzer analyzer : RelationshipAnalyzer.values()) {
+            if ((mask & (1L << analyzer.ordinal())) != 0) {
+                analyzers.add(analyzer);
+            }
+        }
+        options.setAnalyzers(analyzers);
+        options.setHeaderOnlyParsing(in.readBoolean());
+        options.setFileTimeout(Duration.ofMillis(in.readLong()));
+        return options;
+    }
+
+    public static void writeStrings(DataOutputStream out, Collection<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) {
+            out.writeUTF(value);
+        }
+    }
+
+    public static List<String> readStrings(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(in.readUTF());
+        }
+        return values;
+    }
+
+    /**
+     * Recorta un mensaje de error para que quepa en un writeUTF.
+     */
+    public static String truncate(String message) {
+        if (message == null) {
+            return "";
+        }
+        return message.length() > MAX_MESSAGE_LENGTH ? message.substring(0, MAX_MESSAGE_LENGTH) : message;
+    }
+}
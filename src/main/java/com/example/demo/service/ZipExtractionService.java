@@ -0,0 +1,316 @@
+package com.example.demo.service;
+
+import com.example.demo.config.UMLGeneratorProperties;
+import jakarta.annotation.PreDestroy;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Servicio de extracción de archivos ZIP.
+ * En modo acceso aleatorio lee el directorio central para filtrar y validar las
+ * entradas antes de escribir nada en disco y descomprime las relevantes en
+ * paralelo. En modo flujo extrae directamente desde el cuerpo de la petición.
+ *
+ * @author @PelayoPS
+ */
+@Lazy
+@Service
+public class ZipExtractionService {
+    private static final Logger logger = LoggerFactory.getLogger(ZipExtractionService.class);
+
+    // Buffer de copia (el camino por streaming usa 1 KB)
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // Volumen descomprimido a partir del cual se vigila la ratio en modo flujo
+    private static final long RATIO_CHECK_THRESHOLD = 1024 * 1024;
+
+    private final UMLGeneratorProperties properties;
+    private final FileValidationService fileValidationService;
+    private final ExecutorService inflaterPool;
+
+    public ZipExtractionService(UMLGeneratorProperties properties, FileValidationService fileValidationService) {
+        this.properties = properties;
+        this.fileValidationService = fileValidationService;
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.inflaterPool = Executors.newFixedThreadPool(Math.max(1, properties.getZipExtractionThreads()), r -> {
+            Thread thread = new Thread(r, "zip-inflater-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        inflaterPool.shutdownNow();
+    }
+
+    /**
+     * Descomprime las entradas relevantes de un ZIP usando su directorio central.
+     *
+     * Todas las validaciones (nombres, tamaños declarados y ratio de compresión)
+     * se hacen sobre el directorio central, de modo que un ZIP sospechoso se
+     * rechaza antes de escribir ningún byte.
+     *
+     * @param zipFile           El archivo .zip a descomprimir
+     * @param destDir           El directorio de destino
+     * @param maxExtractedSize  Tamaño máximo total descomprimido en bytes
+     * @param maxEntrySize      Tamaño máximo por entrada en bytes
+     * @return Ruta del directorio raíz extraído
+     * @throws IOException Si ocurre un error durante la descompresión
+     */
+    public String extract(File zipFile, File destDir, long maxExtractedSize, long maxEntrySize) throws IOException {
+        if (zipFile == null || destDir == null) {
+            throw new IllegalArgumentException("El archivo zip o el directorio de destino no pueden ser nulos.");
+        }
+        logger.info("Iniciando la descompresión por acceso aleatorio del archivo: {}", zipFile.getName());
+        long start = System.nanoTime();
+
+        // Trabajo de rutas canónicas y creación de directorios una sola vez
+        Files.createDirectories(destDir.toPath());
+        String canonicalDestPath = destDir.getCanonicalPath() + File.separator;
+        Path destPath = new File(canonicalDestPath).toPath();
+
+        try (ZipFile zip = new ZipFile(zipFile)) {
+            // Destino -> entrada; si dos entradas comparten nombre gana la última,
+            // igual que en la extracción secuencial
+            Map<Path, ZipEntry> selected = new LinkedHashMap<>();
+            long totalCompressed = 0;
+            long totalDeclared = 0;
+            int skipped = 0;
+
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                if (entry.isDirectory() || !isRelevant(entry.getName())) {
+                    skipped++;
+                    continue;
+                }
+
+                Path target = resolveTarget(destPath, canonicalDestPath, entry.getName());
+                if (target == null) {
+                    skipped++;
+                    continue;
+                }
+                String sanitizedName = target.getFileName().toString();
+
+                long size = entry.getSize();
+                if (size > maxEntrySize) {
+                    throw new IOException("Archivo individual demasiado grande: " + sanitizedName);
+                }
+                fileValidationService.validateCompressionRatio(entry.getCompressedSize(), size);
+
+                totalCompressed += Math.max(0, entry.getCompressedSize());
+                totalDeclared += Math.max(0, size);
+                if (totalDeclared > maxExtractedSize) {
+                    throw new IOException("El archivo ZIP excede el límite de extracción (" +
+                            (maxExtractedSize / (1024 * 1024)) + " MB)");
+                }
+                selected.put(target, entry);
+            }
+            fileValidationService.validateCompressionRatio(totalCompressed, totalDeclared);
+
+            // Directorios padre distintos, creados una sola vez
+            Set<Path> parents = new HashSet<>();
+            for (Path target : selected.keySet()) {
+                if (parents.add(target.getParent())) {
+                    Files.createDirectories(target.getParent());
+                }
+            }
+
+            // Descompresión en paralelo de las entradas aceptadas
+            List<Future<Long>> pending = new ArrayList<>(selected.size());
+            for (Map.Entry<Path, ZipEntry> item : selected.entrySet()) {
+                pending.add(inflaterPool.submit(() -> inflate(zip, item.getValue(), item.getKey(), maxEntrySize)));
+            }
+            long written = 0;
+            for (Future<Long> future : pending) {
+                written += await(future, pending);
+            }
+
+            double seconds = Math.max(System.nanoTime() - start, 1) / 1_000_000_000.0;
+            logger.info("Descompresión completada: {} ({} entradas extraídas, {} omitidas, {} MB en {} ms, {} MB/s)",
+                    zipFile.getName(), selected.size(), skipped, written / (1024 * 1024),
+                    Math.round(seconds * 1000), String.format(Locale.ROOT, "%.1f", written / (1024.0 * 1024.0) / seconds));
+        }
+        return destDir.getAbsolutePath();
+    }
+
+    /**
+     * Descomprime un ZIP leído de un flujo de una sola pasada (p. ej. el cuerpo
+     * de la petición), sin copia intermedia del archivo comprimido.
+     *
+     * Como el directorio central llega al final, la ratio de compresión se
+     * controla sobre la marcha comparando bytes comprimidos leídos con bytes
+     * descomprimidos, incluidas las entradas que se descartan.
+     *
+     * @param in                Flujo con el contenido del ZIP
+     * @param destDir           El directorio de destino
+     * @param maxExtractedSize  Tamaño máximo total descomprimido en bytes
+     * @param maxEntrySize      Tamaño máximo por entrada en bytes
+     * @return Ruta del directorio raíz extraído
+     * @throws IOException Si ocurre un error durante la descompresión
+     */
+    public String extractStream(InputStream in, File destDir, long maxExtractedSize, long maxEntrySize)
+            throws IOException {
+        if (in == null || destDir == null) {
+            throw new IllegalArgumentException("El flujo zip o el directorio de destino no pueden ser nulos.");
+        }
+        long start = System.nanoTime();
+
+        Files.createDirectories(destDir.toPath());
+        String canonicalDestPath = destDir.getCanonicalPath() + File.separator;
+        Path destPath = new File(canonicalDestPath).toPath();
+
+        BoundedInputStream compressed = new BoundedInputStream(in, -1);
+        long totalInflated = 0;
+        long written = 0;
+        int extracted = 0;
+        int skipped = 0;
+        byte[] buffer = new byte[BUFFER_SIZE];
+        Set<Path> createdDirs = new HashSet<>();
+
+        ZipInputStream zis = new ZipInputStream(compressed);
+        ZipEntry entry;
+        while ((entry = zis.getNextEntry()) != null) {
+            Path target = null;
+            if (!entry.isDirectory() && isRelevant(entry.getName())) {
+                target = resolveTarget(destPath, canonicalDestPath, entry.getName());
+                if (target != null && createdDirs.add(target.getParent())) {
+                    Files.createDirectories(target.getParent());
+                }
+            }
+
+            long entrySize = 0;
+            try (OutputStream out = target != null ? Files.newOutputStream(target) : OutputStream.nullOutputStream()) {
+                int len;
+                while ((len = zis.read(buffer)) > 0) {
+                    entrySize += len;
+                    totalInflated += len;
+                    if (entrySize > maxEntrySize) {
+                        throw new IOException("Archivo individual demasiado grande: " + entry.getName());
+                    }
+                    if (totalInflated > maxExtractedSize) {
+                        throw new IOException("El archivo ZIP excede el límite de extracción (" +
+                                (maxExtractedSize / (1024 * 1024)) + " MB)");
+                    }
+                    if (totalInflated > RATIO_CHECK_THRESHOLD) {
+                        fileValidationService.validateCompressionRatio(compressed.getCount(), totalInflated);
+                    }
+                    out.write(buffer, 0, len);
+                }
+            }
+            if (target != null) {
+                extracted++;
+                written += entrySize;
+            } else if (!entry.isDirectory()) {
+                skipped++;
+            }
+            zis.closeEntry();
+        }
+
+        double seconds = Math.max(System.nanoTime() - start, 1) / 1_000_000_000.0;
+        logger.info("Descompresión en flujo completada ({} entradas extraídas, {} omitidas, {} MB en {} ms, {} MB/s)",
+                extracted, skipped, written / (1024 * 1024), Math.round(seconds * 1000),
+                String.format(Locale.ROOT, "%.1f", written / (1024.0 * 1024.0) / seconds));
+        return destDir.getAbsolutePath();
+    }
+
+    /**
+     * Resuelve el fichero destino de una entrada conservando sus directorios.
+     *
+     * @return La ruta destino o null si la entrada es peligrosa y debe omitirse
+     */
+    private Path resolveTarget(Path destPath, String canonicalDestPath, String entryName) {
+        try {
+            String sanitizedPath = fileValidationService.validateAndSanitizeEntryPath(entryName);
+            Path target = destPath.resolve(sanitizedPath).normalize();
+            if (target.toString().startsWith(canonicalDestPath)) {
+                return target;
+            }
+        } catch (SecurityException e) {
+            logger.warn("Entrada omitida ({}): {}", e.getMessage(), entryName);
+            return null;
+        }
+        logger.warn("Intento de path traversal detectado: {}", entryName);
+        return null;
+    }
+
+    /**
+     * Descomprime una entrada a su fichero destino. El tamaño declarado en el
+     * directorio central se vuelve a comprobar mientras se escribe por si miente.
+     */
+    private long inflate(ZipFile zip, ZipEntry entry, Path target, long maxEntrySize) throws IOException {
+        long limit = entry.getSize() >= 0 ? Math.min(entry.getSize(), maxEntrySize) : maxEntrySize;
+        long written = 0;
+        try (InputStream in = zip.getInputStream(entry);
+                OutputStream out = Files.newOutputStream(target)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int len;
+            while ((len = in.read(buffer)) > 0) {
+                written += len;
+                if (written > limit) {
+                    throw new IOException("La entrada supera el tamaño declarado: " + entry.getName());
+                }
+                out.write(buffer, 0, len);
+            }
+        }
+        return written;
+    }
+
+    private long await(Future<Long> future, List<Future<Long>> pending) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pending.forEach(f -> f.cancel(true));
+            throw new IOException("Descompresión interrumpida", e);
+        } catch (ExecutionException e) {
+            pending.forEach(f -> f.cancel(true));
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IOException("Error al descomprimir entrada", e.getCause());
+        }
+    }
+
+    /**
+     * Indica si una entrada tiene una extensión que el análisis va a leer.
+     */
+    private boolean isRelevant(String entryName) {
+        String lower = entryName.toLowerCase(Locale.ROOT);
+        for (String extension : properties.getZipRelevantExtensions()) {
+            if (lower.endsWith(extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
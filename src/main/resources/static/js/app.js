@@ -192,8 +192,65 @@ document.addEventListener('DOMContentLoaded', function() {
             fileNameLabel.setAttribute('data-placeholder', fileNameLabel.textContent);
         }
     }
+
+    // Subida en flujo: enviar el ZIP como cuerpo binario para que el servidor lo
+    // procese en una sola pasada. Si falla la petición se usa el formulario normal.
+    const uploadForm = document.querySelector('.upload-form');
+    if (uploadForm && uploadForm.dataset.streamAction && window.fetch) {
+        uploadForm.addEventListener('submit', function(e) {
+            const file = fileInput && fileInput.files && fileInput.files[0];
+            if (!file) {
+                return;
+            }
+            e.preventDefault();
+            // Las opciones de análisis viajan en la URL; el cuerpo es solo el ZIP
+            const params = new URLSearchParams();
+            new FormData(uploadForm).forEach((value, key) => {
+                if (key !== 'file' && typeof value === 'string' && value !== '') {
+                    params.append(key, value);
+                }
+            });
+            const query = params.toString();
+            fetch(uploadForm.dataset.streamAction + (query ? '?' + query : ''), {
+                method: 'POST',
+                body: file,
+                credentials: 'same-origin',
+                redirect: 'manual',
+                headers: {
+                    'Content-Type': 'application/zip',
+                    'X-File-Name': encodeURIComponent(file.name)
+                }
+            }).then((response) => {
+                if (response.status === 429 || response.status === 503) {
+                    // Trabajo no admitido: mostrar el aviso sin salir de la página
+                    return response.text().then(showUploadNotice);
+                }
+                // El resultado llega como flash attribute en la página principal
+                window.location.href = '/' + window.location.search;
+            }).catch(() => {
+                uploadForm.submit();
+            });
+        });
+    }
 });
 
+// Muestra el aviso de la página devuelta por el servidor (trabajo no admitido)
+function showUploadNotice(html) {
+    const page = new DOMParser().parseFromString(html, 'text/html');
+    const notice = page.querySelector('.message');
+    const form = document.querySelector('.upload-form');
+    if (!notice || !form) {
+        return;
+    }
+    let message = document.querySelector('.message');
+    if (!message) {
+        message = document.createElement('p');
+        message.className = 'message';
+        form.insertAdjacentElement('afterend', message);
+    }
+    message.textContent = notice.textContent;
+}
+
 // Cambiar idioma preservando otros parámetros de la URL
 function setLang(lang) {
     try {
@@ -262,3 +319,158 @@ document.addEventListener('DOMContentLoaded', function() {
         });
     }
 });
+
+// Visor por teselas de los diagramas grandes: solo se piden las teselas
+// visibles del nivel que corresponde a la escala actual
+function initTiledViewer(viewer) {
+    const baseUrl = viewer.dataset.url;
+    const version = viewer.dataset.version;
+    const width = parseFloat(viewer.dataset.width);
+    const height = parseFloat(viewer.dataset.height);
+    const tileSize = parseInt(viewer.dataset.tileSize, 10);
+    const maxLevel = parseInt(viewer.dataset.maxLevel, 10);
+
+    const layer = document.createElement('div');
+    layer.className = 'tiled-layer';
+    viewer.appendChild(layer);
+    const tiles = new Map();
+
+    // Escala en píxeles por unidad del diagrama y posición del origen en el visor
+    const fitScale = Math.min(viewer.clientWidth / width, viewer.clientHeight / height, 1);
+    const minScale = fitScale / 2;
+    const maxScale = 2;
+    let scale = fitScale;
+    let offsetX = (viewer.clientWidth - width * scale) / 2;
+    let offsetY = 0;
+
+    const levelFor = (s) => Math.max(0, Math.min(maxLevel, Math.ceil(maxLevel + Math.log2(s))));
+
+    const render = () => {
+        const level = levelFor(scale);
+        const span = tileSize * Math.pow(2, maxLevel - level);
+        const size = span * scale;
+        const columns = Math.max(1, Math.ceil(width / span));
+        const rows = Math.max(1, Math.ceil(height / span));
+        const firstX = Math.max(0, Math.floor(-offsetX / size));
+        const firstY = Math.max(0, Math.floor(-offsetY / size));
+        const lastX = Math.min(columns - 1, Math.floor((viewer.clientWidth - offsetX) / size));
+        const lastY = Math.min(rows - 1, Math.floor((viewer.clientHeight - offsetY) / size));
+
+        const wanted = new Set();
+        for (let y = firstY; y <= lastY; y++) {
+            for (let x = firstX; x <= lastX; x++) {
+                const key = `${level}/${x}/${y}`;
+                wanted.add(key);
+                let tile = tiles.get(key);
+                if (!tile) {
+                    tile = new Image();
+                    tile.className = 'tile';
+                    tile.draggable = false;
+                    tile.alt = '';
+                    tile.src = `${baseUrl}/${key}?v=${encodeURIComponent(version)}`;
+                    tiles.set(key, tile);
+                    layer.appendChild(tile);
+                }
+                tile.style.left = `${offsetX + x * size}px`;
+                tile.style.top = `${offsetY + y * size}px`;
+                tile.style.width = `${size}px`;
+                tile.style.height = `${size}px`;
+            }
+        }
+        tiles.forEach((tile, key) => {
+            if (!wanted.has(key)) {
+                tile.remove();
+                tiles.delete(key);
+            }
+        });
+    };
+
+    viewer.addEventListener('wheel', function(e) {
+        e.preventDefault();
+        const rect = viewer.getBoundingClientRect();
+        const px = e.clientX - rect.left;
+        const py = e.clientY - rect.top;
+        const next = Math.max(minScale, Math.min(maxScale, scale * (e.deltaY < 0 ? 1.25 : 0.8)));
+        offsetX = px - (px - offsetX) * next / scale;
+        offsetY = py - (py - offsetY) * next / scale;
+        scale = next;
+        render();
+    }, { passive: false });
+
+    let drag = null;
+    viewer.addEventListener('pointerdown', function(e) {
+        drag = { x: e.clientX - offsetX, y: e.clientY - offsetY };
+        viewer.setPointerCapture(e.pointerId);
+        viewer.classList.add('dragging');
+    });
+    viewer.addEventListener('pointermove', function(e) {
+        if (!drag) { return; }
+        offsetX = e.clientX - drag.x;
+        offsetY = e.clientY - drag.y;
+        render();
+    });
+    const endDrag = () => {
+        drag = null;
+        viewer.classList.remove('dragging');
+    };
+    viewer.addEventListener('pointerup', endDrag);
+    viewer.addEventListener('pointercancel', endDrag);
+    window.addEventListener('resize', render);
+
+    render();
+}
+
+document.addEventListener('DOMContentLoaded', function() {
+    document.querySelectorAll('.tiled-viewer').forEach(initTiledViewer);
+});
+
+// Vista previa propia: se consulta el estado del renderizado en segundo plano y,
+// al terminar, se sustituye por el SVG de PlantUML o por el visor por teselas
+function initRenderingPreview(preview) {
+    const img = preview.querySelector('img');
+    const hint = preview.querySelector('.preview-hint');
+    const download = document.querySelector('.diagram-download');
+
+    const showDiagram = (tiles) => {
+        const stamp = Date.now();
+        if (download) { download.href = preview.dataset.diagramUrl; }
+        if (!tiles) {
+            img.src = `${preview.dataset.diagramUrl}?v=${stamp}`;
+            hint.remove();
+            return;
+        }
+        img.src = `${preview.dataset.overviewUrl}?v=${stamp}`;
+        hint.textContent = preview.dataset.tiledHint;
+        hint.className = 'tiled-hint';
+        const viewer = document.createElement('div');
+        viewer.className = 'tiled-viewer';
+        viewer.dataset.url = tiles.url;
+        viewer.dataset.version = tiles.version;
+        viewer.dataset.width = tiles.width;
+        viewer.dataset.height = tiles.height;
+        viewer.dataset.tileSize = tiles.tileSize;
+        viewer.dataset.maxLevel = tiles.maxLevel;
+        preview.appendChild(viewer);
+        initTiledViewer(viewer);
+    };
+
+    const poll = () => {
+        fetch(preview.dataset.statusUrl, { cache: 'no-store' })
+            .then(response => response.ok ? response.json() : { state: 'FAILED' })
+            .then(status => {
+                if (status.state === 'RENDERING') {
+                    setTimeout(poll, 1500);
+                } else if (status.state === 'READY') {
+                    showDiagram(status.tiles);
+                } else {
+                    hint.textContent = preview.dataset.failedHint;
+                }
+            })
+            .catch(() => setTimeout(poll, 5000));
+    };
+    setTimeout(poll, 1000);
+}
+
+document.addEventListener('DOMContentLoaded', function() {
+    document.querySelectorAll('.rendering-preview').forEach(initRenderingPreview);
+});
@@ -0,0 +1,155 @@
+package com.example.demo.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pruebas del formato binario de {@link ClassGraph}: un grafo escrito con
+ * {@code writeTo} y abierto con {@code map} responde a todas las consultas
+ * igual que el original.
+ *
+ * @author @PelayoPS
+ */
+class ClassGraphTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void mappedGraphAnswersLikeTheOriginal() throws IOException {
+        ClassGraph graph = sampleGraph();
+
+        ClassGraph mapped = ClassGraph.map(ByteBuffer.wrap(toBytes(graph)));
+
+        assertEquals(describe(graph), describe(mapped));
+        assertEquals(describe(graph.packageGraph()), describe(mapped.packageGraph()));
+    }
+
+    @Test
+    void memoryMappedFileRoundTrip() throws IOException {
+        ClassGraph graph = sampleGraph();
+        Path file = tempDir.resolve("model.bin");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            graph.writeTo(out);
+        }
+
+        ClassGraph mapped;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            mapped = ClassGraph.map(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+
+        // La proyección sigue siendo válida después de cerrar el canal
+        assertEquals(describe(graph), describe(mapped));
+        // Volver a escribir el grafo proyectado produce los mismos bytes
+        assertArrayEquals(Files.readAllBytes(file), toBytes(mapped));
+    }
+
+    @Test
+    void emptyGraphRoundTrip() throws IOException {
+        ClassGraph graph = new ClassGraph(new String[0], new String[0], new String[0], new int[0], new int[0],
+                new int[0], 0);
+
+        ClassGraph mapped = ClassGraph.map(ByteBuffer.wrap(toBytes(graph)));
+
+        assertEquals(0, mapped.nodeCount());
+        assertEquals(0, mapped.edgeCount());
+        assertEquals(0, mapped.relationCount());
+        assertTrue(mapped.cycles().isEmpty());
+        assertTrue(mapped.top(5, ClassGraph.Direction.BOTH).isEmpty());
+    }
+
+    @Test
+    void missingClassesAreNotFound() throws IOException {
+        ClassGraph mapped = ClassGraph.map(ByteBuffer.wrap(toBytes(sampleGraph())));
+
+        assertEquals(-1, mapped.id("Missing"));
+        assertEquals(-1, mapped.id(null));
+        assertFalse(mapped.contains("Missing"));
+        assertTrue(mapped.neighbors("Missing", ClassGraph.Direction.BOTH).isEmpty());
+        assertTrue(mapped.reachable("Missing", ClassGraph.Direction.OUT, 0).isEmpty());
+    }
+
+    @Test
+    void rejectsDataThatIsNotAGraph() throws IOException {
+        byte[] bytes = toBytes(sampleGraph());
+
+        byte[] foreign = bytes.clone();
+        foreign[0] = 'X';
+        assertThrows(IllegalArgumentException.class, () -> ClassGraph.map(ByteBuffer.wrap(foreign)));
+
+        byte[] otherVersion = bytes.clone();
+        otherVersion[7] = 99;
+        assertThrows(IllegalArgumentException.class, () -> ClassGraph.map(ByteBuffer.wrap(otherVersion)));
+
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length / 2);
+        assertThrows(IllegalArgumentException.class, () -> ClassGraph.map(ByteBuffer.wrap(truncated)));
+
+        assertThrows(IllegalArgumentException.class, () -> ClassGraph.map(ByteBuffer.wrap(new byte[3])));
+    }
+
+    @Test
+    void rejectsUnsortedNodes() {
+        assertThrows(IllegalArgumentException.class, () -> new ClassGraph(new String[] { "B", "A" },
+                new String[] { "", "" }, new String[0], new int[0], new int[0], new int[0], 0));
+    }
+
+    /**
+     * Grafo con un ciclo, una clase sin paquete y un nombre con caracteres
+     * fuera de ASCII (textos UTF-8 cuya longitud no es múltiplo de 4).
+     */
+    private static ClassGraph sampleGraph() {
+        String[] names = { "Controller", "Repository", "Service", "Util", "Ñandú" };
+        String[] packages = { "web", "data", "core", "core", "" };
+        String[] relations = { "--|>", "..> : <<inject>>", "-->" };
+        int[] sources = { 0, 2, 1, 2, 4, 0 };
+        int[] targets = { 2, 1, 2, 3, 0, 3 };
+        int[] kinds = { 1, 1, 2, 2, 0, 2 };
+        return new ClassGraph(names, packages, relations, sources, targets, kinds, sources.length);
+    }
+
+    private static byte[] toBytes(ClassGraph graph) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        graph.writeTo(out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Resultado de todas las consultas del grafo, para comparar dos grafos.
+     */
+    private static List<String> describe(ClassGraph graph) {
+        List<String> lines = new ArrayList<>();
+        lines.add(graph.nodeCount() + " nodos, " + graph.edgeCount() + " aristas");
+        for (int kind = 0; kind < graph.relationCount(); kind++) {
+            lines.add("relación " + graph.relation(kind));
+        }
+        for (int node = 0; node < graph.nodeCount(); node++) {
+            String name = graph.name(node);
+            lines.add(name + " [" + graph.packageOf(node) + "] id=" + graph.id(name) + " in=" + graph.inDegree(node)
+                    + " out=" + graph.outDegree(node));
+            lines.add("  vecinos " + graph.neighbors(name, ClassGraph.Direction.BOTH));
+            lines.add("  alcanzables " + graph.reachable(name, ClassGraph.Direction.OUT, 0));
+        }
+        graph.forEachEdge((source, target, kind) -> lines.add(source + " -> " + target + " : " + kind));
+        lines.add("ciclos " + graph.cycles());
+        lines.add("top " + graph.top(3, ClassGraph.Direction.BOTH));
+        return lines;
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.demo.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pruebas de {@link LongHashSet}, contrastadas con {@link HashSet}.
+ *
+ * @author @PelayoPS
+ */
+class LongHashSetTest {
+
+    @Test
+    void addReportsWhetherTheValueWasNew() {
+        LongHashSet set = new LongHashSet();
+
+        assertTrue(set.isEmpty());
+        assertTrue(set.add(42));
+        assertFalse(set.add(42));
+        assertTrue(set.contains(42));
+        assertFalse(set.contains(43));
+        assertEquals(1, set.size());
+        assertFalse(set.isEmpty());
+    }
+
+    @Test
+    void zeroIsAnOrdinaryValue() {
+        // El 0 marca las celdas libres de la tabla: su presencia se guarda aparte
+        LongHashSet set = new LongHashSet();
+
+        assertFalse(set.contains(0));
+        assertTrue(set.add(0));
+        assertFalse(set.add(0));
+        assertTrue(set.contains(0));
+        assertEquals(1, set.size());
+        assertTrue(set.add(1));
+        assertEquals(2, set.size());
+    }
+
+    @Test
+    void extremeAndNegativeValues() {
+        LongHashSet set = new LongHashSet();
+        long[] values = { -1, Long.MIN_VALUE, Long.MAX_VALUE, Integer.MIN_VALUE, 1L << 32, -(1L << 32) };
+
+        for (long value : values) {
+            assertTrue(set.add(value));
+        }
+        for (long value : values) {
+            assertTrue(set.contains(value));
+            assertFalse(set.add(value));
+        }
+        assertEquals(values.length, set.size());
+    }
+
+    @Test
+    void growsPastTheInitialCapacity() {
+        LongHashSet set = new LongHashSet(4);
+
+        for (long i = 1; i <= 10_000; i++) {
+            assertTrue(set.add(i));
+        }
+        assertEquals(10_000, set.size());
+        for (long i = 1; i <= 10_000; i++) {
+            assertTrue(set.contains(i));
+        }
+        assertFalse(set.contains(10_001));
+    }
+
+    @Test
+    void relationshipKeysThatDifferInHighBits() {
+        // Las claves de relación empaquetadas difieren sobre todo en los bits altos
+        LongHashSet set = new LongHashSet();
+        Set<Long> expected = new HashSet<>();
+        for (int source = 0; source < 100; source++) {
+            for (int target = 0; target < 100; target += 7) {
+                long key = Relationship.key(source, target, source % 5);
+                assertEquals(expected.add(key), set.add(key));
+            }
+        }
+        assertEquals(expected.size(), set.size());
+        for (long key : expected) {
+            assertTrue(set.contains(key));
+        }
+    }
+
+    @Test
+    void behavesLikeHashSetOnRandomValues() {
+        Random random = new Random(20261019L);
+        LongHashSet set = new LongHashSet();
+        Set<Long> expected = new HashSet<>();
+
+        for (int i = 0; i < 50_000; i++) {
+            // Rango pequeño para que se repitan valores
+            long value = random.nextInt(20_000) - 10_000L;
+            assertEquals(expected.add(value), set.add(value));
+        }
+        assertEquals(expected.size(), set.size());
+        for (long value = -10_001; value <= 10_001; value++) {
+            assertEquals(expected.contains(value), set.contains(value));
+        }
+    }
+
+    @Test
+    void clearEmptiesTheSetAndKeepsItUsable() {
+        LongHashSet set = new LongHashSet();
+        for (long i = 0; i < 1_000; i++) {
+            set.add(i);
+        }
+
+        set.clear();
+
+        assertTrue(set.isEmpty());
+        assertEquals(0, set.size());
+        assertFalse(set.contains(0));
+        assertFalse(set.contains(500));
+        assertTrue(set.add(0));
+        assertTrue(set.add(500));
+        assertEquals(2, set.size());
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.demo.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Pruebas de los tipos de relación con detalle de {@link SymbolTable}, que
+ * los hilos de análisis asignan mientras otros ya los leen.
+ *
+ * @author @PelayoPS
+ */
+class SymbolTableTest {
+
+    @Test
+    void detailedKindsAreInternedOnce() {
+        SymbolTable symbols = new SymbolTable();
+
+        int save = symbols.kind(EdgeKind.OVERRIDES, "save");
+        int load = symbols.kind(EdgeKind.OVERRIDES, "load");
+
+        assertEquals(save, symbols.kind(EdgeKind.OVERRIDES, "save"));
+        assertNotEquals(save, load);
+        assertNotEquals(save, symbols.kind(EdgeKind.IMPLEMENTS_METHOD, "save"));
+        assertEquals(EdgeKind.OVERRIDES.getArrow(), symbols.arrow(save));
+        assertEquals(EdgeKind.OVERRIDES.label("load"), symbols.label(load));
+        assertEquals(EdgeKind.USES.label(null), symbols.label(symbols.kind(EdgeKind.USES)));
+    }
+
+    @Test
+    void detailedKindsReadWhileTheTableGrows() throws Exception {
+        // Cada hilo asigna tipos nuevos (la tabla crece varias veces) y lee
+        // enseguida los que ha obtenido, mientras los demás siguen escribiendo
+        SymbolTable symbols = new SymbolTable();
+        int threads = 8;
+        int perThread = 2_000;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                results.add(pool.submit(() -> {
+                    start.await();
+                    int mismatches = 0;
+                    for (int i = 0; i < perThread; i++) {
+                        EdgeKind base = i % 2 == 0 ? EdgeKind.OVERRIDES : EdgeKind.IMPLEMENTS_METHOD;
+                        // La mitad de los detalles se comparte entre hilos
+                        String detail = "metodo" + (i % 4 == 0 ? i : thread * perThread + i);
+                        int kind = symbols.kind(base, detail);
+                        if (!base.getArrow().equals(symbols.arrow(kind))
+                                || !base.label(detail).equals(symbols.label(kind))) {
+                            mismatches++;
+                        }
+                    }
+                    return mismatches;
+                }));
+            }
+            start.countDown();
+            for (Future<Integer> result : results) {
+                assertEquals(0, (int) result.get());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.example.demo.service;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.ParserConfiguration.LanguageLevel;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.BodyDeclaration;
+import com.github.javaparser.ast.body.CallableDeclaration;
+import com.github.javaparser.ast.body.FieldDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.ast.body.VariableDeclarator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pruebas de {@link HeaderOnlySource#stripBodies(String)}. Además de los
+ * casos concretos, cada prueba comprueba que el resultado se parsea, declara
+ * los mismos tipos, firmas y atributos que el original y conserva el número
+ * de líneas.
+ *
+ * @author @PelayoPS
+ */
+class HeaderOnlySourceTest {
+
+    @Test
+    void stripsMethodBodiesAndKeepsConstructors() {
+        String source = """
+                package demo;
+
+                public class Service {
+                    private final Repository repository;
+
+                    public Service(Repository repository) {
+                        this.repository = repository;
+                    }
+
+                    public void save(Entity entity) {
+                        repository.save(new Audit(entity));
+                    }
+                }
+                """;
+
+        String stripped = assertSameHeaders(source);
+        assertTrue(stripped.contains("this.repository = repository;"));
+        assertFalse(stripped.contains("new Audit"));
+    }
+
+    @Test
+    void textBlocksDoNotOpenOrCloseBodies() {
+        String source = """
+                public class Texts {
+                    private static final String TEMPLATE = \"""
+                            class Fake { void x() { }
+                            \\\""" }
+                            \""";
+
+                    public String render() {
+                        String body = \"""
+                                } { \\\""" }
+                                \""";
+                        return body.trim();
+                    }
+
+                    public int size() {
+                        return TEMPLATE.length();
+                    }
+                }
+                """;
+
+        String stripped = assertSameHeaders(source);
+        assertTrue(stripped.contains("class Fake { void x() { }"), "El text block del campo se copia tal cual");
+        assertFalse(stripped.contains("body.trim()"));
+        assertFalse(stripped.contains("TEMPLATE.length()"));
+    }
+
+    @Test
+    void recordAndEnumAsPartOfIdentifiersAreNotTypeDeclarations() {
+        String source = """
+                public class Records {
+                    private int record;
+                    private String enumName;
+                    private final Class<?> type = Records.class;
+
+                    public Records(int record) {
+                        this.record = record;
+                    }
+
+                    public void setRecord(int record) {
+                        this.record = record;
+                    }
+
+                    public String classify(String enumValue) {
+                        return enumValue + record;
+                    }
+
+                    public int size() {
+                        return record + 1;
+                    }
+                }
+                """;
+
+        String stripped = assertSameHeaders(source);
+        // El constructor se reconoce aunque su parámetro se llame record
+        assertTrue(stripped.contains("public Records(int record) {\n        this.record = record;"));
+        // Los cuerpos posteriores se siguen vaciando
+        assertFalse(stripped.contains("enumValue + record"));
+        assertFalse(stripped.contains("record + 1"));
+    }
+
+    @Test
+    void anonymousClassesAndArrayInitializersInFieldInitializers() {
+        String source = """
+                public class Initializers {
+                    private final Runnable task = new Runnable() {
+                        @Override
+                        public void run() {
+                            helper();
+                        }
+                    };
+                    private final int[] values = { 1, 2, 3 };
+                    private final String[][] grid = { { "a" }, { "b" } };
+
+                    public Initializers() {
+                        task.run();
+                    }
+
+                    public void helper() {
+                        System.out.println(values.length);
+                    }
+                }
+                """;
+
+        String stripped = assertSameHeaders(source);
+        assertFalse(stripped.contains("helper();\n"));
+        assertFalse(stripped.contains("System.out"));
+        assertTrue(stripped.contains("task.run();"), "El cuerpo del constructor se conserva");
+    }
+
+    @Test
+    void bracesInAnnotationValuesAreCopied() {
+        String source = """
+                @SuppressWarnings({ "unchecked", "rawtypes" })
+                public class Annotated {
+                    @Target({ ElementType.FIELD, ElementType.METHOD })
+                    private Object field;
+
+                    @Mapping(value = { "/a", "/b" }, params = @Param({ "x" }))
+                    public String handle() {
+                        return "ok";
+                    }
+
+                    public Annotated() {
+                        field = new Object();
+                    }
+                }
+                """;
+
+        String stripped = assertSameHeaders(source);
+        assertTrue(stripped.contains("@SuppressWarnings({ \"unchecked\", \"rawtypes\" })"));
+        assertTrue(stripped.contains("@Mapping(value = { \"/a\", \"/b\" }, params = @Param({ \"x\" }))"));
+        assertFalse(stripped.contains("return \"ok\";"));
+        assertTrue(stripped.contains("field = new Object();"));
+    }
+
+    @Test
+    void nestedTypesAndEnumConstantsWithBodies() {
+        String source = """
+                public class Outer {
+                    enum Mode {
+                        FAST {
+                            @Override
+                            int cost() {
+                                return 1;
+                            }
+                        },
+                        SLOW;
+
+                        int cost() {
+                            return 10;
+                        }
+                    }
+
+                    record Point(int x, int y) {
+                        Point {
+                            if (x < 0) {
+                                throw new IllegalArgumentException();
+                            }
+                        }
+
+                        int sum() {
+                            return x + y;
+                        }
+                    }
+
+                    interface Visitor {
+                        default void visit(Outer outer) {
+                            outer.toString();
+                        }
+                    }
+                }
+                """;
+
+        String stripped = assertSameHeaders(source);
+        assertTrue(stripped.contains("throw new IllegalArgumentException();"),
+                "El constructor compacto del record se conserva");
+        assertFalse(stripped.contains("return x + y;"));
+        assertFalse(stripped.contains("return 10;"));
+        assertFalse(stripped.contains("outer.toString();"));
+    }
+
+    @Test
+    void commentsAndCharLiteralsWithBraces() {
+        String source = """
+                public class Comments {
+                    // class NotAType {
+                    /* } */
+                    private final char open = '{';
+
+                    public char close() {
+                        return '}'; // {
+                    }
+
+                    public String label() {
+                        return "class { \\" }";
+                    }
+                }
+                """;
+
+        String stripped = assertSameHeaders(source);
+        assertTrue(stripped.contains("// class NotAType {"));
+        assertFalse(stripped.contains("return '}';"));
+        assertFalse(stripped.contains("return \"class"));
+    }
+
+    /**
+     * Comprueba que el resultado de eliminar los cuerpos se parsea, declara
+     * los mismos miembros y conserva las líneas del original.
+     *
+     * @return Fuente sin cuerpos
+     */
+    private static String assertSameHeaders(String source) {
+        String stripped = HeaderOnlySource.stripBodies(source);
+        assertEquals(source.lines().count(), stripped.lines().count(), "Se conservan los saltos de línea");
+        assertEquals(headers(source), headers(stripped));
+        return stripped;
+    }
+
+    /**
+     * Tipos y miembros declarados (sin cuerpos), en orden.
+     */
+    private static List<String> headers(String source) {
+        ParseResult<CompilationUnit> result = new JavaParser(
+                new ParserConfiguration().setLanguageLevel(LanguageLevel.JAVA_21)).parse(source);
+        assertTrue(result.isSuccessful(), "No se pudo parsear:\n" + source + "\n" + result.getProblems());
+        List<String> headers = new ArrayList<>();
+        for (TypeDeclaration<?> type : result.getResult().orElseThrow().findAll(TypeDeclaration.class)) {
+            headers.add(type.getClass().getSimpleName() + " " + type.getNameAsString());
+            for (BodyDeclaration<?> member : type.getMembers()) {
+                if (member instanceof CallableDeclaration<?> callable) {
+                    headers.add(callable.getDeclarationAsString(true, true, true));
+                } else if (member instanceof FieldDeclaration field) {
+                    // Los inicializadores con llaves (clases anónimas, arrays) se vacían
+                    for (VariableDeclarator variable : field.getVariables()) {
+                        headers.add(variable.getType() + " " + variable.getNameAsString());
+                    }
+                }
+            }
+        }
+        return headers;
+    }
+}
@@ -0,0 +1,213 @@
+package com.example.demo.service;
+
+import com.example.demo.config.UMLGeneratorProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pruebas de la descompresión por acceso aleatorio de
+ * {@link ZipExtractionService}: los ZIP que el directorio central delata como
+ * bombas se rechazan antes de escribir ningún fichero, y una entrada que
+ * declara menos bytes de los que contiene se corta al descomprimirla.
+ *
+ * @author @PelayoPS
+ */
+class ZipExtractionServiceTest {
+
+    private static final long LIMIT = 10 * 1024 * 1024;
+
+    // Firma de una cabecera del directorio central
+    private static final int CENTRAL_HEADER = 0x02014b50;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void extractsOnlyRelevantEntries() throws IOException {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        entries.put("proyecto/src/demo/Servicio.java", source(4096));
+        entries.put("proyecto/src/demo/logo.png", random(4096));
+        entries.put("proyecto/README.md", source(512));
+        Path zip = zip(entries);
+
+        Path dest = tempDir.resolve("dest");
+        service().extract(zip.toFile(), dest.toFile(), LIMIT, LIMIT);
+
+        assertEquals(List.of(dest.resolve("proyecto/src/demo/Servicio.java")), files(dest));
+        assertArrayEquals(entries.get("proyecto/src/demo/Servicio.java"),
+                Files.readAllBytes(dest.resolve("proyecto/src/demo/Servicio.java")));
+    }
+
+    @Test
+    void rejectsAnEntryDeclaredLargerThanTheEntryLimit() throws IOException {
+        Path zip = zip(Map.of("A.java", source(64 * 1024)));
+        Path dest = tempDir.resolve("dest");
+
+        IOException error = assertThrows(IOException.class,
+                () -> service().extract(zip.toFile(), dest.toFile(), LIMIT, 16 * 1024));
+
+        assertTrue(error.getMessage().startsWith("Archivo individual demasiado grande"), error.getMessage());
+        assertTrue(files(dest).isEmpty());
+    }
+
+    @Test
+    void rejectsArchivesDeclaredLargerThanTheTotalLimit() throws IOException {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        for (int i = 0; i < 8; i++) {
+            entries.put("p/Clase" + i + ".java", source(32 * 1024));
+        }
+        Path zip = zip(entries);
+        Path dest = tempDir.resolve("dest");
+
+        IOException error = assertThrows(IOException.class,
+                () -> service().extract(zip.toFile(), dest.toFile(), 100 * 1024, LIMIT));
+
+        assertTrue(error.getMessage().startsWith("El archivo ZIP excede el límite de extracción"),
+                error.getMessage());
+        assertTrue(files(dest).isEmpty());
+    }
+
+    @Test
+    void rejectsSuspiciousCompressionRatioFromTheCentralDirectory() throws IOException {
+        // 4 MB de ceros se comprimen a unos pocos KB: ratio muy superior a 100:1
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        entries.put("p/Normal.java", source(4096));
+        entries.put("p/Bomba.java", new byte[4 * 1024 * 1024]);
+        Path zip = zip(entries);
+        Path dest = tempDir.resolve("dest");
+
+        assertThrows(SecurityException.class, () -> service().extract(zip.toFile(), dest.toFile(), LIMIT, LIMIT));
+
+        // Ni siquiera la entrada legítima llega a escribirse
+        assertTrue(files(dest).isEmpty());
+    }
+
+    @Test
+    void irrelevantEntriesDoNotCountTowardsTheLimits() throws IOException {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        entries.put("p/A.java", source(4096));
+        entries.put("p/ceros.bin", new byte[4 * 1024 * 1024]);
+        Path zip = zip(entries);
+        Path dest = tempDir.resolve("dest");
+
+        service().extract(zip.toFile(), dest.toFile(), LIMIT, LIMIT);
+
+        assertEquals(List.of(dest.resolve("p/A.java")), files(dest));
+    }
+
+    @Test
+    void declaredSizeLieIsCaughtWhileInflating() throws IOException {
+        // El directorio central declara 100 bytes para una entrada de 64 KB:
+        // pasa todas las comprobaciones previas y se corta al descomprimir
+        Path zip = zip(Map.of("p/Mentira.java", source(64 * 1024)));
+        lieAboutSize(zip, "p/Mentira.java", 100);
+        Path dest = tempDir.resolve("dest");
+
+        IOException error = assertThrows(IOException.class,
+                () -> service().extract(zip.toFile(), dest.toFile(), LIMIT, LIMIT));
+
+        assertTrue(error.getMessage().startsWith("La entrada supera el tamaño declarado"), error.getMessage());
+        Path partial = dest.resolve("p/Mentira.java");
+        assertTrue(Files.size(partial) <= 100, "Solo se escribe hasta el tamaño declarado");
+    }
+
+    @Test
+    void streamExtractionRejectsSuspiciousCompressionRatio() throws IOException {
+        Path zip = zip(Map.of("p/Bomba.java", new byte[4 * 1024 * 1024]));
+        Path dest = tempDir.resolve("dest");
+
+        assertThrows(SecurityException.class, () -> service().extractStream(
+                new ByteArrayInputStream(Files.readAllBytes(zip)), dest.toFile(), LIMIT, LIMIT));
+    }
+
+    private static ZipExtractionService service() {
+        UMLGeneratorProperties properties = new UMLGeneratorProperties();
+        properties.setZipExtractionThreads(2);
+        return new ZipExtractionService(properties, new FileValidationService());
+    }
+
+    private Path zip(Map<String, byte[]> entries) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream out = new ZipOutputStream(bytes)) {
+            for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                out.putNextEntry(new ZipEntry(entry.getKey()));
+                out.write(entry.getValue());
+                out.closeEntry();
+            }
+        }
+        Path zip = Files.createTempFile(tempDir, "proyecto", ".zip");
+        Files.write(zip, bytes.toByteArray());
+        return zip;
+    }
+
+    /**
+     * Sobrescribe el tamaño descomprimido que el directorio central declara
+     * para una entrada.
+     */
+    private static void lieAboutSize(Path zip, String entryName, int declaredSize) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(zip)).order(ByteOrder.LITTLE_ENDIAN);
+        byte[] name = entryName.getBytes(StandardCharsets.UTF_8);
+        for (int offset = buffer.limit() - 46; offset >= 0; offset--) {
+            if (buffer.getInt(offset) != CENTRAL_HEADER || buffer.getShort(offset + 28) != name.length) {
+                continue;
+            }
+            byte[] candidate = Arrays.copyOfRange(buffer.array(), offset + 46, offset + 46 + name.length);
+            if (Arrays.equals(candidate, name)) {
+                buffer.putInt(offset + 24, declaredSize);
+                Files.write(zip, buffer.array());
+                return;
+            }
+        }
+        throw new IllegalStateException("Entrada no encontrada en el directorio central: " + entryName);
+    }
+
+    /**
+     * Código con identificadores aleatorios, con una ratio de compresión
+     * realista.
+     */
+    private static byte[] source(int size) {
+        Random random = new Random(size);
+        StringBuilder source = new StringBuilder(size);
+        while (source.length() < size) {
+            source.append("int v").append(Long.toString(random.nextLong() & Long.MAX_VALUE, 36)).append(";\n");
+        }
+        return source.substring(0, size).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] random(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static List<Path> files(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return List.of();
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            return paths.filter(Files::isRegularFile).sorted().toList();
+        }
+    }
+}